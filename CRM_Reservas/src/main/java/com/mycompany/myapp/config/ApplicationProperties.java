@@ -1,5 +1,8 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,30 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final ReadReplica readReplica = new ReadReplica();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final Disponibilidad disponibilidad = new Disponibilidad();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public ReadReplica getReadReplica() {
+        return readReplica;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Disponibilidad getDisponibilidad() {
+        return disponibilidad;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +54,134 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class ReadReplica {
+
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        private Duration retryAfter = Duration.ofSeconds(30);
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    public static class VirtualThreads {
+
+        private int maxConcurrentRequests = 200;
+
+        private int maxQueuedRequests = 1000;
+
+        private Duration pinnedThreshold = Duration.ofMillis(20);
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getMaxQueuedRequests() {
+            return maxQueuedRequests;
+        }
+
+        public void setMaxQueuedRequests(int maxQueuedRequests) {
+            this.maxQueuedRequests = maxQueuedRequests;
+        }
+
+        public Duration getPinnedThreshold() {
+            return pinnedThreshold;
+        }
+
+        public void setPinnedThreshold(Duration pinnedThreshold) {
+            this.pinnedThreshold = pinnedThreshold;
+        }
+    }
+
+    public static class Disponibilidad {
+
+        private int capacidad = 60;
+
+        private Duration duracionReserva = Duration.ofHours(2);
+
+        private LocalTime apertura = LocalTime.of(12, 0);
+
+        private LocalTime ultimaEntrada = LocalTime.of(23, 0);
+
+        private ZoneId zonaHoraria = ZoneId.systemDefault();
+
+        private int diasPrecarga = 14;
+
+        private int diasAntelacion = 365;
+
+        public int getCapacidad() {
+            return capacidad;
+        }
+
+        public void setCapacidad(int capacidad) {
+            this.capacidad = capacidad;
+        }
+
+        public Duration getDuracionReserva() {
+            return duracionReserva;
+        }
+
+        public void setDuracionReserva(Duration duracionReserva) {
+            this.duracionReserva = duracionReserva;
+        }
+
+        public LocalTime getApertura() {
+            return apertura;
+        }
+
+        public void setApertura(LocalTime apertura) {
+            this.apertura = apertura;
+        }
+
+        public LocalTime getUltimaEntrada() {
+            return ultimaEntrada;
+        }
+
+        public void setUltimaEntrada(LocalTime ultimaEntrada) {
+            this.ultimaEntrada = ultimaEntrada;
+        }
+
+        public ZoneId getZonaHoraria() {
+            return zonaHoraria;
+        }
+
+        public void setZonaHoraria(ZoneId zonaHoraria) {
+            this.zonaHoraria = zonaHoraria;
+        }
+
+        public int getDiasPrecarga() {
+            return diasPrecarga;
+        }
+
+        public void setDiasPrecarga(int diasPrecarga) {
+            this.diasPrecarga = diasPrecarga;
+        }
+
+        public int getDiasAntelacion() {
+            return diasAntelacion;
+        }
+
+        public void setDiasAntelacion(int diasAntelacion) {
+            this.diasAntelacion = diasAntelacion;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -8,6 +8,12 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
 
+    /**
+     * Runs the requests, the {@code @Async} methods and the {@code @Scheduled} jobs on virtual threads, see
+     * {@link VirtualThreadsConfiguration}.
+     */
+    public static final String SPRING_PROFILE_VIRTUAL_THREADS = "virtual-threads";
+
     // Regex for acceptable logins
     public static final String LOGIN_REGEX = "^(?>[a-zA-Z0-9!$&*+=?^_`{|}~.-]+@[a-zA-Z0-9-]+(?:\\.[a-zA-Z0-9-]+)*)|(?>[_.@A-Za-z0-9-]+)$";
 
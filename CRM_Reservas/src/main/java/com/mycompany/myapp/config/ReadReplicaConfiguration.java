@@ -0,0 +1,80 @@
+package com.mycompany.myapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends the read-only transactions to a read replica of the database, when {@code spring.datasource.replica.url} is set.
+ * <p>
+ * The primary pool is configured as usual under {@code spring.datasource}, the replica pool under
+ * {@code spring.datasource.replica}, with its own {@code hikari} section. Both pools publish their Hikari metrics. See
+ * {@link ReadReplicaRouting} for the routing of the connections.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "url")
+public class ReadReplicaConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties, Environment env) {
+        return DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(dataSourceProperties.determineDriverClassName())
+            .url(env.getRequiredProperty("spring.datasource.replica.url"))
+            .username(env.getProperty("spring.datasource.replica.username", dataSourceProperties.determineUsername()))
+            .password(env.getProperty("spring.datasource.replica.password", dataSourceProperties.determinePassword()))
+            .build();
+    }
+
+    @Bean
+    public ReadReplicaRouting readReplicaRouting(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.ReadReplica readReplica = applicationProperties.getReadReplica();
+        return new ReadReplicaRouting(
+            primaryDataSource,
+            replicaDataSource,
+            readReplica.getReadYourWritesWindow(),
+            readReplica.getRetryAfter(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(ReadReplicaRouting readReplicaRouting) {
+        LOG.debug("Routing the read-only transactions to the read replica");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(readReplicaRouting.getPrimaryDataSource());
+        dataSource.setReadOnlyDataSource(readReplicaRouting.getReadOnlyDataSource());
+        // The defaults of the pools, declared so that no connection is taken to find them out
+        dataSource.setDefaultAutoCommit(false);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+}
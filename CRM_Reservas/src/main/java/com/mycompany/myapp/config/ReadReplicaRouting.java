@@ -0,0 +1,215 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.security.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routing of the connections between the primary database and its read replica.
+ * <p>
+ * Used as the targets of a {@link LazyConnectionDataSourceProxy}, which only takes a connection when a transaction first
+ * runs a statement: a {@code @Transactional(readOnly = true)} transaction has marked its connection read-only by then, and
+ * gets it from {@link #getReadOnlyDataSource()}; every other connection comes from {@link #getPrimaryDataSource()}.
+ * <p>
+ * A read-only connection comes from the replica, unless:
+ * <ul>
+ * <li>the current user committed a read-write transaction less than {@code readYourWritesWindow} ago, as the replica may
+ * not have their changes yet;</li>
+ * <li>the replica failed to give a connection less than {@code retryAfter} ago.</li>
+ * </ul>
+ * In both cases it comes from the primary database. Each decision is counted in {@value #ROUTING_METER_NAME}.
+ */
+public class ReadReplicaRouting {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaRouting.class);
+
+    public static final String ROUTING_METER_NAME = "datasource.routing";
+    public static final String ROUTING_METER_TARGET_DIMENSION = "target";
+    public static final String ROUTING_METER_REASON_DIMENSION = "reason";
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    private final long readYourWritesWindowNanos;
+
+    private final long retryAfterNanos;
+
+    private final Counter readWriteCounter;
+
+    private final Counter readOnlyCounter;
+
+    private final Counter readYourWritesCounter;
+
+    private final Counter replicaUnavailableCounter;
+
+    /**
+     * The time of the last read-write commit of each user, removed once the window is over.
+     */
+    private final Map<String, Long> ultimasEscrituras = new ConcurrentHashMap<>();
+
+    private volatile boolean replicaCaida;
+
+    private volatile long reintentarReplica;
+
+    private final DataSource primaryDataSource = new PrimaryDataSource();
+
+    private final DataSource readOnlyDataSource = new ReadOnlyDataSource();
+
+    public ReadReplicaRouting(
+        DataSource primary,
+        DataSource replica,
+        Duration readYourWritesWindow,
+        Duration retryAfter,
+        MeterRegistry meterRegistry
+    ) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.readWriteCounter = routingCounter(meterRegistry, "primary", "read-write");
+        this.readOnlyCounter = routingCounter(meterRegistry, "replica", "read-only");
+        this.readYourWritesCounter = routingCounter(meterRegistry, "primary", "read-your-writes");
+        this.replicaUnavailableCounter = routingCounter(meterRegistry, "primary", "replica-unavailable");
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder(ROUTING_METER_NAME)
+            .description("Connections given to the transactions, by database and reason")
+            .tag(ROUTING_METER_TARGET_DIMENSION, target)
+            .tag(ROUTING_METER_REASON_DIMENSION, reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * The connections of the read-write transactions, and of the work done outside of a transaction.
+     *
+     * @return the primary database, recording the commits of the current user.
+     */
+    public DataSource getPrimaryDataSource() {
+        return primaryDataSource;
+    }
+
+    /**
+     * The connections of the read-only transactions.
+     *
+     * @return the replica, or the primary database when the replica cannot be used.
+     */
+    public DataSource getReadOnlyDataSource() {
+        return readOnlyDataSource;
+    }
+
+    private boolean isInReadYourWritesWindow() {
+        if (ultimasEscrituras.isEmpty()) {
+            return false;
+        }
+        return SecurityUtils.getCurrentUserLogin()
+            .map(login -> {
+                Long escritura = ultimasEscrituras.get(login);
+                if (escritura == null) {
+                    return false;
+                }
+                if (System.nanoTime() - escritura < readYourWritesWindowNanos) {
+                    return true;
+                }
+                ultimasEscrituras.remove(login, escritura);
+                return false;
+            })
+            .orElse(false);
+    }
+
+    private final class PrimaryDataSource extends DelegatingDataSource {
+
+        private PrimaryDataSource() {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = primary.getConnection();
+            readWriteCounter.increment();
+            registrarEscritura();
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            Connection connection = primary.getConnection(username, password);
+            readWriteCounter.increment();
+            registrarEscritura();
+            return connection;
+        }
+
+        private void registrarEscritura() {
+            if (
+                readYourWritesWindowNanos <= 0 ||
+                !TransactionSynchronizationManager.isSynchronizationActive() ||
+                TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            ) {
+                return;
+            }
+            SecurityUtils.getCurrentUserLogin()
+                .ifPresent(login ->
+                    TransactionSynchronizationManager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public void afterCommit() {
+                                ultimasEscrituras.put(login, System.nanoTime());
+                            }
+                        }
+                    )
+                );
+        }
+    }
+
+    private final class ReadOnlyDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (isInReadYourWritesWindow()) {
+                readYourWritesCounter.increment();
+                return primary.getConnection();
+            }
+            if (replicaCaida && System.nanoTime() - reintentarReplica < 0) {
+                replicaUnavailableCounter.increment();
+                return primary.getConnection();
+            }
+            Connection connection;
+            try {
+                connection = replica.getConnection();
+            } catch (SQLException e) {
+                if (!replicaCaida) {
+                    LOG.warn("The read replica is unavailable, using the primary database : {}", e.getMessage());
+                }
+                reintentarReplica = System.nanoTime() + retryAfterNanos;
+                replicaCaida = true;
+                replicaUnavailableCounter.increment();
+                return primary.getConnection();
+            }
+            if (replicaCaida) {
+                LOG.info("The read replica is available again");
+                replicaCaida = false;
+            }
+            readOnlyCounter.increment();
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("The read-only connections use the credentials of the replica pool");
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Reserva;
+import com.mycompany.myapp.domain.enumeration.EstadoReserva;
+import jakarta.persistence.LockModeType;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +16,28 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ReservaRepository extends JpaRepository<Reserva, Long> {}
+public interface ReservaRepository extends JpaRepository<Reserva, Long> {
+    /**
+     * The reserva of the given id, locked until the end of the transaction: the changes of a reserva are applied one at a time
+     * to the availability index.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select reserva from Reserva reserva where reserva.id = :id")
+    Optional<Reserva> findOneWithLockById(@Param("id") Long id);
+
+    /**
+     * Lock the covers of a day until the end of the transaction, in every instance of the service: the reservas holding covers
+     * on a day are checked against the capacity one transaction at a time.
+     *
+     * @param espacio the space of the advisory locks of the days.
+     * @param dia the epoch day of the day.
+     */
+    @Query(value = "select 1 from (select pg_advisory_xact_lock(:espacio, :dia)) bloqueo", nativeQuery = true)
+    Integer lockDia(@Param("espacio") int espacio, @Param("dia") int dia);
+
+    List<Reserva> findAllByEstadoInAndFechaHoraGreaterThanEqualAndFechaHoraLessThan(
+        Collection<EstadoReserva> estados,
+        ZonedDateTime desde,
+        ZonedDateTime hasta
+    );
+}
@@ -0,0 +1,411 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Reserva;
+import com.mycompany.myapp.domain.enumeration.EstadoReserva;
+import com.mycompany.myapp.repository.ReservaRepository;
+import com.mycompany.myapp.service.dto.HuecoDTO;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service keeping the covers booked by slot of {@value #MINUTOS_HUECO} minutes, to tell which times fit a reserva.
+ * <p>
+ * The index holds, for each day, the covers of the {@code PENDIENTE} and {@code CONFIRMADA} reservas in each slot: a reserva
+ * holds its covers for {@code application.disponibilidad.duracion-reserva}, possibly into the next day. A day is read from the
+ * database the first time it is needed, and the next {@code dias-precarga} days at startup; the days before yesterday are
+ * dropped. The arrays of a day are replaced on each change, so the reads take no lock.
+ * <p>
+ * Reservas can only be booked up to {@code dias-antelacion} days from today, see {@link #admite}, so the index holds at most
+ * that many days. The availability of the days out of the index, before yesterday, is read from the database each time,
+ * without taking the lock.
+ * <p>
+ * The writes of the reservas go through {@link #reservar}. The index is kept per instance, and only sees the writes of its
+ * instance: it is a first check, and the covers are then counted again from the database, under a lock of their days held
+ * until the transaction ends, so two reservas never both take the last covers, whichever instances they are written by. A
+ * reserva is counted in the index before its transaction commits; the covers of a rolled back reserva are given back, and
+ * the covers a changed reserva held are only given back once the change is committed.
+ */
+@Service
+public class DisponibilidadService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DisponibilidadService.class);
+
+    public static final int MINUTOS_HUECO = 15;
+
+    private static final int HUECOS_DIA = 24 * 60 / MINUTOS_HUECO;
+
+    private static final Set<EstadoReserva> ESTADOS_OCUPAN = EnumSet.of(EstadoReserva.PENDIENTE, EstadoReserva.CONFIRMADA);
+
+    /**
+     * The space of the database advisory locks of the days, see {@link ReservaRepository#lockDia}.
+     */
+    private static final int BLOQUEO_DIAS = 0x52455356;
+
+    /**
+     * The covers a reserva holds, from its start in the local time of the restaurant.
+     *
+     * @param inicio when the reserva starts.
+     * @param personas its covers.
+     */
+    public record Ocupacion(LocalDateTime inicio, int personas) {}
+
+    /**
+     * The slots {@code [desde, hasta)} of a day held by a reserva.
+     */
+    private record Tramo(LocalDate dia, int desde, int hasta) {}
+
+    private final ReservaRepository reservaRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int capacidad;
+
+    private final int huecosReserva;
+
+    private final LocalTime apertura;
+
+    private final LocalTime ultimaEntrada;
+
+    private final ZoneId zonaHoraria;
+
+    private final int diasPrecarga;
+
+    private final int diasAntelacion;
+
+    /**
+     * The covers booked in each slot, by day.
+     */
+    private final Map<LocalDate, int[]> dias = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public DisponibilidadService(
+        ReservaRepository reservaRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Disponibilidad disponibilidad = applicationProperties.getDisponibilidad();
+        this.reservaRepository = reservaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacidad = disponibilidad.getCapacidad();
+        this.huecosReserva = (int) Math.max(1, (disponibilidad.getDuracionReserva().toMinutes() + MINUTOS_HUECO - 1) / MINUTOS_HUECO);
+        this.apertura = disponibilidad.getApertura();
+        this.ultimaEntrada = disponibilidad.getUltimaEntrada();
+        this.zonaHoraria = disponibilidad.getZonaHoraria();
+        this.diasPrecarga = disponibilidad.getDiasPrecarga();
+        this.diasAntelacion = disponibilidad.getDiasAntelacion();
+    }
+
+    /**
+     * Load the next days, read from the primary database as every load of a day.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        LocalDate hoy = LocalDate.now(zonaHoraria);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i <= Math.min(diasPrecarga, diasAntelacion); i++) {
+                    cargar(hoy.plusDays(i));
+                }
+            });
+            LOG.info("Loaded the availability of the next {} days", diasPrecarga);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not load the availability of the next days, they are loaded when first needed : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a day is open to reservas: up to {@code dias-antelacion} days from today.
+     *
+     * @param fecha the day.
+     * @return whether reservas can be booked on that day.
+     */
+    public boolean admite(LocalDate fecha) {
+        return !fecha.isAfter(LocalDate.now(zonaHoraria).plusDays(diasAntelacion));
+    }
+
+    /**
+     * The covers a reserva holds.
+     *
+     * @param reserva the reserva.
+     * @return its covers, or {@code null} if it does not hold any.
+     */
+    public Ocupacion ocupacion(Reserva reserva) {
+        if (reserva.getFechaHora() == null || !ESTADOS_OCUPAN.contains(reserva.getEstado())) {
+            return null;
+        }
+        int personas = reserva.getPersonas() == null ? 1 : Math.max(1, reserva.getPersonas());
+        return new Ocupacion(reserva.getFechaHora().withZoneSameInstant(zonaHoraria).toLocalDateTime(), personas);
+    }
+
+    /**
+     * The times of a day a reserva fits at.
+     *
+     * @param fecha the day.
+     * @param personas the covers of the reserva.
+     * @return the times between the opening and the last entry with enough free covers, in order; none if the day is not
+     * open to reservas.
+     */
+    public List<HuecoDTO> getHuecos(LocalDate fecha, int personas) {
+        if (!admite(fecha)) {
+            return List.of();
+        }
+        int[] dia = cargar(fecha);
+        int[] siguiente = cargar(fecha.plusDays(1));
+        List<HuecoDTO> huecos = new ArrayList<>();
+        for (int hueco = hueco(apertura); hueco <= hueco(ultimaEntrada); hueco++) {
+            int ocupados = 0;
+            for (int i = hueco; i < hueco + huecosReserva; i++) {
+                ocupados = Math.max(ocupados, i < HUECOS_DIA ? dia[i] : siguiente[i - HUECOS_DIA]);
+            }
+            int libres = capacidad - ocupados;
+            if (libres >= personas) {
+                huecos.add(new HuecoDTO(fecha.atTime(LocalTime.ofSecondOfDay(hueco * MINUTOS_HUECO * 60L)).atZone(zonaHoraria), libres));
+            }
+        }
+        return huecos;
+    }
+
+    /**
+     * Count the covers of a new or changed reserva, if they fit.
+     * <p>
+     * In a transaction, the covers are counted from the database under a lock of their days, held until it ends; the covers
+     * held before the change are given back once it commits, and the new covers are given back if it rolls back. Called
+     * before the reserva is changed in the persistence context: the days read meanwhile must not see the change flushed.
+     *
+     * @param anterior the covers held before the change, {@code null} for a new reserva.
+     * @param nueva the covers held after the change, {@code null} if none.
+     * @return whether the covers fit: nothing is counted when they do not.
+     * @throws IllegalArgumentException if the new covers are on a day not open to reservas.
+     */
+    public boolean reservar(Ocupacion anterior, Ocupacion nueva) {
+        if (nueva == null) {
+            liberar(anterior);
+            return true;
+        }
+        if (!admite(nueva.inicio().toLocalDate())) {
+            throw new IllegalArgumentException("Reservas cannot be booked on " + nueva.inicio().toLocalDate());
+        }
+        List<Tramo> tramosAnterior = anterior == null ? List.of() : tramos(anterior);
+        List<Tramo> tramosNueva = tramos(nueva);
+        if (!cabe(anterior, tramosAnterior, nueva, tramosNueva, this::cargar)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // In date order, so that two transactions locking the same days never wait for each other
+            tramosNueva
+                .stream()
+                .map(Tramo::dia)
+                .distinct()
+                .sorted()
+                .forEach(dia -> reservaRepository.lockDia(BLOQUEO_DIAS, (int) dia.toEpochDay()));
+            if (!cabe(anterior, tramosAnterior, nueva, tramosNueva, this::leer)) {
+                LOG.debug("The covers of {} were taken by another instance", nueva);
+                return false;
+            }
+        }
+        lock.lock();
+        try {
+            // The days of the previous covers are loaded now, so that these covers are counted when they are given back
+            indexar(tramosAnterior);
+            sumar(nueva, nueva.personas());
+        } finally {
+            lock.unlock();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sumar(anterior, anterior == null ? 0 : -anterior.personas());
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        sumar(anterior, anterior == null ? 0 : -anterior.personas());
+                    } else {
+                        sumar(nueva, -nueva.personas());
+                    }
+                }
+            }
+        );
+        return true;
+    }
+
+    /**
+     * Whether the covers of a new or changed reserva fit, in the covers booked in each slot of its days.
+     */
+    private boolean cabe(
+        Ocupacion anterior,
+        List<Tramo> tramosAnterior,
+        Ocupacion nueva,
+        List<Tramo> tramosNueva,
+        Function<LocalDate, int[]> ocupados
+    ) {
+        for (Tramo tramo : tramosNueva) {
+            int[] dia = ocupados.apply(tramo.dia());
+            for (int i = tramo.desde(); i < tramo.hasta(); i++) {
+                // The covers held before the change are still counted, but do not compete with the new ones
+                int propios = contiene(tramosAnterior, tramo.dia(), i) ? anterior.personas() : 0;
+                if (dia[i] - propios + nueva.personas() > capacidad) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Give back the covers of a deleted or cancelled reserva, once its transaction commits. Called before the reserva is
+     * deleted, as {@link #reservar}.
+     *
+     * @param anterior the covers held by the reserva, {@code null} if none.
+     */
+    public void liberar(Ocupacion anterior) {
+        if (anterior == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sumar(anterior, -anterior.personas());
+            return;
+        }
+        indexar(tramos(anterior));
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sumar(anterior, -anterior.personas());
+                }
+            }
+        );
+    }
+
+    /**
+     * The covers booked in each slot of a day, read from the database the first time. A day before yesterday is read each
+     * time.
+     */
+    private int[] cargar(LocalDate fecha) {
+        int[] dia = dias.get(fecha);
+        if (dia != null) {
+            return dia;
+        }
+        LocalDate ayer = LocalDate.now(zonaHoraria).minusDays(1);
+        if (fecha.isBefore(ayer)) {
+            return leer(fecha);
+        }
+        lock.lock();
+        try {
+            dia = dias.get(fecha);
+            if (dia == null) {
+                dia = leer(fecha);
+                dias.put(fecha, dia);
+                dias.keySet().removeIf(otro -> otro.isBefore(ayer));
+            }
+            return dia;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Load the days of some slots the index holds, so that their covers are counted when they change.
+     */
+    private void indexar(List<Tramo> tramos) {
+        LocalDate ayer = LocalDate.now(zonaHoraria).minusDays(1);
+        tramos.stream().map(Tramo::dia).filter(dia -> !dia.isBefore(ayer)).forEach(this::cargar);
+    }
+
+    private int[] leer(LocalDate fecha) {
+        int[] dia = new int[HUECOS_DIA];
+        // The reservas of the day before may still hold covers at the start of the day
+        List<Reserva> reservas = reservaRepository.findAllByEstadoInAndFechaHoraGreaterThanEqualAndFechaHoraLessThan(
+            ESTADOS_OCUPAN,
+            fecha.atStartOfDay(zonaHoraria).minusMinutes((long) huecosReserva * MINUTOS_HUECO),
+            fecha.plusDays(1).atStartOfDay(zonaHoraria)
+        );
+        for (Reserva reserva : reservas) {
+            Ocupacion ocupacion = ocupacion(reserva);
+            for (Tramo tramo : tramos(ocupacion)) {
+                if (tramo.dia().equals(fecha)) {
+                    for (int i = tramo.desde(); i < tramo.hasta(); i++) {
+                        dia[i] += ocupacion.personas();
+                    }
+                }
+            }
+        }
+        LOG.debug("Loaded the availability of {} from {} reservas", fecha, reservas.size());
+        return dia;
+    }
+
+    /**
+     * Add covers to the slots held by a reserva, in the days loaded.
+     */
+    private void sumar(Ocupacion ocupacion, int personas) {
+        if (ocupacion == null || personas == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (Tramo tramo : tramos(ocupacion)) {
+                int[] dia = dias.get(tramo.dia());
+                if (dia == null) {
+                    continue;
+                }
+                int[] nuevo = dia.clone();
+                for (int i = tramo.desde(); i < tramo.hasta(); i++) {
+                    nuevo[i] += personas;
+                }
+                dias.put(tramo.dia(), nuevo);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Tramo> tramos(Ocupacion ocupacion) {
+        List<Tramo> tramos = new ArrayList<>(2);
+        LocalDate dia = ocupacion.inicio().toLocalDate();
+        int desde = hueco(ocupacion.inicio().toLocalTime());
+        int restantes = huecosReserva;
+        while (restantes > 0) {
+            int hasta = Math.min(HUECOS_DIA, desde + restantes);
+            tramos.add(new Tramo(dia, desde, hasta));
+            restantes -= hasta - desde;
+            dia = dia.plusDays(1);
+            desde = 0;
+        }
+        return tramos;
+    }
+
+    private static boolean contiene(List<Tramo> tramos, LocalDate dia, int hueco) {
+        for (Tramo tramo : tramos) {
+            if (tramo.dia().equals(dia) && hueco >= tramo.desde() && hueco < tramo.hasta()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hueco(LocalTime hora) {
+        return (hora.getHour() * 60 + hora.getMinute()) / MINUTOS_HUECO;
+    }
+}
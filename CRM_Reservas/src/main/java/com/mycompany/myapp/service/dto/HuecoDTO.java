@@ -0,0 +1,12 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * A time a reserva can start at.
+ *
+ * @param fechaHora when the reserva would start.
+ * @param libres the covers still free over the whole duration of a reserva starting then.
+ */
+public record HuecoDTO(ZonedDateTime fechaHora, int libres) implements Serializable {}
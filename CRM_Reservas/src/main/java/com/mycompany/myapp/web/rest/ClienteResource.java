@@ -152,6 +152,7 @@ public class ClienteResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of clientes in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public List<Cliente> getAllClientes() {
         LOG.debug("REST request to get all Clientes");
         return clienteRepository.findAll();
@@ -164,6 +165,7 @@ public class ClienteResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the cliente, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Cliente> getCliente(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Cliente : {}", id);
         Optional<Cliente> cliente = clienteRepository.findById(id);
@@ -146,6 +146,7 @@ public class ContactoResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of contactos in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public List<Contacto> getAllContactos() {
         LOG.debug("REST request to get all Contactos");
         return contactoRepository.findAll();
@@ -158,6 +159,7 @@ public class ContactoResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the contacto, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Contacto> getContacto(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Contacto : {}", id);
         Optional<Contacto> contacto = contactoRepository.findById(id);
@@ -2,11 +2,14 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Reserva;
 import com.mycompany.myapp.repository.ReservaRepository;
+import com.mycompany.myapp.service.DisponibilidadService;
+import com.mycompany.myapp.service.dto.HuecoDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -36,15 +39,19 @@ public class ReservaResource {
 
     private final ReservaRepository reservaRepository;
 
-    public ReservaResource(ReservaRepository reservaRepository) {
+    private final DisponibilidadService disponibilidadService;
+
+    public ReservaResource(ReservaRepository reservaRepository, DisponibilidadService disponibilidadService) {
         this.reservaRepository = reservaRepository;
+        this.disponibilidadService = disponibilidadService;
     }
 
     /**
      * {@code POST  /reservas} : Create a new reserva.
      *
      * @param reserva the reserva to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new reserva, or with status {@code 400 (Bad Request)} if the reserva has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new reserva, or with status {@code 400 (Bad Request)} if the reserva has already an ID
+     * or does not fit in the free covers.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
@@ -53,6 +60,7 @@ public class ReservaResource {
         if (reserva.getId() != null) {
             throw new BadRequestAlertException("A new reserva cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        reservar(null, reserva);
         reserva = reservaRepository.save(reserva);
         return ResponseEntity.created(new URI("/api/reservas/" + reserva.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, reserva.getId().toString()))
@@ -65,7 +73,7 @@ public class ReservaResource {
      * @param id the id of the reserva to save.
      * @param reserva the reserva to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated reserva,
-     * or with status {@code 400 (Bad Request)} if the reserva is not valid,
+     * or with status {@code 400 (Bad Request)} if the reserva is not valid or does not fit in the free covers,
      * or with status {@code 500 (Internal Server Error)} if the reserva couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -82,10 +90,11 @@ public class ReservaResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!reservaRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Reserva existingReserva = reservaRepository
+            .findOneWithLockById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
 
+        reservar(existingReserva, reserva);
         reserva = reservaRepository.save(reserva);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, reserva.getId().toString()))
@@ -98,7 +107,7 @@ public class ReservaResource {
      * @param id the id of the reserva to save.
      * @param reserva the reserva to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated reserva,
-     * or with status {@code 400 (Bad Request)} if the reserva is not valid,
+     * or with status {@code 400 (Bad Request)} if the reserva is not valid or does not fit in the free covers,
      * or with status {@code 404 (Not Found)} if the reserva is not found,
      * or with status {@code 500 (Internal Server Error)} if the reserva couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -121,8 +130,15 @@ public class ReservaResource {
         }
 
         Optional<Reserva> result = reservaRepository
-            .findById(reserva.getId())
+            .findOneWithLockById(reserva.getId())
             .map(existingReserva -> {
+                reservar(
+                    existingReserva,
+                    new Reserva()
+                        .fechaHora(reserva.getFechaHora() != null ? reserva.getFechaHora() : existingReserva.getFechaHora())
+                        .personas(reserva.getPersonas() != null ? reserva.getPersonas() : existingReserva.getPersonas())
+                        .estado(reserva.getEstado() != null ? reserva.getEstado() : existingReserva.getEstado())
+                );
                 if (reserva.getFechaHora() != null) {
                     existingReserva.setFechaHora(reserva.getFechaHora());
                 }
@@ -152,11 +168,34 @@ public class ReservaResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of reservas in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public List<Reserva> getAllReservas() {
         LOG.debug("REST request to get all Reservas");
         return reservaRepository.findAll();
     }
 
+    /**
+     * {@code GET  /reservas/disponibilidad} : get the times of a day a reserva fits at.
+     * <p>
+     * Not a read-only transaction: the days missing from the availability index are read from the primary database.
+     *
+     * @param fecha the day.
+     * @param personas the covers of the reserva.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of times in body, or with status
+     * {@code 400 (Bad Request)} if the covers are not valid or the day is not open to reservas yet.
+     */
+    @GetMapping("/disponibilidad")
+    public List<HuecoDTO> getDisponibilidad(@RequestParam("fecha") LocalDate fecha, @RequestParam("personas") int personas) {
+        LOG.debug("REST request to get the availability of {} for {} personas", fecha, personas);
+        if (personas < 1) {
+            throw new BadRequestAlertException("Invalid personas", ENTITY_NAME, "personasinvalid");
+        }
+        if (!disponibilidadService.admite(fecha)) {
+            throw new BadRequestAlertException("Reservas cannot be booked that far ahead", ENTITY_NAME, "fechafueradeplazo");
+        }
+        return disponibilidadService.getHuecos(fecha, personas);
+    }
+
     /**
      * {@code GET  /reservas/:id} : get the "id" reserva.
      *
@@ -164,6 +203,7 @@ public class ReservaResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the reserva, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Reserva> getReserva(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Reserva : {}", id);
         Optional<Reserva> reserva = reservaRepository.findById(id);
@@ -179,9 +219,25 @@ public class ReservaResource {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteReserva(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete Reserva : {}", id);
+        reservaRepository
+            .findOneWithLockById(id)
+            .ifPresent(reserva -> disponibilidadService.liberar(disponibilidadService.ocupacion(reserva)));
         reservaRepository.deleteById(id);
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * Count the covers of a new or changed reserva in the availability index, before the reserva is changed.
+     */
+    private void reservar(Reserva anterior, Reserva nueva) {
+        DisponibilidadService.Ocupacion ocupacion = disponibilidadService.ocupacion(nueva);
+        if (ocupacion != null && !disponibilidadService.admite(ocupacion.inicio().toLocalDate())) {
+            throw new BadRequestAlertException("Reservas cannot be booked that far ahead", ENTITY_NAME, "fechafueradeplazo");
+        }
+        if (!disponibilidadService.reservar(anterior == null ? null : disponibilidadService.ocupacion(anterior), ocupacion)) {
+            throw new BadRequestAlertException("No free covers left for the reserva", ENTITY_NAME, "sincapacidad");
+        }
+    }
 }
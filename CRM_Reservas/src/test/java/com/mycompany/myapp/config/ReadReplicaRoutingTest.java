@@ -0,0 +1,132 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReadReplicaRoutingTest {
+
+    private MeterRegistry meterRegistry;
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private Connection primaryConnection;
+
+    private Connection replicaConnection;
+
+    private ReadReplicaRouting readReplicaRouting;
+
+    @BeforeEach
+    void setup() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        readReplicaRouting = new ReadReplicaRouting(primary, replica, Duration.ofHours(1), Duration.ofHours(1), meterRegistry);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReadOnlyConnectionsComeFromTheReplica() throws Exception {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(readReplicaRouting.getPrimaryDataSource());
+        dataSource.setReadOnlyDataSource(readReplicaRouting.getReadOnlyDataSource());
+        dataSource.setDefaultAutoCommit(false);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+        }
+
+        verify(replicaConnection).createStatement();
+        verify(primaryConnection).createStatement();
+        assertThat(routed("replica", "read-only")).isEqualTo(1);
+        assertThat(routed("primary", "read-write")).isEqualTo(1);
+    }
+
+    @Test
+    void testReadOnlyConnectionsFallBackToThePrimaryWhenTheReplicaIsUnavailable() throws Exception {
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+
+        assertThat(readReplicaRouting.getReadOnlyDataSource().getConnection()).isSameAs(primaryConnection);
+        assertThat(readReplicaRouting.getReadOnlyDataSource().getConnection()).isSameAs(primaryConnection);
+
+        // Not asked again before the retry delay
+        verify(replica, times(1)).getConnection();
+        assertThat(routed("primary", "replica-unavailable")).isEqualTo(2);
+    }
+
+    @Test
+    void testReadOnlyConnectionsStayOnThePrimaryAfterAWrite() throws Exception {
+        login("recepcion");
+        TransactionSynchronizationManager.initSynchronization();
+        readReplicaRouting.getPrimaryDataSource().getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(readReplicaRouting.getReadOnlyDataSource().getConnection()).isSameAs(primaryConnection);
+        assertThat(routed("primary", "read-your-writes")).isEqualTo(1);
+
+        login("anfitrion");
+        assertThat(readReplicaRouting.getReadOnlyDataSource().getConnection()).isSameAs(replicaConnection);
+        assertThat(routed("replica", "read-only")).isEqualTo(1);
+    }
+
+    @Test
+    void testReadOnlyTransactionsDoNotOpenAReadYourWritesWindow() throws Exception {
+        login("recepcion");
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        readReplicaRouting.getPrimaryDataSource().getConnection();
+
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    private void login(String login) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry
+            .get(ReadReplicaRouting.ROUTING_METER_NAME)
+            .tag(ReadReplicaRouting.ROUTING_METER_TARGET_DIMENSION, target)
+            .tag(ReadReplicaRouting.ROUTING_METER_REASON_DIMENSION, reason)
+            .counter()
+            .count();
+    }
+}
@@ -5,6 +5,8 @@ import static com.mycompany.myapp.web.rest.TestUtil.createUpdateProxyForBean;
 import static com.mycompany.myapp.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -13,12 +15,22 @@ import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Reserva;
 import com.mycompany.myapp.domain.enumeration.EstadoReserva;
 import com.mycompany.myapp.repository.ReservaRepository;
+import com.mycompany.myapp.service.DisponibilidadService;
+import com.mycompany.myapp.service.dto.HuecoDTO;
 import jakarta.persistence.EntityManager;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,6 +40,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -68,6 +81,9 @@ class ReservaResourceIT {
     @Autowired
     private MockMvc restReservaMockMvc;
 
+    @Autowired
+    private DisponibilidadService disponibilidadService;
+
     private Reserva reserva;
 
     private Reserva insertedReserva;
@@ -429,6 +445,186 @@ class ReservaResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    void createReservaWithoutFreeCovers() throws Exception {
+        ZonedDateTime fechaHora = diaLibre().atTime(21, 0).atZone(ZoneId.systemDefault());
+        List<Long> ids = new ArrayList<>();
+        try {
+            ids.add(crearReserva(fechaHora, 30));
+            ids.add(crearReserva(fechaHora.plusMinutes(30), 30));
+
+            // The capacity of 60 covers is taken from 21:30 to 23:00
+            restReservaMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(reserva(fechaHora, 1))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.sincapacidad"));
+
+            // A cancelled reserva gives its covers back
+            restReservaMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, ids.get(0))
+                        .contentType("application/merge-patch+json")
+                        .content(om.writeValueAsBytes(new Reserva().id(ids.get(0)).estado(EstadoReserva.CANCELADA)))
+                )
+                .andExpect(status().isOk());
+            ids.add(crearReserva(fechaHora, 1));
+        } finally {
+            reservaRepository.deleteAllById(ids);
+        }
+    }
+
+    @Test
+    void createReservaWithTheCoversTakenByAnotherInstance() throws Exception {
+        ZonedDateTime fechaHora = diaLibre().atTime(21, 0).atZone(ZoneId.systemDefault());
+        List<Long> ids = new ArrayList<>();
+        try {
+            ids.add(crearReserva(fechaHora, 10));
+            // Written by another instance, which the availability index of this one does not see
+            ids.add(reservaRepository.saveAndFlush(reserva(fechaHora.plusMinutes(30), 45)).getId());
+            assertThat(disponibilidadService.getHuecos(fechaHora.toLocalDate(), 10))
+                .extracting(h -> h.fechaHora().toLocalTime())
+                .contains(LocalTime.of(21, 0));
+
+            long databaseSizeBeforeCreate = getRepositoryCount();
+            restReservaMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(reserva(fechaHora, 10))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.sincapacidad"));
+            assertSameRepositoryCount(databaseSizeBeforeCreate);
+
+            ids.add(crearReserva(fechaHora, 5));
+        } finally {
+            reservaRepository.deleteAllById(ids);
+        }
+    }
+
+    @Test
+    void createReservaTooFarAhead() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        ZonedDateTime fechaHora = LocalDate.now().plusYears(30).atTime(21, 0).atZone(ZoneId.systemDefault());
+
+        restReservaMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(reserva(fechaHora, 2))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fechafueradeplazo"));
+
+        restReservaMockMvc
+            .perform(get(ENTITY_API_URL + "/disponibilidad").param("fecha", LocalDate.MAX.toString()).param("personas", "2"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fechafueradeplazo"));
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    void getDisponibilidad() throws Exception {
+        LocalDate dia = diaLibre();
+        List<Long> ids = new ArrayList<>();
+        try {
+            ids.add(crearReserva(dia.atTime(21, 0).atZone(ZoneId.systemDefault()), 30));
+            ids.add(crearReserva(dia.atTime(21, 0).atZone(ZoneId.systemDefault()), 25));
+
+            restReservaMockMvc
+                .perform(get(ENTITY_API_URL + "/disponibilidad?fecha={fecha}&personas={personas}", dia, 10))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].libres").value(hasItem(60)))
+                .andExpect(jsonPath("$.[*].libres").value(not(hasItem(5))));
+
+            List<LocalTime> huecos = disponibilidadService.getHuecos(dia, 10).stream().map(h -> h.fechaHora().toLocalTime()).toList();
+            // A reserva of 2 hours starting from 19:15 to 22:45 would meet the 55 covers booked at 21:00
+            assertThat(huecos).contains(LocalTime.of(12, 0), LocalTime.of(19, 0), LocalTime.of(23, 0));
+            assertThat(huecos).doesNotContain(LocalTime.of(19, 15), LocalTime.of(21, 0), LocalTime.of(22, 45));
+            assertThat(disponibilidadService.getHuecos(dia, 5)).extracting(HuecoDTO::libres).contains(5);
+
+            restReservaMockMvc
+                .perform(get(ENTITY_API_URL + "/disponibilidad?fecha={fecha}&personas={personas}", dia, 0))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.personasinvalid"));
+        } finally {
+            reservaRepository.deleteAllById(ids);
+        }
+    }
+
+    @Test
+    void createReservaConcurrentlyNeverOverbooks() throws Exception {
+        LocalDate dia = diaLibre();
+        int peticiones = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(peticiones);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<MvcResult>> resultados = new ArrayList<>();
+        for (int i = 0; i < peticiones; i++) {
+            // Every reserva of 2 hours, starting at 20:00 or at 21:00, holds its 4 covers from 21:00 to 22:00
+            Reserva nueva = reserva(dia.atTime(i % 2 == 0 ? 20 : 21, 0).atZone(ZoneId.systemDefault()), 4);
+            resultados.add(
+                executor.submit(() -> {
+                    salida.await();
+                    return restReservaMockMvc
+                        .perform(
+                            post(ENTITY_API_URL)
+                                .with(user("user"))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(om.writeValueAsBytes(nueva))
+                        )
+                        .andReturn();
+                })
+            );
+        }
+        salida.countDown();
+
+        List<Long> ids = new ArrayList<>();
+        int rechazadas = 0;
+        try {
+            for (Future<MvcResult> resultado : resultados) {
+                MvcResult result = resultado.get();
+                if (result.getResponse().getStatus() == 201) {
+                    ids.add(om.readValue(result.getResponse().getContentAsString(), Reserva.class).getId());
+                } else {
+                    assertThat(result.getResponse().getStatus()).isEqualTo(400);
+                    assertThat(result.getResponse().getContentAsString()).contains("error.sincapacidad");
+                    rechazadas++;
+                }
+            }
+
+            assertThat(ids).hasSize(15);
+            assertThat(rechazadas).isEqualTo(peticiones - 15);
+            assertThat(reservaRepository.findAllById(ids).stream().mapToInt(Reserva::getPersonas).sum()).isEqualTo(60);
+            assertThat(disponibilidadService.getHuecos(dia, 1))
+                .extracting(h -> h.fechaHora().toLocalTime())
+                .doesNotContain(LocalTime.of(20, 0), LocalTime.of(21, 0));
+        } finally {
+            executor.shutdownNow();
+            reservaRepository.deleteAllById(ids);
+        }
+    }
+
+    /**
+     * A day no other test books, in the future.
+     */
+    private static LocalDate diaLibre() {
+        return LocalDate.now().plusYears(10).plusDays(random.nextInt(3650));
+    }
+
+    private static Reserva reserva(ZonedDateTime fechaHora, int personas) {
+        return createEntity().fechaHora(fechaHora).personas(personas);
+    }
+
+    private Long crearReserva(ZonedDateTime fechaHora, int personas) throws Exception {
+        return om
+            .readValue(
+                restReservaMockMvc
+                    .perform(
+                        post(ENTITY_API_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsBytes(reserva(fechaHora, personas)))
+                    )
+                    .andExpect(status().isCreated())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString(),
+                Reserva.class
+            )
+            .getId();
+    }
+
     protected long getRepositoryCount() {
         return reservaRepository.count();
     }
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,9 +11,272 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final PreciosPlato preciosPlato = new PreciosPlato();
+
+    private final Stock stock = new Stock();
+
+    private final Importacion importacion = new Importacion();
+
+    private final Mongo mongo = new Mongo();
+
+    private final Busqueda busqueda = new Busqueda();
+
+    private final Menu menu = new Menu();
+
     // jhipster-needle-application-properties-property
 
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public PreciosPlato getPreciosPlato() {
+        return preciosPlato;
+    }
+
+    public Stock getStock() {
+        return stock;
+    }
+
+    public Importacion getImportacion() {
+        return importacion;
+    }
+
+    public Mongo getMongo() {
+        return mongo;
+    }
+
+    public Busqueda getBusqueda() {
+        return busqueda;
+    }
+
+    public Menu getMenu() {
+        return menu;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
+    public static class VirtualThreads {
+
+        private int maxConcurrentRequests = 200;
+
+        private int maxQueuedRequests = 1000;
+
+        private Duration pinnedThreshold = Duration.ofMillis(20);
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getMaxQueuedRequests() {
+            return maxQueuedRequests;
+        }
+
+        public void setMaxQueuedRequests(int maxQueuedRequests) {
+            this.maxQueuedRequests = maxQueuedRequests;
+        }
+
+        public Duration getPinnedThreshold() {
+            return pinnedThreshold;
+        }
+
+        public void setPinnedThreshold(Duration pinnedThreshold) {
+            this.pinnedThreshold = pinnedThreshold;
+        }
+    }
+
+    public static class PreciosPlato {
+
+        private String notificationUrl;
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        private Duration readTimeout = Duration.ofSeconds(5);
+
+        public String getNotificationUrl() {
+            return notificationUrl;
+        }
+
+        public void setNotificationUrl(String notificationUrl) {
+            this.notificationUrl = notificationUrl;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+
+    public static class Stock {
+
+        private Duration batchWindow = Duration.ofMillis(2);
+
+        private int maxBatchSize = 500;
+
+        private int queueCapacity = 10000;
+
+        private Duration timeout = Duration.ofSeconds(5);
+
+        private Duration alertDelay = Duration.ofMinutes(1);
+
+        private Duration alertInterval = Duration.ofHours(4);
+
+        private Duration alertClaimTimeout = Duration.ofMinutes(5);
+
+        public Duration getBatchWindow() {
+            return batchWindow;
+        }
+
+        public void setBatchWindow(Duration batchWindow) {
+            this.batchWindow = batchWindow;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getAlertDelay() {
+            return alertDelay;
+        }
+
+        public void setAlertDelay(Duration alertDelay) {
+            this.alertDelay = alertDelay;
+        }
+
+        public Duration getAlertInterval() {
+            return alertInterval;
+        }
+
+        public void setAlertInterval(Duration alertInterval) {
+            this.alertInterval = alertInterval;
+        }
+
+        public Duration getAlertClaimTimeout() {
+            return alertClaimTimeout;
+        }
+
+        public void setAlertClaimTimeout(Duration alertClaimTimeout) {
+            this.alertClaimTimeout = alertClaimTimeout;
+        }
+    }
+
+    public static class Importacion {
+
+        private int batchSize = 500;
+
+        private int maxErrors = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxErrors() {
+            return maxErrors;
+        }
+
+        public void setMaxErrors(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+    }
+    public static class Mongo {
+
+        private Duration slowThreshold = Duration.ofMillis(100);
+
+        private int topQueries = 20;
+
+        private int maxQueryShapes = 1000;
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public int getTopQueries() {
+            return topQueries;
+        }
+
+        public void setTopQueries(int topQueries) {
+            this.topQueries = topQueries;
+        }
+
+        public int getMaxQueryShapes() {
+            return maxQueryShapes;
+        }
+
+        public void setMaxQueryShapes(int maxQueryShapes) {
+            this.maxQueryShapes = maxQueryShapes;
+        }
+    }
+
+    public static class Busqueda {
+
+        private Duration refreshDelay = Duration.ofMinutes(5);
+
+        public Duration getRefreshDelay() {
+            return refreshDelay;
+        }
+
+        public void setRefreshDelay(Duration refreshDelay) {
+            this.refreshDelay = refreshDelay;
+        }
+    }
+
+    public static class Menu {
+
+        private Duration refreshDelay = Duration.ofMinutes(1);
+
+        public Duration getRefreshDelay() {
+            return refreshDelay;
+        }
+
+        public void setRefreshDelay(Duration refreshDelay) {
+            this.refreshDelay = refreshDelay;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
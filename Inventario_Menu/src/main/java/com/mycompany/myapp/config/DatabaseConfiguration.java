@@ -1,9 +1,11 @@
 package com.mycompany.myapp.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.mongock.runner.springboot.EnableMongock;
 import java.util.ArrayList;
 import java.util.List;
 import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -43,4 +45,23 @@ public class DatabaseConfiguration {
         converters.add(ZonedDateTimeToDateConverter.INSTANCE);
         return new MongoCustomConversions(converters);
     }
+
+    @Bean
+    public MongoCommandMonitor mongoCommandMonitor(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Mongo mongo = applicationProperties.getMongo();
+        return new MongoCommandMonitor(mongo.getSlowThreshold(), mongo.getMaxQueryShapes(), meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMonitorCustomizer(MongoCommandMonitor mongoCommandMonitor) {
+        return settings ->
+            settings
+                .addCommandListener(mongoCommandMonitor)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(mongoCommandMonitor));
+    }
+
+    @Bean
+    public MongoQueriesEndpoint mongoQueriesEndpoint(MongoCommandMonitor mongoCommandMonitor, ApplicationProperties applicationProperties) {
+        return new MongoQueriesEndpoint(mongoCommandMonitor, applicationProperties.getMongo().getTopQueries());
+    }
 }
@@ -0,0 +1,324 @@
+package com.mycompany.myapp.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times the MongoDB commands and the waits for a pooled connection, and logs the slow commands with the shape of their query.
+ * <p>
+ * Spring Boot already times each command by collection in {@code mongodb.driver.commands}. This monitor adds the time spent
+ * waiting for a connection of the pool, in {@value #POOL_WAIT_METER_NAME}, and the commands slower than
+ * {@code application.mongo.slow-threshold}: they are logged, counted in {@value #SLOW_METER_NAME}, and their slowest shapes
+ * are listed by {@link MongoQueriesEndpoint}.
+ * <p>
+ * The command can only be read while it is started, so its shape is taken then: the field names and operators of its filter,
+ * every value replaced by {@code ?}. A command which is not slow costs that shape and two map operations.
+ */
+public class MongoCommandMonitor implements CommandListener, ConnectionPoolListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MongoCommandMonitor.class);
+
+    public static final String POOL_WAIT_METER_NAME = "mongodb.driver.pool.wait";
+    public static final String SLOW_METER_NAME = "mongodb.driver.commands.slow";
+
+    private static final Set<String> IGNORED_COMMANDS = Set.of("hello", "isMaster", "ping", "buildInfo", "endSessions", "killCursors");
+
+    private static final int MAX_DEPTH = 6;
+
+    private static final int MAX_SHAPE_LENGTH = 500;
+
+    /**
+     * A command in progress.
+     */
+    private record Comando(String comando, String coleccion, String forma) {}
+
+    /**
+     * The slow executions of a shape of query.
+     *
+     * @param forma the shape of the query.
+     * @param comando the command.
+     * @param coleccion the collection.
+     * @param ejecuciones how many times the shape was slow.
+     * @param maximoMs the slowest execution.
+     * @param mediaMs the mean of the slow executions.
+     * @param ultima when the shape was last slow.
+     */
+    public record ConsultaLenta(
+        String forma,
+        String comando,
+        String coleccion,
+        long ejecuciones,
+        double maximoMs,
+        double mediaMs,
+        Instant ultima
+    ) {}
+
+    private static final class Estadistica {
+
+        private final Comando comando;
+
+        private final LongAdder ejecuciones = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final AtomicLong maximoNanos = new AtomicLong();
+
+        private volatile Instant ultima;
+
+        Estadistica(Comando comando) {
+            this.comando = comando;
+        }
+
+        void registrar(long nanos) {
+            ejecuciones.increment();
+            totalNanos.add(nanos);
+            maximoNanos.accumulateAndGet(nanos, Math::max);
+            ultima = Instant.now();
+        }
+
+        ConsultaLenta toConsultaLenta() {
+            long n = ejecuciones.sum();
+            return new ConsultaLenta(
+                comando.forma(),
+                comando.comando(),
+                comando.coleccion(),
+                n,
+                maximoNanos.get() / 1e6,
+                n == 0 ? 0 : totalNanos.sum() / 1e6 / n,
+                ultima
+            );
+        }
+    }
+
+    private final long slowThresholdNanos;
+
+    private final int maxQueryShapes;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer poolWait;
+
+    private final Timer poolWaitFailed;
+
+    /**
+     * The commands in progress, by the id of their request.
+     */
+    private final Map<Integer, Comando> enCurso = new ConcurrentHashMap<>();
+
+    private final Map<String, Estadistica> lentas = new ConcurrentHashMap<>();
+
+    public MongoCommandMonitor(Duration slowThreshold, int maxQueryShapes, MeterRegistry meterRegistry) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxQueryShapes = maxQueryShapes;
+        this.meterRegistry = meterRegistry;
+        this.poolWait = poolWaitTimer("success", meterRegistry);
+        this.poolWaitFailed = poolWaitTimer("failed", meterRegistry);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        BsonValue coleccion = command.get(event.getCommandName());
+        String nombreColeccion = coleccion != null && coleccion.isString() ? coleccion.asString().getValue() : "";
+        enCurso.put(event.getRequestId(), new Comando(event.getCommandName(), nombreColeccion, forma(command)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        terminar(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        terminar(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        poolWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        poolWaitFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The slowest shapes of query, by their slowest execution.
+     *
+     * @param limite how many shapes.
+     * @return the shapes.
+     */
+    public List<ConsultaLenta> getConsultasLentas(int limite) {
+        return lentas
+            .values()
+            .stream()
+            .map(Estadistica::toConsultaLenta)
+            .sorted(Comparator.comparingDouble(ConsultaLenta::maximoMs).reversed())
+            .limit(limite)
+            .toList();
+    }
+
+    /**
+     * Forget the slow shapes of query.
+     */
+    public void reiniciar() {
+        lentas.clear();
+    }
+
+    private void terminar(int requestId, long nanos) {
+        Comando comando = enCurso.remove(requestId);
+        if (comando == null || nanos < slowThresholdNanos) {
+            return;
+        }
+        registrar(comando, nanos);
+    }
+
+    private void registrar(Comando comando, long nanos) {
+        LOG.warn("Slow MongoDB {} on {} : {} ms, {}", comando.comando(), comando.coleccion(), nanos / 1_000_000, comando.forma());
+        Counter.builder(SLOW_METER_NAME)
+            .description("MongoDB commands slower than the threshold")
+            .tag("command", comando.comando())
+            .tag("collection", comando.coleccion())
+            .register(meterRegistry)
+            .increment();
+        Estadistica estadistica = lentas.get(comando.forma());
+        if (estadistica == null) {
+            // Beyond the limit, the new shapes are only logged and counted
+            if (lentas.size() >= maxQueryShapes) {
+                return;
+            }
+            estadistica = lentas.computeIfAbsent(comando.forma(), forma -> new Estadistica(comando));
+        }
+        estadistica.registrar(nanos);
+    }
+
+    void registrar(String comando, String coleccion, String forma, long nanos) {
+        registrar(new Comando(comando, coleccion, forma), nanos);
+    }
+
+    /**
+     * The shape of a command: its name, its collection and the shape of its query, without any value.
+     */
+    static String forma(BsonDocument command) {
+        String nombre = command.getFirstKey();
+        StringBuilder forma = new StringBuilder(nombre);
+        BsonValue coleccion = command.get(nombre);
+        if (coleccion.isString()) {
+            forma.append(' ').append(coleccion.asString().getValue());
+        }
+        switch (nombre) {
+            case "find" -> campos(forma, command, "filter", "sort");
+            case "aggregate" -> etapas(forma, command.get("pipeline"));
+            case "count", "distinct", "findAndModify" -> campos(forma, command, "key", "query", "sort");
+            case "update" -> primera(forma, command.get("updates"));
+            case "delete" -> primera(forma, command.get("deletes"));
+            default -> {}
+        }
+        return forma.length() > MAX_SHAPE_LENGTH ? forma.substring(0, MAX_SHAPE_LENGTH) + "..." : forma.toString();
+    }
+
+    private static void campos(StringBuilder forma, BsonDocument command, String... campos) {
+        for (String campo : campos) {
+            BsonValue valor = command.get(campo);
+            if (valor == null) {
+                continue;
+            }
+            forma.append(' ').append(campo).append(' ');
+            // The key of a distinct is a field name, not a value
+            if ("key".equals(campo) && valor.isString()) {
+                forma.append(valor.asString().getValue());
+            } else {
+                forma(forma, valor, 0);
+            }
+        }
+    }
+
+    private static void primera(StringBuilder forma, BsonValue sentencias) {
+        if (sentencias != null && sentencias.isArray() && !sentencias.asArray().isEmpty() && sentencias.asArray().get(0).isDocument()) {
+            campos(forma, sentencias.asArray().get(0).asDocument(), "q");
+        }
+    }
+
+    private static void etapas(StringBuilder forma, BsonValue pipeline) {
+        if (pipeline == null || !pipeline.isArray()) {
+            return;
+        }
+        for (BsonValue etapa : pipeline.asArray()) {
+            if (!etapa.isDocument() || etapa.asDocument().isEmpty()) {
+                continue;
+            }
+            String nombre = etapa.asDocument().getFirstKey();
+            forma.append(' ').append(nombre);
+            if ("$match".equals(nombre) || "$sort".equals(nombre)) {
+                forma.append(' ');
+                forma(forma, etapa.asDocument().get(nombre), 0);
+            }
+        }
+    }
+
+    private static void forma(StringBuilder forma, BsonValue valor, int profundidad) {
+        if (valor.isDocument()) {
+            if (profundidad == MAX_DEPTH) {
+                forma.append("{...}");
+                return;
+            }
+            forma.append('{');
+            boolean primero = true;
+            for (Map.Entry<String, BsonValue> campo : valor.asDocument().entrySet()) {
+                forma.append(primero ? "" : ", ").append(campo.getKey()).append(": ");
+                forma(forma, campo.getValue(), profundidad + 1);
+                primero = false;
+            }
+            forma.append('}');
+        } else if (valor.isArray()) {
+            // The arrays of documents are the clauses of an $and, $or or $nor, the other ones are values
+            BsonArray array = valor.asArray();
+            if (array.isEmpty() || !array.get(0).isDocument()) {
+                forma.append("[?]");
+                return;
+            }
+            forma.append('[');
+            for (int i = 0; i < array.size(); i++) {
+                forma.append(i == 0 ? "" : ", ");
+                forma(forma, array.get(i), profundidad + 1);
+            }
+            forma.append(']');
+        } else {
+            forma.append('?');
+        }
+    }
+
+    private static Timer poolWaitTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder(POOL_WAIT_METER_NAME)
+            .description("Time waiting for a connection of the MongoDB pool")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
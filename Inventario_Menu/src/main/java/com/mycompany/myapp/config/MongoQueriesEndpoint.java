@@ -0,0 +1,35 @@
+package com.mycompany.myapp.config;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint listing the slowest shapes of MongoDB query, as seen by {@link MongoCommandMonitor}.
+ * <p>
+ * {@code GET /management/mongoqueries?limite=} lists them by their slowest execution, {@code DELETE} forgets them.
+ */
+@Endpoint(id = "mongoqueries")
+public class MongoQueriesEndpoint {
+
+    private final MongoCommandMonitor mongoCommandMonitor;
+
+    private final int topQueries;
+
+    public MongoQueriesEndpoint(MongoCommandMonitor mongoCommandMonitor, int topQueries) {
+        this.mongoCommandMonitor = mongoCommandMonitor;
+        this.topQueries = topQueries;
+    }
+
+    @ReadOperation
+    public List<MongoCommandMonitor.ConsultaLenta> consultasLentas(@Nullable Integer limite) {
+        return mongoCommandMonitor.getConsultasLentas(limite == null || limite <= 0 ? topQueries : limite);
+    }
+
+    @DeleteOperation
+    public void reiniciar() {
+        mongoCommandMonitor.reiniciar();
+    }
+}
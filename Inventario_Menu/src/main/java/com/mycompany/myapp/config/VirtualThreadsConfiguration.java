@@ -0,0 +1,75 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.undertow.server.handlers.RequestLimitingHandler;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Runs the requests on virtual threads, with the {@code virtual-threads} profile.
+ * <p>
+ * Spring Boot only switches Tomcat and Jetty to virtual threads: Undertow keeps its IO threads, and here dispatches each
+ * blocking servlet request to a new virtual thread instead of its worker pool. Threads are then no longer what bounds the
+ * load: at most {@code application.virtual-threads.max-concurrent-requests} requests are in progress, the next
+ * {@code max-queued-requests} wait without holding a thread, and any further request is rejected with {@code 503}.
+ * <p>
+ * The {@code @Async} methods run on virtual threads too, see {@link AsyncConfiguration}, and the {@code @Scheduled} jobs
+ * with {@code spring.threads.virtual.enabled}. Virtual threads need Java 21, the application refuses to start on an older
+ * one with this profile.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_VIRTUAL_THREADS)
+public class VirtualThreadsConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    public VirtualThreadsConfiguration() {
+        if (JavaVersion.getJavaVersion().isOlderThan(JavaVersion.TWENTY_ONE)) {
+            throw new IllegalStateException(
+                "The \"" + Constants.SPRING_PROFILE_VIRTUAL_THREADS + "\" profile needs Java 21, running on " + JavaVersion.getJavaVersion()
+            );
+        }
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadsUndertowCustomizer(
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.VirtualThreads virtualThreads = applicationProperties.getVirtualThreads();
+        return factory ->
+            factory.addDeploymentInfoCustomizers(deploymentInfo -> {
+                LOG.debug(
+                    "Running the requests on virtual threads, at most {} at once and {} queued",
+                    virtualThreads.getMaxConcurrentRequests(),
+                    virtualThreads.getMaxQueuedRequests()
+                );
+                Executor executor = new VirtualThreadTaskExecutor("undertow-virtual-");
+                deploymentInfo.setExecutor(executor);
+                deploymentInfo.setAsyncExecutor(executor);
+                deploymentInfo.addInitialHandlerChainWrapper(handler ->
+                    new RequestLimitingHandler(virtualThreads.getMaxConcurrentRequests(), virtualThreads.getMaxQueuedRequests(), handler)
+                );
+            });
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(
+            applicationProperties.getVirtualThreads().getPinnedThreshold(),
+            meterRegistry
+        );
+        monitor.start();
+        return monitor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Sets the {@code bajo_minimo} flag of the existing insumos, and indexes the insumos flagged only, for the reads of the insumos
+ * low on stock.
+ */
+@ChangeUnit(id = "insumo-bajo-minimo", order = "003")
+public class InsumoBajoMinimoMigration {
+
+    private final MongoTemplate template;
+
+    public InsumoBajoMinimoMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        MongoCollection<Document> insumos = template.getCollection("insumo");
+        Document bajoMinimo = new Document(
+            "$and",
+            List.of(
+                new Document("$isNumber", "$stock_minimo"),
+                new Document("$lt", List.of(new Document("$ifNull", List.of("$stock_actual", 0)), "$stock_minimo"))
+            )
+        );
+        insumos.updateMany(new Document(), List.of(new Document("$set", new Document("bajo_minimo", bajoMinimo))));
+        insumos.createIndex(
+            Indexes.ascending("bajo_minimo"),
+            new IndexOptions().partialFilterExpression(Filters.eq("bajo_minimo", true)).name("bajo_minimo_true")
+        );
+    }
+
+    @RollbackExecution
+    public void rollback() {}
+}
@@ -0,0 +1,34 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.Plato;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Indexes the names of the categorias, insumos and platos, for the upserts and the lookups by name of the menu imports.
+ */
+@ChangeUnit(id = "nombre", order = "005")
+public class NombreMigration {
+
+    private final MongoTemplate template;
+
+    public NombreMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        for (Class<?> entidad : new Class<?>[] { Categoria.class, Insumo.class, Plato.class }) {
+            template.indexOps(entidad).ensureIndex(new Index().on("nombre", Sort.Direction.ASC).named("nombre"));
+        }
+    }
+
+    @RollbackExecution
+    public void rollback() {}
+}
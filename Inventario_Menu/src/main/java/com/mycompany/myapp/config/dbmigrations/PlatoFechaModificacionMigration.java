@@ -0,0 +1,39 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.domain.Plato;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.time.Instant;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Sets the {@code fecha_modificacion} of the existing platos, and indexes it for the reads of the platos changed since a date.
+ */
+@ChangeUnit(id = "plato-fecha-modificacion", order = "001")
+public class PlatoFechaModificacionMigration {
+
+    private final MongoTemplate template;
+
+    public PlatoFechaModificacionMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template.updateMulti(
+            new Query(Criteria.where("fecha_modificacion").exists(false)),
+            new Update().set("fecha_modificacion", Instant.now()),
+            Plato.class
+        );
+        template.indexOps(Plato.class).ensureIndex(new Index().on("fecha_modificacion", Sort.Direction.ASC));
+    }
+
+    @RollbackExecution
+    public void rollback() {}
+}
@@ -0,0 +1,30 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.domain.Plato;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Indexes the insumos of the recetas, for the reads of the platos using an insumo whose cost changed.
+ */
+@ChangeUnit(id = "plato-receta-insumo", order = "004")
+public class PlatoRecetaInsumoMigration {
+
+    private final MongoTemplate template;
+
+    public PlatoRecetaInsumoMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        template.indexOps(Plato.class).ensureIndex(new Index().on("receta.insumo_id", Sort.Direction.ASC).named("receta_insumo"));
+    }
+
+    @RollbackExecution
+    public void rollback() {}
+}
@@ -0,0 +1,116 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Replaces the DBRefs of the platos with embedded references: {@code categorias} becomes a list of {@code { _id, nombre }}
+ * summaries, and {@code insumo} a list of ids, {@code insumo_ids}, which also gets the insumos pointing at the plato.
+ * <p>
+ * The platos are rewritten in batches of {@value #BATCH_SIZE}, and the references are indexed for the updates following
+ * the changes of the categorias and the insumos.
+ */
+@ChangeUnit(id = "plato-referencias", order = "002")
+public class PlatoReferenciasMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate template;
+
+    public PlatoReferenciasMigration(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Execution
+    public void changeSet() {
+        MongoCollection<Document> platos = template.getCollection("plato");
+        Map<Object, String> nombresCategoria = new HashMap<>();
+        template
+            .getCollection("categoria")
+            .find()
+            .projection(new Document("nombre", 1))
+            .forEach(categoria -> nombresCategoria.put(categoria.get("_id"), categoria.getString("nombre")));
+        Map<Object, Set<Object>> insumosPorPlato = new HashMap<>();
+        template
+            .getCollection("insumo")
+            .find(Filters.exists("plato"))
+            .projection(new Document("plato", 1))
+            .forEach(insumo -> {
+                Object platoId = idDe(insumo.get("plato"));
+                if (platoId != null) {
+                    insumosPorPlato.computeIfAbsent(platoId, id -> new LinkedHashSet<>()).add(insumo.get("_id"));
+                }
+            });
+
+        List<WriteModel<Document>> lote = new ArrayList<>();
+        for (Document plato : platos.find().projection(new Document("categorias", 1).append("insumo", 1))) {
+            List<Document> categorias = new ArrayList<>();
+            for (Object referencia : plato.getList("categorias", Object.class, List.of())) {
+                Object categoriaId = idDe(referencia);
+                if (nombresCategoria.containsKey(categoriaId)) {
+                    categorias.add(new Document("_id", categoriaId).append("nombre", nombresCategoria.get(categoriaId)));
+                }
+            }
+            Set<Object> insumoIds = new LinkedHashSet<>();
+            for (Object referencia : plato.getList("insumo", Object.class, List.of())) {
+                Object insumoId = idDe(referencia);
+                if (insumoId != null) {
+                    insumoIds.add(insumoId);
+                }
+            }
+            insumoIds.addAll(insumosPorPlato.getOrDefault(plato.get("_id"), Set.of()));
+            lote.add(
+                new UpdateOneModel<>(
+                    Filters.eq("_id", plato.get("_id")),
+                    Updates.combine(
+                        Updates.set("categorias", categorias),
+                        Updates.set("insumo_ids", new ArrayList<>(insumoIds)),
+                        Updates.unset("insumo")
+                    )
+                )
+            );
+            if (lote.size() == BATCH_SIZE) {
+                platos.bulkWrite(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            platos.bulkWrite(lote);
+        }
+
+        platos.createIndex(Indexes.ascending("categorias._id"));
+        platos.createIndex(Indexes.ascending("insumo_ids"));
+    }
+
+    /**
+     * The id a DBRef points at, decoded either as a {@link DBRef} or as a {@code { $ref, $id }} document.
+     */
+    private static Object idDe(Object referencia) {
+        if (referencia instanceof DBRef dbRef) {
+            return dbRef.getId();
+        }
+        if (referencia instanceof Document document) {
+            return document.get("$id");
+        }
+        return null;
+    }
+
+    @RollbackExecution
+    public void rollback() {}
+}
@@ -0,0 +1,49 @@
+package com.mycompany.myapp.domain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+/**
+ * Stores the categorias of a {@link Plato} as summaries embedded in the plato, {@code { _id, nombre }}, so that reading a plato
+ * needs no other query. The summaries are refreshed when a categoria is renamed or deleted.
+ */
+public class CategoriaResumenConverter implements MongoValueConverter<Set<Categoria>, List<Object>> {
+
+    @Override
+    public Set<Categoria> read(List<Object> value, MongoConversionContext context) {
+        Set<Categoria> categorias = new HashSet<>();
+        for (Object resumen : value) {
+            if (resumen instanceof Document document) {
+                categorias.add(new Categoria().id(String.valueOf(document.get("_id"))).nombre(document.getString("nombre")));
+            }
+        }
+        return categorias;
+    }
+
+    @Override
+    public Set<Categoria> readNull(MongoConversionContext context) {
+        return new HashSet<>();
+    }
+
+    @Override
+    public List<Object> write(Set<Categoria> value, MongoConversionContext context) {
+        List<Object> resumenes = new ArrayList<>(value.size());
+        for (Categoria categoria : value) {
+            if (categoria.getId() == null) {
+                continue;
+            }
+            resumenes.add(new Document("_id", toObjectId(categoria.getId())).append("nombre", categoria.getNombre()));
+        }
+        return resumenes;
+    }
+
+    static Object toObjectId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -1,8 +1,11 @@
 package com.mycompany.myapp.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mycompany.myapp.domain.enumeration.Unidad;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
+import java.math.BigDecimal;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -30,6 +33,24 @@ public class Insumo implements Serializable {
     @Field("stock_actual")
     private Integer stockActual;
 
+    /**
+     * Whether the stock is below the minimum, set with the stock: the insumos low on stock are read through a partial index on
+     * it, see {@link #isBajoMinimo(Integer, Integer)}.
+     */
+    @Field("bajo_minimo")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Boolean bajoMinimo = false;
+
+    @Field("unidad")
+    private Unidad unidad;
+
+    /**
+     * The cost of one {@link #unidad} of the insumo: the costs of the platos using it are updated when it changes.
+     */
+    @DecimalMin(value = "0")
+    @Field("costo_unitario")
+    private BigDecimal costoUnitario;
+
     @DBRef
     @Field("plato")
     @JsonIgnoreProperties(value = { "categorias", "insumos" }, allowSetters = true)
@@ -74,6 +95,7 @@ public class Insumo implements Serializable {
 
     public void setStockMinimo(Integer stockMinimo) {
         this.stockMinimo = stockMinimo;
+        this.bajoMinimo = isBajoMinimo(stockActual, stockMinimo);
     }
 
     public Integer getStockActual() {
@@ -87,6 +109,44 @@ public class Insumo implements Serializable {
 
     public void setStockActual(Integer stockActual) {
         this.stockActual = stockActual;
+        this.bajoMinimo = isBajoMinimo(stockActual, stockMinimo);
+    }
+
+    public Boolean getBajoMinimo() {
+        return this.bajoMinimo;
+    }
+
+    /**
+     * Whether a stock is below a minimum: never without a minimum, and a missing stock counts as none.
+     */
+    public static boolean isBajoMinimo(Integer stockActual, Integer stockMinimo) {
+        return stockMinimo != null && (stockActual == null ? 0 : stockActual) < stockMinimo;
+    }
+
+    public Unidad getUnidad() {
+        return this.unidad;
+    }
+
+    public Insumo unidad(Unidad unidad) {
+        this.setUnidad(unidad);
+        return this;
+    }
+
+    public void setUnidad(Unidad unidad) {
+        this.unidad = unidad;
+    }
+
+    public BigDecimal getCostoUnitario() {
+        return this.costoUnitario;
+    }
+
+    public Insumo costoUnitario(BigDecimal costoUnitario) {
+        this.setCostoUnitario(costoUnitario);
+        return this;
+    }
+
+    public void setCostoUnitario(BigDecimal costoUnitario) {
+        this.costoUnitario = costoUnitario;
     }
 
     public Plato getPlato() {
@@ -129,6 +189,9 @@ public class Insumo implements Serializable {
             ", nombre='" + getNombre() + "'" +
             ", stockMinimo=" + getStockMinimo() +
             ", stockActual=" + getStockActual() +
+            ", bajoMinimo=" + getBajoMinimo() +
+            ", unidad='" + getUnidad() + "'" +
+            ", costoUnitario=" + getCostoUnitario() +
             "}";
     }
 }
@@ -0,0 +1,51 @@
+package com.mycompany.myapp.domain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import org.springframework.data.util.TypeInformation;
+
+/**
+ * Stores the insumos of a {@link Plato} as the list of their ids, {@code insumo_ids}.
+ * <p>
+ * A plato read alone has its insumos with their id only. The eager reads of the platos replace the ids with the insumos
+ * themselves in the same aggregation, see {@link com.mycompany.myapp.repository.PlatoRepositoryWithReferences}, and these are
+ * read in full.
+ */
+public class InsumoReferenciaConverter implements MongoValueConverter<Set<Insumo>, List<Object>> {
+
+    private static final TypeInformation<Insumo> INSUMO_TYPE = TypeInformation.of(Insumo.class);
+
+    @Override
+    public Set<Insumo> read(List<Object> value, MongoConversionContext context) {
+        Set<Insumo> insumos = new HashSet<>();
+        for (Object referencia : value) {
+            if (referencia instanceof Document document) {
+                insumos.add(context.read(document, INSUMO_TYPE));
+            } else if (referencia != null) {
+                insumos.add(new Insumo().id(referencia.toString()));
+            }
+        }
+        return insumos;
+    }
+
+    @Override
+    public Set<Insumo> readNull(MongoConversionContext context) {
+        return new HashSet<>();
+    }
+
+    @Override
+    public List<Object> write(Set<Insumo> value, MongoConversionContext context) {
+        List<Object> ids = new ArrayList<>(value.size());
+        for (Insumo insumo : value) {
+            if (insumo.getId() != null) {
+                ids.add(CategoriaResumenConverter.toObjectId(insumo.getId()));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,122 @@
+package com.mycompany.myapp.domain;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mycompany.myapp.domain.enumeration.Unidad;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * A line of the receta of a {@link Plato}: the quantity of an insumo used to prepare it, embedded in the plato.
+ * <p>
+ * The platos using an insumo are found through the index on {@code receta.insumo_id}.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class LineaReceta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Field(value = "insumo_id", targetType = FieldType.OBJECT_ID)
+    private String insumoId;
+
+    @NotNull
+    @DecimalMin(value = "0", inclusive = false)
+    @Field("cantidad")
+    private BigDecimal cantidad;
+
+    /**
+     * The unit of the quantity, the unit of the insumo when not set.
+     */
+    @Field("unidad")
+    private Unidad unidad;
+
+    /**
+     * The cost of the quantity, set from the cost of the insumo: unknown while the insumo has no cost.
+     */
+    @Field("costo")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private BigDecimal costo;
+
+    public String getInsumoId() {
+        return this.insumoId;
+    }
+
+    public LineaReceta insumoId(String insumoId) {
+        this.setInsumoId(insumoId);
+        return this;
+    }
+
+    public void setInsumoId(String insumoId) {
+        this.insumoId = insumoId;
+    }
+
+    public BigDecimal getCantidad() {
+        return this.cantidad;
+    }
+
+    public LineaReceta cantidad(BigDecimal cantidad) {
+        this.setCantidad(cantidad);
+        return this;
+    }
+
+    public void setCantidad(BigDecimal cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public Unidad getUnidad() {
+        return this.unidad;
+    }
+
+    public LineaReceta unidad(Unidad unidad) {
+        this.setUnidad(unidad);
+        return this;
+    }
+
+    public void setUnidad(Unidad unidad) {
+        this.unidad = unidad;
+    }
+
+    public BigDecimal getCosto() {
+        return this.costo;
+    }
+
+    public void setCosto(BigDecimal costo) {
+        this.costo = costo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LineaReceta linea)) {
+            return false;
+        }
+        return (
+            Objects.equals(insumoId, linea.insumoId) &&
+            Objects.equals(cantidad, linea.cantidad) &&
+            unidad == linea.unidad &&
+            Objects.equals(costo, linea.costo)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(insumoId, cantidad, unidad, costo);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LineaReceta{" +
+            "insumoId='" + getInsumoId() + "'" +
+            ", cantidad=" + getCantidad() +
+            ", unidad='" + getUnidad() + "'" +
+            ", costo=" + getCosto() +
+            "}";
+    }
+}
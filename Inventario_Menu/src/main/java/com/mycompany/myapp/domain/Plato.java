@@ -1,13 +1,18 @@
 package com.mycompany.myapp.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -37,16 +42,53 @@ public class Plato implements Serializable {
     @Field("activo")
     private Boolean activo;
 
-    @DBRef
+    /**
+     * Embedded summaries of the categorias, see {@link CategoriaResumenConverter}.
+     */
     @Field("categorias")
+    @ValueConverter(CategoriaResumenConverter.class)
     @JsonIgnoreProperties(value = { "platoes" }, allowSetters = true)
     private Set<Categoria> categorias = new HashSet<>();
 
-    @DBRef
-    @Field("insumo")
+    /**
+     * Ids of the insumos, resolved by the eager reads, see {@link InsumoReferenciaConverter}.
+     */
+    @Field("insumo_ids")
+    @ValueConverter(InsumoReferenciaConverter.class)
     @JsonIgnoreProperties(value = { "plato" }, allowSetters = true)
     private Set<Insumo> insumos = new HashSet<>();
 
+    /**
+     * The quantities of the insumos used to prepare the plato, not changed by a partial update when not set.
+     */
+    @Valid
+    @Field("receta")
+    private List<LineaReceta> receta;
+
+    /**
+     * The cost of the receta, the sum of the costs of its lines: unknown while an insumo of the receta has no cost. Kept up to
+     * date when the cost of an insumo changes.
+     */
+    @Field("costo")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private BigDecimal costo;
+
+    /**
+     * The price less the cost, unknown with the cost.
+     */
+    @Field("margen")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private BigDecimal margen;
+
+    /**
+     * Set on every save: the services caching the prices of the platos order the changes by it, and read the platos changed
+     * since their last synchronization.
+     */
+    @LastModifiedDate
+    @Field("fecha_modificacion")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant fechaModificacion;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public String getId() {
@@ -168,6 +210,43 @@ public class Plato implements Serializable {
         return this;
     }
 
+    public List<LineaReceta> getReceta() {
+        return this.receta;
+    }
+
+    public Plato receta(List<LineaReceta> receta) {
+        this.setReceta(receta);
+        return this;
+    }
+
+    public void setReceta(List<LineaReceta> receta) {
+        this.receta = receta;
+    }
+
+    public BigDecimal getCosto() {
+        return this.costo;
+    }
+
+    public void setCosto(BigDecimal costo) {
+        this.costo = costo;
+    }
+
+    public BigDecimal getMargen() {
+        return this.margen;
+    }
+
+    public void setMargen(BigDecimal margen) {
+        this.margen = margen;
+    }
+
+    public Instant getFechaModificacion() {
+        return this.fechaModificacion;
+    }
+
+    public void setFechaModificacion(Instant fechaModificacion) {
+        this.fechaModificacion = fechaModificacion;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -196,6 +275,9 @@ public class Plato implements Serializable {
             ", descripcion='" + getDescripcion() + "'" +
             ", precio=" + getPrecio() +
             ", activo='" + getActivo() + "'" +
+            ", costo=" + getCosto() +
+            ", margen=" + getMargen() +
+            ", fechaModificacion='" + getFechaModificacion() + "'" +
             "}";
     }
 }
@@ -0,0 +1,55 @@
+package com.mycompany.myapp.domain.enumeration;
+
+import java.math.BigDecimal;
+
+/**
+ * The Unidad enumeration: the units of the insumos and of the quantities of the recetas.
+ */
+public enum Unidad {
+    UNIDAD(Magnitud.CANTIDAD, BigDecimal.ONE),
+    GRAMO(Magnitud.MASA, BigDecimal.ONE),
+    KILOGRAMO(Magnitud.MASA, BigDecimal.valueOf(1000)),
+    MILILITRO(Magnitud.VOLUMEN, BigDecimal.ONE),
+    LITRO(Magnitud.VOLUMEN, BigDecimal.valueOf(1000)),
+    ;
+
+    private enum Magnitud {
+        CANTIDAD,
+        MASA,
+        VOLUMEN,
+    }
+
+    private final Magnitud magnitud;
+
+    /**
+     * The size of the unit, in the smallest unit of its magnitude.
+     */
+    private final BigDecimal factor;
+
+    Unidad(Magnitud magnitud, BigDecimal factor) {
+        this.magnitud = magnitud;
+        this.factor = factor;
+    }
+
+    /**
+     * Whether a quantity in this unit can be expressed in another: a missing unit stands for any.
+     */
+    public boolean isConvertibleA(Unidad otra) {
+        return otra == null || otra.magnitud == magnitud;
+    }
+
+    /**
+     * Express a quantity in this unit in another one.
+     *
+     * @throws IllegalArgumentException if the units do not measure the same magnitude.
+     */
+    public BigDecimal convertir(BigDecimal cantidad, Unidad otra) {
+        if (otra == null || otra == this) {
+            return cantidad;
+        }
+        if (!isConvertibleA(otra)) {
+            throw new IllegalArgumentException("Cannot convert " + this + " to " + otra);
+        }
+        return cantidad.multiply(factor).divide(otra.factor);
+    }
+}
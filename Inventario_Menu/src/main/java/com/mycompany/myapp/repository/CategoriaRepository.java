@@ -1,11 +1,27 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Categoria;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data MongoDB repository for the Categoria entity.
  */
 @Repository
-public interface CategoriaRepository extends MongoRepository<Categoria, String> {}
+public interface CategoriaRepository extends CategoriaRepositoryWithImportacion, MongoRepository<Categoria, String> {
+    /**
+     * The categorias of the given names, without their platos.
+     */
+    @Query(value = "{ 'nombre': { $in: ?0 } }", fields = "{ 'platoes': 0 }")
+    List<Categoria> findAllByNombreIn(Collection<String> nombres);
+
+    /**
+     * Every categoria, read from a cursor, without its platos.
+     */
+    @Query(value = "{}", fields = "{ 'platoes': 0 }")
+    Stream<Categoria> streamAllBy();
+}
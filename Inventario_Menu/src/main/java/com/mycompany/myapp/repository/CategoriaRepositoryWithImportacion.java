@@ -0,0 +1,17 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Categoria;
+import java.util.List;
+
+/**
+ * Imports {@link Categoria} in bulk, keyed by name.
+ */
+public interface CategoriaRepositoryWithImportacion {
+    /**
+     * Write the categorias over the categorias of the same name, creating the missing ones, in one round trip.
+     *
+     * @param categorias the categorias, of distinct names.
+     * @return the number of categorias created.
+     */
+    int importar(List<Categoria> categorias);
+}
@@ -0,0 +1,27 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Categoria;
+import java.util.List;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class CategoriaRepositoryWithImportacionImpl implements CategoriaRepositoryWithImportacion {
+
+    private final MongoTemplate template;
+
+    public CategoriaRepositoryWithImportacionImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public int importar(List<Categoria> categorias) {
+        return ImportacionPorNombre.importar(
+            template,
+            Categoria.class,
+            categorias,
+            Categoria::getNombre,
+            List.of("platoes"),
+            List.of(),
+            List.of()
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.repository;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Writes imported entities over the entities of the same name, creating the missing ones, in one unordered {@code bulkWrite}.
+ * <p>
+ * The entities are written as a save writes them, but for the fields not set, which keep their value unless derived from
+ * others, and for the fields of the relationships maintained elsewhere.
+ */
+final class ImportacionPorNombre {
+
+    private static final String NOMBRE = "nombre";
+
+    private ImportacionPorNombre() {}
+
+    /**
+     * Import entities keyed by their name.
+     *
+     * @param template the template.
+     * @param type the type of the entities.
+     * @param entidades the entities, of distinct names.
+     * @param nombre the name of an entity.
+     * @param excluidos the fields never written.
+     * @param derivados the fields always written, even when not set.
+     * @param etapas stages run after the fields are set, to derive other fields from them.
+     * @return the number of entities created.
+     */
+    static <T> int importar(
+        MongoTemplate template,
+        Class<T> type,
+        List<T> entidades,
+        Function<T, String> nombre,
+        List<String> excluidos,
+        List<String> derivados,
+        List<Document> etapas
+    ) {
+        if (entidades.isEmpty()) {
+            return 0;
+        }
+        List<WriteModel<Document>> upserts = new ArrayList<>(entidades.size());
+        for (T entidad : entidades) {
+            Document documento = new Document();
+            template.getConverter().write(entidad, documento);
+            documento.remove("_id");
+            excluidos.forEach(documento::remove);
+            derivados.forEach(campo -> documento.putIfAbsent(campo, null));
+            // The pipeline would read a string starting with $ as a field
+            Document campos = new Document();
+            documento.forEach((campo, valor) -> campos.append(campo, new Document("$literal", valor)));
+            List<Document> pipeline = new ArrayList<>(etapas.size() + 1);
+            pipeline.add(new Document("$set", campos));
+            pipeline.addAll(etapas);
+            upserts.add(new UpdateOneModel<>(Filters.eq(NOMBRE, nombre.apply(entidad)), pipeline, new UpdateOptions().upsert(true)));
+        }
+        return template
+            .getCollection(template.getCollectionName(type))
+            .bulkWrite(upserts, new BulkWriteOptions().ordered(false))
+            .getUpserts()
+            .size();
+    }
+}
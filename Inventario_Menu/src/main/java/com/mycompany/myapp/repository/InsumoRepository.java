@@ -1,11 +1,41 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Insumo;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data MongoDB repository for the Insumo entity.
  */
 @Repository
-public interface InsumoRepository extends MongoRepository<Insumo, String> {}
+public interface InsumoRepository
+    extends InsumoRepositoryWithStock, InsumoRepositoryWithImportacion, InsumoRepositoryWithAlertas, MongoRepository<Insumo, String> {
+    /**
+     * The insumos with a stock below their minimum, read through the partial index on {@code bajo_minimo}.
+     */
+    Page<Insumo> findAllByBajoMinimoTrue(Pageable pageable);
+
+    /**
+     * The insumos of the given names, without their plato.
+     */
+    @Query(value = "{ 'nombre': { $in: ?0 } }", fields = "{ 'plato': 0 }")
+    List<Insumo> findAllByNombreIn(Collection<String> nombres);
+
+    /**
+     * The names of the insumos of the given ids.
+     */
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'nombre': 1 }")
+    List<Insumo> findAllNombresByIdIn(Collection<String> ids);
+
+    /**
+     * Every insumo, read from a cursor, without its plato.
+     */
+    @Query(value = "{}", fields = "{ 'plato': 0 }")
+    Stream<Insumo> streamAllBy();
+}
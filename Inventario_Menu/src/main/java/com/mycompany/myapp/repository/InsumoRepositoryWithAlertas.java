@@ -0,0 +1,51 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Insumo;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Records the alerts of the insumos below their minimum stock on the insumos, so that every instance sees them.
+ * <p>
+ * An alert is claimed first, with a conditional update of {@code alerta_reclamada}: only one instance sends it. Once sent,
+ * its date is recorded in {@code fecha_alerta}, and the claim is dropped; a claim never recorded expires. Neither field is
+ * mapped on {@link Insumo}: they are lost when the whole insumo is written, which only alerts of it again.
+ */
+public interface InsumoRepositoryWithAlertas {
+    /**
+     * The insumos below their minimum stock which can be alerted of.
+     *
+     * @param alertadoAntesDe the insumos alerted since are left out.
+     * @param reclamadoAntesDe the insumos whose alert was claimed since are left out.
+     * @return the insumos, read through the partial index on {@code bajo_minimo}.
+     */
+    List<Insumo> findAllAlertables(Instant alertadoAntesDe, Instant reclamadoAntesDe);
+
+    /**
+     * Claim the alert of an insumo, unless it was alerted or claimed meanwhile.
+     *
+     * @param insumoId the id of the insumo.
+     * @param reclamada the date of the claim, to millisecond precision.
+     * @param alertadoAntesDe as {@link #findAllAlertables}.
+     * @param reclamadoAntesDe as {@link #findAllAlertables}.
+     * @return whether the alert is claimed.
+     */
+    boolean reclamarAlerta(String insumoId, Instant reclamada, Instant alertadoAntesDe, Instant reclamadoAntesDe);
+
+    /**
+     * Record the alerts claimed of some insumos as sent.
+     *
+     * @param insumoIds the ids of the insumos.
+     * @param reclamada the date of the claims, which becomes the date of the alerts.
+     */
+    void registrarAlertas(Collection<String> insumoIds, Instant reclamada);
+
+    /**
+     * Drop the claims of alerts which could not be sent, so that they are sent on the next check.
+     *
+     * @param insumoIds the ids of the insumos.
+     * @param reclamada the date of the claims.
+     */
+    void liberarAlertas(Collection<String> insumoIds, Instant reclamada);
+}
@@ -0,0 +1,68 @@
+package com.mycompany.myapp.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import com.mycompany.myapp.domain.Insumo;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class InsumoRepositoryWithAlertasImpl implements InsumoRepositoryWithAlertas {
+
+    private static final String BAJO_MINIMO = "bajo_minimo";
+
+    private static final String FECHA_ALERTA = "fecha_alerta";
+
+    private static final String ALERTA_RECLAMADA = "alerta_reclamada";
+
+    private final MongoTemplate template;
+
+    public InsumoRepositoryWithAlertasImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public List<Insumo> findAllAlertables(Instant alertadoAntesDe, Instant reclamadoAntesDe) {
+        return template.find(new Query(alertable(alertadoAntesDe, reclamadoAntesDe)), Insumo.class);
+    }
+
+    @Override
+    public boolean reclamarAlerta(String insumoId, Instant reclamada, Instant alertadoAntesDe, Instant reclamadoAntesDe) {
+        Query query = new Query(where("id").is(insumoId).andOperator(alertable(alertadoAntesDe, reclamadoAntesDe)));
+        return template.updateFirst(query, new Update().set(ALERTA_RECLAMADA, reclamada), Insumo.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public void registrarAlertas(Collection<String> insumoIds, Instant reclamada) {
+        Update update = new Update().set(FECHA_ALERTA, reclamada).unset(ALERTA_RECLAMADA);
+        template.updateMulti(reclamadas(insumoIds, reclamada), update, Insumo.class);
+    }
+
+    @Override
+    public void liberarAlertas(Collection<String> insumoIds, Instant reclamada) {
+        template.updateMulti(reclamadas(insumoIds, reclamada), new Update().unset(ALERTA_RECLAMADA), Insumo.class);
+    }
+
+    /**
+     * Below the minimum, and neither alerted nor claimed since the given dates; a missing date matches too.
+     */
+    private static Criteria alertable(Instant alertadoAntesDe, Instant reclamadoAntesDe) {
+        return where(BAJO_MINIMO)
+            .is(true)
+            .andOperator(
+                new Criteria().orOperator(where(FECHA_ALERTA).is(null), where(FECHA_ALERTA).lt(alertadoAntesDe)),
+                new Criteria().orOperator(where(ALERTA_RECLAMADA).is(null), where(ALERTA_RECLAMADA).lt(reclamadoAntesDe))
+            );
+    }
+
+    /**
+     * The claims of this check only: a claim expired meanwhile may be held by another instance.
+     */
+    private static Query reclamadas(Collection<String> insumoIds, Instant reclamada) {
+        return new Query(where("id").in(insumoIds).and(ALERTA_RECLAMADA).is(reclamada));
+    }
+}
@@ -0,0 +1,17 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Insumo;
+import java.util.List;
+
+/**
+ * Imports {@link Insumo} in bulk, keyed by name.
+ */
+public interface InsumoRepositoryWithImportacion {
+    /**
+     * Write the insumos over the insumos of the same name, creating the missing ones, in one round trip.
+     *
+     * @param insumos the insumos, of distinct names.
+     * @return the number of insumos created.
+     */
+    int importar(List<Insumo> insumos);
+}
@@ -0,0 +1,45 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Insumo;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class InsumoRepositoryWithImportacionImpl implements InsumoRepositoryWithImportacion {
+
+    /**
+     * The stock of an insumo may be kept when not imported, its flag is set from the stock written, as Insumo.isBajoMinimo.
+     */
+    private static final Document BAJO_MINIMO = new Document(
+        "$set",
+        new Document(
+            "bajo_minimo",
+            new Document(
+                "$and",
+                List.of(
+                    new Document("$isNumber", "$stock_minimo"),
+                    new Document("$lt", List.of(new Document("$ifNull", List.of("$stock_actual", 0)), "$stock_minimo"))
+                )
+            )
+        )
+    );
+
+    private final MongoTemplate template;
+
+    public InsumoRepositoryWithImportacionImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public int importar(List<Insumo> insumos) {
+        return ImportacionPorNombre.importar(
+            template,
+            Insumo.class,
+            insumos,
+            Insumo::getNombre,
+            List.of("plato"),
+            List.of(),
+            List.of(BAJO_MINIMO)
+        );
+    }
+}
@@ -0,0 +1,37 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Insumo;
+import java.util.List;
+
+/**
+ * Applies movements to the stock of {@link Insumo}, atomically.
+ * <p>
+ * Each movement adds to {@code stock_actual} atomically, and a depletion only applies if the stock covers it. The same
+ * update sets {@code bajo_minimo} from the new stock. The movements are written with a single unordered {@code bulkWrite}.
+ */
+public interface InsumoRepositoryWithStock {
+    /**
+     * A movement of the stock of an insumo.
+     *
+     * @param insumoId the id of the insumo.
+     * @param cantidad the quantity added to the stock, negative for a depletion.
+     */
+    record MovimientoStock(String insumoId, int cantidad) {}
+
+    /**
+     * The outcome of a movement.
+     */
+    enum ResultadoMovimiento {
+        APLICADO,
+        STOCK_INSUFICIENTE,
+        NO_ENCONTRADO,
+    }
+
+    /**
+     * Apply movements of the stock, in one round trip when they all apply.
+     *
+     * @param movimientos the movements, several may be of the same insumo.
+     * @return the outcome of each movement, in the order of the movements.
+     */
+    List<ResultadoMovimiento> aplicarMovimientos(List<MovimientoStock> movimientos);
+}
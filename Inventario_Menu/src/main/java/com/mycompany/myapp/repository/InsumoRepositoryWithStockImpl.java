@@ -0,0 +1,119 @@
+package com.mycompany.myapp.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mycompany.myapp.domain.Insumo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class InsumoRepositoryWithStockImpl implements InsumoRepositoryWithStock {
+
+    private static final String STOCK_ACTUAL = "stock_actual";
+
+    private static final String STOCK_MINIMO = "stock_minimo";
+
+    private static final String BAJO_MINIMO = "bajo_minimo";
+
+    /**
+     * The marks of the last movements applied to an insumo, which tell the movements applied when some were not.
+     */
+    private static final String ULTIMOS_MOVIMIENTOS = "ultimos_movimientos";
+
+    /**
+     * The marks kept per insumo: more than the movements of an insumo written at once by all the instances.
+     */
+    private static final int MARCAS = 50;
+
+    private final MongoTemplate template;
+
+    public InsumoRepositoryWithStockImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public List<ResultadoMovimiento> aplicarMovimientos(List<MovimientoStock> movimientos) {
+        if (movimientos.isEmpty()) {
+            return List.of();
+        }
+        List<ObjectId> marcas = new ArrayList<>(movimientos.size());
+        List<WriteModel<Document>> updates = new ArrayList<>(movimientos.size());
+        for (MovimientoStock movimiento : movimientos) {
+            ObjectId marca = new ObjectId();
+            marcas.add(marca);
+            Bson filtro = Filters.eq("_id", toObjectId(movimiento.insumoId()));
+            if (movimiento.cantidad() < 0) {
+                filtro = Filters.and(filtro, Filters.gte(STOCK_ACTUAL, -movimiento.cantidad()));
+            }
+            updates.add(new UpdateOneModel<>(filtro, actualizacion(movimiento.cantidad(), marca)));
+        }
+
+        BulkWriteResult result;
+        try {
+            result = insumos().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // A stock which is not a number cannot be incremented, the other movements are still applied
+            result = e.getWriteResult();
+        }
+        if (result.getMatchedCount() == movimientos.size()) {
+            return Collections.nCopies(movimientos.size(), ResultadoMovimiento.APLICADO);
+        }
+
+        // The insumos which were not updated are told by the marks of the movements they hold, a second round trip
+        Map<Object, List<ObjectId>> aplicadas = new HashMap<>();
+        insumos()
+            .find(Filters.in("_id", movimientos.stream().map(m -> toObjectId(m.insumoId())).distinct().toList()))
+            .projection(Projections.include(ULTIMOS_MOVIMIENTOS))
+            .forEach(insumo -> aplicadas.put(insumo.get("_id"), insumo.getList(ULTIMOS_MOVIMIENTOS, ObjectId.class, List.of())));
+        List<ResultadoMovimiento> resultados = new ArrayList<>(movimientos.size());
+        for (int i = 0; i < movimientos.size(); i++) {
+            List<ObjectId> marcasInsumo = aplicadas.get(toObjectId(movimientos.get(i).insumoId()));
+            if (marcasInsumo == null) {
+                resultados.add(ResultadoMovimiento.NO_ENCONTRADO);
+            } else if (marcasInsumo.contains(marcas.get(i))) {
+                resultados.add(ResultadoMovimiento.APLICADO);
+            } else {
+                resultados.add(ResultadoMovimiento.STOCK_INSUFICIENTE);
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * The update of a movement: a pipeline, so that the flag of the stock below the minimum is set from the new stock in the same
+     * atomic update.
+     */
+    private static List<Document> actualizacion(int cantidad, ObjectId marca) {
+        Document stock = new Document("$add", List.of(new Document("$ifNull", List.of("$" + STOCK_ACTUAL, 0)), cantidad));
+        // As Insumo.isBajoMinimo
+        Document bajoMinimo = new Document(
+            "$and",
+            List.of(new Document("$isNumber", "$" + STOCK_MINIMO), new Document("$lt", List.of(stock, "$" + STOCK_MINIMO)))
+        );
+        Document ultimos = new Document("$ifNull", List.of("$" + ULTIMOS_MOVIMIENTOS, List.of()));
+        Document marcas = new Document("$slice", List.of(new Document("$concatArrays", List.of(ultimos, List.of(marca))), -MARCAS));
+        return List.of(
+            new Document("$set", new Document(STOCK_ACTUAL, stock).append(BAJO_MINIMO, bajoMinimo).append(ULTIMOS_MOVIMIENTOS, marcas))
+        );
+    }
+
+    private MongoCollection<Document> insumos() {
+        return template.getCollection(template.getCollectionName(Insumo.class));
+    }
+
+    private static Object toObjectId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
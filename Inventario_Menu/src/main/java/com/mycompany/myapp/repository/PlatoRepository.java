@@ -1,10 +1,10 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Plato;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.util.stream.Stream;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -13,13 +13,27 @@ import org.springframework.stereotype.Repository;
  * Spring Data MongoDB repository for the Plato entity.
  */
 @Repository
-public interface PlatoRepository extends MongoRepository<Plato, String> {
-    @Query("{}")
-    Page<Plato> findAllWithEagerRelationships(Pageable pageable);
+public interface PlatoRepository
+    extends PlatoRepositoryWithReferences, PlatoRepositoryWithCostos, PlatoRepositoryWithImportacion, MongoRepository<Plato, String> {
+    /**
+     * The platos changed since a date, in the order of their changes, without their relationships.
+     */
+    @Query(
+        value = "{ 'fecha_modificacion': { $gte: ?0 } }",
+        fields = "{ 'categorias': 0, 'insumo_ids': 0 }",
+        sort = "{ 'fecha_modificacion': 1 }"
+    )
+    List<Plato> findAllModificadosDesde(Instant desde);
 
-    @Query("{}")
-    List<Plato> findAllWithEagerRelationships();
+    /**
+     * The platos of the given names, without their relationships.
+     */
+    @Query(value = "{ 'nombre': { $in: ?0 } }", fields = "{ 'categorias': 0, 'insumo_ids': 0, 'receta': 0 }")
+    List<Plato> findAllByNombreIn(Collection<String> nombres);
 
-    @Query("{'id': ?0}")
-    Optional<Plato> findOneWithEagerRelationships(String id);
+    /**
+     * Every plato, read from a cursor, without its insumos.
+     */
+    @Query(value = "{}", fields = "{ 'insumo_ids': 0 }")
+    Stream<Plato> streamAllBy();
 }
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Plato;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and updates the costs of {@link Plato}.
+ * <p>
+ * The platos using an insumo are read through the index on {@code receta.insumo_id}, the reverse index from the insumos to
+ * the platos. Their costs are updated in place, only if the plato did not change since it was read.
+ */
+public interface PlatoRepositoryWithCostos {
+    /**
+     * New costs of a plato.
+     *
+     * @param platoId the id of the plato.
+     * @param fechaModificacion the date of the last change of the plato read.
+     * @param costoAnterior the cost of the plato read.
+     * @param costosLineas the new costs of the lines of the receta, by their position.
+     * @param costo the new cost of the plato.
+     * @param margen the new margin of the plato.
+     */
+    record ActualizacionCosto(
+        String platoId,
+        Instant fechaModificacion,
+        BigDecimal costoAnterior,
+        Map<Integer, BigDecimal> costosLineas,
+        BigDecimal costo,
+        BigDecimal margen
+    ) {}
+
+    /**
+     * The platos with an insumo in their receta, with their price, receta and cost only.
+     */
+    List<Plato> findAllConInsumoEnReceta(String insumoId);
+
+    /**
+     * Update the costs of platos, in one round trip.
+     *
+     * @return the number of platos updated: a plato changed since it was read is not.
+     */
+    long actualizarCostos(List<ActualizacionCosto> actualizaciones);
+}
@@ -0,0 +1,57 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Plato;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class PlatoRepositoryWithCostosImpl implements PlatoRepositoryWithCostos {
+
+    private static final String RECETA = "receta";
+
+    private static final String COSTO = "costo";
+
+    private final MongoTemplate template;
+
+    public PlatoRepositoryWithCostosImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public List<Plato> findAllConInsumoEnReceta(String insumoId) {
+        Query query = new Query(Criteria.where(RECETA + ".insumoId").is(toObjectId(insumoId)));
+        query.fields().include("precio", RECETA, COSTO, "fechaModificacion");
+        return template.find(query, Plato.class);
+    }
+
+    @Override
+    public long actualizarCostos(List<ActualizacionCosto> actualizaciones) {
+        if (actualizaciones.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = template.bulkOps(BulkOperations.BulkMode.UNORDERED, Plato.class);
+        for (ActualizacionCosto actualizacion : actualizaciones) {
+            // Any save of the plato changes its date, and an update of the cost of another of its insumos changes its cost
+            Query leido = new Query(
+                Criteria.where("id")
+                    .is(actualizacion.platoId())
+                    .and("fechaModificacion")
+                    .is(actualizacion.fechaModificacion())
+                    .and(COSTO)
+                    .is(actualizacion.costoAnterior())
+            );
+            Update update = new Update().set(COSTO, actualizacion.costo()).set("margen", actualizacion.margen());
+            actualizacion.costosLineas().forEach((linea, costo) -> update.set(RECETA + "." + linea + "." + COSTO, costo));
+            bulk.updateOne(leido, update);
+        }
+        return bulk.execute().getMatchedCount();
+    }
+
+    private static Object toObjectId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
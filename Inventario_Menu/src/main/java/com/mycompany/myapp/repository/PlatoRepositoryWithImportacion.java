@@ -0,0 +1,17 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Plato;
+import java.util.List;
+
+/**
+ * Imports {@link Plato} in bulk, keyed by name.
+ */
+public interface PlatoRepositoryWithImportacion {
+    /**
+     * Write the platos over the platos of the same name, creating the missing ones, in one round trip.
+     *
+     * @param platos the platos, of distinct names.
+     * @return the number of platos created.
+     */
+    int importar(List<Plato> platos);
+}
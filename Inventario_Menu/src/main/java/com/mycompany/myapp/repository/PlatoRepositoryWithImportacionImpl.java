@@ -0,0 +1,25 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Plato;
+import java.util.List;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public class PlatoRepositoryWithImportacionImpl implements PlatoRepositoryWithImportacion {
+
+    /**
+     * The costs of the plato are set from the receta written, unknown without it.
+     */
+    private static final List<String> COSTOS = List.of("costo", "margen");
+
+    private final MongoTemplate template;
+
+    public PlatoRepositoryWithImportacionImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public int importar(List<Plato> platos) {
+        // The insumos are moved to a plato by the changes of the insumos
+        return ImportacionPorNombre.importar(template, Plato.class, platos, Plato::getNombre, List.of("insumo_ids"), COSTOS, List.of());
+    }
+}
@@ -0,0 +1,51 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Plato;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Reads and maintains the references of {@link Plato} to its categorias and insumos.
+ * <p>
+ * A plato embeds a summary of each of its categorias and the ids of its insumos: reading a plato with its categorias needs
+ * no other query, and the eager reads resolve the insumos of all the platos read in the same aggregation, with a
+ * {@code $lookup} on {@code insumo}. The summaries and the ids are kept up to date when a categoria or an insumo changes.
+ */
+public interface PlatoRepositoryWithReferences {
+    /**
+     * Fetch every plato with its categorias and its insumos, in one aggregation.
+     */
+    List<Plato> findAllWithEagerRelationships();
+
+    /**
+     * Fetch a page of platos with their categorias and their insumos, in one aggregation.
+     */
+    Page<Plato> findAllWithEagerRelationships(Pageable pageable);
+
+    /**
+     * Fetch the "id" plato with its categorias and its insumos, in one aggregation.
+     */
+    Optional<Plato> findOneWithEagerRelationships(String id);
+
+    /**
+     * Refresh the summary of a categoria in the platos of the categoria.
+     *
+     * @return the number of platos updated.
+     */
+    long actualizarCategoria(Categoria categoria);
+
+    /**
+     * Remove a deleted categoria from its platos.
+     *
+     * @return the number of platos updated.
+     */
+    long quitarCategoria(String categoriaId);
+
+    /**
+     * Move an insumo to a plato: it is removed from the other platos, and added to the plato unless {@code null}.
+     */
+    void asignarInsumo(String insumoId, String platoId);
+}
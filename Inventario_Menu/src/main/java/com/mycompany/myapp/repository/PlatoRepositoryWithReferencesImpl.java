@@ -0,0 +1,136 @@
+package com.mycompany.myapp.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.Plato;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class PlatoRepositoryWithReferencesImpl implements PlatoRepositoryWithReferences {
+
+    private static final String CATEGORIAS = "categorias";
+
+    private static final String INSUMO_IDS = "insumo_ids";
+
+    private final MongoTemplate template;
+
+    public PlatoRepositoryWithReferencesImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public List<Plato> findAllWithEagerRelationships() {
+        return agregar(List.of());
+    }
+
+    @Override
+    public Page<Plato> findAllWithEagerRelationships(Pageable pageable) {
+        List<AggregationOperation> pagina = new ArrayList<>();
+        if (pageable.getSort().isSorted()) {
+            pagina.add(Aggregation.sort(toFieldSort(pageable.getSort())));
+        }
+        if (pageable.isPaged()) {
+            pagina.add(Aggregation.skip(pageable.getOffset()));
+            pagina.add(Aggregation.limit(pageable.getPageSize()));
+        }
+        return PageableExecutionUtils.getPage(agregar(pagina), pageable, () -> template.count(new Query(), Plato.class));
+    }
+
+    @Override
+    public Optional<Plato> findOneWithEagerRelationships(String id) {
+        return agregar(List.of(Aggregation.match(Criteria.where("_id").is(toObjectId(id))))).stream().findFirst();
+    }
+
+    @Override
+    public long actualizarCategoria(Categoria categoria) {
+        Object id = toObjectId(categoria.getId());
+        return platos()
+            .updateMany(
+                Filters.eq(CATEGORIAS + "._id", id),
+                Updates.set(CATEGORIAS + ".$[c].nombre", categoria.getNombre()),
+                new UpdateOptions().arrayFilters(List.of(Filters.eq("c._id", id)))
+            )
+            .getModifiedCount();
+    }
+
+    @Override
+    public long quitarCategoria(String categoriaId) {
+        Object id = toObjectId(categoriaId);
+        return platos()
+            .updateMany(Filters.eq(CATEGORIAS + "._id", id), Updates.pull(CATEGORIAS, new Document("_id", id)))
+            .getModifiedCount();
+    }
+
+    @Override
+    public void asignarInsumo(String insumoId, String platoId) {
+        Object id = toObjectId(insumoId);
+        if (platoId == null) {
+            platos().updateMany(Filters.eq(INSUMO_IDS, id), Updates.pull(INSUMO_IDS, id));
+            return;
+        }
+        Object platoObjectId = toObjectId(platoId);
+        platos().updateMany(Filters.and(Filters.eq(INSUMO_IDS, id), Filters.ne("_id", platoObjectId)), Updates.pull(INSUMO_IDS, id));
+        platos().updateOne(Filters.eq("_id", platoObjectId), Updates.addToSet(INSUMO_IDS, id));
+    }
+
+    /**
+     * Read the platos selected by the given stages, with their insumos: the {@code $lookup} replaces the ids of the insumos with
+     * the insumos themselves.
+     */
+    private List<Plato> agregar(List<AggregationOperation> seleccion) {
+        List<AggregationOperation> operations = new ArrayList<>(seleccion);
+        operations.add(context ->
+            new Document(
+                "$lookup",
+                new Document("from", template.getCollectionName(Insumo.class))
+                    .append("localField", INSUMO_IDS)
+                    .append("foreignField", "_id")
+                    .append("as", INSUMO_IDS)
+            )
+        );
+        // The DBRef of each insumo back to its plato would cost one more query per insumo, and is not serialized anyway
+        operations.add(context -> new Document("$project", new Document(INSUMO_IDS + ".plato", 0)));
+        return template
+            .aggregate(Aggregation.newAggregation(operations), template.getCollectionName(Plato.class), Plato.class)
+            .getMappedResults();
+    }
+
+    private MongoCollection<Document> platos() {
+        return template.getCollection(template.getCollectionName(Plato.class));
+    }
+
+    private Sort toFieldSort(Sort sort) {
+        MongoPersistentEntity<?> entity = template.getConverter().getMappingContext().getRequiredPersistentEntity(Plato.class);
+        return Sort.by(
+            sort
+                .stream()
+                .map(order -> {
+                    MongoPersistentProperty property = entity.getPersistentProperty(order.getProperty());
+                    return property == null ? order : order.withProperty(property.getFieldName());
+                })
+                .toList()
+        );
+    }
+
+    private static Object toObjectId(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
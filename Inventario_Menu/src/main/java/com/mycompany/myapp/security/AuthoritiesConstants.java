@@ -11,5 +11,10 @@ public final class AuthoritiesConstants {
 
     public static final String ANONYMOUS = "ROLE_ANONYMOUS";
 
+    /**
+     * The authority of the tokens the services send when they call each other, see {@link ServiceTokenProvider}.
+     */
+    public static final String SERVICE = "ROLE_SERVICE";
+
     private AuthoritiesConstants() {}
 }
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.security;
+
+import static com.mycompany.myapp.security.SecurityUtils.AUTHORITIES_CLAIM;
+import static com.mycompany.myapp.security.SecurityUtils.JWT_ALGORITHM;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues the tokens this service sends when it calls another service on its own behalf.
+ * <p>
+ * The services sign their tokens with the same secret, so they accept each other's tokens. These are short-lived, with the
+ * name of the application as subject and only the {@link AuthoritiesConstants#SERVICE} authority, which the services grant
+ * on the few endpoints they call each other on.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private static final Duration VALIDITY = Duration.ofMinutes(5);
+
+    private final JwtEncoder jwtEncoder;
+
+    private final String applicationName;
+
+    public ServiceTokenProvider(JwtEncoder jwtEncoder, @Value("${spring.application.name}") String applicationName) {
+        this.jwtEncoder = jwtEncoder;
+        this.applicationName = applicationName;
+    }
+
+    public String createToken() {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+            .issuedAt(now)
+            .expiresAt(now.plus(VALIDITY))
+            .subject(applicationName)
+            .claim(AUTHORITIES_CLAIM, AuthoritiesConstants.SERVICE)
+            .build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(JWT_ALGORITHM).build(), claims)).getTokenValue();
+    }
+}
@@ -0,0 +1,18 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Insumo;
+import java.util.List;
+
+/**
+ * Sends the alerts of the insumos below their minimum stock, see {@link AlertaStockService}.
+ * <p>
+ * Every bean implementing it is sent the alerts.
+ */
+public interface AlertaStockNotifier {
+    /**
+     * Alert of insumos below their minimum stock.
+     *
+     * @param insumos the insumos, never empty.
+     */
+    void notificar(List<Insumo> insumos);
+}
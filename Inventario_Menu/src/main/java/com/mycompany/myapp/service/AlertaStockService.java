@@ -0,0 +1,99 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.repository.InsumoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Alerts of the insumos below their minimum stock, through every {@link AlertaStockNotifier}.
+ * <p>
+ * The insumos are checked every {@code application.stock.alert-delay}, reading only the insumos flagged {@code bajo_minimo}
+ * through its partial index. An insumo is alerted again only once {@code alert-interval} has passed, even if its stock went
+ * above the minimum and back in between.
+ * <p>
+ * The date of the last alert is kept on the insumo, so that it holds across the instances and their restarts: each alert is
+ * claimed on the insumo before it is sent, and recorded only once a notifier sent it. When every notifier fails, the claims
+ * are released and the insumos are alerted on the next check; a claim left by a stopped instance expires after
+ * {@code alert-claim-timeout}.
+ */
+@Service
+public class AlertaStockService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AlertaStockService.class);
+
+    public static final String ALERTS_METER_NAME = "menu.stock.alerts";
+
+    private final InsumoRepository insumoRepository;
+
+    private final List<AlertaStockNotifier> notifiers;
+
+    private final Duration alertInterval;
+
+    private final Duration alertClaimTimeout;
+
+    private final Counter alertsCounter;
+
+    public AlertaStockService(
+        InsumoRepository insumoRepository,
+        List<AlertaStockNotifier> notifiers,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.insumoRepository = insumoRepository;
+        this.notifiers = notifiers;
+        this.alertInterval = applicationProperties.getStock().getAlertInterval();
+        this.alertClaimTimeout = applicationProperties.getStock().getAlertClaimTimeout();
+        this.alertsCounter = Counter.builder(ALERTS_METER_NAME)
+            .description("Alerts of insumos below their minimum stock")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Alert of the insumos below their minimum stock, but the ones alerted within {@code alert-interval}, or claimed by another
+     * check.
+     *
+     * @return the insumos alerted, empty when no notifier could send the alerts.
+     */
+    @Scheduled(fixedDelayString = "${application.stock.alert-delay:PT1M}")
+    public synchronized List<Insumo> alertar() {
+        // Mongo keeps dates to the millisecond, and the claim is matched on it
+        Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant alertadoAntesDe = ahora.minus(alertInterval);
+        Instant reclamadoAntesDe = ahora.minus(alertClaimTimeout);
+        List<Insumo> alertas = insumoRepository
+            .findAllAlertables(alertadoAntesDe, reclamadoAntesDe)
+            .stream()
+            .filter(insumo -> insumoRepository.reclamarAlerta(insumo.getId(), ahora, alertadoAntesDe, reclamadoAntesDe))
+            .toList();
+        if (alertas.isEmpty()) {
+            return alertas;
+        }
+        List<String> ids = alertas.stream().map(Insumo::getId).toList();
+        boolean enviadas = false;
+        for (AlertaStockNotifier notifier : notifiers) {
+            try {
+                notifier.notificar(alertas);
+                enviadas = true;
+            } catch (RuntimeException e) {
+                LOG.warn("Could not alert of {} insumos below their minimum stock : {}", alertas.size(), e.getMessage());
+            }
+        }
+        if (!enviadas) {
+            insumoRepository.liberarAlertas(ids, ahora);
+            return List.of();
+        }
+        insumoRepository.registrarAlertas(ids, ahora);
+        alertsCounter.increment(alertas.size());
+        return alertas;
+    }
+}
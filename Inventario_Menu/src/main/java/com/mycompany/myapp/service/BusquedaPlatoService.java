@@ -0,0 +1,372 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.dto.PlatoBusquedaDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory search index of the platos, by the words of their name, their description and the names of their categorias.
+ * <p>
+ * The words are matched regardless of case and accents, "pina" finding "Piña". A word of the search matches a word of a
+ * plato it is a prefix of, through an index of the prefixes of the words, or one it is a part of, through an index of the
+ * trigrams of the words, when the word searched has at least three letters. Every word searched must match, and the platos
+ * are ranked by how they match: a whole word over a prefix over a part, in the name over a categoria over the description.
+ * <p>
+ * The index is built from Mongo on startup, and kept in step with the changes of the platos and the categorias made through
+ * this instance. A search does not read Mongo. The index is rebuilt every {@code application.busqueda.refresh-delay}, which
+ * bounds how long the changes made through the other instances are missing from it. A rebuild fills a new index and then
+ * replaces the current one, which is searched meanwhile.
+ */
+@Service
+public class BusquedaPlatoService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BusquedaPlatoService.class);
+
+    public static final String SEARCHES_METER_NAME = "menu.busqueda.searches";
+    public static final String SIZE_METER_NAME = "menu.busqueda.size";
+
+    /**
+     * The longest prefix indexed: a longer word searched is looked up by its trigrams.
+     */
+    private static final int MAX_PREFIJO = 20;
+
+    private static final int TRIGRAMA = 3;
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private enum Campo {
+        NOMBRE(3),
+        CATEGORIA(2),
+        DESCRIPCION(1);
+
+        private final int peso;
+
+        Campo(int peso) {
+            this.peso = peso;
+        }
+    }
+
+    /**
+     * A plato as indexed.
+     *
+     * @param categorias the names of the categorias of the plato, by id.
+     * @param palabras the normalized words of each field.
+     */
+    private record Entrada(
+        String id,
+        String nombre,
+        String descripcion,
+        BigDecimal precio,
+        boolean activo,
+        Map<String, String> categorias,
+        Map<Campo, List<String>> palabras
+    ) {
+        static Entrada of(String id, String nombre, String descripcion, BigDecimal precio, boolean activo, Map<String, String> categorias) {
+            Map<Campo, List<String>> palabras = new EnumMap<>(Campo.class);
+            palabras.put(Campo.NOMBRE, BusquedaPlatoService.palabras(nombre));
+            palabras.put(Campo.CATEGORIA, BusquedaPlatoService.palabras(String.join(" ", categorias.values())));
+            palabras.put(Campo.DESCRIPCION, BusquedaPlatoService.palabras(descripcion));
+            return new Entrada(id, nombre, descripcion, precio, activo, categorias, palabras);
+        }
+
+        Set<String> claves(boolean trigramas) {
+            Set<String> claves = new HashSet<>();
+            palabras
+                .values()
+                .forEach(lista ->
+                    lista.forEach(palabra -> {
+                        if (trigramas) {
+                            for (int i = 0; i + TRIGRAMA <= palabra.length(); i++) {
+                                claves.add(palabra.substring(i, i + TRIGRAMA));
+                            }
+                        } else {
+                            for (int i = 1; i <= Math.min(palabra.length(), MAX_PREFIJO); i++) {
+                                claves.add(palabra.substring(0, i));
+                            }
+                        }
+                    })
+                );
+            return claves;
+        }
+
+        PlatoBusquedaDTO toDTO(int puntuacion) {
+            return new PlatoBusquedaDTO(id, nombre, descripcion, precio, activo, List.copyOf(categorias.values()), puntuacion);
+        }
+    }
+
+    private record Resultado(Entrada entrada, int puntuacion) {}
+
+    /**
+     * The platos indexed, by their id, and the ids of the platos by the prefixes and the trigrams of their words.
+     */
+    private record Indice(Map<String, Entrada> entradas, Map<String, Set<String>> prefijos, Map<String, Set<String>> trigramas) {
+        Indice() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private final PlatoRepository platoRepository;
+
+    private volatile Indice indice = new Indice();
+
+    private final Timer searchTimer;
+
+    public BusquedaPlatoService(PlatoRepository platoRepository, MeterRegistry meterRegistry) {
+        this.platoRepository = platoRepository;
+        this.searchTimer = Timer.builder(SEARCHES_METER_NAME).description("Searches of the menu").register(meterRegistry);
+        Gauge.builder(SIZE_METER_NAME, this, service -> service.indice.entradas().size())
+            .description("Platos in the search index")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild the index from every plato. The changes made meanwhile wait for the new index, the searches use the current one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        initialDelayString = "${application.busqueda.refresh-delay:PT5M}",
+        fixedDelayString = "${application.busqueda.refresh-delay:PT5M}"
+    )
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        Indice nuevo = new Indice();
+        platoRepository.findAll().forEach(plato -> poner(nuevo, entrada(plato)));
+        indice = nuevo;
+        LOG.info("Indexed {} Platos for the search in {} ms", nuevo.entradas().size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Index a created or changed plato.
+     *
+     * @param plato the plato, with its categorias.
+     */
+    public void indexar(Plato plato) {
+        poner(entrada(plato));
+    }
+
+    private static Entrada entrada(Plato plato) {
+        Map<String, String> categorias = new LinkedHashMap<>();
+        if (plato.getCategorias() != null) {
+            plato
+                .getCategorias()
+                .stream()
+                .sorted(Comparator.comparing(Categoria::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(categoria -> categorias.put(categoria.getId(), Objects.toString(categoria.getNombre(), "")));
+        }
+        boolean activo = Boolean.TRUE.equals(plato.getActivo());
+        return Entrada.of(plato.getId(), plato.getNombre(), plato.getDescripcion(), plato.getPrecio(), activo, categorias);
+    }
+
+    /**
+     * Remove a deleted plato.
+     *
+     * @param platoId the id of the plato.
+     */
+    public synchronized void quitar(String platoId) {
+        Entrada anterior = indice.entradas().remove(platoId);
+        if (anterior != null) {
+            desindexar(indice, anterior);
+        }
+    }
+
+    /**
+     * Reindex the platos of a changed categoria.
+     *
+     * @param categoria the categoria.
+     */
+    public void actualizarCategoria(Categoria categoria) {
+        indice
+            .entradas()
+            .values()
+            .stream()
+            .filter(entrada -> entrada.categorias().containsKey(categoria.getId()))
+            .toList()
+            .forEach(entrada -> {
+                Map<String, String> categorias = new LinkedHashMap<>(entrada.categorias());
+                categorias.put(categoria.getId(), Objects.toString(categoria.getNombre(), ""));
+                poner(Entrada.of(entrada.id(), entrada.nombre(), entrada.descripcion(), entrada.precio(), entrada.activo(), categorias));
+            });
+    }
+
+    /**
+     * Reindex the platos of a deleted categoria.
+     *
+     * @param categoriaId the id of the categoria.
+     */
+    public void quitarCategoria(String categoriaId) {
+        indice
+            .entradas()
+            .values()
+            .stream()
+            .filter(entrada -> entrada.categorias().containsKey(categoriaId))
+            .toList()
+            .forEach(entrada -> {
+                Map<String, String> categorias = new LinkedHashMap<>(entrada.categorias());
+                categorias.remove(categoriaId);
+                poner(Entrada.of(entrada.id(), entrada.nombre(), entrada.descripcion(), entrada.precio(), entrada.activo(), categorias));
+            });
+    }
+
+    /**
+     * Search the platos.
+     *
+     * @param texto the words searched, or their beginnings.
+     * @param soloActivos whether to only find the active platos.
+     * @param limite the most platos found.
+     * @return the platos matching every word, the best matches first.
+     */
+    public List<PlatoBusquedaDTO> buscar(String texto, boolean soloActivos, int limite) {
+        long inicio = System.nanoTime();
+        List<String> terminos = List.copyOf(new LinkedHashSet<>(palabras(texto)));
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+        Indice indice = this.indice;
+
+        // The platos matching the most selective word, the other words are checked on each of them
+        Set<String> candidatos = null;
+        for (String termino : terminos) {
+            Set<String> coincidencias = candidatos(indice, termino);
+            if (candidatos == null || coincidencias.size() < candidatos.size()) {
+                candidatos = coincidencias;
+            }
+        }
+        List<Resultado> resultados = new ArrayList<>();
+        for (String id : candidatos) {
+            Entrada entrada = indice.entradas().get(id);
+            if (entrada == null || (soloActivos && !entrada.activo())) {
+                continue;
+            }
+            int puntuacion = puntuar(entrada, terminos);
+            if (puntuacion > 0) {
+                resultados.add(new Resultado(entrada, puntuacion));
+            }
+        }
+        List<PlatoBusquedaDTO> platos = resultados
+            .stream()
+            .sorted(
+                Comparator.comparingInt(Resultado::puntuacion)
+                    .reversed()
+                    .thenComparing(r -> r.entrada().nombre(), Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(r -> r.entrada().id())
+            )
+            .limit(limite)
+            .map(r -> r.entrada().toDTO(r.puntuacion()))
+            .toList();
+        searchTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return platos;
+    }
+
+    private static Set<String> candidatos(Indice indice, String termino) {
+        if (termino.length() < TRIGRAMA) {
+            return indice.prefijos().getOrDefault(termino, Set.of());
+        }
+        // A word the term is a prefix or a part of holds every trigram of the term
+        Set<String> candidatos = null;
+        for (int i = 0; i + TRIGRAMA <= termino.length(); i++) {
+            Set<String> conTrigrama = indice.trigramas().getOrDefault(termino.substring(i, i + TRIGRAMA), Set.of());
+            if (candidatos == null || conTrigrama.size() < candidatos.size()) {
+                candidatos = conTrigrama;
+            }
+        }
+        return candidatos;
+    }
+
+    /**
+     * How a plato matches the words searched, 0 if a word does not match.
+     */
+    private static int puntuar(Entrada entrada, List<String> terminos) {
+        int total = 0;
+        for (String termino : terminos) {
+            int mejor = 0;
+            for (Campo campo : Campo.values()) {
+                for (String palabra : entrada.palabras().get(campo)) {
+                    int coincidencia = palabra.equals(termino) ? 3 : palabra.startsWith(termino) ? 2 : palabra.contains(termino) ? 1 : 0;
+                    mejor = Math.max(mejor, coincidencia * campo.peso);
+                }
+            }
+            if (mejor == 0) {
+                return 0;
+            }
+            total += mejor;
+        }
+        return total;
+    }
+
+    private synchronized void poner(Entrada entrada) {
+        poner(indice, entrada);
+    }
+
+    private static void poner(Indice indice, Entrada entrada) {
+        Entrada anterior = indice.entradas().put(entrada.id(), entrada);
+        if (anterior != null) {
+            desindexar(indice, anterior);
+        }
+        entrada
+            .claves(false)
+            .forEach(clave -> indice.prefijos().computeIfAbsent(clave, c -> ConcurrentHashMap.newKeySet()).add(entrada.id()));
+        entrada
+            .claves(true)
+            .forEach(clave -> indice.trigramas().computeIfAbsent(clave, c -> ConcurrentHashMap.newKeySet()).add(entrada.id()));
+    }
+
+    private static void desindexar(Indice indice, Entrada entrada) {
+        entrada.claves(false).forEach(clave -> quitarDe(indice.prefijos(), clave, entrada.id()));
+        entrada.claves(true).forEach(clave -> quitarDe(indice.trigramas(), clave, entrada.id()));
+    }
+
+    private static void quitarDe(Map<String, Set<String>> indice, String clave, String id) {
+        Set<String> ids = indice.get(clave);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                indice.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * The words of a text, in lower case and without accents.
+     */
+    static List<String> palabras(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : SEPARADORES.split(normalizado)) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+}
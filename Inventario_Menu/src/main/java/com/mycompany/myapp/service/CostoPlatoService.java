@@ -0,0 +1,223 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.LineaReceta;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.repository.PlatoRepositoryWithCostos.ActualizacionCosto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service costing the platos from the insumos of their receta.
+ * <p>
+ * Each line of a receta holds its cost, the quantity in the unit of the insumo times the cost of the insumo, and the plato
+ * holds the sum of the costs of its lines and its margin. A plato is costed in full when saved. When the cost of an insumo
+ * changes, only the platos using it are read, through the index on {@code receta.insumo_id}, and only the lines of the
+ * insumo are costed again: the cost of the plato is updated from the costs of its other lines as stored.
+ * <p>
+ * A plato saved while an insumo of its receta changes may have been costed with the previous cost of the insumo, and saved
+ * after the platos of the insumo were updated. So once saved, its insumos are read again by {@link #recostear(Map)}, and the
+ * ones that changed meanwhile update their platos, this one included.
+ */
+@Service
+public class CostoPlatoService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CostoPlatoService.class);
+
+    public static final String UPDATES_METER_NAME = "menu.costos.updates";
+    public static final String PLATOS_METER_NAME = "menu.costos.platos";
+
+    private static final int ESCALA = 4;
+
+    /**
+     * The times the platos changed while being costed are read again.
+     */
+    private static final int MAX_INTENTOS = 5;
+
+    private final PlatoRepository platoRepository;
+
+    private final InsumoRepository insumoRepository;
+
+    private final Timer updatesTimer;
+
+    private final Counter platosCounter;
+
+    public CostoPlatoService(PlatoRepository platoRepository, InsumoRepository insumoRepository, MeterRegistry meterRegistry) {
+        this.platoRepository = platoRepository;
+        this.insumoRepository = insumoRepository;
+        this.updatesTimer = Timer.builder(UPDATES_METER_NAME)
+            .description("Updates of the costs of the platos using an insumo")
+            .register(meterRegistry);
+        this.platosCounter = Counter.builder(PLATOS_METER_NAME)
+            .description("Platos whose cost was updated on a change of an insumo")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Cost a plato about to be saved.
+     *
+     * @param plato the plato.
+     * @param insumos the insumos of its receta, by their id.
+     */
+    public void costear(Plato plato, Map<String, Insumo> insumos) {
+        if (plato.getReceta() == null || plato.getReceta().isEmpty()) {
+            plato.setCosto(null);
+            plato.setMargen(null);
+            return;
+        }
+        plato.getReceta().forEach(linea -> linea.setCosto(costo(linea, insumos.get(linea.getInsumoId()))));
+        plato.setCosto(costo(plato.getReceta()));
+        plato.setMargen(margen(plato.getPrecio(), plato.getCosto()));
+    }
+
+    /**
+     * Update the costs of the platos using the insumos which changed since some platos were costed with them, once these platos
+     * are saved.
+     *
+     * @param insumos the insumos the platos were costed with, by their id.
+     * @return the number of platos whose cost changed.
+     */
+    public long recostear(Map<String, Insumo> insumos) {
+        if (insumos.isEmpty()) {
+            return 0;
+        }
+        Map<String, Insumo> actuales = new HashMap<>();
+        insumoRepository.findAllById(insumos.keySet()).forEach(insumo -> actuales.put(insumo.getId(), insumo));
+        long actualizados = 0;
+        for (Insumo usado : insumos.values()) {
+            Insumo actual = actuales.get(usado.getId());
+            if (actual == null) {
+                actualizados += quitarInsumo(usado.getId());
+            } else if (!mismoCosto(usado, actual)) {
+                LOG.debug("Insumo {} changed while its Platos were costed", actual.getId());
+                actualizados += actualizarInsumo(actual);
+            }
+        }
+        return actualizados;
+    }
+
+    /**
+     * Update the costs of the platos using an insumo whose cost or unit changed.
+     *
+     * @param insumo the insumo.
+     * @return the number of platos whose cost changed.
+     */
+    public long actualizarInsumo(Insumo insumo) {
+        long inicio = System.nanoTime();
+        long actualizados = 0;
+        try {
+            for (int intento = 1; intento <= MAX_INTENTOS; intento++) {
+                List<ActualizacionCosto> actualizaciones = platoRepository
+                    .findAllConInsumoEnReceta(insumo.getId())
+                    .stream()
+                    .map(plato -> actualizacion(plato, insumo))
+                    .filter(Objects::nonNull)
+                    .toList();
+                long escritos = platoRepository.actualizarCostos(actualizaciones);
+                actualizados += escritos;
+                if (escritos == actualizaciones.size()) {
+                    return actualizados;
+                }
+                // The platos changed in between are read again, the others are now up to date
+            }
+            LOG.warn("Could not update the costs of the Platos using Insumo {}, changed meanwhile", insumo.getId());
+            return actualizados;
+        } finally {
+            platosCounter.increment(actualizados);
+            updatesTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Leave unknown the costs of the platos using a deleted insumo.
+     *
+     * @param insumoId the id of the insumo.
+     * @return the number of platos whose cost changed.
+     */
+    public long quitarInsumo(String insumoId) {
+        return actualizarInsumo(new Insumo().id(insumoId));
+    }
+
+    /**
+     * The new costs of a plato using an insumo, {@code null} if they did not change.
+     */
+    private static ActualizacionCosto actualizacion(Plato plato, Insumo insumo) {
+        Map<Integer, BigDecimal> costosLineas = new HashMap<>();
+        for (int i = 0; i < plato.getReceta().size(); i++) {
+            LineaReceta linea = plato.getReceta().get(i);
+            if (insumo.getId().equals(linea.getInsumoId())) {
+                BigDecimal costo = costo(linea, insumo);
+                if (!Objects.equals(costo, linea.getCosto())) {
+                    costosLineas.put(i, costo);
+                    linea.setCosto(costo);
+                }
+            }
+        }
+        if (costosLineas.isEmpty()) {
+            return null;
+        }
+        BigDecimal costo = costo(plato.getReceta());
+        return new ActualizacionCosto(
+            plato.getId(),
+            plato.getFechaModificacion(),
+            plato.getCosto(),
+            costosLineas,
+            costo,
+            margen(plato.getPrecio(), costo)
+        );
+    }
+
+    /**
+     * The cost of a line, unknown if the insumo has no cost or the units do not measure the same magnitude.
+     */
+    static BigDecimal costo(LineaReceta linea, Insumo insumo) {
+        if (insumo == null || insumo.getCostoUnitario() == null || linea.getCantidad() == null) {
+            return null;
+        }
+        BigDecimal cantidad = linea.getCantidad();
+        if (linea.getUnidad() != null && insumo.getUnidad() != null) {
+            if (!linea.getUnidad().isConvertibleA(insumo.getUnidad())) {
+                return null;
+            }
+            cantidad = linea.getUnidad().convertir(cantidad, insumo.getUnidad());
+        }
+        return cantidad.multiply(insumo.getCostoUnitario()).setScale(ESCALA, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal costo(List<LineaReceta> receta) {
+        BigDecimal costo = BigDecimal.ZERO.setScale(ESCALA);
+        for (LineaReceta linea : receta) {
+            if (linea.getCosto() == null) {
+                return null;
+            }
+            costo = costo.add(linea.getCosto());
+        }
+        return costo;
+    }
+
+    private static boolean mismoCosto(Insumo usado, Insumo actual) {
+        if (usado.getUnidad() != actual.getUnidad()) {
+            return false;
+        }
+        return usado.getCostoUnitario() == null || actual.getCostoUnitario() == null
+            ? usado.getCostoUnitario() == actual.getCostoUnitario()
+            : usado.getCostoUnitario().compareTo(actual.getCostoUnitario()) == 0;
+    }
+
+    private static BigDecimal margen(BigDecimal precio, BigDecimal costo) {
+        return precio == null || costo == null ? null : precio.subtract(costo);
+    }
+}
@@ -0,0 +1,448 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.LineaReceta;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.CategoriaRepository;
+import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.dto.ImportacionMenuDTO;
+import com.mycompany.myapp.service.dto.LineaMenuDTO;
+import com.mycompany.myapp.service.dto.LineaMenuDTO.CategoriaLineaDTO;
+import com.mycompany.myapp.service.dto.LineaMenuDTO.InsumoLineaDTO;
+import com.mycompany.myapp.service.dto.LineaMenuDTO.PlatoLineaDTO;
+import com.mycompany.myapp.service.dto.LineaMenuDTO.RecetaLineaDTO;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service importing and exporting the whole menu as NDJSON, one categoria, insumo or plato per line, see {@link LineaMenuDTO}.
+ * <p>
+ * An import reads the lines as they arrive and writes them by batches of {@code application.importacion.batch-size} lines:
+ * the categorias, then the insumos, then the platos of each batch, each with one unordered {@code bulkWrite} over the
+ * entities of the same name. The platos refer to the categorias and the insumos by name, resolved with one query per batch, so
+ * a line may refer to the entities of the previous lines. The invalid lines are reported, the others are still imported. An
+ * export reads the entities from cursors, in the order an import needs them. Neither holds more than a batch in memory.
+ */
+@Service
+public class ImportacionMenuService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportacionMenuService.class);
+
+    public static final String LINES_METER_NAME = "menu.importacion.lines";
+    public static final String BATCHES_METER_NAME = "menu.importacion.batches";
+    public static final String EXPORTED_LINES_METER_NAME = "menu.exportacion.lines";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    /**
+     * A line read, numbered from 1.
+     */
+    private record Linea(long numero, LineaMenuDTO dto) {}
+
+    /**
+     * The counts and the errors of an import.
+     */
+    private final class Importacion {
+
+        private long lineas;
+
+        private long creadas;
+
+        private long actualizadas;
+
+        private long rechazadas;
+
+        private final List<ImportacionMenuDTO.ErrorLineaDTO> errores = new ArrayList<>();
+
+        void importadas(long importadas, long nuevas) {
+            creadas += nuevas;
+            actualizadas += importadas - nuevas;
+            importedCounter.increment(importadas);
+        }
+
+        void rechazar(long numero, String mensaje) {
+            rechazadas++;
+            rejectedCounter.increment();
+            if (errores.size() < maxErrors) {
+                errores.add(new ImportacionMenuDTO.ErrorLineaDTO(numero, mensaje));
+            }
+        }
+
+        ImportacionMenuDTO toDTO() {
+            return new ImportacionMenuDTO(lineas, creadas, actualizadas, rechazadas, List.copyOf(errores));
+        }
+    }
+
+    private final CategoriaRepository categoriaRepository;
+
+    private final InsumoRepository insumoRepository;
+
+    private final PlatoRepository platoRepository;
+
+    private final CostoPlatoService costoPlatoService;
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    private final BusquedaPlatoService busquedaPlatoService;
+
+    private final PrecioPlatoNotifier precioPlatoNotifier;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter lineaWriter;
+
+    private final Validator validator;
+
+    private final int batchSize;
+
+    private final int maxErrors;
+
+    private final Counter importedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter exportedCounter;
+
+    private final Timer batchTimer;
+
+    public ImportacionMenuService(
+        CategoriaRepository categoriaRepository,
+        InsumoRepository insumoRepository,
+        PlatoRepository platoRepository,
+        CostoPlatoService costoPlatoService,
+        MenuSnapshotService menuSnapshotService,
+        BusquedaPlatoService busquedaPlatoService,
+        PrecioPlatoNotifier precioPlatoNotifier,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.categoriaRepository = categoriaRepository;
+        this.insumoRepository = insumoRepository;
+        this.platoRepository = platoRepository;
+        this.costoPlatoService = costoPlatoService;
+        this.menuSnapshotService = menuSnapshotService;
+        this.busquedaPlatoService = busquedaPlatoService;
+        this.precioPlatoNotifier = precioPlatoNotifier;
+        this.objectMapper = objectMapper;
+        this.lineaWriter = objectMapper.writerFor(LineaMenuDTO.class);
+        this.validator = validator;
+        this.batchSize = applicationProperties.getImportacion().getBatchSize();
+        this.maxErrors = applicationProperties.getImportacion().getMaxErrors();
+        this.importedCounter = linesCounter("imported", meterRegistry);
+        this.rejectedCounter = linesCounter("rejected", meterRegistry);
+        this.exportedCounter = Counter.builder(EXPORTED_LINES_METER_NAME).description("Lines of menu exported").register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCHES_METER_NAME).description("Time to write a batch of imported lines").register(meterRegistry);
+    }
+
+    /**
+     * Import a menu.
+     *
+     * @param ndjson the lines of the menu, in UTF-8.
+     * @return the report of the import.
+     * @throws IOException if the lines cannot be read.
+     */
+    public ImportacionMenuDTO importar(InputStream ndjson) throws IOException {
+        long inicio = System.nanoTime();
+        Importacion importacion = new Importacion();
+        List<Linea> lote = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        String texto;
+        while ((texto = reader.readLine()) != null) {
+            long numero = ++importacion.lineas;
+            if (texto.isBlank()) {
+                continue;
+            }
+            LineaMenuDTO dto = leer(numero, texto, importacion);
+            if (dto != null) {
+                lote.add(new Linea(numero, dto));
+            }
+            if (lote.size() == batchSize) {
+                escribir(lote, importacion);
+                lote.clear();
+                LOG.debug("Imported {} lines of menu", importacion.lineas);
+            }
+        }
+        escribir(lote, importacion);
+
+        if (importacion.creadas + importacion.actualizadas > 0) {
+            menuSnapshotService.reconstruir();
+            busquedaPlatoService.reconstruir();
+        }
+        LOG.info(
+            "Imported {} lines of menu in {} ms, {} rejected",
+            importacion.lineas,
+            (System.nanoTime() - inicio) / 1_000_000,
+            importacion.rechazadas
+        );
+        return importacion.toDTO();
+    }
+
+    /**
+     * Export the menu, as an import reads it.
+     *
+     * @param salida where the lines of the menu are written, in UTF-8.
+     * @throws IOException if the lines cannot be written.
+     */
+    public void exportar(OutputStream salida) throws IOException {
+        try (Stream<Categoria> categorias = categoriaRepository.streamAllBy()) {
+            for (Iterator<Categoria> it = categorias.iterator(); it.hasNext();) {
+                escribir(salida, new CategoriaLineaDTO(it.next().getNombre()));
+            }
+        }
+        try (Stream<Insumo> insumos = insumoRepository.streamAllBy()) {
+            for (Iterator<Insumo> it = insumos.iterator(); it.hasNext();) {
+                Insumo insumo = it.next();
+                escribir(
+                    salida,
+                    new InsumoLineaDTO(
+                        insumo.getNombre(),
+                        insumo.getStockMinimo(),
+                        insumo.getStockActual(),
+                        insumo.getUnidad(),
+                        insumo.getCostoUnitario()
+                    )
+                );
+            }
+        }
+        // The insumos of the recetas are named with one query per batch of platos
+        try (Stream<Plato> platos = platoRepository.streamAllBy()) {
+            List<Plato> lote = new ArrayList<>(batchSize);
+            for (Iterator<Plato> it = platos.iterator(); it.hasNext();) {
+                lote.add(it.next());
+                if (lote.size() == batchSize || !it.hasNext()) {
+                    escribirPlatos(salida, lote);
+                    lote.clear();
+                }
+            }
+        }
+        salida.flush();
+    }
+
+    private LineaMenuDTO leer(long numero, String texto, Importacion importacion) {
+        LineaMenuDTO dto;
+        try {
+            dto = objectMapper.readValue(texto, LineaMenuDTO.class);
+        } catch (JsonProcessingException e) {
+            importacion.rechazar(numero, "Invalid line: " + e.getOriginalMessage());
+            return null;
+        }
+        if (dto == null) {
+            importacion.rechazar(numero, "Invalid line: null");
+            return null;
+        }
+        Set<ConstraintViolation<LineaMenuDTO>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            importacion.rechazar(
+                numero,
+                violaciones.stream().map(v -> v.getPropertyPath() + " " + v.getMessage()).sorted().collect(Collectors.joining(", "))
+            );
+            return null;
+        }
+        return dto;
+    }
+
+    private void escribir(List<Linea> lote, Importacion importacion) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+
+        List<CategoriaLineaDTO> categorias = ultimas(lote, CategoriaLineaDTO.class);
+        if (!categorias.isEmpty()) {
+            int creadas = categoriaRepository.importar(categorias.stream().map(c -> new Categoria().nombre(c.nombre())).toList());
+            importacion.importadas(contar(lote, CategoriaLineaDTO.class), creadas);
+        }
+
+        List<InsumoLineaDTO> insumos = ultimas(lote, InsumoLineaDTO.class);
+        if (!insumos.isEmpty()) {
+            int creados = insumoRepository.importar(insumos.stream().map(ImportacionMenuService::toInsumo).toList());
+            importacion.importadas(contar(lote, InsumoLineaDTO.class), creados);
+            if (creados < insumos.size()) {
+                // The insumos updated may have a new cost
+                insumoRepository
+                    .findAllByNombreIn(insumos.stream().map(InsumoLineaDTO::nombre).toList())
+                    .forEach(costoPlatoService::actualizarInsumo);
+            }
+        }
+
+        escribirPlatos(lote, importacion);
+        batchTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private void escribirPlatos(List<Linea> lote, Importacion importacion) {
+        List<Linea> lineas = lote.stream().filter(linea -> linea.dto() instanceof PlatoLineaDTO).toList();
+        if (lineas.isEmpty()) {
+            return;
+        }
+        Set<String> nombresCategorias = new HashSet<>();
+        Set<String> nombresInsumos = new HashSet<>();
+        for (Linea linea : lineas) {
+            PlatoLineaDTO plato = (PlatoLineaDTO) linea.dto();
+            if (plato.categorias() != null) {
+                nombresCategorias.addAll(plato.categorias());
+            }
+            if (plato.receta() != null) {
+                plato.receta().forEach(receta -> nombresInsumos.add(receta.insumo()));
+            }
+        }
+        Map<String, Categoria> categorias = nombresCategorias.isEmpty()
+            ? Map.of()
+            : porNombre(categoriaRepository.findAllByNombreIn(nombresCategorias), Categoria::getNombre);
+        Map<String, Insumo> insumos = nombresInsumos.isEmpty()
+            ? Map.of()
+            : porNombre(insumoRepository.findAllByNombreIn(nombresInsumos), Insumo::getNombre);
+
+        // The last line of a name wins
+        Map<String, Plato> platos = new LinkedHashMap<>();
+        long importadas = 0;
+        for (Linea linea : lineas) {
+            Plato plato = toPlato(linea, categorias, insumos, importacion);
+            if (plato != null) {
+                platos.put(plato.getNombre(), plato);
+                importadas++;
+            }
+        }
+        if (platos.isEmpty()) {
+            return;
+        }
+        int creados = platoRepository.importar(List.copyOf(platos.values()));
+        importacion.importadas(importadas, creados);
+        // An insumo changed since it was read costs its platos again, these ones included
+        costoPlatoService.recostear(insumos.values().stream().collect(Collectors.toMap(Insumo::getId, Function.identity())));
+        precioPlatoNotifier.notificarTodos(platoRepository.findAllByNombreIn(platos.keySet()).stream().map(PrecioPlatoDTO::of).toList());
+    }
+
+    private Plato toPlato(Linea linea, Map<String, Categoria> categorias, Map<String, Insumo> insumos, Importacion importacion) {
+        PlatoLineaDTO dto = (PlatoLineaDTO) linea.dto();
+        Plato plato = new Plato().nombre(dto.nombre()).descripcion(dto.descripcion()).precio(dto.precio()).activo(dto.activo());
+        for (String nombre : dto.categorias() == null ? List.<String>of() : dto.categorias()) {
+            Categoria categoria = categorias.get(nombre);
+            if (categoria == null) {
+                importacion.rechazar(linea.numero(), "Categoria not found: " + nombre);
+                return null;
+            }
+            plato.addCategoria(categoria);
+        }
+        List<LineaReceta> receta = new ArrayList<>();
+        Map<String, Insumo> insumosReceta = new HashMap<>();
+        for (RecetaLineaDTO lineaReceta : dto.receta() == null ? List.<RecetaLineaDTO>of() : dto.receta()) {
+            Insumo insumo = insumos.get(lineaReceta.insumo());
+            if (insumo == null) {
+                importacion.rechazar(linea.numero(), "Insumo not found: " + lineaReceta.insumo());
+                return null;
+            }
+            if (lineaReceta.unidad() != null && !lineaReceta.unidad().isConvertibleA(insumo.getUnidad())) {
+                importacion.rechazar(
+                    linea.numero(),
+                    "Unit " + lineaReceta.unidad() + " not convertible to the unit of " + insumo.getNombre()
+                );
+                return null;
+            }
+            receta.add(new LineaReceta().insumoId(insumo.getId()).cantidad(lineaReceta.cantidad()).unidad(lineaReceta.unidad()));
+            insumosReceta.put(insumo.getId(), insumo);
+        }
+        plato.setReceta(receta);
+        plato.setFechaModificacion(Instant.now());
+        costoPlatoService.costear(plato, insumosReceta);
+        return plato;
+    }
+
+    private void escribirPlatos(OutputStream salida, List<Plato> platos) throws IOException {
+        Set<String> ids = new HashSet<>();
+        platos.forEach(plato -> {
+            if (plato.getReceta() != null) {
+                plato.getReceta().forEach(linea -> ids.add(linea.getInsumoId()));
+            }
+        });
+        Map<String, String> nombres = ids.isEmpty()
+            ? Map.of()
+            : insumoRepository.findAllNombresByIdIn(ids).stream().collect(Collectors.toMap(Insumo::getId, Insumo::getNombre));
+        for (Plato plato : platos) {
+            List<String> categorias = plato.getCategorias().stream().map(Categoria::getNombre).sorted().toList();
+            List<RecetaLineaDTO> receta = plato.getReceta() == null
+                ? null
+                : plato
+                    .getReceta()
+                    .stream()
+                    .filter(linea -> nombres.containsKey(linea.getInsumoId()))
+                    .map(linea -> new RecetaLineaDTO(nombres.get(linea.getInsumoId()), linea.getCantidad(), linea.getUnidad()))
+                    .toList();
+            escribir(
+                salida,
+                new PlatoLineaDTO(plato.getNombre(), plato.getDescripcion(), plato.getPrecio(), plato.getActivo(), categorias, receta)
+            );
+        }
+    }
+
+    private void escribir(OutputStream salida, LineaMenuDTO linea) throws IOException {
+        salida.write(lineaWriter.writeValueAsBytes(linea));
+        salida.write('\n');
+        exportedCounter.increment();
+    }
+
+    /**
+     * The lines of a type, the last one of each name.
+     */
+    private static <T extends LineaMenuDTO> List<T> ultimas(List<Linea> lote, Class<T> tipo) {
+        Map<String, T> porNombre = new LinkedHashMap<>();
+        lote.stream().map(Linea::dto).filter(tipo::isInstance).map(tipo::cast).forEach(dto -> porNombre.put(dto.nombre(), dto));
+        return List.copyOf(porNombre.values());
+    }
+
+    private static long contar(List<Linea> lote, Class<? extends LineaMenuDTO> tipo) {
+        return lote.stream().filter(linea -> tipo.isInstance(linea.dto())).count();
+    }
+
+    private static <T> Map<String, T> porNombre(List<T> entidades, Function<T, String> nombre) {
+        return entidades.stream().collect(Collectors.toMap(nombre, Function.identity(), (primera, otra) -> primera));
+    }
+
+    private static Insumo toInsumo(InsumoLineaDTO dto) {
+        return new Insumo()
+            .nombre(dto.nombre())
+            .stockMinimo(dto.stockMinimo())
+            .stockActual(dto.stockActual())
+            .unidad(dto.unidad())
+            .costoUnitario(dto.costoUnitario());
+    }
+
+    private static Counter linesCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder(LINES_METER_NAME)
+            .description("Lines of menu imported, by outcome")
+            .tag(OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+}
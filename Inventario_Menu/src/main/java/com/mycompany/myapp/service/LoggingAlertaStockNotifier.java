@@ -0,0 +1,29 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Insumo;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs the alerts of the insumos below their minimum stock.
+ */
+@Component
+public class LoggingAlertaStockNotifier implements AlertaStockNotifier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoggingAlertaStockNotifier.class);
+
+    @Override
+    public void notificar(List<Insumo> insumos) {
+        insumos.forEach(insumo ->
+            LOG.warn(
+                "Insumo {} ({}) is below its minimum stock: {} of {}",
+                insumo.getNombre(),
+                insumo.getId(),
+                insumo.getStockActual(),
+                insumo.getStockMinimo()
+            )
+        );
+    }
+}
@@ -0,0 +1,238 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.dto.MenuDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the public menu as a prebuilt snapshot: the serialized {@link MenuDTO}, gzipped too, and an ETag hashed from its
+ * content. Serving the menu copies these bytes, without reading Mongo.
+ * <p>
+ * The snapshot is built on startup, or by the first request served before, and rebuilt after each change of a plato, a
+ * categoria or an insumo made through this instance, see {@link #reconstruir()}. The changes made through the other
+ * instances are read by a rebuild every {@code application.menu.refresh-delay}. Changes arriving while a snapshot is built are
+ * coalesced into a single next build. A snapshot with the same content as the previous one keeps its ETag, so the clients
+ * holding it still get a {@code 304 (Not Modified)}.
+ */
+@Service
+public class MenuSnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MenuSnapshotService.class);
+
+    public static final String BUILD_METER_NAME = "menu.snapshot.build";
+    public static final String SIZE_METER_NAME = "menu.snapshot.size";
+
+    /**
+     * An immutable snapshot of the menu.
+     *
+     * @param etag the strong ETag of the JSON, quoted.
+     * @param json the menu, serialized.
+     * @param gzip the menu, serialized and gzipped.
+     */
+    public record Snapshot(String etag, byte[] json, byte[] gzip) {
+        /**
+         * The ETag of the gzipped representation, which must differ from the one of the JSON.
+         */
+        public String etagGzip() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+
+    private final PlatoRepository platoRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Timer buildTimer;
+
+    private final AtomicLong solicitudes = new AtomicLong();
+
+    private final Object construccion = new Object();
+
+    /**
+     * The last request the current snapshot includes the changes of. Guarded by {@link #construccion}.
+     */
+    private long construidaHasta = -1;
+
+    private volatile Snapshot snapshot;
+
+    public MenuSnapshotService(PlatoRepository platoRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.platoRepository = platoRepository;
+        this.objectMapper = objectMapper;
+        this.buildTimer = Timer.builder(BUILD_METER_NAME).description("Builds of the menu snapshot").register(meterRegistry);
+        Gauge.builder(SIZE_METER_NAME, this, MenuSnapshotService::getSizeBytes)
+            .description("Size of the serialized menu snapshot")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the current snapshot of the menu, built first if there is none yet.
+     *
+     * @return the snapshot, empty if it could not be built.
+     */
+    public Optional<Snapshot> getSnapshot() {
+        Snapshot actual = snapshot;
+        if (actual != null) {
+            return Optional.of(actual);
+        }
+        synchronized (construccion) {
+            try {
+                if (snapshot == null) {
+                    actualizar(solicitudes.get());
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Could not build the menu snapshot : {}", e.getMessage());
+            }
+            return Optional.ofNullable(snapshot);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlArrancar() {
+        actualizar(solicitudes.incrementAndGet());
+    }
+
+    /**
+     * Rebuild the snapshot in the background, after a change of a plato, a categoria or an insumo.
+     */
+    @Async
+    public void reconstruir() {
+        actualizar(solicitudes.incrementAndGet());
+    }
+
+    /**
+     * Rebuild the snapshot, to read the changes made through the other instances.
+     */
+    @Scheduled(
+        initialDelayString = "${application.menu.refresh-delay:PT1M}",
+        fixedDelayString = "${application.menu.refresh-delay:PT1M}"
+    )
+    public void refrescar() {
+        actualizar(solicitudes.incrementAndGet());
+    }
+
+    /**
+     * Rebuild the snapshot, unless a build started after the given request already did: it read the changes of the request.
+     */
+    private void actualizar(long solicitud) {
+        synchronized (construccion) {
+            if (construidaHasta >= solicitud) {
+                return;
+            }
+            long hasta = solicitudes.get();
+            Snapshot anterior = snapshot;
+            snapshot = buildTimer.record(this::construir);
+            construidaHasta = hasta;
+            if (anterior == null || !anterior.etag().equals(snapshot.etag())) {
+                LOG.debug("Built the menu snapshot {}, {} bytes", snapshot.etag(), snapshot.json().length);
+            }
+        }
+    }
+
+    private Snapshot construir() {
+        Map<String, Categoria> categorias = new HashMap<>();
+        Map<String, List<Plato>> platosPorCategoria = new HashMap<>();
+        List<Plato> sinCategoria = new ArrayList<>();
+        for (Plato plato : platoRepository.findAllWithEagerRelationships()) {
+            if (!Boolean.TRUE.equals(plato.getActivo())) {
+                continue;
+            }
+            if (plato.getCategorias() == null || plato.getCategorias().isEmpty()) {
+                sinCategoria.add(plato);
+                continue;
+            }
+            for (Categoria categoria : plato.getCategorias()) {
+                categorias.putIfAbsent(categoria.getId(), categoria);
+                platosPorCategoria.computeIfAbsent(categoria.getId(), id -> new ArrayList<>()).add(plato);
+            }
+        }
+
+        // Sorted on name then id, so that the same menu is always serialized to the same bytes
+        Map<String, Categoria> ordenadas = new TreeMap<>();
+        categorias.values().forEach(c -> ordenadas.put(Objects.toString(c.getNombre(), "") + '\u0000' + c.getId(), c));
+        List<MenuDTO.CategoriaMenuDTO> menu = new ArrayList<>();
+        ordenadas
+            .values()
+            .forEach(c -> menu.add(new MenuDTO.CategoriaMenuDTO(c.getId(), c.getNombre(), toPlatos(platosPorCategoria.get(c.getId())))));
+        if (!sinCategoria.isEmpty()) {
+            menu.add(new MenuDTO.CategoriaMenuDTO(null, null, toPlatos(sinCategoria)));
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new MenuDTO(menu));
+            return new Snapshot(etag(json), json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the menu", e);
+        }
+    }
+
+    private static List<MenuDTO.PlatoMenuDTO> toPlatos(List<Plato> platos) {
+        return platos
+            .stream()
+            .sorted(Comparator.comparing(Plato::getNombre, Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Plato::getId))
+            .map(plato ->
+                new MenuDTO.PlatoMenuDTO(
+                    plato.getId(),
+                    plato.getNombre(),
+                    plato.getDescripcion(),
+                    plato.getPrecio(),
+                    plato.getInsumos().stream().map(Insumo::getNombre).filter(Objects::nonNull).sorted().toList()
+                )
+            )
+            .toList();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private double getSizeBytes() {
+        Snapshot actual = snapshot;
+        return actual == null ? Double.NaN : actual.json().length;
+    }
+}
@@ -0,0 +1,228 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.InsumoRepositoryWithStock.MovimientoStock;
+import com.mycompany.myapp.repository.InsumoRepositoryWithStock.ResultadoMovimiento;
+import com.mycompany.myapp.service.dto.MovimientoStockDTO;
+import com.mycompany.myapp.service.dto.MovimientoStockResultadoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service depleting and restocking the insumos.
+ * <p>
+ * The stock is changed with atomic {@code $inc} updates, so that concurrent movements are not lost, and a depletion only
+ * applies if the stock covers it. The movements of the requests arriving within {@code application.stock.batch-window} are
+ * written together in one unordered {@code bulkWrite}, by a single writer thread: the requests wait for their batch to be
+ * written. The movements of a request are all written in the same batch, the quantities of the same insumo added up.
+ */
+@Service
+public class MovimientoStockService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MovimientoStockService.class);
+
+    public static final String BATCH_SIZE_METER_NAME = "menu.stock.batch.size";
+    public static final String BATCH_LATENCY_METER_NAME = "menu.stock.batch.latency";
+    public static final String MOVEMENTS_METER_NAME = "menu.stock.movements";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    /**
+     * The movements of a request, and the outcome the request waits for.
+     */
+    private record Solicitud(List<MovimientoStock> movimientos, CompletableFuture<List<ResultadoMovimiento>> resultado) {}
+
+    private final InsumoRepository insumoRepository;
+
+    private final BlockingQueue<Solicitud> pendientes;
+
+    private final long batchWindowNanos;
+
+    private final int maxBatchSize;
+
+    private final Duration timeout;
+
+    private final Thread escritor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DistributionSummary batchSize;
+
+    private final Timer batchLatency;
+
+    private volatile boolean detenido;
+
+    @Autowired
+    public MovimientoStockService(
+        InsumoRepository insumoRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this(
+            insumoRepository,
+            applicationProperties.getStock().getBatchWindow(),
+            applicationProperties.getStock().getMaxBatchSize(),
+            applicationProperties.getStock().getQueueCapacity(),
+            applicationProperties.getStock().getTimeout(),
+            meterRegistry
+        );
+    }
+
+    MovimientoStockService(
+        InsumoRepository insumoRepository,
+        Duration batchWindow,
+        int maxBatchSize,
+        int queueCapacity,
+        Duration timeout,
+        MeterRegistry meterRegistry
+    ) {
+        this.insumoRepository = insumoRepository;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.pendientes = new ArrayBlockingQueue<>(queueCapacity);
+        this.timeout = timeout;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE_METER_NAME)
+            .description("Stock movements written per bulkWrite")
+            .register(meterRegistry);
+        this.batchLatency = Timer.builder(BATCH_LATENCY_METER_NAME)
+            .description("Time to write a batch of stock movements")
+            .register(meterRegistry);
+        this.escritor = new Thread(this::escribir, "stock-writer");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        detenido = true;
+        escritor.interrupt();
+    }
+
+    /**
+     * Deplete insumos, as when a pedido is served.
+     *
+     * @param consumos the quantities used.
+     * @return the outcome of each depletion, in the order of the insumos: a depletion is not applied if the stock does not
+     * cover it.
+     */
+    public List<MovimientoStockResultadoDTO> consumir(List<MovimientoStockDTO> consumos) {
+        return aplicar(consumos, -1);
+    }
+
+    /**
+     * Restock insumos.
+     *
+     * @param reposiciones the quantities received.
+     * @return the outcome of each restock, in the order of the insumos.
+     */
+    public List<MovimientoStockResultadoDTO> reponer(List<MovimientoStockDTO> reposiciones) {
+        return aplicar(reposiciones, 1);
+    }
+
+    private List<MovimientoStockResultadoDTO> aplicar(List<MovimientoStockDTO> cantidades, int signo) {
+        Map<String, Integer> porInsumo = new LinkedHashMap<>();
+        cantidades.forEach(c -> porInsumo.merge(c.insumoId(), signo * c.cantidad(), Integer::sum));
+        List<MovimientoStock> movimientos = new ArrayList<>(porInsumo.size());
+        porInsumo.forEach((insumoId, cantidad) -> movimientos.add(new MovimientoStock(insumoId, cantidad)));
+
+        Solicitud solicitud = new Solicitud(movimientos, new CompletableFuture<>());
+        if (!pendientes.offer(solicitud)) {
+            throw new IllegalStateException("Too many stock movements waiting to be written");
+        }
+        List<ResultadoMovimiento> resultados;
+        try {
+            resultados = solicitud.resultado().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the stock movements to be written", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not write the stock movements", e.getCause());
+        } catch (TimeoutException e) {
+            // The movements may still be written
+            throw new IllegalStateException("Timed out waiting for the stock movements to be written", e);
+        }
+
+        List<MovimientoStockResultadoDTO> respuesta = new ArrayList<>(movimientos.size());
+        for (int i = 0; i < movimientos.size(); i++) {
+            MovimientoStock movimiento = movimientos.get(i);
+            respuesta.add(new MovimientoStockResultadoDTO(movimiento.insumoId(), movimiento.cantidad(), resultados.get(i)));
+        }
+        return respuesta;
+    }
+
+    private void escribir() {
+        while (!detenido) {
+            List<Solicitud> lote = new ArrayList<>();
+            try {
+                Solicitud primera = pendientes.take();
+                lote.add(primera);
+                int movimientos = primera.movimientos().size();
+                long limite = System.nanoTime() + batchWindowNanos;
+                while (movimientos < maxBatchSize) {
+                    Solicitud siguiente = pendientes.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                    movimientos += siguiente.movimientos().size();
+                }
+            } catch (InterruptedException e) {
+                lote.forEach(s -> s.resultado().completeExceptionally(e));
+                Thread.currentThread().interrupt();
+                return;
+            }
+            escribir(lote);
+        }
+    }
+
+    private void escribir(List<Solicitud> lote) {
+        List<MovimientoStock> movimientos = new ArrayList<>();
+        lote.forEach(solicitud -> movimientos.addAll(solicitud.movimientos()));
+        List<ResultadoMovimiento> resultados;
+        long inicio = System.nanoTime();
+        try {
+            resultados = insumoRepository.aplicarMovimientos(movimientos);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not write {} stock movements : {}", movimientos.size(), e.getMessage());
+            lote.forEach(solicitud -> solicitud.resultado().completeExceptionally(e));
+            return;
+        } finally {
+            batchLatency.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            batchSize.record(movimientos.size());
+        }
+        resultados.forEach(resultado -> movementsCounter(resultado).increment());
+        int desde = 0;
+        for (Solicitud solicitud : lote) {
+            int hasta = desde + solicitud.movimientos().size();
+            solicitud.resultado().complete(resultados.subList(desde, hasta));
+            desde = hasta;
+        }
+    }
+
+    private Counter movementsCounter(ResultadoMovimiento resultado) {
+        return Counter.builder(MOVEMENTS_METER_NAME)
+            .description("Stock movements, by outcome")
+            .tag(OUTCOME_DIMENSION, resultado.name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry);
+    }
+}
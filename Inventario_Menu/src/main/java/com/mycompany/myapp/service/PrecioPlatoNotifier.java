@@ -0,0 +1,106 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.ServiceTokenProvider;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Notifies the service caching the prices of the platos, at {@code application.precios-plato.notification-url}, of each
+ * change of a plato.
+ * <p>
+ * Notifications are sent in the background and are not retried: a missed notification is caught up by the next
+ * synchronization of the cache, which reads the platos changed since its previous one.
+ */
+@Service
+public class PrecioPlatoNotifier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrecioPlatoNotifier.class);
+
+    public static final String NOTIFICATIONS_METER_NAME = "menu.precios-plato.notifications";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    private final RestClient restClient;
+
+    private final ServiceTokenProvider serviceTokenProvider;
+
+    private final MeterRegistry meterRegistry;
+
+    public PrecioPlatoNotifier(
+        RestClient.Builder restClientBuilder,
+        ServiceTokenProvider serviceTokenProvider,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.PreciosPlato preciosPlato = applicationProperties.getPreciosPlato();
+        if (preciosPlato.getNotificationUrl() == null) {
+            this.restClient = null;
+        } else {
+            SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+            requestFactory.setConnectTimeout(preciosPlato.getConnectTimeout());
+            requestFactory.setReadTimeout(preciosPlato.getReadTimeout());
+            this.restClient = restClientBuilder.baseUrl(preciosPlato.getNotificationUrl()).requestFactory(requestFactory).build();
+        }
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Notify a change of a plato, if a notification URL is set.
+     *
+     * @param precio the plato after the change.
+     */
+    @Async
+    public void notificar(PrecioPlatoDTO precio) {
+        enviar(List.of(precio));
+    }
+
+    /**
+     * Notify the changes of several platos in one request, if a notification URL is set.
+     *
+     * @param precios the platos after the changes.
+     */
+    @Async
+    public void notificarTodos(List<PrecioPlatoDTO> precios) {
+        if (!precios.isEmpty()) {
+            enviar(precios);
+        }
+    }
+
+    private void enviar(List<PrecioPlatoDTO> precios) {
+        if (restClient == null) {
+            return;
+        }
+        try {
+            restClient
+                .post()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceTokenProvider.createToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(precios)
+                .retrieve()
+                .toBodilessEntity();
+            notificationsCounter("sent").increment();
+        } catch (RestClientException e) {
+            LOG.warn("Could not notify the change of {} Platos, left to the next synchronization : {}", precios.size(), e.getMessage());
+            notificationsCounter("failed").increment();
+        }
+    }
+
+    private Counter notificationsCounter(String outcome) {
+        return Counter.builder(NOTIFICATIONS_METER_NAME)
+            .description("Notifications of the changes of the platos to the price caches, by outcome")
+            .tag(OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+}
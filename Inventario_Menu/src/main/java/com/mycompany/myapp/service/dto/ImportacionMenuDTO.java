@@ -0,0 +1,24 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The report of an import of a menu.
+ *
+ * @param lineas the lines read.
+ * @param creadas the lines creating an entity.
+ * @param actualizadas the lines updating an entity of the same name.
+ * @param rechazadas the lines not imported.
+ * @param errores the reasons the first lines were not imported, up to {@code application.importacion.max-errors}.
+ */
+public record ImportacionMenuDTO(long lineas, long creadas, long actualizadas, long rechazadas, List<ErrorLineaDTO> errores)
+    implements Serializable {
+    /**
+     * The reason a line was not imported.
+     *
+     * @param linea the number of the line, from 1.
+     * @param mensaje the reason.
+     */
+    public record ErrorLineaDTO(long linea, String mensaje) implements Serializable {}
+}
@@ -0,0 +1,87 @@
+package com.mycompany.myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.mycompany.myapp.domain.enumeration.Unidad;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A line of a menu imported or exported as NDJSON: a categoria, an insumo or a plato, told by its {@code tipo}.
+ * <p>
+ * The entities are identified by their name, and refer to each other by name.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "tipo")
+@JsonSubTypes(
+    {
+        @JsonSubTypes.Type(value = LineaMenuDTO.CategoriaLineaDTO.class, name = "categoria"),
+        @JsonSubTypes.Type(value = LineaMenuDTO.InsumoLineaDTO.class, name = "insumo"),
+        @JsonSubTypes.Type(value = LineaMenuDTO.PlatoLineaDTO.class, name = "plato"),
+    }
+)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public sealed interface LineaMenuDTO extends Serializable {
+    String nombre();
+
+    /**
+     * A categoria.
+     *
+     * @param nombre the name of the categoria.
+     */
+    record CategoriaLineaDTO(@NotBlank String nombre) implements LineaMenuDTO {}
+
+    /**
+     * An insumo.
+     *
+     * @param nombre the name of the insumo.
+     * @param stockMinimo the minimum stock.
+     * @param stockActual the stock.
+     * @param unidad the unit of the stock and of the cost.
+     * @param costoUnitario the cost of one unit.
+     */
+    record InsumoLineaDTO(
+        @NotBlank String nombre,
+        Integer stockMinimo,
+        Integer stockActual,
+        Unidad unidad,
+        @DecimalMin("0") BigDecimal costoUnitario
+    )
+        implements LineaMenuDTO {}
+
+    /**
+     * A plato.
+     *
+     * @param nombre the name of the plato.
+     * @param descripcion the description of the plato.
+     * @param precio the price of the plato.
+     * @param activo whether the plato can be ordered.
+     * @param categorias the names of the categorias of the plato.
+     * @param receta the lines of the receta of the plato.
+     */
+    record PlatoLineaDTO(
+        @NotBlank String nombre,
+        String descripcion,
+        @NotNull BigDecimal precio,
+        Boolean activo,
+        List<@NotBlank String> categorias,
+        List<@Valid @NotNull RecetaLineaDTO> receta
+    )
+        implements LineaMenuDTO {}
+
+    /**
+     * A line of the receta of a plato.
+     *
+     * @param insumo the name of the insumo.
+     * @param cantidad the quantity of the insumo.
+     * @param unidad the unit of the quantity, the unit of the insumo when not set.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record RecetaLineaDTO(@NotBlank String insumo, @NotNull @DecimalMin(value = "0", inclusive = false) BigDecimal cantidad, Unidad unidad)
+        implements Serializable {}
+}
@@ -0,0 +1,33 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The public menu: the active platos, grouped by categoria.
+ *
+ * @param categorias the categorias by name, then the platos without categoria under a categoria with no id nor name.
+ */
+public record MenuDTO(List<CategoriaMenuDTO> categorias) implements Serializable {
+    /**
+     * A categoria of the menu.
+     *
+     * @param id the id of the categoria.
+     * @param nombre the name of the categoria.
+     * @param platos the active platos of the categoria, by name.
+     */
+    public record CategoriaMenuDTO(String id, String nombre, List<PlatoMenuDTO> platos) implements Serializable {}
+
+    /**
+     * A plato of the menu.
+     *
+     * @param id the id of the plato.
+     * @param nombre the name of the plato.
+     * @param descripcion the description of the plato.
+     * @param precio the price of the plato.
+     * @param insumos the names of the insumos of the plato.
+     */
+    public record PlatoMenuDTO(String id, String nombre, String descripcion, BigDecimal precio, List<String> insumos)
+        implements Serializable {}
+}
@@ -0,0 +1,13 @@
+package com.mycompany.myapp.service.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * A quantity of an insumo, depleted or restocked.
+ *
+ * @param insumoId the id of the insumo.
+ * @param cantidad the quantity, depleted or restocked depending on the request.
+ */
+public record MovimientoStockDTO(@NotNull String insumoId, @NotNull @Min(1) Integer cantidad) implements Serializable {}
@@ -0,0 +1,13 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.repository.InsumoRepositoryWithStock.ResultadoMovimiento;
+import java.io.Serializable;
+
+/**
+ * The outcome of a depletion or a restock of an insumo.
+ *
+ * @param insumoId the id of the insumo.
+ * @param cantidad the quantity added to the stock, negative for a depletion.
+ * @param resultado whether the stock was changed.
+ */
+public record MovimientoStockResultadoDTO(String insumoId, int cantidad, ResultadoMovimiento resultado) implements Serializable {}
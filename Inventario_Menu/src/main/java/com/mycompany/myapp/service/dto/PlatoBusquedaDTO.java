@@ -0,0 +1,27 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A plato found by a search of the menu.
+ *
+ * @param id the id of the plato.
+ * @param nombre the name of the plato.
+ * @param descripcion the description of the plato.
+ * @param precio the price of the plato.
+ * @param activo whether the plato can be ordered.
+ * @param categorias the names of the categorias of the plato.
+ * @param puntuacion how well the plato matches the search, the higher the better.
+ */
+public record PlatoBusquedaDTO(
+    String id,
+    String nombre,
+    String descripcion,
+    BigDecimal precio,
+    boolean activo,
+    List<String> categorias,
+    int puntuacion
+)
+    implements Serializable {}
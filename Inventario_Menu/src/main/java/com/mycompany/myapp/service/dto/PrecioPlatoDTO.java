@@ -0,0 +1,32 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Plato;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The price and the state of a plato, as cached by the services pricing the lines of the pedidos.
+ *
+ * @param id the id of the plato.
+ * @param precio the price of the plato.
+ * @param activo whether the plato can be ordered.
+ * @param fechaModificacion when the plato was last changed: a cache ignores the changes older than the one it holds.
+ * @param eliminado whether the plato was deleted.
+ */
+public record PrecioPlatoDTO(String id, BigDecimal precio, boolean activo, Instant fechaModificacion, boolean eliminado)
+    implements Serializable {
+    public static PrecioPlatoDTO of(Plato plato) {
+        return new PrecioPlatoDTO(
+            plato.getId(),
+            plato.getPrecio(),
+            Boolean.TRUE.equals(plato.getActivo()),
+            plato.getFechaModificacion(),
+            false
+        );
+    }
+
+    public static PrecioPlatoDTO eliminado(String id) {
+        return new PrecioPlatoDTO(id, null, false, Instant.now(), true);
+    }
+}
@@ -2,6 +2,9 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Categoria;
 import com.mycompany.myapp.repository.CategoriaRepository;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.BusquedaPlatoService;
+import com.mycompany.myapp.service.MenuSnapshotService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -20,6 +23,9 @@ import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Categoria}.
+ * <p>
+ * The platos embed a summary of their categorias, refreshed on each change of a categoria, which also rebuilds the public
+ * menu and reindexes the platos of the categoria for the searches.
  */
 @RestController
 @RequestMapping("/api/categorias")
@@ -34,8 +40,22 @@ public class CategoriaResource {
 
     private final CategoriaRepository categoriaRepository;
 
-    public CategoriaResource(CategoriaRepository categoriaRepository) {
+    private final PlatoRepository platoRepository;
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    private final BusquedaPlatoService busquedaPlatoService;
+
+    public CategoriaResource(
+        CategoriaRepository categoriaRepository,
+        PlatoRepository platoRepository,
+        MenuSnapshotService menuSnapshotService,
+        BusquedaPlatoService busquedaPlatoService
+    ) {
         this.categoriaRepository = categoriaRepository;
+        this.platoRepository = platoRepository;
+        this.menuSnapshotService = menuSnapshotService;
+        this.busquedaPlatoService = busquedaPlatoService;
     }
 
     /**
@@ -85,6 +105,9 @@ public class CategoriaResource {
         }
 
         categoria = categoriaRepository.save(categoria);
+        platoRepository.actualizarCategoria(categoria);
+        menuSnapshotService.reconstruir();
+        busquedaPlatoService.actualizarCategoria(categoria);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, categoria.getId()))
             .body(categoria);
@@ -128,6 +151,9 @@ public class CategoriaResource {
                 return existingCategoria;
             })
             .map(categoriaRepository::save);
+        result.ifPresent(platoRepository::actualizarCategoria);
+        menuSnapshotService.reconstruir();
+        result.ifPresent(busquedaPlatoService::actualizarCategoria);
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -169,6 +195,9 @@ public class CategoriaResource {
     public ResponseEntity<Void> deleteCategoria(@PathVariable("id") String id) {
         LOG.debug("REST request to delete Categoria : {}", id);
         categoriaRepository.deleteById(id);
+        platoRepository.quitarCategoria(id);
+        menuSnapshotService.reconstruir();
+        busquedaPlatoService.quitarCategoria(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build();
     }
 }
@@ -0,0 +1,60 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.ImportacionMenuService;
+import com.mycompany.myapp.service.dto.ImportacionMenuDTO;
+import java.io.IOException;
+import java.io.InputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller importing and exporting the whole menu as NDJSON, see {@link ImportacionMenuService}.
+ */
+@RestController
+@RequestMapping("/api/menu")
+public class ImportacionMenuResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportacionMenuResource.class);
+
+    private final ImportacionMenuService importacionMenuService;
+
+    public ImportacionMenuResource(ImportacionMenuService importacionMenuService) {
+        this.importacionMenuService = importacionMenuService;
+    }
+
+    /**
+     * {@code POST  /menu/importacion} : import the categorias, insumos and platos of a menu, creating or updating them by name.
+     * <p>
+     * The lines are read as they arrive: the invalid ones are reported, the others are imported.
+     *
+     * @param ndjson the menu, one line per categoria, insumo or plato.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the report of the import in body.
+     * @throws IOException if the menu cannot be read.
+     */
+    @PostMapping(value = "/importacion", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportacionMenuDTO> importarMenu(InputStream ndjson) throws IOException {
+        LOG.debug("REST request to import the Menu");
+        return ResponseEntity.ok(importacionMenuService.importar(ndjson));
+    }
+
+    /**
+     * {@code GET  /menu/exportacion} : export the categorias, insumos and platos of the menu, as the import reads them.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the menu streamed in body.
+     */
+    @GetMapping(value = "/exportacion", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarMenu() {
+        LOG.debug("REST request to export the Menu");
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"menu.ndjson\"")
+            .body(importacionMenuService::exportar);
+    }
+}
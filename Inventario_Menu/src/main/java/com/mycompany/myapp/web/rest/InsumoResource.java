@@ -2,6 +2,12 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Insumo;
 import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.CostoPlatoService;
+import com.mycompany.myapp.service.MenuSnapshotService;
+import com.mycompany.myapp.service.MovimientoStockService;
+import com.mycompany.myapp.service.dto.MovimientoStockDTO;
+import com.mycompany.myapp.service.dto.MovimientoStockResultadoDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -13,13 +19,25 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Insumo}.
+ * <p>
+ * The platos hold the ids of their insumos, moved on each change of the plato of an insumo. Each change rebuilds the public
+ * menu, which lists the insumos of the platos, and updates the costs of the platos with the insumo in their receta, see
+ * {@link CostoPlatoService}.
+ * <p>
+ * The stock is better changed with {@code POST /insumos/consumos} and {@code POST /insumos/reposiciones}, which apply the
+ * quantities atomically, than with a {@code PUT} or a {@code PATCH} of the insumo, which lose the concurrent changes.
  */
 @RestController
 @RequestMapping("/api/insumos")
@@ -34,8 +52,26 @@ public class InsumoResource {
 
     private final InsumoRepository insumoRepository;
 
-    public InsumoResource(InsumoRepository insumoRepository) {
+    private final PlatoRepository platoRepository;
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    private final MovimientoStockService movimientoStockService;
+
+    private final CostoPlatoService costoPlatoService;
+
+    public InsumoResource(
+        InsumoRepository insumoRepository,
+        PlatoRepository platoRepository,
+        MenuSnapshotService menuSnapshotService,
+        MovimientoStockService movimientoStockService,
+        CostoPlatoService costoPlatoService
+    ) {
         this.insumoRepository = insumoRepository;
+        this.platoRepository = platoRepository;
+        this.menuSnapshotService = menuSnapshotService;
+        this.movimientoStockService = movimientoStockService;
+        this.costoPlatoService = costoPlatoService;
     }
 
     /**
@@ -52,6 +88,10 @@ public class InsumoResource {
             throw new BadRequestAlertException("A new insumo cannot already have an ID", ENTITY_NAME, "idexists");
         }
         insumo = insumoRepository.save(insumo);
+        if (insumo.getPlato() != null) {
+            platoRepository.asignarInsumo(insumo.getId(), insumo.getPlato().getId());
+        }
+        menuSnapshotService.reconstruir();
         return ResponseEntity.created(new URI("/api/insumos/" + insumo.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, insumo.getId()))
             .body(insumo);
@@ -85,6 +125,9 @@ public class InsumoResource {
         }
 
         insumo = insumoRepository.save(insumo);
+        platoRepository.asignarInsumo(insumo.getId(), insumo.getPlato() == null ? null : insumo.getPlato().getId());
+        menuSnapshotService.reconstruir();
+        costoPlatoService.actualizarInsumo(insumo);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, insumo.getId()))
             .body(insumo);
@@ -130,14 +173,56 @@ public class InsumoResource {
                 if (insumo.getStockActual() != null) {
                     existingInsumo.setStockActual(insumo.getStockActual());
                 }
+                if (insumo.getUnidad() != null) {
+                    existingInsumo.setUnidad(insumo.getUnidad());
+                }
+                if (insumo.getCostoUnitario() != null) {
+                    existingInsumo.setCostoUnitario(insumo.getCostoUnitario());
+                }
 
                 return existingInsumo;
             })
             .map(insumoRepository::save);
+        menuSnapshotService.reconstruir();
+        result.ifPresent(costoPlatoService::actualizarInsumo);
 
         return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, insumo.getId()));
     }
 
+    /**
+     * {@code POST  /insumos/consumos} : Deplete insumos, such as the insumos of a served pedido, in one write.
+     *
+     * @param consumos the quantities used.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome of each depletion in body, a depletion
+     * not covered by the stock not being applied, or with status {@code 400 (Bad Request)} if there is no quantity.
+     */
+    @PostMapping("/consumos")
+    public ResponseEntity<List<MovimientoStockResultadoDTO>> consumirInsumos(@Valid @RequestBody List<@Valid MovimientoStockDTO> consumos) {
+        LOG.debug("REST request to deplete Insumos : {}", consumos);
+        if (consumos.isEmpty()) {
+            throw new BadRequestAlertException("No quantity to deplete", ENTITY_NAME, "movimientosvacios");
+        }
+        return ResponseEntity.ok(movimientoStockService.consumir(consumos));
+    }
+
+    /**
+     * {@code POST  /insumos/reposiciones} : Restock insumos, in one write.
+     *
+     * @param reposiciones the quantities received.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome of each restock in body, or with status
+     * {@code 400 (Bad Request)} if there is no quantity.
+     */
+    @PostMapping("/reposiciones")
+    public ResponseEntity<List<MovimientoStockResultadoDTO>> reponerInsumos(
+        @Valid @RequestBody List<@Valid MovimientoStockDTO> reposiciones
+    ) {
+        LOG.debug("REST request to restock Insumos : {}", reposiciones);
+        if (reposiciones.isEmpty()) {
+            throw new BadRequestAlertException("No quantity to restock", ENTITY_NAME, "movimientosvacios");
+        }
+        return ResponseEntity.ok(movimientoStockService.reponer(reposiciones));
+    }
+
     /**
      * {@code GET  /insumos} : get all the insumos.
      *
@@ -149,6 +234,20 @@ public class InsumoResource {
         return insumoRepository.findAll();
     }
 
+    /**
+     * {@code GET  /insumos/bajo-minimo} : get the insumos with a stock below their minimum.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of insumos in body.
+     */
+    @GetMapping("/bajo-minimo")
+    public ResponseEntity<List<Insumo>> getInsumosBajoMinimo(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        LOG.debug("REST request to get a page of the Insumos below their minimum stock");
+        Page<Insumo> page = insumoRepository.findAllByBajoMinimoTrue(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code GET  /insumos/:id} : get the "id" insumo.
      *
@@ -172,6 +271,9 @@ public class InsumoResource {
     public ResponseEntity<Void> deleteInsumo(@PathVariable("id") String id) {
         LOG.debug("REST request to delete Insumo : {}", id);
         insumoRepository.deleteById(id);
+        platoRepository.asignarInsumo(id, null);
+        menuSnapshotService.reconstruir();
+        costoPlatoService.quitarInsumo(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build();
     }
 }
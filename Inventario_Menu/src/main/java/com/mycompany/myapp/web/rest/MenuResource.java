@@ -0,0 +1,85 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.MenuSnapshotService;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller serving the public menu, as prebuilt by {@link MenuSnapshotService}.
+ */
+@RestController
+@RequestMapping("/api/menu")
+public class MenuResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MenuResource.class);
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    public MenuResource(MenuSnapshotService menuSnapshotService) {
+        this.menuSnapshotService = menuSnapshotService;
+    }
+
+    /**
+     * {@code GET  /menu} : get the active platos, grouped by categoria.
+     * <p>
+     * The menu is gzipped when the client accepts it. Clients revalidate it with its ETag.
+     *
+     * @param ifNoneMatch the ETags of the menu held by the client.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the menu in body, or with status
+     * {@code 304 (Not Modified)} if the client holds the current menu, or with status {@code 503 (Service Unavailable)} if the
+     * menu could not be built.
+     */
+    @GetMapping("")
+    public ResponseEntity<byte[]> getMenu(
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        LOG.debug("REST request to get the Menu");
+        MenuSnapshotService.Snapshot snapshot = menuSnapshotService.getSnapshot().orElse(null);
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? snapshot.etagGzip() : snapshot.etag();
+        if (contiene(ifNoneMatch, snapshot)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache().cachePublic())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names the snapshot, in either encoding: both have the same content.
+     */
+    private static boolean contiene(String ifNoneMatch, MenuSnapshotService.Snapshot snapshot) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+            .map(String::trim)
+            .map(etag -> etag.startsWith("W/") ? etag.substring(2) : etag)
+            .anyMatch(etag -> etag.equals("*") || etag.equals(snapshot.etag()) || etag.equals(snapshot.etagGzip()));
+    }
+}
@@ -1,15 +1,31 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.LineaReceta;
 import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.CategoriaRepository;
+import com.mycompany.myapp.repository.InsumoRepository;
 import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.BusquedaPlatoService;
+import com.mycompany.myapp.service.CostoPlatoService;
+import com.mycompany.myapp.service.MenuSnapshotService;
+import com.mycompany.myapp.service.PrecioPlatoNotifier;
+import com.mycompany.myapp.service.dto.PlatoBusquedaDTO;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +36,11 @@ import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Plato}.
+ * <p>
+ * Each change is notified to the price cache of Operaciones_Tpv, see {@link PrecioPlatoNotifier}, which also reads
+ * {@code GET /platoes/precios} to catch up, rebuilds the public menu, see {@link MenuSnapshotService}, and is indexed for the
+ * searches, see {@link BusquedaPlatoService}. The cost and the margin of the plato are set from its receta on each change, see
+ * {@link CostoPlatoService}.
  */
 @RestController
 @RequestMapping("/api/platoes")
@@ -29,13 +50,41 @@ public class PlatoResource {
 
     private static final String ENTITY_NAME = "inventarioMenuPlato";
 
+    private static final int MAX_RESULTADOS_BUSQUEDA = 50;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final PlatoRepository platoRepository;
 
-    public PlatoResource(PlatoRepository platoRepository) {
+    private final CategoriaRepository categoriaRepository;
+
+    private final PrecioPlatoNotifier precioPlatoNotifier;
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    private final BusquedaPlatoService busquedaPlatoService;
+
+    private final InsumoRepository insumoRepository;
+
+    private final CostoPlatoService costoPlatoService;
+
+    public PlatoResource(
+        PlatoRepository platoRepository,
+        CategoriaRepository categoriaRepository,
+        PrecioPlatoNotifier precioPlatoNotifier,
+        MenuSnapshotService menuSnapshotService,
+        BusquedaPlatoService busquedaPlatoService,
+        InsumoRepository insumoRepository,
+        CostoPlatoService costoPlatoService
+    ) {
         this.platoRepository = platoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.precioPlatoNotifier = precioPlatoNotifier;
+        this.menuSnapshotService = menuSnapshotService;
+        this.busquedaPlatoService = busquedaPlatoService;
+        this.insumoRepository = insumoRepository;
+        this.costoPlatoService = costoPlatoService;
     }
 
     /**
@@ -51,7 +100,11 @@ public class PlatoResource {
         if (plato.getId() != null) {
             throw new BadRequestAlertException("A new plato cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        plato = platoRepository.save(plato);
+        resolverCategorias(plato);
+        plato = guardar(plato);
+        precioPlatoNotifier.notificar(PrecioPlatoDTO.of(plato));
+        menuSnapshotService.reconstruir();
+        busquedaPlatoService.indexar(plato);
         return ResponseEntity.created(new URI("/api/platoes/" + plato.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, plato.getId()))
             .body(plato);
@@ -84,7 +137,11 @@ public class PlatoResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        plato = platoRepository.save(plato);
+        resolverCategorias(plato);
+        plato = guardar(plato);
+        precioPlatoNotifier.notificar(PrecioPlatoDTO.of(plato));
+        menuSnapshotService.reconstruir();
+        busquedaPlatoService.indexar(plato);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, plato.getId()))
             .body(plato);
@@ -133,10 +190,16 @@ public class PlatoResource {
                 if (plato.getActivo() != null) {
                     existingPlato.setActivo(plato.getActivo());
                 }
+                if (plato.getReceta() != null) {
+                    existingPlato.setReceta(plato.getReceta());
+                }
 
                 return existingPlato;
             })
-            .map(platoRepository::save);
+            .map(this::guardar);
+        result.map(PrecioPlatoDTO::of).ifPresent(precioPlatoNotifier::notificar);
+        menuSnapshotService.reconstruir();
+        result.ifPresent(busquedaPlatoService::indexar);
 
         return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, plato.getId()));
     }
@@ -157,6 +220,43 @@ public class PlatoResource {
         }
     }
 
+    /**
+     * {@code GET  /platoes/precios} : get the price and the state of the platos changed since a date, for the price caches.
+     * <p>
+     * Deleted platos are not listed: a cache reading every plato drops the ones it does not receive.
+     *
+     * @param desde the start of the changes, inclusive; every plato when not set.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of prices in body, in the order of the changes.
+     */
+    @GetMapping("/precios")
+    public List<PrecioPlatoDTO> getPreciosPlatoes(@RequestParam(name = "desde", required = false) Instant desde) {
+        LOG.debug("REST request to get the prices of the Platoes changed since {}", desde);
+        return platoRepository
+            .findAllModificadosDesde(desde == null ? Instant.EPOCH : desde)
+            .stream()
+            .map(PrecioPlatoDTO::of)
+            .toList();
+    }
+
+    /**
+     * {@code GET  /platoes/busqueda} : search the platos by the words, or the beginnings of the words, of their name, their
+     * description and their categorias, regardless of accents.
+     *
+     * @param q the words searched.
+     * @param soloActivos whether to only find the active platos.
+     * @param limite the most platos found, at most {@value #MAX_RESULTADOS_BUSQUEDA}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the platos found in body, the best matches first.
+     */
+    @GetMapping("/busqueda")
+    public List<PlatoBusquedaDTO> buscarPlatoes(
+        @RequestParam(name = "q") String q,
+        @RequestParam(name = "soloActivos", required = false, defaultValue = "true") boolean soloActivos,
+        @RequestParam(name = "limite", required = false, defaultValue = "10") int limite
+    ) {
+        LOG.debug("REST request to search Platoes : {}", q);
+        return busquedaPlatoService.buscar(q, soloActivos, Math.max(1, Math.min(limite, MAX_RESULTADOS_BUSQUEDA)));
+    }
+
     /**
      * {@code GET  /platoes/:id} : get the "id" plato.
      *
@@ -180,6 +280,61 @@ public class PlatoResource {
     public ResponseEntity<Void> deletePlato(@PathVariable("id") String id) {
         LOG.debug("REST request to delete Plato : {}", id);
         platoRepository.deleteById(id);
+        precioPlatoNotifier.notificar(PrecioPlatoDTO.eliminado(id));
+        menuSnapshotService.reconstruir();
+        busquedaPlatoService.quitar(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build();
     }
+
+    /**
+     * Replace the categorias sent with the plato, which may only have their id, with the stored ones: the plato embeds their
+     * summary.
+     */
+    private void resolverCategorias(Plato plato) {
+        if (plato.getCategorias() == null || plato.getCategorias().isEmpty()) {
+            return;
+        }
+        List<Categoria> categorias = categoriaRepository.findAllById(plato.getCategorias().stream().map(Categoria::getId).toList());
+        if (categorias.size() != plato.getCategorias().size()) {
+            throw new BadRequestAlertException("Categoria not found", ENTITY_NAME, "categorianotfound");
+        }
+        plato.setCategorias(new HashSet<>(categorias));
+    }
+
+    /**
+     * Cost and save the plato, and cost it again if an insumo of its receta changed meanwhile.
+     */
+    private Plato guardar(Plato plato) {
+        Map<String, Insumo> insumos = costear(plato);
+        Plato guardado = platoRepository.save(plato);
+        if (costoPlatoService.recostear(insumos) > 0) {
+            return platoRepository.findById(guardado.getId()).orElse(guardado);
+        }
+        return guardado;
+    }
+
+    /**
+     * Cost the plato from the insumos of its receta, which must exist and be measured in units convertible to the units of the
+     * lines.
+     *
+     * @return the insumos of the receta, by their id.
+     */
+    private Map<String, Insumo> costear(Plato plato) {
+        List<LineaReceta> receta = plato.getReceta() == null ? List.of() : plato.getReceta();
+        Map<String, Insumo> insumos = insumoRepository
+            .findAllById(receta.stream().map(LineaReceta::getInsumoId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(Insumo::getId, Function.identity()));
+        for (LineaReceta linea : receta) {
+            Insumo insumo = insumos.get(linea.getInsumoId());
+            if (insumo == null) {
+                throw new BadRequestAlertException("Insumo not found", ENTITY_NAME, "insumonotfound");
+            }
+            if (linea.getUnidad() != null && !linea.getUnidad().isConvertibleA(insumo.getUnidad())) {
+                throw new BadRequestAlertException("Unit not convertible to the unit of the insumo", ENTITY_NAME, "unidadincompatible");
+            }
+        }
+        costoPlatoService.costear(plato, insumos);
+        return insumos;
+    }
 }
@@ -0,0 +1,102 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MongoCommandMonitorTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MongoCommandMonitor monitor;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new MongoCommandMonitor(Duration.ofMillis(100), 2, meterRegistry);
+    }
+
+    @Test
+    void formaKeepsTheFieldsAndOperatorsButNoValue() {
+        assertThat(
+            MongoCommandMonitor.forma(
+                BsonDocument.parse("{find: 'plato', filter: {nombre: {$in: ['Flan', 'Natillas']}, activo: true}, sort: {_id: 1}, $db: 'm'}")
+            )
+        ).isEqualTo("find plato filter {nombre: {$in: [?]}, activo: ?} sort {_id: ?}");
+        assertThat(
+            MongoCommandMonitor.forma(
+                BsonDocument.parse("{update: 'plato', updates: [{q: {_id: 'p1', $or: [{a: 1}, {b: 'x'}]}, u: {$set: {c: 3}}}]}")
+            )
+        ).isEqualTo("update plato q {_id: ?, $or: [{a: ?}, {b: ?}]}");
+        assertThat(
+            MongoCommandMonitor.forma(
+                BsonDocument.parse("{aggregate: 'insumo', pipeline: [{$match: {bajo_minimo: true}}, {$group: {_id: '$unidad'}}]}")
+            )
+        ).isEqualTo("aggregate insumo $match {bajo_minimo: ?} $group");
+        assertThat(MongoCommandMonitor.forma(BsonDocument.parse("{distinct: 'plato', key: 'nombre', query: {activo: false}}"))).isEqualTo(
+            "distinct plato key nombre query {activo: ?}"
+        );
+        assertThat(MongoCommandMonitor.forma(BsonDocument.parse("{insert: 'categoria', documents: [{nombre: 'Postres'}]}"))).isEqualTo(
+            "insert categoria"
+        );
+    }
+
+    @Test
+    void onlyTheSlowCommandsAreListed() {
+        ejecutar(1, "{find: 'plato', filter: {nombre: 'Flan'}}", 5);
+        ejecutar(2, "{find: 'plato', filter: {nombre: 'Natillas'}}", 150);
+        ejecutar(3, "{find: 'plato', filter: {nombre: 'Arroz'}}", 250);
+        ejecutar(4, "{find: 'insumo', filter: {bajo_minimo: true}}", 400);
+
+        assertThat(monitor.getConsultasLentas(10))
+            .extracting(MongoCommandMonitor.ConsultaLenta::forma)
+            .containsExactly("find insumo filter {bajo_minimo: ?}", "find plato filter {nombre: ?}");
+        MongoCommandMonitor.ConsultaLenta plato = monitor.getConsultasLentas(10).get(1);
+        assertThat(plato.ejecuciones()).isEqualTo(2);
+        assertThat(plato.maximoMs()).isEqualTo(250);
+        assertThat(plato.mediaMs()).isEqualTo(200);
+        assertThat(monitor.getConsultasLentas(1)).hasSize(1);
+        assertThat(meterRegistry.get(MongoCommandMonitor.SLOW_METER_NAME).tag("collection", "plato").counter().count()).isEqualTo(2);
+
+        monitor.reiniciar();
+        assertThat(monitor.getConsultasLentas(10)).isEmpty();
+    }
+
+    @Test
+    void theShapesBeyondTheLimitAreOnlyCounted() {
+        monitor.registrar("find", "plato", "find plato filter {a: ?}", 200_000_000L);
+        monitor.registrar("find", "plato", "find plato filter {b: ?}", 200_000_000L);
+        monitor.registrar("find", "plato", "find plato filter {c: ?}", 300_000_000L);
+        monitor.registrar("find", "plato", "find plato filter {a: ?}", 300_000_000L);
+
+        assertThat(monitor.getConsultasLentas(10))
+            .extracting(MongoCommandMonitor.ConsultaLenta::forma)
+            .containsExactly("find plato filter {a: ?}", "find plato filter {b: ?}");
+        assertThat(meterRegistry.get(MongoCommandMonitor.SLOW_METER_NAME).counter().count()).isEqualTo(4);
+    }
+
+    private void ejecutar(int requestId, String command, long millis) {
+        BsonDocument document = BsonDocument.parse(command);
+        CommandStartedEvent started = mock(CommandStartedEvent.class);
+        when(started.getRequestId()).thenReturn(requestId);
+        when(started.getCommandName()).thenReturn(document.getFirstKey());
+        when(started.getCommand()).thenReturn(document);
+        CommandSucceededEvent succeeded = mock(CommandSucceededEvent.class);
+        when(succeeded.getRequestId()).thenReturn(requestId);
+        when(succeeded.getElapsedTime(any())).thenReturn(TimeUnit.MILLISECONDS.toNanos(millis));
+
+        monitor.commandStarted(started);
+        monitor.commandSucceeded(succeeded);
+    }
+}
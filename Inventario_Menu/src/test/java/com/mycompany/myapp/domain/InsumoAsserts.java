@@ -1,5 +1,6 @@
 package com.mycompany.myapp.domain;
 
+import static com.mycompany.myapp.domain.AssertUtils.bigDecimalCompareTo;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class InsumoAsserts {
@@ -49,7 +50,14 @@ public class InsumoAsserts {
             .as("Verify Insumo relevant properties")
             .satisfies(a -> assertThat(a.getNombre()).as("check nombre").isEqualTo(expected.getNombre()))
             .satisfies(a -> assertThat(a.getStockMinimo()).as("check stockMinimo").isEqualTo(expected.getStockMinimo()))
-            .satisfies(a -> assertThat(a.getStockActual()).as("check stockActual").isEqualTo(expected.getStockActual()));
+            .satisfies(a -> assertThat(a.getStockActual()).as("check stockActual").isEqualTo(expected.getStockActual()))
+            .satisfies(a -> assertThat(a.getUnidad()).as("check unidad").isEqualTo(expected.getUnidad()))
+            .satisfies(a ->
+                assertThat(a.getCostoUnitario())
+                    .as("check costoUnitario")
+                    .usingComparator(bigDecimalCompareTo)
+                    .isEqualTo(expected.getCostoUnitario())
+            );
     }
 
     /**
@@ -0,0 +1,199 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.Plato;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Integration tests for {@link PlatoRepositoryWithReferences}.
+ * <p>
+ * The eager reads are compared with the resolution of the references one by one, as the DBRefs of the platos used to be
+ * resolved: the commands sent to Mongo are counted, and the time taken by both is logged.
+ */
+@IntegrationTest
+@Import(PlatoRepositoryWithReferencesIT.CommandCounterConfiguration.class)
+class PlatoRepositoryWithReferencesIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PlatoRepositoryWithReferencesIT.class);
+
+    private static final int PLATOS = 50;
+
+    private static final int CATEGORIAS_POR_PLATO = 2;
+
+    private static final int INSUMOS_POR_PLATO = 3;
+
+    @TestConfiguration
+    static class CommandCounterConfiguration {
+
+        @Bean
+        CommandCounter commandCounter() {
+            return new CommandCounter();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCounterCustomizer(CommandCounter commandCounter) {
+            return settings -> settings.addCommandListener(commandCounter);
+        }
+    }
+
+    static class CommandCounter implements CommandListener {
+
+        private final Map<String, AtomicInteger> commands = new ConcurrentHashMap<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            commands.computeIfAbsent(event.getCommandName(), name -> new AtomicInteger()).incrementAndGet();
+        }
+
+        void reset() {
+            commands.clear();
+        }
+
+        int count(String commandName) {
+            AtomicInteger count = commands.get(commandName);
+            return count == null ? 0 : count.get();
+        }
+
+        int total() {
+            return commands.values().stream().mapToInt(AtomicInteger::get).sum();
+        }
+    }
+
+    @Autowired
+    private PlatoRepository platoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private CommandCounter commandCounter;
+
+    private final List<Categoria> categorias = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < CATEGORIAS_POR_PLATO * 2; i++) {
+            categorias.add(categoriaRepository.save(new Categoria().nombre("Categoria " + i)));
+        }
+        for (int i = 0; i < PLATOS; i++) {
+            Plato plato = new Plato().nombre("Plato " + i).precio(BigDecimal.ONE);
+            for (int c = 0; c < CATEGORIAS_POR_PLATO; c++) {
+                plato.addCategoria(categorias.get((i + c) % categorias.size()));
+            }
+            plato = platoRepository.save(plato);
+            for (int n = 0; n < INSUMOS_POR_PLATO; n++) {
+                Insumo insumo = insumoRepository.save(new Insumo().nombre("Insumo " + i + "-" + n).stockMinimo(1).stockActual(1).plato(plato));
+                platoRepository.asignarInsumo(insumo.getId(), plato.getId());
+            }
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        platoRepository.deleteAll();
+        insumoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        categorias.clear();
+    }
+
+    @Test
+    void eagerReadIsASingleAggregation() {
+        commandCounter.reset();
+        long inicio = System.nanoTime();
+        List<Plato> platos = platoRepository.findAllWithEagerRelationships();
+        long agregacion = System.nanoTime() - inicio;
+        int comandosAgregacion = commandCounter.total();
+
+        assertThat(platos).hasSize(PLATOS);
+        assertThat(platos).allSatisfy(plato -> {
+            assertThat(plato.getCategorias()).hasSize(CATEGORIAS_POR_PLATO).allSatisfy(c -> assertThat(c.getNombre()).isNotNull());
+            assertThat(plato.getInsumos()).hasSize(INSUMOS_POR_PLATO).allSatisfy(i -> assertThat(i.getNombre()).isNotNull());
+        });
+        assertThat(commandCounter.count("aggregate")).isEqualTo(1);
+        assertThat(comandosAgregacion).isEqualTo(1);
+
+        // The platos with each reference read on its own, one query per reference as the DBRefs were resolved
+        commandCounter.reset();
+        inicio = System.nanoTime();
+        for (Plato plato : platoRepository.findAll()) {
+            plato.getCategorias().forEach(categoria -> categoriaRepository.findById(categoria.getId()));
+            plato.getInsumos().forEach(insumo -> insumoRepository.findById(insumo.getId()));
+        }
+        long porReferencia = System.nanoTime() - inicio;
+        int comandosPorReferencia = commandCounter.total();
+
+        assertThat(comandosPorReferencia).isGreaterThanOrEqualTo(1 + PLATOS * (CATEGORIAS_POR_PLATO + INSUMOS_POR_PLATO));
+        LOG.info(
+            "Eager read of {} platos: {} command(s) in {} ms with $lookup, {} commands in {} ms reference by reference",
+            PLATOS,
+            comandosAgregacion,
+            agregacion / 1_000_000,
+            comandosPorReferencia,
+            porReferencia / 1_000_000
+        );
+    }
+
+    @Test
+    void renamedCategoriaIsUpdatedInThePlatos() {
+        Categoria categoria = categorias.get(0).nombre("Renombrada");
+        categoriaRepository.save(categoria);
+
+        long actualizados = platoRepository.actualizarCategoria(categoria);
+
+        assertThat(actualizados).isPositive();
+        assertThat(platoRepository.findAll())
+            .flatExtracting(Plato::getCategorias)
+            .filteredOn(c -> c.getId().equals(categoria.getId()))
+            .hasSize((int) actualizados)
+            .allSatisfy(c -> assertThat(c.getNombre()).isEqualTo("Renombrada"));
+    }
+
+    @Test
+    void deletedCategoriaIsRemovedFromThePlatos() {
+        String categoriaId = categorias.get(0).getId();
+
+        assertThat(platoRepository.quitarCategoria(categoriaId)).isPositive();
+        assertThat(platoRepository.findAll()).flatExtracting(Plato::getCategorias).extracting(Categoria::getId).doesNotContain(categoriaId);
+    }
+
+    @Test
+    void reassignedInsumoMovesToTheOtherPlato() {
+        List<Plato> platos = platoRepository.findAll();
+        Plato origen = platos.get(0);
+        Plato destino = platos.get(1);
+        String insumoId = origen.getInsumos().iterator().next().getId();
+
+        platoRepository.asignarInsumo(insumoId, destino.getId());
+
+        assertThat(platoRepository.findById(origen.getId()).orElseThrow().getInsumos()).extracting(Insumo::getId).doesNotContain(insumoId);
+        assertThat(platoRepository.findById(destino.getId()).orElseThrow().getInsumos()).extracting(Insumo::getId).contains(insumoId);
+
+        platoRepository.asignarInsumo(insumoId, null);
+
+        assertThat(platoRepository.findAll()).flatExtracting(Plato::getInsumos).extracting(Insumo::getId).doesNotContain(insumoId);
+    }
+}
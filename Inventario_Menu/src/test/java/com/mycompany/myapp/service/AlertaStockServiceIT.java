@@ -0,0 +1,71 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.repository.InsumoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link AlertaStockService}.
+ */
+@IntegrationTest
+class AlertaStockServiceIT {
+
+    @Autowired
+    private AlertaStockService alertaStockService;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private List<AlertaStockNotifier> notifiers;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private Insumo insumo;
+
+    @AfterEach
+    void cleanup() {
+        if (insumo != null) {
+            insumoRepository.delete(insumo);
+        }
+    }
+
+    @Test
+    void insumoBelowMinimumIsAlertedOnce() {
+        insumo = insumoRepository.save(new Insumo().nombre("Insumo alertado").stockMinimo(5).stockActual(1));
+
+        assertThat(alertaStockService.alertar()).extracting(Insumo::getId).contains(insumo.getId());
+        assertThat(alertaStockService.alertar()).extracting(Insumo::getId).doesNotContain(insumo.getId());
+    }
+
+    @Test
+    void insumoAlertedByAnotherInstanceIsNotAlertedAgain() {
+        insumo = insumoRepository.save(new Insumo().nombre("Insumo alertado").stockMinimo(5).stockActual(1));
+        // Another instance, or this one once restarted
+        AlertaStockService otraInstancia = new AlertaStockService(
+            insumoRepository,
+            notifiers,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+
+        assertThat(alertaStockService.alertar()).extracting(Insumo::getId).contains(insumo.getId());
+        assertThat(otraInstancia.alertar()).extracting(Insumo::getId).doesNotContain(insumo.getId());
+    }
+
+    @Test
+    void insumoAboveMinimumIsNotAlerted() {
+        insumo = insumoRepository.save(new Insumo().nombre("Insumo alertado").stockMinimo(5).stockActual(5));
+
+        assertThat(alertaStockService.alertar()).extracting(Insumo::getId).doesNotContain(insumo.getId());
+    }
+}
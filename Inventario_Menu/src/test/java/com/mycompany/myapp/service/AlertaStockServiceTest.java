@@ -0,0 +1,93 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.repository.InsumoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AlertaStockServiceTest {
+
+    private InsumoRepository insumoRepository;
+
+    private AlertaStockNotifier notifier;
+
+    private AlertaStockNotifier otroNotifier;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AlertaStockService alertaStockService;
+
+    @BeforeEach
+    void setup() {
+        insumoRepository = mock(InsumoRepository.class);
+        notifier = mock(AlertaStockNotifier.class);
+        otroNotifier = mock(AlertaStockNotifier.class);
+        meterRegistry = new SimpleMeterRegistry();
+        alertaStockService = new AlertaStockService(
+            insumoRepository,
+            List.of(notifier, otroNotifier),
+            new ApplicationProperties(),
+            meterRegistry
+        );
+        when(insumoRepository.findAllAlertables(any(), any())).thenReturn(List.of(new Insumo().id("harina"), new Insumo().id("sal")));
+    }
+
+    @Test
+    void testInsumosClaimedByAnotherInstanceAreNotAlerted() {
+        when(insumoRepository.reclamarAlerta(eq("harina"), any(), any(), any())).thenReturn(true);
+
+        assertThat(alertaStockService.alertar()).extracting(Insumo::getId).containsExactly("harina");
+
+        verify(notifier).notificar(List.of(new Insumo().id("harina")));
+        verify(insumoRepository).registrarAlertas(eq(List.of("harina")), any(Instant.class));
+        assertThat(meterRegistry.get(AlertaStockService.ALERTS_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testNothingIsAlertedWhenEveryClaimIsLost() {
+        assertThat(alertaStockService.alertar()).isEmpty();
+
+        verify(notifier, never()).notificar(anyList());
+        verify(insumoRepository, never()).registrarAlertas(anyList(), any());
+    }
+
+    @Test
+    void testAlertsAreReleasedWhenEveryNotifierFails() {
+        when(insumoRepository.reclamarAlerta(any(), any(), any(), any())).thenReturn(true);
+        doThrow(new IllegalStateException("caído")).when(notifier).notificar(anyList());
+        doThrow(new IllegalStateException("caído")).when(otroNotifier).notificar(anyList());
+
+        assertThat(alertaStockService.alertar()).isEmpty();
+
+        verify(insumoRepository).liberarAlertas(eq(List.of("harina", "sal")), any(Instant.class));
+        verify(insumoRepository, never()).registrarAlertas(anyList(), any());
+        assertThat(meterRegistry.get(AlertaStockService.ALERTS_METER_NAME).counter().count()).isZero();
+    }
+
+    @Test
+    void testAlertsAreRecordedWhenOneNotifierSucceeds() {
+        when(insumoRepository.reclamarAlerta(any(), any(), any(), any())).thenReturn(true);
+        doThrow(new IllegalStateException("caído")).when(notifier).notificar(anyList());
+
+        assertThat(alertaStockService.alertar()).hasSize(2);
+
+        verify(otroNotifier).notificar(anyList());
+        verify(insumoRepository).registrarAlertas(eq(List.of("harina", "sal")), any(Instant.class));
+        verify(insumoRepository, never()).liberarAlertas(anyList(), any());
+        assertThat(meterRegistry.get(AlertaStockService.ALERTS_METER_NAME).counter().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,185 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.dto.PlatoBusquedaDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BusquedaPlatoServiceTest {
+
+    private PlatoRepository platoRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private BusquedaPlatoService busquedaPlatoService;
+
+    private Categoria postres;
+
+    @BeforeEach
+    void setup() {
+        platoRepository = mock(PlatoRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        busquedaPlatoService = new BusquedaPlatoService(platoRepository, meterRegistry);
+        postres = new Categoria().id("c1").nombre("Postres");
+    }
+
+    @Test
+    void testPalabrasIgnoreAccentsAndCase() {
+        assertThat(BusquedaPlatoService.palabras("Crème brûlée, PIÑA-colada")).containsExactly("creme", "brulee", "pina", "colada");
+        assertThat(BusquedaPlatoService.palabras("  ")).isEmpty();
+        assertThat(BusquedaPlatoService.palabras(null)).isEmpty();
+    }
+
+    @Test
+    void testSearchFindsWordsPrefixesAndParts() {
+        busquedaPlatoService.indexar(plato("p1", "Tarta de piña", "Con nata", true));
+        busquedaPlatoService.indexar(plato("p2", "Ensalada césar", "Con pollo y parmesano", true));
+
+        assertThat(ids("PIÑA")).containsExactly("p1");
+        assertThat(ids("pina")).containsExactly("p1");
+        assertThat(ids("ta")).containsExactly("p1");
+        assertThat(ids("cesa")).containsExactly("p2");
+        assertThat(ids("mesan")).containsExactly("p2");
+        assertThat(ids("con")).containsExactlyInAnyOrder("p1", "p2");
+        assertThat(ids("tarta nata")).containsExactly("p1");
+        assertThat(ids("tarta pollo")).isEmpty();
+        assertThat(ids("")).isEmpty();
+    }
+
+    @Test
+    void testSearchRanksTheNameAboveTheDescription() {
+        busquedaPlatoService.indexar(plato("p1", "Flan", "Receta de la abuela con chocolate", true));
+        busquedaPlatoService.indexar(plato("p2", "Tarta de chocolate", "Tres capas", true));
+        busquedaPlatoService.indexar(plato("p3", "Chocolatería", null, true));
+        busquedaPlatoService.indexar(plato("p4", "Helado", null, true).addCategoria(new Categoria().id("c2").nombre("Chocolates")));
+
+        List<PlatoBusquedaDTO> platos = busquedaPlatoService.buscar("chocolate", true, 10);
+
+        assertThat(platos).extracting(PlatoBusquedaDTO::id).containsExactly("p2", "p3", "p4", "p1");
+        assertThat(platos).extracting(PlatoBusquedaDTO::puntuacion).isSortedAccordingTo((a, b) -> b - a);
+        assertThat(busquedaPlatoService.buscar("chocolate", true, 2)).extracting(PlatoBusquedaDTO::id).containsExactly("p2", "p3");
+    }
+
+    @Test
+    void testSearchOnlyFindsActivePlatosWhenAsked() {
+        busquedaPlatoService.indexar(plato("p1", "Flan", null, false));
+
+        assertThat(busquedaPlatoService.buscar("flan", true, 10)).isEmpty();
+        assertThat(busquedaPlatoService.buscar("flan", false, 10)).extracting(PlatoBusquedaDTO::id).containsExactly("p1");
+    }
+
+    @Test
+    void testIndexFollowsTheChanges() {
+        busquedaPlatoService.indexar(plato("p1", "Flan", null, true).addCategoria(postres));
+        busquedaPlatoService.indexar(plato("p2", "Natillas", null, true).addCategoria(postres));
+
+        busquedaPlatoService.indexar(plato("p1", "Arroz con leche", null, true).addCategoria(postres));
+        assertThat(ids("flan")).isEmpty();
+        assertThat(ids("arroz")).containsExactly("p1");
+
+        busquedaPlatoService.actualizarCategoria(new Categoria().id("c1").nombre("Dulces"));
+        assertThat(ids("postres")).isEmpty();
+        assertThat(ids("dulces")).containsExactly("p1", "p2");
+        assertThat(busquedaPlatoService.buscar("natillas", true, 1).get(0).categorias()).containsExactly("Dulces");
+
+        busquedaPlatoService.quitarCategoria("c1");
+        assertThat(ids("dulces")).isEmpty();
+
+        busquedaPlatoService.quitar("p2");
+        assertThat(ids("natillas")).isEmpty();
+        assertThat(meterRegistry.get(BusquedaPlatoService.SIZE_METER_NAME).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testReconstruirIndexesEveryPlato() {
+        busquedaPlatoService.indexar(plato("p0", "Borrado", null, true));
+        when(platoRepository.findAll()).thenReturn(List.of(plato("p1", "Flan", null, true), plato("p2", "Natillas", null, true)));
+
+        busquedaPlatoService.reconstruir();
+
+        assertThat(ids("borrado")).isEmpty();
+        assertThat(ids("flan")).containsExactly("p1");
+        assertThat(meterRegistry.get(BusquedaPlatoService.SIZE_METER_NAME).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testSearchUsesTheCurrentIndexWhileRebuilding() {
+        busquedaPlatoService.indexar(plato("p1", "Flan", null, true));
+        List<List<String>> duranteReconstruccion = new ArrayList<>();
+        when(platoRepository.findAll()).thenAnswer(invocation -> {
+            duranteReconstruccion.add(ids("flan"));
+            return List.of(plato("p1", "Flan", null, true), plato("p2", "Flan de huevo", null, true));
+        });
+
+        busquedaPlatoService.reconstruir();
+
+        assertThat(duranteReconstruccion).containsExactly(List.of("p1"));
+        assertThat(ids("flan")).containsExactlyInAnyOrder("p1", "p2");
+    }
+
+    @Test
+    void testSearchIsFastOnALargeMenu() {
+        String[] palabras = {
+            "tarta",
+            "pollo",
+            "ensalada",
+            "chocolate",
+            "queso",
+            "arroz",
+            "piña",
+            "salmón",
+            "crema",
+            "patatas",
+            "cordero",
+            "merluza",
+            "setas",
+            "tomate",
+            "albóndigas",
+            "croquetas",
+        };
+        Random random = new Random(42);
+        List<Plato> menu = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String nombre = palabras[random.nextInt(palabras.length)] + " " + palabras[random.nextInt(palabras.length)] + " " + i;
+            menu.add(plato("p" + i, nombre, "con " + palabras[random.nextInt(palabras.length)], i % 10 != 0));
+        }
+        when(platoRepository.findAll()).thenReturn(menu);
+        busquedaPlatoService.reconstruir();
+
+        String[] consultas = { "tar", "pollo", "choc", "sal cre", "pina", "queso arroz", "ta", "merluza setas", "croq", "omat" };
+        for (int i = 0; i < 1000; i++) {
+            busquedaPlatoService.buscar(consultas[i % consultas.length], true, 10);
+        }
+        long[] tiempos = new long[1000];
+        for (int i = 0; i < tiempos.length; i++) {
+            long inicio = System.nanoTime();
+            busquedaPlatoService.buscar(consultas[i % consultas.length], true, 10);
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+
+        assertThat(busquedaPlatoService.buscar("pina", true, 10)).isNotEmpty();
+        assertThat(tiempos[tiempos.length / 2]).isLessThan(1_000_000L);
+    }
+
+    private List<String> ids(String texto) {
+        return busquedaPlatoService.buscar(texto, true, 10).stream().map(PlatoBusquedaDTO::id).toList();
+    }
+
+    private static Plato plato(String id, String nombre, String descripcion, boolean activo) {
+        return new Plato().id(id).nombre(nombre).descripcion(descripcion).precio(BigDecimal.TEN).activo(activo);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.LineaReceta;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.domain.enumeration.Unidad;
+import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.repository.PlatoRepositoryWithCostos.ActualizacionCosto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class CostoPlatoServiceTest {
+
+    private PlatoRepository platoRepository;
+
+    private InsumoRepository insumoRepository;
+
+    private CostoPlatoService costoPlatoService;
+
+    @BeforeEach
+    void setup() {
+        platoRepository = mock(PlatoRepository.class);
+        insumoRepository = mock(InsumoRepository.class);
+        costoPlatoService = new CostoPlatoService(platoRepository, insumoRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRecostearIgnoresTheUnchangedInsumos() {
+        Insumo leche = leche("1.20");
+        when(insumoRepository.findAllById(Set.of("i1"))).thenReturn(List.of(leche("1.2000")));
+
+        assertThat(costoPlatoService.recostear(Map.of("i1", leche))).isZero();
+        verify(platoRepository, never()).findAllConInsumoEnReceta(anyString());
+    }
+
+    @Test
+    void testRecostearUpdatesThePlatosOfAnInsumoChangedMeanwhile() {
+        Insumo leche = leche("1.20");
+        Plato flan = new Plato()
+            .id("p1")
+            .precio(new BigDecimal("4.50"))
+            .receta(new ArrayList<>(List.of(new LineaReceta().insumoId("i1").cantidad(new BigDecimal("250")).unidad(Unidad.MILILITRO))));
+        costoPlatoService.costear(flan, Map.of("i1", leche));
+        when(insumoRepository.findAllById(Set.of("i1"))).thenReturn(List.of(leche("2")));
+        when(platoRepository.findAllConInsumoEnReceta("i1")).thenReturn(List.of(flan));
+        when(platoRepository.actualizarCostos(anyList())).thenAnswer(invocation -> (long) invocation.<List<?>>getArgument(0).size());
+
+        assertThat(costoPlatoService.recostear(Map.of("i1", leche))).isEqualTo(1);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ActualizacionCosto>> actualizaciones = ArgumentCaptor.forClass(List.class);
+        verify(platoRepository).actualizarCostos(actualizaciones.capture());
+        assertThat(actualizaciones.getValue()).singleElement().satisfies(actualizacion -> {
+            assertThat(actualizacion.costo()).isEqualByComparingTo("0.5");
+            assertThat(actualizacion.margen()).isEqualByComparingTo("4");
+        });
+    }
+
+    private static Insumo leche(String costoUnitario) {
+        return new Insumo().id("i1").nombre("Leche").unidad(Unidad.LITRO).costoUnitario(new BigDecimal(costoUnitario));
+    }
+}
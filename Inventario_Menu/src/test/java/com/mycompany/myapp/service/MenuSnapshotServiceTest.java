@@ -0,0 +1,66 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.PlatoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class MenuSnapshotServiceTest {
+
+    private PlatoRepository platoRepository;
+
+    private MenuSnapshotService menuSnapshotService;
+
+    @BeforeEach
+    void setup() {
+        platoRepository = mock(PlatoRepository.class);
+        menuSnapshotService = new MenuSnapshotService(platoRepository, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testFirstRequestBuildsTheSnapshot() {
+        when(platoRepository.findAllWithEagerRelationships()).thenReturn(List.of(flan()));
+
+        assertThat(menuSnapshotService.getSnapshot()).hasValueSatisfying(snapshot ->
+            assertThat(new String(snapshot.json())).contains("Flan")
+        );
+        menuSnapshotService.getSnapshot();
+
+        verify(platoRepository, times(1)).findAllWithEagerRelationships();
+    }
+
+    @Test
+    void testSnapshotIsEmptyWhileItCannotBeBuilt() {
+        when(platoRepository.findAllWithEagerRelationships())
+            .thenThrow(new DataAccessResourceFailureException("down"))
+            .thenReturn(List.of());
+
+        assertThat(menuSnapshotService.getSnapshot()).isEmpty();
+        assertThat(menuSnapshotService.getSnapshot()).isPresent();
+    }
+
+    @Test
+    void testRefrescarReadsTheChangesOfTheOtherInstances() {
+        when(platoRepository.findAllWithEagerRelationships()).thenReturn(List.of()).thenReturn(List.of(flan()));
+        String etag = menuSnapshotService.getSnapshot().orElseThrow().etag();
+
+        menuSnapshotService.refrescar();
+
+        assertThat(menuSnapshotService.getSnapshot().orElseThrow().etag()).isNotEqualTo(etag);
+    }
+
+    private static Plato flan() {
+        return new Plato().id("p1").nombre("Flan").precio(BigDecimal.ONE).activo(true);
+    }
+}
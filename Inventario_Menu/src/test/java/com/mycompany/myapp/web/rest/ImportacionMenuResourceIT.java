@@ -0,0 +1,189 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.CategoriaRepository;
+import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.PlatoRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Integration tests for the {@link ImportacionMenuResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ImportacionMenuResourceIT {
+
+    private static final String IMPORTACION_API_URL = "/api/menu/importacion";
+    private static final String EXPORTACION_API_URL = "/api/menu/exportacion";
+
+    private static final String CATEGORIA = "Postres importados";
+    private static final String INSUMO = "Leche importada";
+    private static final String PLATO = "Flan importado";
+
+    private static final String MENU = String.join(
+        "\n",
+        "{\"tipo\":\"categoria\",\"nombre\":\"" + CATEGORIA + "\"}",
+        "{\"tipo\":\"insumo\",\"nombre\":\"" +
+        INSUMO +
+        "\",\"stockMinimo\":5,\"stockActual\":2,\"unidad\":\"LITRO\",\"costoUnitario\":1.2}",
+        "{\"tipo\":\"plato\",\"nombre\":\"" +
+        PLATO +
+        "\",\"precio\":4.5,\"activo\":true,\"categorias\":[\"" +
+        CATEGORIA +
+        "\"],\"receta\":[{\"insumo\":\"" +
+        INSUMO +
+        "\",\"cantidad\":250,\"unidad\":\"MILILITRO\"}]}",
+        "",
+        "{\"tipo\":\"plato\",\"nombre\":",
+        "{\"tipo\":\"plato\",\"nombre\":\"Tarta importada\",\"precio\":3,\"categorias\":[\"Categoria inexistente\"]}",
+        "{\"tipo\":\"plato\",\"nombre\":\"Plato sin precio\"}"
+    );
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private PlatoRepository platoRepository;
+
+    @Autowired
+    private MockMvc restImportacionMenuMockMvc;
+
+    @AfterEach
+    void cleanup() {
+        platoRepository.deleteAll(platoRepository.findAllByNombreIn(List.of(PLATO, "Tarta importada", "Plato sin precio")));
+        insumoRepository.deleteAll(insumoRepository.findAllByNombreIn(List.of(INSUMO)));
+        categoriaRepository.deleteAll(categoriaRepository.findAllByNombreIn(List.of(CATEGORIA)));
+    }
+
+    @Test
+    void importarMenuCreatesTheValidLinesAndReportsTheOthers() throws Exception {
+        importar(MENU)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.lineas").value(7))
+            .andExpect(jsonPath("$.creadas").value(3))
+            .andExpect(jsonPath("$.actualizadas").value(0))
+            .andExpect(jsonPath("$.rechazadas").value(3))
+            .andExpect(jsonPath("$.errores[0].linea").value(5))
+            .andExpect(jsonPath("$.errores[0].mensaje").value(containsString("Invalid line")))
+            .andExpect(jsonPath("$.errores[1].linea").value(6))
+            .andExpect(jsonPath("$.errores[1].mensaje").value("Categoria not found: Categoria inexistente"))
+            .andExpect(jsonPath("$.errores[2].linea").value(7))
+            .andExpect(jsonPath("$.errores[2].mensaje").value(containsString("precio")));
+
+        Categoria categoria = categoriaRepository.findAllByNombreIn(List.of(CATEGORIA)).get(0);
+        Insumo insumo = insumoRepository.findAllByNombreIn(List.of(INSUMO)).get(0);
+        assertThat(insumo.getBajoMinimo()).isTrue();
+        Plato plato = plato(PLATO);
+        assertThat(plato.getPrecio()).isEqualByComparingTo("4.5");
+        assertThat(plato.getCategorias()).extracting(Categoria::getId).containsExactly(categoria.getId());
+        assertThat(plato.getReceta()).hasSize(1);
+        assertThat(plato.getReceta().get(0).getInsumoId()).isEqualTo(insumo.getId());
+        assertThat(plato.getCosto()).isEqualByComparingTo("0.3");
+        assertThat(plato.getMargen()).isEqualByComparingTo("4.2");
+    }
+
+    @Test
+    void importarMenuAgainUpdatesByName() throws Exception {
+        importar(MENU).andExpect(status().isOk());
+        String id = plato(PLATO).getId();
+
+        importar(
+            String.join(
+                "\n",
+                "{\"tipo\":\"insumo\",\"nombre\":\"" + INSUMO + "\",\"stockMinimo\":5,\"stockActual\":20,\"costoUnitario\":2}",
+                "{\"tipo\":\"plato\",\"nombre\":\"" + PLATO + "\",\"precio\":5,\"activo\":false,\"categorias\":[\"" + CATEGORIA + "\"]}"
+            )
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.creadas").value(0))
+            .andExpect(jsonPath("$.actualizadas").value(2))
+            .andExpect(jsonPath("$.rechazadas").value(0));
+
+        Insumo insumo = insumoRepository.findAllByNombreIn(List.of(INSUMO)).get(0);
+        assertThat(insumo.getBajoMinimo()).isFalse();
+        assertThat(insumo.getCostoUnitario()).isEqualByComparingTo("2");
+        Plato plato = plato(PLATO);
+        assertThat(plato.getId()).isEqualTo(id);
+        assertThat(plato.getPrecio()).isEqualByComparingTo("5");
+        assertThat(plato.getActivo()).isFalse();
+        assertThat(plato.getReceta()).isEmpty();
+        assertThat(plato.getCosto()).isNull();
+        assertThat(platoRepository.findAllByNombreIn(List.of(PLATO))).hasSize(1);
+    }
+
+    @Test
+    void importarMenuUpdatesTheCostOfThePlatosOfAnInsumo() throws Exception {
+        importar(MENU).andExpect(status().isOk());
+
+        importar("{\"tipo\":\"insumo\",\"nombre\":\"" + INSUMO + "\",\"unidad\":\"LITRO\",\"costoUnitario\":2}").andExpect(status().isOk());
+
+        assertThat(plato(PLATO).getCosto()).isEqualByComparingTo("0.5");
+    }
+
+    @Test
+    void exportarMenuCanBeImportedBack() throws Exception {
+        importar(MENU).andExpect(status().isOk());
+
+        MvcResult result = restImportacionMenuMockMvc.perform(get(EXPORTACION_API_URL)).andExpect(request().asyncStarted()).andReturn();
+        String ndjson = restImportacionMenuMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+        List<String> lineas = ndjson.lines().toList();
+        assertThat(lineas).anyMatch(linea -> linea.contains("\"tipo\":\"categoria\"") && linea.contains(CATEGORIA));
+        assertThat(lineas).anyMatch(linea -> linea.contains("\"tipo\":\"plato\"") && linea.contains("\"insumo\":\"" + INSUMO + "\""));
+        assertThat(lineas.indexOf(lineas.stream().filter(linea -> linea.contains(PLATO)).findFirst().orElseThrow())).isGreaterThan(
+            lineas.indexOf(lineas.stream().filter(linea -> linea.contains("\"nombre\":\"" + INSUMO + "\"")).findFirst().orElseThrow())
+        );
+
+        // The menu of the other tests may be exported too
+        String propias = String.join(
+            "\n",
+            lineas.stream().filter(linea -> linea.contains(CATEGORIA) || linea.contains(INSUMO) || linea.contains(PLATO)).toList()
+        );
+        importar(propias)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.creadas").value(0))
+            .andExpect(jsonPath("$.actualizadas").value(3))
+            .andExpect(jsonPath("$.rechazadas").value(0));
+        assertThat(plato(PLATO).getCosto()).isEqualByComparingTo("0.3");
+    }
+
+    private ResultActions importar(String ndjson) throws Exception {
+        return restImportacionMenuMockMvc.perform(
+            post(IMPORTACION_API_URL).contentType(MediaType.APPLICATION_NDJSON).content(ndjson.getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    private Plato plato(String nombre) {
+        return platoRepository.findAll().stream().filter(plato -> nombre.equals(plato.getNombre())).findFirst().orElseThrow();
+    }
+}
@@ -2,16 +2,34 @@ package com.mycompany.myapp.web.rest;
 
 import static com.mycompany.myapp.domain.InsumoAsserts.*;
 import static com.mycompany.myapp.web.rest.TestUtil.createUpdateProxyForBean;
+import static com.mycompany.myapp.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.LineaReceta;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.domain.enumeration.Unidad;
 import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.InsumoRepositoryWithStock.ResultadoMovimiento;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.MovimientoStockService;
+import com.mycompany.myapp.service.dto.MovimientoStockDTO;
+import com.mycompany.myapp.service.dto.MovimientoStockResultadoDTO;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +56,12 @@ class InsumoResourceIT {
     private static final Integer DEFAULT_STOCK_ACTUAL = 1;
     private static final Integer UPDATED_STOCK_ACTUAL = 2;
 
+    private static final Unidad DEFAULT_UNIDAD = Unidad.UNIDAD;
+    private static final Unidad UPDATED_UNIDAD = Unidad.GRAMO;
+
+    private static final BigDecimal DEFAULT_COSTO_UNITARIO = new BigDecimal(0);
+    private static final BigDecimal UPDATED_COSTO_UNITARIO = new BigDecimal(1);
+
     private static final String ENTITY_API_URL = "/api/insumos";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -47,6 +71,12 @@ class InsumoResourceIT {
     @Autowired
     private InsumoRepository insumoRepository;
 
+    @Autowired
+    private PlatoRepository platoRepository;
+
+    @Autowired
+    private MovimientoStockService movimientoStockService;
+
     @Autowired
     private MockMvc restInsumoMockMvc;
 
@@ -61,7 +91,12 @@ class InsumoResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Insumo createEntity() {
-        return new Insumo().nombre(DEFAULT_NOMBRE).stockMinimo(DEFAULT_STOCK_MINIMO).stockActual(DEFAULT_STOCK_ACTUAL);
+        return new Insumo()
+            .nombre(DEFAULT_NOMBRE)
+            .stockMinimo(DEFAULT_STOCK_MINIMO)
+            .stockActual(DEFAULT_STOCK_ACTUAL)
+            .unidad(DEFAULT_UNIDAD)
+            .costoUnitario(DEFAULT_COSTO_UNITARIO);
     }
 
     /**
@@ -71,7 +106,12 @@ class InsumoResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Insumo createUpdatedEntity() {
-        return new Insumo().nombre(UPDATED_NOMBRE).stockMinimo(UPDATED_STOCK_MINIMO).stockActual(UPDATED_STOCK_ACTUAL);
+        return new Insumo()
+            .nombre(UPDATED_NOMBRE)
+            .stockMinimo(UPDATED_STOCK_MINIMO)
+            .stockActual(UPDATED_STOCK_ACTUAL)
+            .unidad(UPDATED_UNIDAD)
+            .costoUnitario(UPDATED_COSTO_UNITARIO);
     }
 
     @BeforeEach
@@ -152,7 +192,9 @@ class InsumoResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(insumo.getId())))
             .andExpect(jsonPath("$.[*].nombre").value(hasItem(DEFAULT_NOMBRE)))
             .andExpect(jsonPath("$.[*].stockMinimo").value(hasItem(DEFAULT_STOCK_MINIMO)))
-            .andExpect(jsonPath("$.[*].stockActual").value(hasItem(DEFAULT_STOCK_ACTUAL)));
+            .andExpect(jsonPath("$.[*].stockActual").value(hasItem(DEFAULT_STOCK_ACTUAL)))
+            .andExpect(jsonPath("$.[*].unidad").value(hasItem(DEFAULT_UNIDAD.toString())))
+            .andExpect(jsonPath("$.[*].costoUnitario").value(hasItem(sameNumber(DEFAULT_COSTO_UNITARIO))));
     }
 
     @Test
@@ -168,7 +210,9 @@ class InsumoResourceIT {
             .andExpect(jsonPath("$.id").value(insumo.getId()))
             .andExpect(jsonPath("$.nombre").value(DEFAULT_NOMBRE))
             .andExpect(jsonPath("$.stockMinimo").value(DEFAULT_STOCK_MINIMO))
-            .andExpect(jsonPath("$.stockActual").value(DEFAULT_STOCK_ACTUAL));
+            .andExpect(jsonPath("$.stockActual").value(DEFAULT_STOCK_ACTUAL))
+            .andExpect(jsonPath("$.unidad").value(DEFAULT_UNIDAD.toString()))
+            .andExpect(jsonPath("$.costoUnitario").value(sameNumber(DEFAULT_COSTO_UNITARIO)));
     }
 
     @Test
@@ -186,7 +230,12 @@ class InsumoResourceIT {
 
         // Update the insumo
         Insumo updatedInsumo = insumoRepository.findById(insumo.getId()).orElseThrow();
-        updatedInsumo.nombre(UPDATED_NOMBRE).stockMinimo(UPDATED_STOCK_MINIMO).stockActual(UPDATED_STOCK_ACTUAL);
+        updatedInsumo
+            .nombre(UPDATED_NOMBRE)
+            .stockMinimo(UPDATED_STOCK_MINIMO)
+            .stockActual(UPDATED_STOCK_ACTUAL)
+            .unidad(UPDATED_UNIDAD)
+            .costoUnitario(UPDATED_COSTO_UNITARIO);
 
         restInsumoMockMvc
             .perform(
@@ -258,7 +307,7 @@ class InsumoResourceIT {
         Insumo partialUpdatedInsumo = new Insumo();
         partialUpdatedInsumo.setId(insumo.getId());
 
-        partialUpdatedInsumo.stockMinimo(UPDATED_STOCK_MINIMO).stockActual(UPDATED_STOCK_ACTUAL);
+        partialUpdatedInsumo.stockMinimo(UPDATED_STOCK_MINIMO).stockActual(UPDATED_STOCK_ACTUAL).unidad(UPDATED_UNIDAD);
 
         restInsumoMockMvc
             .perform(
@@ -285,7 +334,12 @@ class InsumoResourceIT {
         Insumo partialUpdatedInsumo = new Insumo();
         partialUpdatedInsumo.setId(insumo.getId());
 
-        partialUpdatedInsumo.nombre(UPDATED_NOMBRE).stockMinimo(UPDATED_STOCK_MINIMO).stockActual(UPDATED_STOCK_ACTUAL);
+        partialUpdatedInsumo
+            .nombre(UPDATED_NOMBRE)
+            .stockMinimo(UPDATED_STOCK_MINIMO)
+            .stockActual(UPDATED_STOCK_ACTUAL)
+            .unidad(UPDATED_UNIDAD)
+            .costoUnitario(UPDATED_COSTO_UNITARIO);
 
         restInsumoMockMvc
             .perform(
@@ -365,6 +419,214 @@ class InsumoResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    void consumirInsumos() throws Exception {
+        insertedInsumo = insumoRepository.save(insumo.stockActual(10));
+        Insumo otroInsumo = insumoRepository.save(createEntity().stockActual(1));
+
+        try {
+            restInsumoMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/consumos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(
+                            om.writeValueAsBytes(
+                                List.of(
+                                    new MovimientoStockDTO(insertedInsumo.getId(), 3),
+                                    new MovimientoStockDTO(otroInsumo.getId(), 2),
+                                    new MovimientoStockDTO(insertedInsumo.getId(), 4)
+                                )
+                            )
+                        )
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].insumoId").value(insertedInsumo.getId()))
+                .andExpect(jsonPath("$.[0].cantidad").value(-7))
+                .andExpect(jsonPath("$.[0].resultado").value(ResultadoMovimiento.APLICADO.name()))
+                .andExpect(jsonPath("$.[1].resultado").value(ResultadoMovimiento.STOCK_INSUFICIENTE.name()));
+
+            assertThat(getPersistedInsumo(insertedInsumo).getStockActual()).isEqualTo(3);
+            assertThat(getPersistedInsumo(otroInsumo).getStockActual()).isEqualTo(1);
+        } finally {
+            insumoRepository.delete(otroInsumo);
+        }
+    }
+
+    @Test
+    void reponerInsumos() throws Exception {
+        insertedInsumo = insumoRepository.save(insumo.stockActual(1));
+
+        restInsumoMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/reposiciones")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        om.writeValueAsBytes(
+                            List.of(
+                                new MovimientoStockDTO(insertedInsumo.getId(), 5),
+                                new MovimientoStockDTO(UUID.randomUUID().toString(), 5)
+                            )
+                        )
+                    )
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].resultado").value(ResultadoMovimiento.APLICADO.name()))
+            .andExpect(jsonPath("$.[1].resultado").value(ResultadoMovimiento.NO_ENCONTRADO.name()));
+
+        assertThat(getPersistedInsumo(insertedInsumo).getStockActual()).isEqualTo(6);
+    }
+
+    @Test
+    void consumirInsumosWithoutQuantity() throws Exception {
+        restInsumoMockMvc
+            .perform(post(ENTITY_API_URL + "/consumos").contentType(MediaType.APPLICATION_JSON).content("[]"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.movimientosvacios"));
+    }
+
+    @Test
+    void consumirInsumosFlagsTheStockBelowMinimum() throws Exception {
+        insertedInsumo = insumoRepository.save(insumo.stockMinimo(5).stockActual(10));
+        assertThat(getPersistedInsumo(insertedInsumo).getBajoMinimo()).isFalse();
+
+        movimientoStockService.consumir(List.of(new MovimientoStockDTO(insertedInsumo.getId(), 6)));
+        assertThat(getPersistedInsumo(insertedInsumo).getBajoMinimo()).isTrue();
+
+        movimientoStockService.reponer(List.of(new MovimientoStockDTO(insertedInsumo.getId(), 1)));
+        assertThat(getPersistedInsumo(insertedInsumo).getBajoMinimo()).isFalse();
+    }
+
+    @Test
+    void getInsumosBajoMinimo() throws Exception {
+        insertedInsumo = insumoRepository.save(insumo.stockMinimo(5).stockActual(1));
+        Insumo otroInsumo = insumoRepository.save(createEntity().stockMinimo(5).stockActual(5));
+
+        try {
+            restInsumoMockMvc
+                .perform(get(ENTITY_API_URL + "/bajo-minimo?sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().exists("X-Total-Count"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(insertedInsumo.getId())))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(otroInsumo.getId()))))
+                .andExpect(jsonPath("$.[*].bajoMinimo").value(everyItem(is(true))));
+        } finally {
+            insumoRepository.delete(otroInsumo);
+        }
+    }
+
+    @Test
+    void updateInsumoKeepsTheStockFlag() throws Exception {
+        insertedInsumo = insumoRepository.save(insumo.stockMinimo(5).stockActual(10));
+
+        Insumo updatedInsumo = insumoRepository.findById(insertedInsumo.getId()).orElseThrow();
+        updatedInsumo.stockActual(2);
+        restInsumoMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedInsumo.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedInsumo))
+            )
+            .andExpect(status().isOk());
+
+        assertThat(getPersistedInsumo(insertedInsumo).getBajoMinimo()).isTrue();
+    }
+
+    @Test
+    void concurrentDepletionsNeverGoBelowZero() throws Exception {
+        insertedInsumo = insumoRepository.save(insumo.stockActual(50));
+        int consumos = 80;
+
+        List<MovimientoStockDTO> consumo = List.of(new MovimientoStockDTO(insertedInsumo.getId(), 1));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<List<MovimientoStockResultadoDTO>>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < consumos; i++) {
+                resultados.add(executor.submit(() -> movimientoStockService.consumir(consumo)));
+            }
+            int aplicados = 0;
+            for (Future<List<MovimientoStockResultadoDTO>> resultado : resultados) {
+                if (resultado.get().get(0).resultado() == ResultadoMovimiento.APLICADO) {
+                    aplicados++;
+                }
+            }
+
+            assertThat(aplicados).isEqualTo(50);
+            assertThat(getPersistedInsumo(insertedInsumo).getStockActual()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateCostoUnitarioUpdatesTheCostOfThePlatosUsingTheInsumo() throws Exception {
+        insertedInsumo = insumoRepository.save(insumo.unidad(Unidad.KILOGRAMO).costoUnitario(new BigDecimal("2")));
+        Insumo aceite = insumoRepository.save(createEntity().unidad(Unidad.LITRO).costoUnitario(new BigDecimal("10")));
+        Plato pan = crearPlato(
+            new Plato()
+                .nombre("Pan")
+                .precio(new BigDecimal("3"))
+                .receta(
+                    List.of(
+                        new LineaReceta().insumoId(insumo.getId()).cantidad(new BigDecimal("500")).unidad(Unidad.GRAMO),
+                        new LineaReceta().insumoId(aceite.getId()).cantidad(new BigDecimal("10")).unidad(Unidad.MILILITRO)
+                    )
+                )
+        );
+        Plato ensalada = crearPlato(
+            new Plato()
+                .nombre("Ensalada")
+                .precio(new BigDecimal("5"))
+                .receta(List.of(new LineaReceta().insumoId(aceite.getId()).cantidad(new BigDecimal("20"))))
+        );
+
+        try {
+            assertThat(pan.getCosto()).isEqualByComparingTo("1.1");
+            assertThat(pan.getMargen()).isEqualByComparingTo("1.9");
+            assertThat(pan.getReceta().get(0).getCosto()).isEqualByComparingTo("1");
+            assertThat(ensalada.getCosto()).isEqualByComparingTo("200");
+
+            Insumo partialUpdatedInsumo = new Insumo().costoUnitario(new BigDecimal("4"));
+            partialUpdatedInsumo.setId(insumo.getId());
+            restInsumoMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, insumo.getId())
+                        .contentType("application/merge-patch+json")
+                        .content(om.writeValueAsBytes(partialUpdatedInsumo))
+                )
+                .andExpect(status().isOk());
+
+            Plato panActualizado = platoRepository.findById(pan.getId()).orElseThrow();
+            assertThat(panActualizado.getCosto()).isEqualByComparingTo("2.1");
+            assertThat(panActualizado.getMargen()).isEqualByComparingTo("0.9");
+            assertThat(panActualizado.getReceta().get(0).getCosto()).isEqualByComparingTo("2");
+            assertThat(panActualizado.getReceta().get(1).getCosto()).isEqualByComparingTo("0.1");
+            assertThat(platoRepository.findById(ensalada.getId()).orElseThrow().getCosto()).isEqualByComparingTo("200");
+
+            restInsumoMockMvc.perform(delete(ENTITY_API_URL_ID, aceite.getId())).andExpect(status().isNoContent());
+
+            assertThat(platoRepository.findById(pan.getId()).orElseThrow().getCosto()).isNull();
+            assertThat(platoRepository.findById(ensalada.getId()).orElseThrow().getMargen()).isNull();
+        } finally {
+            insumoRepository.delete(aceite);
+            platoRepository.deleteById(pan.getId());
+            platoRepository.deleteById(ensalada.getId());
+        }
+    }
+
+    private Plato crearPlato(Plato plato) throws Exception {
+        Plato creado = om.readValue(
+            restInsumoMockMvc
+                .perform(post("/api/platoes").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(plato)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            Plato.class
+        );
+        return platoRepository.findById(creado.getId()).orElseThrow();
+    }
+
     protected long getRepositoryCount() {
         return insumoRepository.count();
     }
@@ -0,0 +1,168 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Categoria;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.repository.CategoriaRepository;
+import com.mycompany.myapp.repository.InsumoRepository;
+import com.mycompany.myapp.repository.PlatoRepository;
+import com.mycompany.myapp.service.MenuSnapshotService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link MenuResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class MenuResourceIT {
+
+    private static final String MENU_API_URL = "/api/menu";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private PlatoRepository platoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private InsumoRepository insumoRepository;
+
+    @Autowired
+    private MenuSnapshotService menuSnapshotService;
+
+    @Autowired
+    private MockMvc restMenuMockMvc;
+
+    private Categoria categoria;
+
+    private Plato activo;
+
+    private Plato inactivo;
+
+    private Insumo insumo;
+
+    @BeforeEach
+    void initTest() {
+        categoria = categoriaRepository.save(CategoriaResourceIT.createEntity().nombre("Entrantes"));
+        activo = platoRepository.save(PlatoResourceIT.createEntity().nombre("Croquetas").activo(true).addCategoria(categoria));
+        inactivo = platoRepository.save(PlatoResourceIT.createEntity().nombre("Gazpacho").activo(false).addCategoria(categoria));
+        insumo = insumoRepository.save(InsumoResourceIT.createEntity().nombre("Bechamel").plato(activo));
+        platoRepository.asignarInsumo(insumo.getId(), activo.getId());
+        menuSnapshotService.reconstruir();
+    }
+
+    @AfterEach
+    void cleanup() {
+        platoRepository.deleteById(activo.getId());
+        platoRepository.deleteById(inactivo.getId());
+        insumoRepository.deleteById(insumo.getId());
+        categoriaRepository.deleteById(categoria.getId());
+        menuSnapshotService.reconstruir();
+    }
+
+    @Test
+    void getMenuListsTheActivePlatosByCategoria() throws Exception {
+        restMenuMockMvc
+            .perform(get(MENU_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.categorias[?(@.id == '" + categoria.getId() + "')].nombre").value(contains("Entrantes")))
+            .andExpect(jsonPath("$.categorias[?(@.id == '" + categoria.getId() + "')].platos[*].nombre").value(contains("Croquetas")))
+            .andExpect(jsonPath("$.categorias[*].platos[*].insumos[*]").value(hasItem("Bechamel")))
+            .andExpect(jsonPath("$.categorias[*].platos[*].id").value(not(hasItem(inactivo.getId()))));
+    }
+
+    @Test
+    void getMenuWithCurrentEtagIsNotModified() throws Exception {
+        String etag = restMenuMockMvc.perform(get(MENU_API_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        restMenuMockMvc
+            .perform(get(MENU_API_URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void getMenuGzipped() throws Exception {
+        MvcResult identity = restMenuMockMvc.perform(get(MENU_API_URL)).andReturn();
+
+        MvcResult gzipped = restMenuMockMvc
+            .perform(get(MENU_API_URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn();
+
+        assertThat(gzipped.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(identity.getResponse().getHeader(HttpHeaders.ETAG));
+        assertThat(gunzip(gzipped.getResponse().getContentAsByteArray())).isEqualTo(identity.getResponse().getContentAsString());
+
+        // Either ETag revalidates the menu, both encodings having the same content
+        restMenuMockMvc
+            .perform(get(MENU_API_URL).header(HttpHeaders.IF_NONE_MATCH, identity.getResponse().getHeader(HttpHeaders.ETAG)))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser
+    void changedPlatoChangesTheEtag() throws Exception {
+        String etag = restMenuMockMvc.perform(get(MENU_API_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Plato updatedPlato = platoRepository.findById(activo.getId()).orElseThrow();
+        updatedPlato.nombre("Croquetas caseras");
+        restMenuMockMvc
+            .perform(
+                put("/api/platoes/{id}", updatedPlato.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedPlato))
+            )
+            .andExpect(status().isOk());
+
+        restMenuMockMvc
+            .perform(get(MENU_API_URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+            .andExpect(jsonPath("$.categorias[*].platos[*].nombre").value(hasItem("Croquetas caseras")));
+    }
+
+    @Test
+    void unchangedMenuKeepsItsEtag() throws Exception {
+        String etag = restMenuMockMvc.perform(get(MENU_API_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        menuSnapshotService.reconstruir();
+
+        restMenuMockMvc.perform(get(MENU_API_URL).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -5,16 +5,24 @@ import static com.mycompany.myapp.web.rest.TestUtil.createUpdateProxyForBean;
 import static com.mycompany.myapp.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Insumo;
+import com.mycompany.myapp.domain.LineaReceta;
 import com.mycompany.myapp.domain.Plato;
+import com.mycompany.myapp.domain.enumeration.Unidad;
+import com.mycompany.myapp.repository.InsumoRepository;
 import com.mycompany.myapp.repository.PlatoRepository;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -60,6 +68,9 @@ class PlatoResourceIT {
     @Autowired
     private PlatoRepository platoRepository;
 
+    @Autowired
+    private InsumoRepository insumoRepository;
+
     @Mock
     private PlatoRepository platoRepositoryMock;
 
@@ -140,6 +151,60 @@ class PlatoResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void createPlatoWithReceta() throws Exception {
+        Insumo harina = insumoRepository.save(InsumoResourceIT.createEntity().unidad(Unidad.KILOGRAMO).costoUnitario(new BigDecimal("2")));
+        plato.receta(List.of(new LineaReceta().insumoId(harina.getId()).cantidad(new BigDecimal("250")).unidad(Unidad.GRAMO)));
+
+        try {
+            insertedPlato = om.readValue(
+                restPlatoMockMvc
+                    .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(plato)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.receta[0].costo").value(sameNumber(new BigDecimal("0.5"))))
+                    .andExpect(jsonPath("$.costo").value(sameNumber(new BigDecimal("0.5"))))
+                    .andExpect(jsonPath("$.margen").value(sameNumber(DEFAULT_PRECIO.subtract(new BigDecimal("0.5")))))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString(),
+                Plato.class
+            );
+
+            assertThat(getPersistedPlato(insertedPlato).getCosto()).isEqualByComparingTo("0.5");
+        } finally {
+            insumoRepository.delete(harina);
+        }
+    }
+
+    @Test
+    void createPlatoWithInvalidReceta() throws Exception {
+        Insumo harina = insumoRepository.save(InsumoResourceIT.createEntity().unidad(Unidad.KILOGRAMO));
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        try {
+            plato.receta(List.of(new LineaReceta().insumoId(harina.getId()).cantidad(BigDecimal.ONE).unidad(Unidad.LITRO)));
+            restPlatoMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(plato)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.unidadincompatible"));
+
+            plato.receta(List.of(new LineaReceta().insumoId(UUID.randomUUID().toString()).cantidad(BigDecimal.ONE)));
+            restPlatoMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(plato)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.insumonotfound"));
+
+            plato.receta(List.of(new LineaReceta().insumoId(harina.getId()).cantidad(BigDecimal.ZERO)));
+            restPlatoMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(plato)))
+                .andExpect(status().isBadRequest());
+        } finally {
+            insumoRepository.delete(harina);
+        }
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
     @Test
     void checkNombreIsRequired() throws Exception {
         long databaseSizeBeforeTest = getRepositoryCount();
@@ -221,6 +286,53 @@ class PlatoResourceIT {
             .andExpect(jsonPath("$.activo").value(DEFAULT_ACTIVO));
     }
 
+    @Test
+    void getPreciosPlatoesChangedSince() throws Exception {
+        Instant desde = Instant.now().minus(1, ChronoUnit.MINUTES);
+        insertedPlato = platoRepository.save(plato);
+
+        restPlatoMockMvc
+            .perform(get(ENTITY_API_URL + "/precios?desde={desde}", desde))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(plato.getId())))
+            .andExpect(jsonPath("$.[*].precio").value(hasItem(sameNumber(DEFAULT_PRECIO))))
+            .andExpect(jsonPath("$.[*].activo").value(hasItem(DEFAULT_ACTIVO)));
+
+        restPlatoMockMvc
+            .perform(get(ENTITY_API_URL + "/precios?desde={desde}", Instant.now().plus(1, ChronoUnit.MINUTES)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(plato.getId()))));
+    }
+
+    @Test
+    void searchPlatoes() throws Exception {
+        plato.nombre("Tarta de piña").activo(true);
+        var returnedPlato = om.readValue(
+            restPlatoMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(plato)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            Plato.class
+        );
+
+        restPlatoMockMvc
+            .perform(get(ENTITY_API_URL + "/busqueda?q={q}", "PIÑA tar"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].id").value(returnedPlato.getId()))
+            .andExpect(jsonPath("$.[0].nombre").value("Tarta de piña"));
+
+        restPlatoMockMvc.perform(delete(ENTITY_API_URL_ID, returnedPlato.getId())).andExpect(status().isNoContent());
+
+        restPlatoMockMvc
+            .perform(get(ENTITY_API_URL + "/busqueda?q={q}", "pina"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(returnedPlato.getId()))));
+    }
+
     @Test
     void getNonExistingPlato() throws Exception {
         // Get the plato
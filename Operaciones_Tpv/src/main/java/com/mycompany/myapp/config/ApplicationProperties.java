@@ -1,5 +1,7 @@
 package com.mycompany.myapp.config;
 
+import com.hazelcast.config.EvictionPolicy;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +15,78 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final PedidoFeed pedidoFeed = new PedidoFeed();
+
+    private final VentaRollup ventaRollup = new VentaRollup();
+
+    private final MesaOcupacion mesaOcupacion = new MesaOcupacion();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final HibernateCache hibernateCache = new HibernateCache();
+
+    private final ReadReplica readReplica = new ReadReplica();
+
+    private final OptimisticLock optimisticLock = new OptimisticLock();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Partitioning partitioning = new Partitioning();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final PreciosPlato preciosPlato = new PreciosPlato();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public PedidoFeed getPedidoFeed() {
+        return pedidoFeed;
+    }
+
+    public VentaRollup getVentaRollup() {
+        return ventaRollup;
+    }
+
+    public MesaOcupacion getMesaOcupacion() {
+        return mesaOcupacion;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public HibernateCache getHibernateCache() {
+        return hibernateCache;
+    }
+
+    public ReadReplica getReadReplica() {
+        return readReplica;
+    }
+
+    public OptimisticLock getOptimisticLock() {
+        return optimisticLock;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public PreciosPlato getPreciosPlato() {
+        return preciosPlato;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +101,518 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class PedidoFeed {
+
+        private int bufferSize = 1024;
+
+        private int dispatchQueueCapacity = 10000;
+
+        private Duration emitterTimeout = Duration.ofMinutes(30);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getDispatchQueueCapacity() {
+            return dispatchQueueCapacity;
+        }
+
+        public void setDispatchQueueCapacity(int dispatchQueueCapacity) {
+            this.dispatchQueueCapacity = dispatchQueueCapacity;
+        }
+
+        public Duration getEmitterTimeout() {
+            return emitterTimeout;
+        }
+
+        public void setEmitterTimeout(Duration emitterTimeout) {
+            this.emitterTimeout = emitterTimeout;
+        }
+    }
+
+    public static class VentaRollup {
+
+        private String zoneId = "UTC";
+
+        private String rebuildCron = "-";
+
+        private int rebuildBatchSize = 1000;
+
+        public String getZoneId() {
+            return zoneId;
+        }
+
+        public void setZoneId(String zoneId) {
+            this.zoneId = zoneId;
+        }
+
+        public String getRebuildCron() {
+            return rebuildCron;
+        }
+
+        public void setRebuildCron(String rebuildCron) {
+            this.rebuildCron = rebuildCron;
+        }
+
+        public int getRebuildBatchSize() {
+            return rebuildBatchSize;
+        }
+
+        public void setRebuildBatchSize(int rebuildBatchSize) {
+            this.rebuildBatchSize = rebuildBatchSize;
+        }
+    }
+
+    public static class MesaOcupacion {
+
+        private Duration writeBehindDelay = Duration.ofSeconds(2);
+
+        private Duration refreshDelay = Duration.ofSeconds(30);
+
+        public Duration getWriteBehindDelay() {
+            return writeBehindDelay;
+        }
+
+        public void setWriteBehindDelay(Duration writeBehindDelay) {
+            this.writeBehindDelay = writeBehindDelay;
+        }
+
+        public Duration getRefreshDelay() {
+            return refreshDelay;
+        }
+
+        public void setRefreshDelay(Duration refreshDelay) {
+            this.refreshDelay = refreshDelay;
+        }
+    }
+
+    public static class Idempotency {
+
+        private Duration ttl = Duration.ofHours(24);
+
+        private Duration lockTimeout = Duration.ofSeconds(10);
+
+        private Duration lockLease = Duration.ofMinutes(1);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getLockTimeout() {
+            return lockTimeout;
+        }
+
+        public void setLockTimeout(Duration lockTimeout) {
+            this.lockTimeout = lockTimeout;
+        }
+
+        public Duration getLockLease() {
+            return lockLease;
+        }
+
+        public void setLockLease(Duration lockLease) {
+            this.lockLease = lockLease;
+        }
+    }
+
+    public static class HibernateCache {
+
+        private final Region mesa = new Region(Duration.ofHours(12), 1000, EvictionPolicy.LRU, 1, true);
+
+        private final Region pedido = new Region(Duration.ofMinutes(30), 20000, EvictionPolicy.LRU, 1, false);
+
+        private final Region pedidoItemPedidos = new Region(Duration.ofMinutes(30), 20000, EvictionPolicy.LRU, 0, false);
+
+        private final Region itemPedido = new Region(Duration.ofMinutes(30), 100000, EvictionPolicy.LRU, 0, false);
+
+        private final Region factura = new Region(Duration.ofMinutes(10), 10000, EvictionPolicy.LFU, 0, false);
+
+        public Region getMesa() {
+            return mesa;
+        }
+
+        public Region getPedido() {
+            return pedido;
+        }
+
+        public Region getPedidoItemPedidos() {
+            return pedidoItemPedidos;
+        }
+
+        public Region getItemPedido() {
+            return itemPedido;
+        }
+
+        public Region getFactura() {
+            return factura;
+        }
+
+        public static class Region {
+
+            private Duration timeToLive;
+
+            private int maxSize;
+
+            private EvictionPolicy evictionPolicy;
+
+            private int backupCount;
+
+            private boolean nearCache;
+
+            public Region(Duration timeToLive, int maxSize, EvictionPolicy evictionPolicy, int backupCount, boolean nearCache) {
+                this.timeToLive = timeToLive;
+                this.maxSize = maxSize;
+                this.evictionPolicy = evictionPolicy;
+                this.backupCount = backupCount;
+                this.nearCache = nearCache;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public EvictionPolicy getEvictionPolicy() {
+                return evictionPolicy;
+            }
+
+            public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+                this.evictionPolicy = evictionPolicy;
+            }
+
+            public int getBackupCount() {
+                return backupCount;
+            }
+
+            public void setBackupCount(int backupCount) {
+                this.backupCount = backupCount;
+            }
+
+            public boolean isNearCache() {
+                return nearCache;
+            }
+
+            public void setNearCache(boolean nearCache) {
+                this.nearCache = nearCache;
+            }
+        }
+    }
+
+    public static class ReadReplica {
+
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        private Duration retryAfter = Duration.ofSeconds(30);
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    public static class OptimisticLock {
+
+        private int maxAttempts = 4;
+
+        private long backoffDelay = 20;
+
+        private long backoffMaxDelay = 200;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getBackoffDelay() {
+            return backoffDelay;
+        }
+
+        public void setBackoffDelay(long backoffDelay) {
+            this.backoffDelay = backoffDelay;
+        }
+
+        public long getBackoffMaxDelay() {
+            return backoffMaxDelay;
+        }
+
+        public void setBackoffMaxDelay(long backoffMaxDelay) {
+            this.backoffMaxDelay = backoffMaxDelay;
+        }
+    }
+
+    public static class Outbox {
+
+        private Duration relayDelay = Duration.ofSeconds(1);
+
+        private int batchSize = 200;
+
+        private int maxBatchesPerRun = 10;
+
+        private Duration retention = Duration.ofDays(7);
+
+        private String purgeCron = "0 30 4 * * *";
+
+        private final Http http = new Http();
+
+        public Duration getRelayDelay() {
+            return relayDelay;
+        }
+
+        public void setRelayDelay(Duration relayDelay) {
+            this.relayDelay = relayDelay;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxBatchesPerRun() {
+            return maxBatchesPerRun;
+        }
+
+        public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+            this.maxBatchesPerRun = maxBatchesPerRun;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public String getPurgeCron() {
+            return purgeCron;
+        }
+
+        public void setPurgeCron(String purgeCron) {
+            this.purgeCron = purgeCron;
+        }
+
+        public Http getHttp() {
+            return http;
+        }
+
+        public static class Http {
+
+            private String url;
+
+            private Duration connectTimeout = Duration.ofSeconds(2);
+
+            private Duration readTimeout = Duration.ofSeconds(5);
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public Duration getConnectTimeout() {
+                return connectTimeout;
+            }
+
+            public void setConnectTimeout(Duration connectTimeout) {
+                this.connectTimeout = connectTimeout;
+            }
+
+            public Duration getReadTimeout() {
+                return readTimeout;
+            }
+
+            public void setReadTimeout(Duration readTimeout) {
+                this.readTimeout = readTimeout;
+            }
+        }
+    }
+
+    public static class Partitioning {
+
+        private int monthsAhead = 3;
+
+        private int retentionMonths = 24;
+
+        private String maintenanceCron = "0 15 3 * * *";
+
+        private String archiveTablespace;
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+
+        public int getRetentionMonths() {
+            return retentionMonths;
+        }
+
+        public void setRetentionMonths(int retentionMonths) {
+            this.retentionMonths = retentionMonths;
+        }
+
+        public String getMaintenanceCron() {
+            return maintenanceCron;
+        }
+
+        public void setMaintenanceCron(String maintenanceCron) {
+            this.maintenanceCron = maintenanceCron;
+        }
+
+        public String getArchiveTablespace() {
+            return archiveTablespace;
+        }
+
+        public void setArchiveTablespace(String archiveTablespace) {
+            this.archiveTablespace = archiveTablespace;
+        }
+    }
+
+    public static class VirtualThreads {
+
+        private int maxConcurrentRequests = 200;
+
+        private int maxQueuedRequests = 1000;
+
+        private Duration pinnedThreshold = Duration.ofMillis(20);
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getMaxQueuedRequests() {
+            return maxQueuedRequests;
+        }
+
+        public void setMaxQueuedRequests(int maxQueuedRequests) {
+            this.maxQueuedRequests = maxQueuedRequests;
+        }
+
+        public Duration getPinnedThreshold() {
+            return pinnedThreshold;
+        }
+
+        public void setPinnedThreshold(Duration pinnedThreshold) {
+            this.pinnedThreshold = pinnedThreshold;
+        }
+    }
+
+    public static class PreciosPlato {
+
+        private String menuUrl;
+
+        private int maxSize = 10000;
+
+        private Duration syncDelay = Duration.ofMinutes(1);
+
+        private Duration syncOverlap = Duration.ofSeconds(5);
+
+        private String fullSyncCron = "0 45 4 * * *";
+
+        private Duration connectTimeout = Duration.ofSeconds(1);
+
+        private Duration readTimeout = Duration.ofSeconds(2);
+
+        public String getMenuUrl() {
+            return menuUrl;
+        }
+
+        public void setMenuUrl(String menuUrl) {
+            this.menuUrl = menuUrl;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getSyncDelay() {
+            return syncDelay;
+        }
+
+        public void setSyncDelay(Duration syncDelay) {
+            this.syncDelay = syncDelay;
+        }
+
+        public Duration getSyncOverlap() {
+            return syncOverlap;
+        }
+
+        public void setSyncOverlap(Duration syncOverlap) {
+            this.syncOverlap = syncOverlap;
+        }
+
+        public String getFullSyncCron() {
+            return fullSyncCron;
+        }
+
+        public void setFullSyncCron(String fullSyncCron) {
+            this.fullSyncCron = fullSyncCron;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
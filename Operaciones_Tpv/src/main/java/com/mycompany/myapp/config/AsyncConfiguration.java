@@ -9,6 +9,9 @@ import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -25,13 +28,28 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final Environment env;
+
+    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties, Environment env) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.env = env;
     }
 
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        if (env.acceptsProfiles(Profiles.of(Constants.SPRING_PROFILE_VIRTUAL_THREADS))) {
+            LOG.debug("Creating Async Task Executor on virtual threads");
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(taskExecutionProperties.getThreadNamePrefix());
+            executor.setVirtualThreads(true);
+            // One virtual thread per task: the tasks running at once are bounded by a permit count instead of a pool, and the
+            // caller waits for a permit instead of queueing
+            Integer concurrencyLimit = taskExecutionProperties.getSimple().getConcurrencyLimit();
+            if (concurrencyLimit != null) {
+                executor.setConcurrencyLimit(concurrencyLimit);
+            }
+            return new ExceptionHandlingAsyncTaskExecutor(executor);
+        }
         LOG.debug("Creating Async Task Executor");
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
@@ -3,7 +3,18 @@ package com.mycompany.myapp.config;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.ItemPedido;
+import com.mycompany.myapp.domain.Mesa;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.service.IdempotencyService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.HazelcastCacheMetrics;
 import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +43,11 @@ public class CacheConfiguration {
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheConfiguration.class);
 
+    /**
+     * The value of the {@code cache.manager} tag of the metrics of the Hibernate second level cache regions.
+     */
+    public static final String HIBERNATE_CACHE_MANAGER = "hibernate";
+
     private final Environment env;
 
     private final ServerProperties serverProperties;
@@ -64,7 +80,7 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         LOG.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("Operaciones_Tpv");
         if (hazelCastInstance != null) {
@@ -107,6 +123,10 @@ public class CacheConfiguration {
         config.setManagementCenterConfig(new ManagementCenterConfig());
         config.addMapConfig(initializeDefaultMapConfig(jHipsterProperties));
         config.addMapConfig(initializeDomainMapConfig(jHipsterProperties));
+        config.addMapConfig(initializeIdempotencyMapConfig(jHipsterProperties, applicationProperties));
+        hibernateCacheRegions(applicationProperties).forEach((name, region) ->
+            config.addMapConfig(initializeRegionMapConfig(name, region))
+        );
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -146,6 +166,76 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
+    private MapConfig initializeIdempotencyMapConfig(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        MapConfig mapConfig = new MapConfig(IdempotencyService.MAP_NAME);
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+        // Stored responses must outlive the retries of the clients, not the cache TTL of the entities
+        mapConfig.setTimeToLiveSeconds((int) applicationProperties.getIdempotency().getTtl().toSeconds());
+        return mapConfig;
+    }
+
+    /**
+     * The Hibernate second level cache regions with their own configuration, by name. The other regions use the domain one.
+     */
+    private static Map<String, ApplicationProperties.HibernateCache.Region> hibernateCacheRegions(
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.HibernateCache hibernateCache = applicationProperties.getHibernateCache();
+        Map<String, ApplicationProperties.HibernateCache.Region> regions = new LinkedHashMap<>();
+        regions.put(Mesa.class.getName(), hibernateCache.getMesa());
+        regions.put(Pedido.class.getName(), hibernateCache.getPedido());
+        regions.put(Pedido.class.getName() + ".itemPedidos", hibernateCache.getPedidoItemPedidos());
+        regions.put(ItemPedido.class.getName(), hibernateCache.getItemPedido());
+        regions.put(Factura.class.getName(), hibernateCache.getFactura());
+        return regions;
+    }
+
+    private MapConfig initializeRegionMapConfig(String name, ApplicationProperties.HibernateCache.Region region) {
+        MapConfig mapConfig = new MapConfig(name);
+        mapConfig.setBackupCount(region.getBackupCount());
+        mapConfig.setTimeToLiveSeconds((int) region.getTimeToLive().toSeconds());
+        // Bounded by number of entries on each member, rather than by heap, so the size of a region can be reasoned about
+        mapConfig
+            .getEvictionConfig()
+            .setEvictionPolicy(region.getEvictionPolicy())
+            .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+            .setSize(region.getMaxSize());
+        if (region.isNearCache()) {
+            // Invalidated on every change, so a member never reads an entry updated or evicted elsewhere
+            NearCacheConfig nearCacheConfig = new NearCacheConfig(name)
+                .setInMemoryFormat(InMemoryFormat.BINARY)
+                .setInvalidateOnChange(true)
+                .setTimeToLiveSeconds(mapConfig.getTimeToLiveSeconds());
+            nearCacheConfig
+                .getEvictionConfig()
+                .setEvictionPolicy(region.getEvictionPolicy())
+                .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(region.getMaxSize());
+            mapConfig.setNearCacheConfig(nearCacheConfig);
+        }
+        return mapConfig;
+    }
+
+    /**
+     * Publish the hits, misses, puts, evictions and size of the Hibernate second level cache regions configured above, and of
+     * their near-caches, tagged with the name of the region.
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(HazelcastInstance hazelcastInstance, ApplicationProperties applicationProperties) {
+        return registry ->
+            hibernateCacheRegions(applicationProperties)
+                .keySet()
+                .forEach(name -> {
+                    IMap<Object, Object> map = hazelcastInstance.getMap(name);
+                    HazelcastCacheMetrics.monitor(registry, map, "cache.manager", HIBERNATE_CACHE_MANAGER);
+                    // Not published by HazelcastCacheMetrics, which only sees the evictions of the near-cache
+                    FunctionCounter.builder("cache.evictions", map, m -> m.getLocalMapStats().getEvictionCount())
+                        .tags("cache", name, "cache.manager", HIBERNATE_CACHE_MANAGER)
+                        .description("The number of entries evicted from the region on this member")
+                        .register(registry);
+                });
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
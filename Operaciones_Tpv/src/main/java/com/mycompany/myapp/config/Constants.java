@@ -8,5 +8,11 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
 
+    /**
+     * Runs the requests, the {@code @Async} methods and the {@code @Scheduled} jobs on virtual threads, see
+     * {@link VirtualThreadsConfiguration}.
+     */
+    public static final String SPRING_PROFILE_VIRTUAL_THREADS = "virtual-threads";
+
     private Constants() {}
 }
@@ -0,0 +1,84 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Enables {@code @Retryable}, used to retry the transactions failing on an optimistic locking conflict.
+ * <p>
+ * The retry advice wraps the transaction advice, so each attempt runs in a new transaction and reads the current version of
+ * the entities.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfiguration {
+
+    public static final String CONFLICTS_METER_NAME = "tpv.optimistic-lock.conflicts";
+    public static final String CONFLICTS_METER_OPERATION_DIMENSION = "operation";
+    public static final String CONFLICTS_METER_OUTCOME_DIMENSION = "outcome";
+
+    /**
+     * Counts the optimistic locking conflicts of the retried operations, by the label of the operation: {@code retried} for
+     * each failed attempt followed by another one, {@code exhausted} when the last attempt failed too.
+     */
+    @Bean
+    public RetryListener optimisticLockRetryListener(MeterRegistry meterRegistry) {
+        return new OptimisticLockRetryListener(meterRegistry);
+    }
+
+    private static final class OptimisticLockRetryListener implements RetryListener {
+
+        private static final Logger LOG = LoggerFactory.getLogger(OptimisticLockRetryListener.class);
+
+        private final MeterRegistry meterRegistry;
+
+        private OptimisticLockRetryListener(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+            if (throwable instanceof OptimisticLockingFailureException) {
+                LOG.debug("Optimistic locking conflict in {}, attempt {}", operation(context), context.getRetryCount());
+            }
+        }
+
+        @Override
+        public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+            // The last failed attempt was not retried
+            int conflicts = context.getRetryCount();
+            if (throwable != null) {
+                conflicts--;
+            }
+            if (throwable instanceof OptimisticLockingFailureException) {
+                LOG.warn("Optimistic locking conflict in {}, giving up after {} attempts", operation(context), context.getRetryCount());
+                conflictsCounter(context, "exhausted").increment();
+            }
+            if (conflicts > 0) {
+                conflictsCounter(context, "retried").increment(conflicts);
+            }
+        }
+
+        private Counter conflictsCounter(RetryContext context, String outcome) {
+            return Counter.builder(CONFLICTS_METER_NAME)
+                .description("Optimistic locking conflicts of the retried operations, by outcome")
+                .tag(CONFLICTS_METER_OPERATION_DIMENSION, operation(context))
+                .tag(CONFLICTS_METER_OUTCOME_DIMENSION, outcome)
+                .register(meterRegistry);
+        }
+
+        private static String operation(RetryContext context) {
+            Object name = context.getAttribute(RetryContext.NAME);
+            return name == null ? "unknown" : name.toString();
+        }
+    }
+}
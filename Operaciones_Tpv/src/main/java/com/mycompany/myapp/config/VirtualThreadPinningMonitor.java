@@ -0,0 +1,74 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the virtual threads which pin their carrier thread, from the {@code jdk.VirtualThreadPinned} JFR events.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} block or under a native frame keeps its carrier: there is one
+ * carrier per core, so a few pinned threads stall every other request. Each pin longer than the threshold is logged with
+ * its stack, and timed in {@value #PINNED_METER_NAME}.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    public static final String PINNED_METER_NAME = "jvm.threads.virtual.pinned";
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int STACK_DEPTH = 12;
+
+    private final RecordingStream recordingStream = new RecordingStream();
+
+    private final Timer pinned;
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.pinned = Timer.builder(PINNED_METER_NAME)
+            .description("Virtual threads pinning their carrier thread for longer than the threshold")
+            .register(meterRegistry);
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+    }
+
+    public void start() {
+        recordingStream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        RecordedThread thread = event.getThread();
+        LOG.warn(
+            "Virtual thread {} pinned its carrier for {} ms\n{}",
+            thread == null ? "?" : thread.getJavaName(),
+            event.getDuration().toMillis(),
+            stack(event.getStackTrace())
+        );
+    }
+
+    private static String stack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        return stackTrace.getFrames().stream().limit(STACK_DEPTH).map(VirtualThreadPinningMonitor::frame).collect(Collectors.joining("\n"));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @Override
+    public void close() {
+        recordingStream.close();
+    }
+}
@@ -1,6 +1,7 @@
 package com.mycompany.myapp.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mycompany.myapp.domain.enumeration.MetodoPago;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -44,6 +45,17 @@ public class Factura implements Serializable {
     @OneToOne(fetch = FetchType.LAZY, mappedBy = "factura")
     private Pedido pedido;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * The {@link SesionCaja} open when the factura was emitted, if any. Set once, when the factura is created.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "sesion_caja_id", updatable = false)
+    private Long sesionCajaId;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -117,6 +129,27 @@ public class Factura implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Factura version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getSesionCajaId() {
+        return this.sesionCajaId;
+    }
+
+    public void setSesionCajaId(Long sesionCajaId) {
+        this.sesionCajaId = sesionCajaId;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -144,6 +177,8 @@ public class Factura implements Serializable {
             ", fechaFactura='" + getFechaFactura() + "'" +
             ", montoTotal=" + getMontoTotal() +
             ", metodoPago='" + getMetodoPago() + "'" +
+            ", version=" + getVersion() +
+            ", sesionCajaId=" + getSesionCajaId() +
             "}";
     }
 }
@@ -1,10 +1,13 @@
 package com.mycompany.myapp.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -34,10 +37,30 @@ public class ItemPedido implements Serializable {
     @Column(name = "precio_unitario", precision = 21, scale = 2, nullable = false)
     private BigDecimal precioUnitario;
 
+    /**
+     * Id of the plato of Inventario_Menu ordered. When set, the price of the line is the price of the plato when it was added
+     * to the pedido, see {@code PrecioPlatoCache}.
+     */
+    @Size(max = 64)
+    @Column(name = "plato_id", length = 64)
+    private String platoId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "factura", "itemPedidos", "mesa" }, allowSetters = true)
     private Pedido pedido;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Copy of the {@code fechaPedido} of the pedido, on which {@code item_pedido} is partitioned. Whoever saves a line of an
+     * existing pedido sets it, {@link #prePersist()} fills it from a loaded pedido, or with the current date without pedido.
+     */
+    @JsonIgnore
+    @Column(name = "fecha_pedido", nullable = false)
+    private ZonedDateTime fechaPedido;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -79,6 +102,19 @@ public class ItemPedido implements Serializable {
         this.precioUnitario = precioUnitario;
     }
 
+    public String getPlatoId() {
+        return this.platoId;
+    }
+
+    public ItemPedido platoId(String platoId) {
+        this.setPlatoId(platoId);
+        return this;
+    }
+
+    public void setPlatoId(String platoId) {
+        this.platoId = platoId;
+    }
+
     public Pedido getPedido() {
         return this.pedido;
     }
@@ -92,6 +128,35 @@ public class ItemPedido implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public ItemPedido version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public ZonedDateTime getFechaPedido() {
+        return this.fechaPedido;
+    }
+
+    public void setFechaPedido(ZonedDateTime fechaPedido) {
+        this.fechaPedido = fechaPedido;
+    }
+
+    @PrePersist
+    void prePersist() {
+        if (fechaPedido == null) {
+            boolean fechaConocida = pedido != null && Hibernate.isInitialized(pedido) && pedido.getFechaPedido() != null;
+            fechaPedido = fechaConocida ? pedido.getFechaPedido() : ZonedDateTime.now();
+        }
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -118,6 +183,8 @@ public class ItemPedido implements Serializable {
             "id=" + getId() +
             ", cantidad=" + getCantidad() +
             ", precioUnitario=" + getPrecioUnitario() +
+            ", platoId='" + getPlatoId() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
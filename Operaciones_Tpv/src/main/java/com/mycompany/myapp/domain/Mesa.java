@@ -46,6 +46,10 @@ public class Mesa implements Serializable {
     @JsonIgnoreProperties(value = { "factura", "itemPedidos", "mesa" }, allowSetters = true)
     private Set<Pedido> pedidos = new HashSet<>();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -131,6 +135,19 @@ public class Mesa implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Mesa version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -158,6 +175,7 @@ public class Mesa implements Serializable {
             ", numero=" + getNumero() +
             ", capacidad=" + getCapacidad() +
             ", estado='" + getEstado() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
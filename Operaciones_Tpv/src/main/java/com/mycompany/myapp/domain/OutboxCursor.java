@@ -0,0 +1,103 @@
+package com.mycompany.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The position of an outbox sink: the {@code (transaccion, id)} of the last event it received.
+ * <p>
+ * The relay of a sink holds the lock of its row while it delivers a batch, so the instances of the service share the work
+ * instead of delivering the same events twice.
+ */
+@Entity
+@Table(name = "outbox_cursor")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class OutboxCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "sink")
+    private String sink;
+
+    @Column(name = "ultima_transaccion", nullable = false)
+    private Long ultimaTransaccion;
+
+    @Column(name = "ultimo_evento_id", nullable = false)
+    private Long ultimoEventoId;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private Instant fechaActualizacion;
+
+    public String getSink() {
+        return this.sink;
+    }
+
+    public void setSink(String sink) {
+        this.sink = sink;
+    }
+
+    public Long getUltimaTransaccion() {
+        return this.ultimaTransaccion;
+    }
+
+    public void setUltimaTransaccion(Long ultimaTransaccion) {
+        this.ultimaTransaccion = ultimaTransaccion;
+    }
+
+    public Long getUltimoEventoId() {
+        return this.ultimoEventoId;
+    }
+
+    public void setUltimoEventoId(Long ultimoEventoId) {
+        this.ultimoEventoId = ultimoEventoId;
+    }
+
+    public Instant getFechaActualizacion() {
+        return this.fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(Instant fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    /**
+     * Move past an event.
+     *
+     * @param evento the last event received by the sink.
+     */
+    public void avanzar(OutboxEvento evento) {
+        this.ultimaTransaccion = evento.getTransaccion();
+        this.ultimoEventoId = evento.getId();
+        this.fechaActualizacion = Instant.now();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxCursor)) {
+            return false;
+        }
+        return getSink() != null && getSink().equals(((OutboxCursor) o).getSink());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxCursor{" +
+            "sink='" + getSink() + "'" +
+            ", ultimaTransaccion=" + getUltimaTransaccion() +
+            ", ultimoEventoId=" + getUltimoEventoId() +
+            ", fechaActualizacion='" + getFechaActualizacion() + "'" +
+            "}";
+    }
+}
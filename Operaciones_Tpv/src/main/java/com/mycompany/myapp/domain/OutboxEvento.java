@@ -0,0 +1,141 @@
+package com.mycompany.myapp.domain;
+
+import com.mycompany.myapp.domain.enumeration.TipoEventoDominio;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A domain event written to the outbox, in the transaction of the change it describes.
+ * <p>
+ * {@code transaccion} is the id of that transaction, set by the database on insert. Events are relayed in
+ * {@code (transaccion, id)} order, and only once every transaction up to theirs has ended, so a relay never moves past an
+ * event that is not committed yet. Rows are written once and read by the relay only, so they are deliberately not in the
+ * second level cache.
+ */
+@Entity
+@Table(name = "outbox_evento")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class OutboxEvento implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "transaccion", insertable = false, updatable = false)
+    private Long transaccion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    private TipoEventoDominio tipo;
+
+    @Column(name = "agregado_id", nullable = false)
+    private Long agregadoId;
+
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private Instant fechaCreacion;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTransaccion() {
+        return this.transaccion;
+    }
+
+    public void setTransaccion(Long transaccion) {
+        this.transaccion = transaccion;
+    }
+
+    public TipoEventoDominio getTipo() {
+        return this.tipo;
+    }
+
+    public OutboxEvento tipo(TipoEventoDominio tipo) {
+        this.setTipo(tipo);
+        return this;
+    }
+
+    public void setTipo(TipoEventoDominio tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getAgregadoId() {
+        return this.agregadoId;
+    }
+
+    public OutboxEvento agregadoId(Long agregadoId) {
+        this.setAgregadoId(agregadoId);
+        return this;
+    }
+
+    public void setAgregadoId(Long agregadoId) {
+        this.agregadoId = agregadoId;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public OutboxEvento payload(String payload) {
+        this.setPayload(payload);
+        return this;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getFechaCreacion() {
+        return this.fechaCreacion;
+    }
+
+    public OutboxEvento fechaCreacion(Instant fechaCreacion) {
+        this.setFechaCreacion(fechaCreacion);
+        return this;
+    }
+
+    public void setFechaCreacion(Instant fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxEvento)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((OutboxEvento) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxEvento{" +
+            "id=" + getId() +
+            ", transaccion=" + getTransaccion() +
+            ", tipo='" + getTipo() + "'" +
+            ", agregadoId=" + getAgregadoId() +
+            ", fechaCreacion='" + getFechaCreacion() + "'" +
+            "}";
+    }
+}
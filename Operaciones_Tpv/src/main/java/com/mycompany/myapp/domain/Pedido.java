@@ -16,12 +16,34 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
  */
 @Entity
 @Table(name = "pedido")
+@NamedEntityGraphs(
+    {
+        @NamedEntityGraph(
+            name = Pedido.GRAPH_ITEM_PEDIDOS_MESA,
+            attributeNodes = { @NamedAttributeNode("itemPedidos"), @NamedAttributeNode("mesa") }
+        ),
+        @NamedEntityGraph(
+            name = Pedido.GRAPH_FACTURA_MESA,
+            attributeNodes = { @NamedAttributeNode("factura"), @NamedAttributeNode("mesa") }
+        ),
+    }
+)
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Pedido implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Fetch plan of an open pedido shown at its mesa: the pedido with its lines and its mesa.
+     */
+    public static final String GRAPH_ITEM_PEDIDOS_MESA = "Pedido.itemPedidosMesa";
+
+    /**
+     * Fetch plan of a pedido being charged: the pedido with its factura and its mesa.
+     */
+    public static final String GRAPH_FACTURA_MESA = "Pedido.facturaMesa";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
@@ -52,6 +74,10 @@ public class Pedido implements Serializable {
     @JsonIgnoreProperties(value = { "pedidos" }, allowSetters = true)
     private Mesa mesa;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -150,6 +176,19 @@ public class Pedido implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Pedido version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -176,6 +215,7 @@ public class Pedido implements Serializable {
             "id=" + getId() +
             ", fechaPedido='" + getFechaPedido() + "'" +
             ", estado='" + getEstado() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
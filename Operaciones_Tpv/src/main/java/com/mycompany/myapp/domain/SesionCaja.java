@@ -0,0 +1,150 @@
+package com.mycompany.myapp.domain;
+
+import com.mycompany.myapp.domain.enumeration.EstadoSesionCaja;
+import com.mycompany.myapp.domain.enumeration.ResultadoVerificacion;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * A session of the cash register, from its opening to its close: the facturas emitted meanwhile belong to it.
+ * <p>
+ * Its running totals are the {@link SesionCajaTotal}s. The verification fields describe the last time they were checked
+ * against the facturas of the session.
+ */
+@Entity
+@Table(name = "sesion_caja")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class SesionCaja implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "fecha_apertura", nullable = false)
+    private ZonedDateTime fechaApertura;
+
+    @Column(name = "fecha_cierre")
+    private ZonedDateTime fechaCierre;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private EstadoSesionCaja estado;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "verificacion")
+    private ResultadoVerificacion verificacion;
+
+    @Column(name = "fecha_verificacion")
+    private ZonedDateTime fechaVerificacion;
+
+    /**
+     * The pedidos of the facturas of the session which were not {@code PAGADO} when it was verified.
+     */
+    @Column(name = "pedidos_pendientes")
+    private Long pedidosPendientes;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ZonedDateTime getFechaApertura() {
+        return this.fechaApertura;
+    }
+
+    public void setFechaApertura(ZonedDateTime fechaApertura) {
+        this.fechaApertura = fechaApertura;
+    }
+
+    public ZonedDateTime getFechaCierre() {
+        return this.fechaCierre;
+    }
+
+    public void setFechaCierre(ZonedDateTime fechaCierre) {
+        this.fechaCierre = fechaCierre;
+    }
+
+    public EstadoSesionCaja getEstado() {
+        return this.estado;
+    }
+
+    public void setEstado(EstadoSesionCaja estado) {
+        this.estado = estado;
+    }
+
+    public ResultadoVerificacion getVerificacion() {
+        return this.verificacion;
+    }
+
+    public void setVerificacion(ResultadoVerificacion verificacion) {
+        this.verificacion = verificacion;
+    }
+
+    public ZonedDateTime getFechaVerificacion() {
+        return this.fechaVerificacion;
+    }
+
+    public void setFechaVerificacion(ZonedDateTime fechaVerificacion) {
+        this.fechaVerificacion = fechaVerificacion;
+    }
+
+    public Long getPedidosPendientes() {
+        return this.pedidosPendientes;
+    }
+
+    public void setPedidosPendientes(Long pedidosPendientes) {
+        this.pedidosPendientes = pedidosPendientes;
+    }
+
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SesionCaja)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((SesionCaja) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SesionCaja{" +
+            "id=" + getId() +
+            ", fechaApertura='" + getFechaApertura() + "'" +
+            ", fechaCierre='" + getFechaCierre() + "'" +
+            ", estado='" + getEstado() + "'" +
+            ", verificacion='" + getVerificacion() + "'" +
+            ", fechaVerificacion='" + getFechaVerificacion() + "'" +
+            ", pedidosPendientes=" + getPedidosPendientes() +
+            ", version=" + getVersion() +
+            "}";
+    }
+}
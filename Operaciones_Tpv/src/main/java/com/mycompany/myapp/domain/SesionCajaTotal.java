@@ -0,0 +1,104 @@
+package com.mycompany.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * The running totals of a {@link SesionCaja} for one {@link com.mycompany.myapp.domain.enumeration.MetodoPago}: number of
+ * facturas and sum of their {@code montoTotal}, and the same figures recomputed from the facturas by the last verification.
+ * <p>
+ * Rows are only written by {@link com.mycompany.myapp.repository.SesionCajaTotalRepositoryWithUpsert}, in the transaction
+ * that changes the facturas, so they are deliberately not in the second level cache.
+ */
+@Entity
+@Table(name = "sesion_caja_total")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class SesionCajaTotal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    private SesionCajaTotalId id;
+
+    @Column(name = "num_facturas", nullable = false)
+    private Long numFacturas;
+
+    @Column(name = "monto_total", precision = 21, scale = 2, nullable = false)
+    private BigDecimal montoTotal;
+
+    @Column(name = "num_facturas_verificado")
+    private Long numFacturasVerificado;
+
+    @Column(name = "monto_total_verificado", precision = 21, scale = 2)
+    private BigDecimal montoTotalVerificado;
+
+    public SesionCajaTotalId getId() {
+        return this.id;
+    }
+
+    public void setId(SesionCajaTotalId id) {
+        this.id = id;
+    }
+
+    public Long getNumFacturas() {
+        return this.numFacturas;
+    }
+
+    public void setNumFacturas(Long numFacturas) {
+        this.numFacturas = numFacturas;
+    }
+
+    public BigDecimal getMontoTotal() {
+        return this.montoTotal;
+    }
+
+    public void setMontoTotal(BigDecimal montoTotal) {
+        this.montoTotal = montoTotal;
+    }
+
+    public Long getNumFacturasVerificado() {
+        return this.numFacturasVerificado;
+    }
+
+    public void setNumFacturasVerificado(Long numFacturasVerificado) {
+        this.numFacturasVerificado = numFacturasVerificado;
+    }
+
+    public BigDecimal getMontoTotalVerificado() {
+        return this.montoTotalVerificado;
+    }
+
+    public void setMontoTotalVerificado(BigDecimal montoTotalVerificado) {
+        this.montoTotalVerificado = montoTotalVerificado;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SesionCajaTotal)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((SesionCajaTotal) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SesionCajaTotal{" +
+            "id=" + getId() +
+            ", numFacturas=" + getNumFacturas() +
+            ", montoTotal=" + getMontoTotal() +
+            ", numFacturasVerificado=" + getNumFacturasVerificado() +
+            ", montoTotalVerificado=" + getMontoTotalVerificado() +
+            "}";
+    }
+}
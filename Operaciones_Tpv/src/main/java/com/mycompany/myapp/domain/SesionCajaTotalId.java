@@ -0,0 +1,72 @@
+package com.mycompany.myapp.domain;
+
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * The key of a {@link SesionCajaTotal}: a session and a {@link MetodoPago}.
+ */
+@Embeddable
+public class SesionCajaTotalId implements Serializable, Comparable<SesionCajaTotalId> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Comparator<SesionCajaTotalId> ORDER = Comparator.comparing(SesionCajaTotalId::getSesionCajaId)
+        .thenComparing(SesionCajaTotalId::getMetodoPago);
+
+    @Column(name = "sesion_caja_id", nullable = false)
+    private Long sesionCajaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metodo_pago", nullable = false)
+    private MetodoPago metodoPago;
+
+    protected SesionCajaTotalId() {}
+
+    public SesionCajaTotalId(Long sesionCajaId, MetodoPago metodoPago) {
+        this.sesionCajaId = sesionCajaId;
+        this.metodoPago = metodoPago;
+    }
+
+    public Long getSesionCajaId() {
+        return sesionCajaId;
+    }
+
+    public MetodoPago getMetodoPago() {
+        return metodoPago;
+    }
+
+    @Override
+    public int compareTo(SesionCajaTotalId other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SesionCajaTotalId)) {
+            return false;
+        }
+        SesionCajaTotalId other = (SesionCajaTotalId) o;
+        return Objects.equals(sesionCajaId, other.sesionCajaId) && metodoPago == other.metodoPago;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sesionCajaId, metodoPago);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SesionCajaTotalId{" +
+            "sesionCajaId=" + getSesionCajaId() +
+            ", metodoPago='" + getMetodoPago() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * The sales of one period, for one value of a dimension: number of facturas and sum of their {@code montoTotal}.
+ * <p>
+ * Rows are only written by {@link com.mycompany.myapp.repository.VentaRollupRepositoryWithUpsert#acumular}, in the transaction that
+ * changes the facturas, so they are deliberately not in the second level cache.
+ */
+@Entity
+@Table(name = "venta_rollup")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VentaRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @EmbeddedId
+    private VentaRollupId id;
+
+    @Column(name = "num_facturas", nullable = false)
+    private Long numFacturas;
+
+    @Column(name = "monto_total", precision = 21, scale = 2, nullable = false)
+    private BigDecimal montoTotal;
+
+    public VentaRollupId getId() {
+        return this.id;
+    }
+
+    public void setId(VentaRollupId id) {
+        this.id = id;
+    }
+
+    public Long getNumFacturas() {
+        return this.numFacturas;
+    }
+
+    public void setNumFacturas(Long numFacturas) {
+        this.numFacturas = numFacturas;
+    }
+
+    public BigDecimal getMontoTotal() {
+        return this.montoTotal;
+    }
+
+    public void setMontoTotal(BigDecimal montoTotal) {
+        this.montoTotal = montoTotal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VentaRollup)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((VentaRollup) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaRollup{" +
+            "id=" + getId() +
+            ", numFacturas=" + getNumFacturas() +
+            ", montoTotal=" + getMontoTotal() +
+            "}";
+    }
+}
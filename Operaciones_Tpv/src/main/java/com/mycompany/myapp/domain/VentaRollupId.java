@@ -0,0 +1,105 @@
+package com.mycompany.myapp.domain;
+
+import com.mycompany.myapp.domain.enumeration.DimensionVenta;
+import com.mycompany.myapp.domain.enumeration.GranularidadVenta;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * The key of a {@link VentaRollup}: a period of a given granularity, and a value of one dimension.
+ */
+@Embeddable
+public class VentaRollupId implements Serializable, Comparable<VentaRollupId> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The {@code clave} of the {@link DimensionVenta#TOTAL} dimension, which has a single value.
+     */
+    public static final String CLAVE_TOTAL = "*";
+
+    private static final Comparator<VentaRollupId> ORDER = Comparator.comparing(VentaRollupId::getGranularidad)
+        .thenComparing(VentaRollupId::getDimension)
+        .thenComparing(VentaRollupId::getPeriodo)
+        .thenComparing(VentaRollupId::getClave);
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularidad", nullable = false)
+    private GranularidadVenta granularidad;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false)
+    private DimensionVenta dimension;
+
+    @Column(name = "periodo", nullable = false)
+    private Instant periodo;
+
+    @Column(name = "clave", nullable = false)
+    private String clave;
+
+    protected VentaRollupId() {}
+
+    public VentaRollupId(GranularidadVenta granularidad, DimensionVenta dimension, Instant periodo, String clave) {
+        this.granularidad = granularidad;
+        this.dimension = dimension;
+        this.periodo = periodo;
+        this.clave = clave;
+    }
+
+    public GranularidadVenta getGranularidad() {
+        return granularidad;
+    }
+
+    public DimensionVenta getDimension() {
+        return dimension;
+    }
+
+    public Instant getPeriodo() {
+        return periodo;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    @Override
+    public int compareTo(VentaRollupId other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VentaRollupId)) {
+            return false;
+        }
+        VentaRollupId other = (VentaRollupId) o;
+        return (
+            granularidad == other.granularidad &&
+            dimension == other.dimension &&
+            Objects.equals(periodo, other.periodo) &&
+            Objects.equals(clave, other.clave)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(granularidad, dimension, periodo, clave);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaRollupId{" +
+            "granularidad='" + getGranularidad() + "'" +
+            ", dimension='" + getDimension() + "'" +
+            ", periodo='" + getPeriodo() + "'" +
+            ", clave='" + getClave() + "'" +
+            "}";
+    }
+}
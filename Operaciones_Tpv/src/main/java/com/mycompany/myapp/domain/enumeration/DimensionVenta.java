@@ -0,0 +1,10 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The dimension a {@link com.mycompany.myapp.domain.VentaRollup} is broken down by.
+ */
+public enum DimensionVenta {
+    TOTAL,
+    METODO_PAGO,
+    MESA,
+}
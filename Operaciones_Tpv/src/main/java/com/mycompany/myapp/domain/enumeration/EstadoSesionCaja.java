@@ -0,0 +1,9 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The states of a {@link com.mycompany.myapp.domain.SesionCaja}.
+ */
+public enum EstadoSesionCaja {
+    ABIERTA,
+    CERRADA,
+}
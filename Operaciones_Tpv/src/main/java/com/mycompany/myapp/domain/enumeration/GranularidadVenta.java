@@ -0,0 +1,9 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The period covered by a {@link com.mycompany.myapp.domain.VentaRollup}.
+ */
+public enum GranularidadVenta {
+    HORA,
+    DIA,
+}
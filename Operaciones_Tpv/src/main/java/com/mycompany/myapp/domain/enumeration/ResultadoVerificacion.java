@@ -0,0 +1,9 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The outcome of the verification of the totals of a {@link com.mycompany.myapp.domain.SesionCaja} against its facturas.
+ */
+public enum ResultadoVerificacion {
+    CONFORME,
+    DESCUADRE,
+}
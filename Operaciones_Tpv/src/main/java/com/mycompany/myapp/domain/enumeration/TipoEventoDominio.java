@@ -0,0 +1,10 @@
+package com.mycompany.myapp.domain.enumeration;
+
+/**
+ * The kinds of domain events written to the outbox.
+ */
+public enum TipoEventoDominio {
+    PEDIDO_CREADO,
+    PEDIDO_SERVIDO,
+    FACTURA_EMITIDA,
+}
@@ -1,12 +1,123 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the Factura entity.
+ * <p>
+ * {@code Factura.pedido} is the inverse side of a one-to-one, which Hibernate cannot load lazily: listings fetch it in the
+ * same query instead of issuing one query per factura.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface FacturaRepository extends JpaRepository<Factura, Long> {}
+public interface FacturaRepository extends JpaRepository<Factura, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    String SELECT_VENTA =
+        "select factura.id as id, factura.fechaFactura as fechaFactura, factura.montoTotal as montoTotal, " +
+        "factura.metodoPago as metodoPago, mesa.id as mesaId, factura.sesionCajaId as sesionCajaId " +
+        "from Factura factura left join factura.pedido pedido left join pedido.mesa mesa ";
+
+    @Query("select factura from Factura factura left join fetch factura.pedido")
+    List<Factura> findAllWithPedido();
+
+    @Query("select factura from Factura factura where not exists (select pedido.id from Pedido pedido where pedido.factura = factura)")
+    List<Factura> findAllWherePedidoIsNull();
+
+    @Query(SELECT_VENTA + "where factura.id in :ids")
+    List<VentaFactura> findVentasByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_VENTA + "where factura.id > :afterId order by factura.id")
+    List<VentaFactura> findVentasAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(
+        "select factura.metodoPago as metodoPago, count(factura) as numFacturas, sum(factura.montoTotal) as montoTotal " +
+        "from Factura factura where factura.sesionCajaId = :sesionCajaId group by factura.metodoPago"
+    )
+    List<TotalFacturas> findTotalesBySesionCajaId(@Param("sesionCajaId") Long sesionCajaId);
+
+    /**
+     * Stream the facturas of a period as plain columns, which are not kept in the persistence context. Must be consumed in
+     * a transaction, so that PostgreSQL reads the rows through a cursor, {@value #EXPORT_FETCH_SIZE} at a time.
+     * <p>
+     * The period is a range of {@code fechaFactura}, on which {@code factura} is partitioned: only the partitions of the
+     * period are read.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        }
+    )
+    @Query(
+        "select factura.id as id, factura.fechaFactura as fechaFactura, factura.montoTotal as montoTotal, " +
+        "factura.metodoPago as metodoPago, pedido.id as pedidoId, mesa.id as mesaId " +
+        "from Factura factura left join factura.pedido pedido left join pedido.mesa mesa " +
+        "where factura.fechaFactura >= :desde and factura.fechaFactura < :hasta " +
+        "and (:metodoPago is null or factura.metodoPago = :metodoPago) " +
+        "order by factura.fechaFactura, factura.id"
+    )
+    Stream<FacturaExportacion> streamExportacion(
+        @Param("desde") ZonedDateTime desde,
+        @Param("hasta") ZonedDateTime hasta,
+        @Param("metodoPago") MetodoPago metodoPago
+    );
+
+    /**
+     * What a factura contributes to the sales rollups, read as plain columns so it reflects the database and not the
+     * entities already in the persistence context.
+     */
+    interface VentaFactura {
+        Long getId();
+
+        ZonedDateTime getFechaFactura();
+
+        BigDecimal getMontoTotal();
+
+        MetodoPago getMetodoPago();
+
+        Long getMesaId();
+
+        Long getSesionCajaId();
+    }
+
+    /**
+     * The number and amount of the facturas of one {@code MetodoPago}.
+     */
+    interface TotalFacturas {
+        MetodoPago getMetodoPago();
+
+        Long getNumFacturas();
+
+        BigDecimal getMontoTotal();
+    }
+
+    /**
+     * A factura as exported to accounting.
+     */
+    interface FacturaExportacion {
+        Long getId();
+
+        ZonedDateTime getFechaFactura();
+
+        BigDecimal getMontoTotal();
+
+        MetodoPago getMetodoPago();
+
+        Long getPedidoId();
+
+        Long getMesaId();
+    }
+}
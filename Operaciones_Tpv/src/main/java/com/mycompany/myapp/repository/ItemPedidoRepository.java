@@ -1,7 +1,10 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.ItemPedido;
+import java.time.ZonedDateTime;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +12,7 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ItemPedidoRepository extends JpaRepository<ItemPedido, Long> {}
+public interface ItemPedidoRepository extends JpaRepository<ItemPedido, Long> {
+    @Query("select itemPedido.fechaPedido from ItemPedido itemPedido where itemPedido.id = :id")
+    Optional<ZonedDateTime> findFechaPedidoById(@Param("id") Long id);
+}
@@ -1,7 +1,11 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Mesa;
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,36 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MesaRepository extends JpaRepository<Mesa, Long> {}
+public interface MesaRepository extends JpaRepository<Mesa, Long> {
+    @Query(
+        "select mesa.id as id, mesa.numero as numero, mesa.estado as estado, mesa.version as version from Mesa mesa order by mesa.numero"
+    )
+    List<OcupacionMesa> findAllOcupacion();
+
+    @Query(
+        "select mesa.id as id, mesa.numero as numero, mesa.estado as estado, mesa.version as version from Mesa mesa where mesa.id in :ids"
+    )
+    List<OcupacionMesa> findAllOcupacionByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Change the state of a mesa, if it still has the given version.
+     *
+     * @return 1 if the mesa was changed, 0 if it was changed or deleted since it was read.
+     */
+    @Modifying
+    @Query("update Mesa mesa set mesa.estado = :estado, mesa.version = mesa.version + 1 where mesa.id = :id and mesa.version = :version")
+    int updateEstadoByIdAndVersion(@Param("id") Long id, @Param("version") Long version, @Param("estado") EstadoMesa estado);
+
+    /**
+     * The state of a mesa, without the rest of the entity.
+     */
+    interface OcupacionMesa {
+        Long getId();
+
+        Integer getNumero();
+
+        EstadoMesa getEstado();
+
+        Long getVersion();
+    }
+}
@@ -0,0 +1,38 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.OutboxCursor;
+import jakarta.persistence.QueryHint;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the OutboxCursor entity.
+ */
+@Repository
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, String> {
+    /**
+     * Lock the cursor of a sink until the end of the transaction, unless another transaction holds it already.
+     *
+     * @param sink the name of the sink.
+     * @return the cursor, empty if it is locked by another transaction or does not exist.
+     */
+    @Query(value = "select * from outbox_cursor where sink = :sink for update skip locked", nativeQuery = true)
+    Optional<OutboxCursor> findBySinkSkipLocked(@Param("sink") String sink);
+
+    /**
+     * Create the cursor of a sink at the start of the outbox, if it does not exist.
+     *
+     * @param sink the name of the sink.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "outbox_cursor"))
+    @Query(
+        value = "insert into outbox_cursor (sink, ultima_transaccion, ultimo_evento_id, fecha_actualizacion) " +
+        "values (:sink, 0, 0, now()) on conflict (sink) do nothing",
+        nativeQuery = true
+    )
+    void createIfAbsent(@Param("sink") String sink);
+}
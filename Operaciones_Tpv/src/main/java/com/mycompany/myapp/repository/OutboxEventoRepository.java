@@ -0,0 +1,57 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.OutboxEvento;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the OutboxEvento entity.
+ */
+@Repository
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, Long> {
+    /**
+     * Get the events after a position, in {@code (transaccion, id)} order.
+     * <p>
+     * Only the events of the transactions older than the oldest one still running are returned: their set can no longer
+     * change, so the position can be moved past them without skipping an event committed later.
+     *
+     * @param transaccion the transaction of the last event received.
+     * @param id the id of the last event received.
+     * @param limit the maximum number of events.
+     * @return the next events.
+     */
+    @Query(
+        value = "select * from outbox_evento where (transaccion, id) > (:transaccion, :id) " +
+        "and transaccion < cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint) " +
+        "order by transaccion, id limit :limit",
+        nativeQuery = true
+    )
+    List<OutboxEvento> findSiguientes(@Param("transaccion") long transaccion, @Param("id") long id, @Param("limit") int limit);
+
+    /**
+     * Delete the events created before a date which have been received by every sink: each of the given sinks must have a
+     * cursor past the event, and so must every other cursor, such as the ones of the sinks of another version of the service.
+     *
+     * @param limite the date.
+     * @param sinks the names of the sinks.
+     * @param numSinks the number of sinks.
+     * @return the number of deleted events.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "outbox_evento"))
+    @Query(
+        value = "delete from outbox_evento evento where evento.fecha_creacion < :limite and (" +
+        "select count(*) from outbox_cursor where outbox_cursor.sink in (:sinks) " +
+        "and (outbox_cursor.ultima_transaccion, outbox_cursor.ultimo_evento_id) >= (evento.transaccion, evento.id)) = :numSinks " +
+        "and not exists (select 1 from outbox_cursor " +
+        "where (outbox_cursor.ultima_transaccion, outbox_cursor.ultimo_evento_id) < (evento.transaccion, evento.id))",
+        nativeQuery = true
+    )
+    int deleteRecibidos(@Param("limite") Instant limite, @Param("sinks") Collection<String> sinks, @Param("numSinks") long numSinks);
+}
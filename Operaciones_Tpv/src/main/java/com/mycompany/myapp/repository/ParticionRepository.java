@@ -0,0 +1,110 @@
+package com.mycompany.myapp.repository;
+
+import jakarta.persistence.EntityManager;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the monthly partitions of {@code pedido}, {@code item_pedido} and {@code factura}, see the changelog
+ * {@code 20251115120000_partitioned_Pedido_ItemPedido_Factura.xml}.
+ * <p>
+ * The partition of a month is named after its table and month, {@code pedido_p2025_11}, and the rows before the first
+ * monthly partition are in a partition named after the month it ends with, {@code pedido_hasta_2023_11}.
+ */
+@Repository
+public class ParticionRepository {
+
+    public static final String ARCHIVE_SCHEMA = "archivo";
+
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("uuuu_MM");
+
+    private final EntityManager entityManager;
+
+    public ParticionRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * A partition attached to its table.
+     *
+     * @param nombre the name of the partition.
+     * @param hasta the first month after the rows of the partition, {@code null} for the default partition.
+     */
+    public record Particion(String nombre, YearMonth hasta) {}
+
+    public static String nombreParticionMensual(String tabla, YearMonth mes) {
+        return tabla + "_p" + mes.format(MONTH_SUFFIX);
+    }
+
+    public List<Particion> findParticiones(String tabla) {
+        @SuppressWarnings("unchecked")
+        List<String> nombres = entityManager
+            .createNativeQuery(
+                "select cast(particion.relname as text) from pg_inherits herencia " +
+                "join pg_class particion on particion.oid = herencia.inhrelid " +
+                "where herencia.inhparent = cast(?1 as regclass) order by particion.relname"
+            )
+            .setParameter(1, tabla)
+            .getResultList();
+        return nombres.stream().map(nombre -> new Particion(nombre, hasta(tabla, nombre))).toList();
+    }
+
+    private static YearMonth hasta(String tabla, String nombre) {
+        try {
+            if (nombre.startsWith(tabla + "_p")) {
+                return YearMonth.parse(nombre.substring(tabla.length() + 2), MONTH_SUFFIX).plusMonths(1);
+            }
+            if (nombre.startsWith(tabla + "_hasta_")) {
+                return YearMonth.parse(nombre.substring(tabla.length() + 7), MONTH_SUFFIX);
+            }
+        } catch (DateTimeParseException e) {
+            // Not created by the maintenance of the partitions
+        }
+        return null;
+    }
+
+    /**
+     * Create the partition of a month, unless it exists.
+     *
+     * @return whether the partition was created.
+     */
+    public boolean createParticionMensualIfAbsent(String tabla, YearMonth mes) {
+        String particion = nombreParticionMensual(tabla, mes);
+        Object existente = entityManager
+            .createNativeQuery("select cast(to_regclass(?1) as text)")
+            .setParameter(1, particion)
+            .getSingleResult();
+        if (existente != null) {
+            return false;
+        }
+        executeDdl(
+            "create table " + particion + " partition of " + tabla +
+            " for values from ('" + mes.atDay(1) + "') to ('" + mes.plusMonths(1).atDay(1) + "')",
+            particion
+        );
+        return true;
+    }
+
+    /**
+     * Detach a partition from its table and move it to the {@value #ARCHIVE_SCHEMA} schema.
+     *
+     * @param tablespace the tablespace the partition is moved to, {@code null} to leave it in place.
+     */
+    public void archivar(String tabla, Particion particion, String tablespace) {
+        // The cached entities of the table may come from the archived rows
+        executeDdl("alter table " + tabla + " detach partition " + particion.nombre(), tabla);
+        executeDdl("alter table " + particion.nombre() + " set schema " + ARCHIVE_SCHEMA, tabla);
+        if (tablespace != null) {
+            String nombreTablespace = "\"" + tablespace.replace("\"", "\"\"") + "\"";
+            executeDdl("alter table " + ARCHIVE_SCHEMA + "." + particion.nombre() + " set tablespace " + nombreTablespace, tabla);
+        }
+    }
+
+    private void executeDdl(String ddl, String querySpace) {
+        entityManager.createNativeQuery(ddl).unwrap(NativeQuery.class).addSynchronizedQuerySpace(querySpace).executeUpdate();
+    }
+}
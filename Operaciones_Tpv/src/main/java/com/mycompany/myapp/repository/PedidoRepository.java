@@ -1,12 +1,52 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the Pedido entity.
+ * <p>
+ * Pages of pedidos with their {@code itemPedidos} are read in two steps: a page of ids, then the pedidos of that page with
+ * their lines fetched by {@link Pedido#GRAPH_ITEM_PEDIDOS_MESA}, so the database does the paging instead of Hibernate
+ * paginating a collection fetch in memory.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PedidoRepository extends JpaRepository<Pedido, Long> {}
+public interface PedidoRepository extends PedidoRepositoryWithKeyset, JpaRepository<Pedido, Long> {
+    @Query("select pedido.estado from Pedido pedido where pedido.id = :id")
+    Optional<EstadoPedido> findEstadoById(@Param("id") Long id);
+
+    @Query("select pedido.mesa.id from Pedido pedido where pedido.id = :id")
+    Optional<Long> findMesaIdById(@Param("id") Long id);
+
+    @Query("select pedido.fechaPedido from Pedido pedido where pedido.id = :id")
+    Optional<ZonedDateTime> findFechaPedidoById(@Param("id") Long id);
+
+    @Query("select pedido.factura.id from Pedido pedido where pedido.id = :id")
+    Optional<Long> findFacturaIdById(@Param("id") Long id);
+
+    long countByFacturaSesionCajaIdAndEstadoNot(Long sesionCajaId, EstadoPedido estado);
+
+    @EntityGraph(Pedido.GRAPH_FACTURA_MESA)
+    Optional<Pedido> findOneWithFacturaAndMesaById(Long id);
+
+    @Query(
+        value = "select pedido.id from Pedido pedido where pedido.mesa.id = :mesaId and pedido.estado <> :cerrado " +
+        "order by pedido.fechaPedido desc, pedido.id desc",
+        countQuery = "select count(pedido) from Pedido pedido where pedido.mesa.id = :mesaId and pedido.estado <> :cerrado"
+    )
+    Page<Long> findIdsByMesaIdAndEstadoNot(@Param("mesaId") Long mesaId, @Param("cerrado") EstadoPedido cerrado, Pageable pageable);
+
+    @EntityGraph(Pedido.GRAPH_ITEM_PEDIDOS_MESA)
+    @Query("select pedido from Pedido pedido where pedido.id in :ids")
+    List<Pedido> findAllWithItemPedidosByIdIn(@Param("ids") Collection<Long> ids);
+}
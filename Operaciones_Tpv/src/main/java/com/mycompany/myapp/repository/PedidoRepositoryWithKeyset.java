@@ -0,0 +1,39 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination over {@link Pedido}, ordered by {@code (fechaPedido desc, id desc)}.
+ * <p>
+ * Unlike offset pagination, each page is located through the last {@code (fechaPedido, id)} seen by the client,
+ * so the cost of a page does not depend on how deep into the listing it is.
+ * <p>
+ * {@code pedido} is partitioned by month of {@code fechaPedido}: the dates and the cursor also prune the partitions, and the
+ * partitions left are read newest first until the page is full.
+ */
+public interface PedidoRepositoryWithKeyset {
+    /**
+     * Fetch the next page of pedidos matching the given filters.
+     *
+     * @param estado only pedidos in this state, ignored if {@code null}.
+     * @param mesaId only pedidos of this mesa, ignored if {@code null}.
+     * @param desde only pedidos taken at or after this date, ignored if {@code null}.
+     * @param hasta only pedidos taken strictly before this date, ignored if {@code null}.
+     * @param afterFechaPedido the {@code fechaPedido} of the last pedido of the previous page, {@code null} for the first page.
+     * @param afterId the {@code id} of the last pedido of the previous page, {@code null} for the first page.
+     * @param limit the maximum number of pedidos to return.
+     * @return the pedidos of the page, newest first, with their mesa and factura.
+     */
+    List<Pedido> findKeysetPage(
+        EstadoPedido estado,
+        Long mesaId,
+        ZonedDateTime desde,
+        ZonedDateTime hasta,
+        ZonedDateTime afterFechaPedido,
+        Long afterId,
+        int limit
+    );
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Mesa_;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.Pedido_;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PedidoRepositoryWithKeysetImpl implements PedidoRepositoryWithKeyset {
+
+    private final EntityManager entityManager;
+
+    public PedidoRepositoryWithKeysetImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Pedido> findKeysetPage(
+        EstadoPedido estado,
+        Long mesaId,
+        ZonedDateTime desde,
+        ZonedDateTime hasta,
+        ZonedDateTime afterFechaPedido,
+        Long afterId,
+        int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Pedido> query = cb.createQuery(Pedido.class);
+        Root<Pedido> root = query.from(Pedido.class);
+        // to-one associations only, so the row limit still applies in the database
+        root.fetch(Pedido_.mesa, JoinType.LEFT);
+        root.fetch(Pedido_.factura, JoinType.LEFT);
+        Path<ZonedDateTime> fechaPedido = root.get(Pedido_.fechaPedido);
+        Path<Long> id = root.get(Pedido_.id);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (estado != null) {
+            predicates.add(cb.equal(root.get(Pedido_.estado), estado));
+        }
+        if (mesaId != null) {
+            predicates.add(cb.equal(root.get(Pedido_.mesa).get(Mesa_.id), mesaId));
+        }
+        if (desde != null) {
+            predicates.add(cb.greaterThanOrEqualTo(fechaPedido, desde));
+        }
+        if (hasta != null) {
+            predicates.add(cb.lessThan(fechaPedido, hasta));
+        }
+        if (afterFechaPedido != null && afterId != null) {
+            // (fecha_pedido, id) < (:afterFechaPedido, :afterId), spelled out so the composite indexes can be used on every database
+            predicates.add(
+                cb.or(
+                    cb.lessThan(fechaPedido, afterFechaPedido),
+                    cb.and(cb.equal(fechaPedido, afterFechaPedido), cb.lessThan(id, afterId))
+                )
+            );
+        }
+
+        query.select(root).where(predicates.toArray(new Predicate[0])).orderBy(cb.desc(fechaPedido), cb.desc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
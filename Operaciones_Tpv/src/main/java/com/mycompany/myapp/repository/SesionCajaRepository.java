@@ -0,0 +1,28 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.SesionCaja;
+import com.mycompany.myapp.domain.enumeration.EstadoSesionCaja;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the SesionCaja entity.
+ * <p>
+ * A factura joins the open session under a share lock of its row, and a session is closed under an exclusive one: the
+ * close waits for the facturas being emitted in it, and the facturas emitted after it find no open session.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface SesionCajaRepository extends JpaRepository<SesionCaja, Long> {
+    @Query(value = "select id from sesion_caja where estado = 'ABIERTA' for share", nativeQuery = true)
+    Optional<Long> findIdAbiertaForShare();
+
+    Optional<SesionCaja> findOneByEstado(EstadoSesionCaja estado);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select sesionCaja from SesionCaja sesionCaja where sesionCaja.id = :id")
+    Optional<SesionCaja> findByIdForUpdate(@Param("id") Long id);
+}
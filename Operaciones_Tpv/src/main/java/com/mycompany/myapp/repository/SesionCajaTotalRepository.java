@@ -0,0 +1,20 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.SesionCajaTotal;
+import com.mycompany.myapp.domain.SesionCajaTotalId;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the SesionCajaTotal entity.
+ * <p>
+ * Rows are written with native upserts, which declare {@code sesion_caja_total} as their only query space, otherwise
+ * Hibernate would evict every second level cache region each time a factura is emitted.
+ */
+@Repository
+public interface SesionCajaTotalRepository extends SesionCajaTotalRepositoryWithUpsert, JpaRepository<SesionCajaTotal, SesionCajaTotalId> {
+    @Query("select total from SesionCajaTotal total where total.id.sesionCajaId = :sesionCajaId order by total.id.metodoPago")
+    List<SesionCajaTotal> findAllBySesionCajaId(@Param("sesionCajaId") Long sesionCajaId);
+}
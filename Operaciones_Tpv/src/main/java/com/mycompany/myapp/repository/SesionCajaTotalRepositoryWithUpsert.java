@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.SesionCajaTotal;
+import java.util.List;
+
+/**
+ * Incremental writes of {@link SesionCajaTotal}s.
+ */
+public interface SesionCajaTotalRepositoryWithUpsert {
+    /**
+     * Add deltas to the running totals, creating the ones that do not exist yet, with one multi-row upsert statement.
+     *
+     * @param deltas the totals to add, in the order their rows should be locked; each key must appear at most once.
+     */
+    void acumular(List<SesionCajaTotal> deltas);
+
+    /**
+     * Record the totals recomputed from the facturas of a session, without touching the running totals.
+     *
+     * @param sesionCajaId the id of the session.
+     * @param verificados the recomputed totals, the ones of the other {@code MetodoPago}s are zero.
+     */
+    void registrarVerificacion(Long sesionCajaId, List<SesionCajaTotal> verificados);
+}
@@ -0,0 +1,94 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.SesionCajaTotal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.List;
+import java.util.StringJoiner;
+import org.hibernate.query.NativeQuery;
+
+public class SesionCajaTotalRepositoryWithUpsertImpl implements SesionCajaTotalRepositoryWithUpsert {
+
+    private static final int COLUMNS = 4;
+
+    private final EntityManager entityManager;
+
+    public SesionCajaTotalRepositoryWithUpsertImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void acumular(List<SesionCajaTotal> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Query query = entityManager.createNativeQuery(
+            "insert into sesion_caja_total (sesion_caja_id, metodo_pago, num_facturas, monto_total) values " +
+            values(deltas.size()) +
+            " on conflict (sesion_caja_id, metodo_pago) do update set " +
+            "num_facturas = sesion_caja_total.num_facturas + excluded.num_facturas, " +
+            "monto_total = sesion_caja_total.monto_total + excluded.monto_total"
+        );
+        int position = 1;
+        for (SesionCajaTotal delta : deltas) {
+            query.setParameter(position++, delta.getId().getSesionCajaId());
+            query.setParameter(position++, delta.getId().getMetodoPago().name());
+            query.setParameter(position++, delta.getNumFacturas());
+            query.setParameter(position++, delta.getMontoTotal());
+        }
+        executeUpdate(query);
+    }
+
+    @Override
+    public void registrarVerificacion(Long sesionCajaId, List<SesionCajaTotal> verificados) {
+        executeUpdate(
+            entityManager
+                .createNativeQuery(
+                    "update sesion_caja_total set num_facturas_verificado = 0, monto_total_verificado = 0 where sesion_caja_id = ?1"
+                )
+                .setParameter(1, sesionCajaId)
+        );
+        if (verificados.isEmpty()) {
+            return;
+        }
+        // A MetodoPago missing from the running totals is inserted with zero running totals, and shows as a drift
+        StringJoiner values = new StringJoiner(", ");
+        for (int row = 0; row < verificados.size(); row++) {
+            int first = row * COLUMNS;
+            values.add("(?" + (first + 1) + ", ?" + (first + 2) + ", 0, 0, ?" + (first + 3) + ", ?" + (first + 4) + ")");
+        }
+        Query query = entityManager.createNativeQuery(
+            "insert into sesion_caja_total " +
+            "(sesion_caja_id, metodo_pago, num_facturas, monto_total, num_facturas_verificado, monto_total_verificado) values " +
+            values +
+            " on conflict (sesion_caja_id, metodo_pago) do update set " +
+            "num_facturas_verificado = excluded.num_facturas_verificado, monto_total_verificado = excluded.monto_total_verificado"
+        );
+        int position = 1;
+        for (SesionCajaTotal verificado : verificados) {
+            query.setParameter(position++, sesionCajaId);
+            query.setParameter(position++, verificado.getId().getMetodoPago().name());
+            query.setParameter(position++, verificado.getNumFacturasVerificado());
+            query.setParameter(position++, verificado.getMontoTotalVerificado());
+        }
+        executeUpdate(query);
+    }
+
+    private static String values(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int row = 0; row < rows; row++) {
+            StringJoiner parameters = new StringJoiner(", ", "(", ")");
+            for (int column = 1; column <= COLUMNS; column++) {
+                parameters.add("?" + (row * COLUMNS + column));
+            }
+            values.add(parameters.toString());
+        }
+        return values.toString();
+    }
+
+    private static void executeUpdate(Query query) {
+        // Otherwise Hibernate would evict every second level cache region on each update
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("sesion_caja_total");
+        query.executeUpdate();
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.VentaRollup;
+import com.mycompany.myapp.domain.VentaRollupId;
+import com.mycompany.myapp.domain.enumeration.DimensionVenta;
+import com.mycompany.myapp.domain.enumeration.GranularidadVenta;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the VentaRollup entity.
+ * <p>
+ * Rows are accumulated with native upserts, which declare {@code venta_rollup} as their only query space, otherwise
+ * Hibernate would evict every second level cache region each time a rollup is updated.
+ */
+@Repository
+public interface VentaRollupRepository extends VentaRollupRepositoryWithUpsert, JpaRepository<VentaRollup, VentaRollupId> {
+    /**
+     * Block the incremental updates until the end of the transaction, and wait for the ones in flight to commit.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "venta_rollup"))
+    @Query(value = "lock table venta_rollup in exclusive mode", nativeQuery = true)
+    void bloquear();
+
+    @Query(
+        "select ventaRollup from VentaRollup ventaRollup where ventaRollup.id.granularidad = :granularidad " +
+        "and ventaRollup.id.dimension = :dimension and ventaRollup.id.periodo >= :desde and ventaRollup.id.periodo < :hasta " +
+        "order by ventaRollup.id.periodo, ventaRollup.id.clave"
+    )
+    List<VentaRollup> findAllByPeriodo(
+        @Param("granularidad") GranularidadVenta granularidad,
+        @Param("dimension") DimensionVenta dimension,
+        @Param("desde") Instant desde,
+        @Param("hasta") Instant hasta
+    );
+}
@@ -0,0 +1,17 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.VentaRollup;
+import java.util.List;
+
+/**
+ * Incremental writes of {@link VentaRollup}s.
+ */
+public interface VentaRollupRepositoryWithUpsert {
+    /**
+     * Add deltas to the stored rollups, creating the ones that do not exist yet, with one multi-row upsert statement per
+     * few hundred rollups.
+     *
+     * @param deltas the rollups to add, in the order their rows should be locked; each key must appear at most once.
+     */
+    void acumular(List<VentaRollup> deltas);
+}
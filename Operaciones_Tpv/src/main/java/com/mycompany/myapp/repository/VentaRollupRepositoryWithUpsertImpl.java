@@ -0,0 +1,58 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.VentaRollup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.List;
+import java.util.StringJoiner;
+import org.hibernate.query.NativeQuery;
+
+public class VentaRollupRepositoryWithUpsertImpl implements VentaRollupRepositoryWithUpsert {
+
+    static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final int COLUMNS = 6;
+
+    private final EntityManager entityManager;
+
+    public VentaRollupRepositoryWithUpsertImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void acumular(List<VentaRollup> deltas) {
+        for (int from = 0; from < deltas.size(); from += MAX_ROWS_PER_STATEMENT) {
+            upsert(deltas.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, deltas.size())));
+        }
+    }
+
+    private void upsert(List<VentaRollup> deltas) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int row = 0; row < deltas.size(); row++) {
+            StringJoiner parameters = new StringJoiner(", ", "(", ")");
+            for (int column = 1; column <= COLUMNS; column++) {
+                parameters.add("?" + (row * COLUMNS + column));
+            }
+            values.add(parameters.toString());
+        }
+        Query query = entityManager.createNativeQuery(
+            "insert into venta_rollup (granularidad, dimension, periodo, clave, num_facturas, monto_total) values " +
+            values +
+            " on conflict (granularidad, dimension, periodo, clave) do update set " +
+            "num_facturas = venta_rollup.num_facturas + excluded.num_facturas, " +
+            "monto_total = venta_rollup.monto_total + excluded.monto_total"
+        );
+        int position = 1;
+        for (VentaRollup delta : deltas) {
+            query.setParameter(position++, delta.getId().getGranularidad().name());
+            query.setParameter(position++, delta.getId().getDimension().name());
+            query.setParameter(position++, delta.getId().getPeriodo());
+            query.setParameter(position++, delta.getId().getClave());
+            query.setParameter(position++, delta.getNumFacturas());
+            query.setParameter(position++, delta.getMontoTotal());
+        }
+        // Otherwise Hibernate would evict every second level cache region on each update
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("venta_rollup");
+        query.executeUpdate();
+    }
+}
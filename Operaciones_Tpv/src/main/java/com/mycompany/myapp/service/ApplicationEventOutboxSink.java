@@ -0,0 +1,34 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.EventoDominio;
+import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers the domain events inside the service, as {@link EventoDominio} application events.
+ * <p>
+ * The {@code @EventListener}s run on the thread of the relay, outside of the transaction which wrote the events. An
+ * exception thrown by a listener makes the batch be delivered again, to every listener.
+ */
+@Component
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    public static final String NAME = "in-process";
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void entregar(List<EventoDominio> eventos) {
+        eventos.forEach(applicationEventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,120 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.repository.FacturaRepository.FacturaExportacion;
+import com.mycompany.myapp.service.dto.FacturaExportDTO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service exporting the {@link com.mycompany.myapp.domain.Factura}s of a period to accounting.
+ * <p>
+ * Rows are read through a database cursor and written to the output one at a time, so the memory used does not depend on
+ * the number of facturas. The export only reads, in a read-only transaction.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FacturaExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FacturaExportService.class);
+
+    private static final String CSV_HEADER = "id,fechaFactura,montoTotal,metodoPago,pedidoId,mesaId";
+
+    /**
+     * The formats of the export.
+     */
+    public enum Formato {
+        /**
+         * One JSON object per line.
+         */
+        NDJSON,
+        /**
+         * Comma separated values, with a header line.
+         */
+        CSV,
+    }
+
+    private final FacturaRepository facturaRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public FacturaExportService(FacturaRepository facturaRepository, ObjectMapper objectMapper) {
+        this.facturaRepository = facturaRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write the facturas of a period, ordered by date.
+     *
+     * @param formato the format of the export.
+     * @param desde the start of the period, inclusive.
+     * @param hasta the end of the period, exclusive.
+     * @param metodoPago only export the facturas paid this way, all if {@code null}.
+     * @param output where to write the export; it is flushed, not closed.
+     * @return the number of facturas exported.
+     * @throws IOException if the export cannot be written.
+     */
+    public long exportar(Formato formato, ZonedDateTime desde, ZonedDateTime hasta, MetodoPago metodoPago, OutputStream output)
+        throws IOException {
+        LOG.debug("Request to export the Facturas from {} to {} paid by {} as {}", desde, hasta, metodoPago, formato);
+        try (Stream<FacturaExportacion> facturas = facturaRepository.streamExportacion(desde, hasta, metodoPago)) {
+            long exportadas = switch (formato) {
+                case NDJSON -> writeNdjson(facturas.iterator(), output);
+                case CSV -> writeCsv(facturas.iterator(), output);
+            };
+            LOG.debug("Exported {} Facturas", exportadas);
+            return exportadas;
+        }
+    }
+
+    private long writeNdjson(Iterator<FacturaExportacion> facturas, OutputStream output) throws IOException {
+        long exportadas = 0;
+        ObjectWriter writer = objectMapper.writerFor(FacturaExportDTO.class);
+        while (facturas.hasNext()) {
+            output.write(writer.writeValueAsBytes(FacturaExportDTO.of(facturas.next())));
+            output.write('\n');
+            exportadas++;
+        }
+        output.flush();
+        return exportadas;
+    }
+
+    private long writeCsv(Iterator<FacturaExportacion> facturas, OutputStream output) throws IOException {
+        long exportadas = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (facturas.hasNext()) {
+            FacturaExportacion factura = facturas.next();
+            writer.write(String.valueOf(factura.getId()));
+            writer.write(',');
+            writer.write(factura.getFechaFactura().toInstant().toString());
+            writer.write(',');
+            writer.write(factura.getMontoTotal().toPlainString());
+            writer.write(',');
+            writer.write(factura.getMetodoPago().name());
+            writer.write(',');
+            writer.write(factura.getPedidoId() == null ? "" : factura.getPedidoId().toString());
+            writer.write(',');
+            writer.write(factura.getMesaId() == null ? "" : factura.getMesaId().toString());
+            writer.write('\n');
+            exportadas++;
+        }
+        writer.flush();
+        return exportadas;
+    }
+}
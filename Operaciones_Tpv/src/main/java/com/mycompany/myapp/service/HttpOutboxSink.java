@@ -0,0 +1,43 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.EventoDominio;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Delivers the domain events to an HTTP endpoint, when {@code application.outbox.http.url} is set.
+ * <p>
+ * Each batch is sent as a JSON array in one {@code POST}; any response other than {@code 2xx} makes the batch be sent again
+ * later.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.outbox.http", name = "url")
+public class HttpOutboxSink implements OutboxSink {
+
+    public static final String NAME = "http";
+
+    private final RestClient restClient;
+
+    public HttpOutboxSink(RestClient.Builder restClientBuilder, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Outbox.Http http = applicationProperties.getOutbox().getHttp();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(http.getConnectTimeout());
+        requestFactory.setReadTimeout(http.getReadTimeout());
+        this.restClient = restClientBuilder.baseUrl(http.getUrl()).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void entregar(List<EventoDominio> eventos) {
+        restClient.post().contentType(MediaType.APPLICATION_JSON).body(eventos).retrieve().toBodilessEntity();
+    }
+}
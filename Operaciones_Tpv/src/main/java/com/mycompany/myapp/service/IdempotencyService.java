@@ -0,0 +1,124 @@
+package com.mycompany.myapp.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.IdempotentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service storing the responses of the requests sent with an {@code Idempotency-Key}, in the Hazelcast map
+ * {@value #MAP_NAME}, whose entries expire after {@code application.idempotency.ttl}.
+ * <p>
+ * Requests with the same key are run one at a time with the distributed lock of their map entry: a retry sent while the
+ * first request is still running waits for it, then gets its response.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String MAP_NAME = "idempotency-keys";
+
+    public static final String REQUESTS_METER_NAME = "tpv.idempotency.requests";
+    public static final String REQUESTS_METER_OUTCOME_DIMENSION = "outcome";
+
+    private final IMap<String, IdempotentResponse> responses;
+
+    private final Duration lockTimeout;
+
+    private final Duration lockLease;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter conflictCounter;
+
+    private final Counter mismatchCounter;
+
+    public IdempotencyService(
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.responses = hazelcastInstance.getMap(MAP_NAME);
+        this.lockTimeout = applicationProperties.getIdempotency().getLockTimeout();
+        this.lockLease = applicationProperties.getIdempotency().getLockLease();
+        this.hitCounter = requestsCounter(meterRegistry, "hit");
+        this.missCounter = requestsCounter(meterRegistry, "miss");
+        this.conflictCounter = requestsCounter(meterRegistry, "conflict");
+        this.mismatchCounter = requestsCounter(meterRegistry, "mismatch");
+    }
+
+    private static Counter requestsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(REQUESTS_METER_NAME)
+            .description("Requests sent with an Idempotency-Key, by outcome")
+            .tag(REQUESTS_METER_OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Acquire the lock of a key, waiting for the request holding it, if any.
+     * <p>
+     * The lock is released after {@code application.idempotency.lock-lease} if its owner never does it.
+     *
+     * @param clave the key.
+     * @return {@code true} if the lock was acquired, {@code false} if it is still held after {@code lock-timeout}.
+     */
+    public boolean lock(String clave) {
+        try {
+            if (responses.tryLock(clave, lockTimeout.toMillis(), TimeUnit.MILLISECONDS, lockLease.toMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.debug("Idempotency-Key still in use : {}", clave);
+        conflictCounter.increment();
+        return false;
+    }
+
+    public void unlock(String clave) {
+        responses.unlock(clave);
+    }
+
+    /**
+     * Get the response stored for a key, to be called with the lock of the key held.
+     *
+     * @param clave the key.
+     * @param huella the SHA-256 of the body of the request.
+     * @return the stored response, empty if the key was not used yet.
+     * @throws IllegalStateException if the key was used for a request with another body.
+     */
+    public Optional<IdempotentResponse> find(String clave, String huella) {
+        IdempotentResponse response = responses.get(clave);
+        if (response == null) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+        if (!response.huella().equals(huella)) {
+            mismatchCounter.increment();
+            throw new IllegalStateException("Idempotency-Key already used for another request");
+        }
+        hitCounter.increment();
+        return Optional.of(response);
+    }
+
+    /**
+     * Store the response of a key, to be called with the lock of the key held.
+     *
+     * @param clave the key.
+     * @param response the response.
+     */
+    public void save(String clave, IdempotentResponse response) {
+        responses.set(clave, response);
+    }
+}
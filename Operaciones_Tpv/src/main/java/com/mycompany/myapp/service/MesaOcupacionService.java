@@ -0,0 +1,432 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import com.mycompany.myapp.repository.MesaRepository;
+import com.mycompany.myapp.repository.MesaRepository.OcupacionMesa;
+import com.mycompany.myapp.service.dto.MesaOcupacionDTO;
+import com.mycompany.myapp.service.dto.MesaOcupacionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Service keeping the occupancy board: the {@link EstadoMesa} of every {@link com.mycompany.myapp.domain.Mesa}, in memory.
+ * <p>
+ * The board holds the mesa numbers in a sorted {@code int[]} and their states in an {@link AtomicIntegerArray} at the same
+ * index, so reading the whole floor is a copy of one array and changing a state is a compare-and-set: two waiters seating the
+ * same mesa cannot both succeed, and none of them takes a lock.
+ * <p>
+ * Changed states are marked in a bitmap and written to the database in batches by {@link #escribirCambios()}. Each write is
+ * conditioned on the {@code Mesa.version} the board last read or wrote: when another instance, or a {@code Mesa} REST
+ * resource write, changed the mesa meanwhile, the first committed change wins and the board takes the state of the database.
+ * The board is read again from the database every {@code application.mesa-ocupacion.refresh-delay}, keeping the states not
+ * written yet, so the changes of the other instances show on it.
+ * <p>
+ * Changes made through the {@code Mesa} REST resource are applied to the board once committed. The board is the reference for
+ * {@code Mesa.estado}: a state it has not written yet is kept, and written over the state of the resource.
+ * <p>
+ * Adding, renumbering or deleting a mesa replaces the board. Each slot of the previous board is frozen before it is copied, and
+ * a transition finding a frozen slot retries on the new board, so no transition is lost.
+ */
+@Service
+public class MesaOcupacionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MesaOcupacionService.class);
+
+    public static final String TRANSITIONS_METER_NAME = "tpv.mesa-ocupacion.transitions";
+    public static final String TRANSITIONS_METER_OUTCOME_DIMENSION = "outcome";
+
+    private static final EstadoMesa[] ESTADOS = EstadoMesa.values();
+
+    /**
+     * The state of a slot of a board that has been replaced.
+     */
+    private static final int MOVIDA = -1;
+
+    private final MesaRepository mesaRepository;
+
+    private final TransactionOperations transactionOperations;
+
+    private final Counter appliedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter conflictCounter;
+
+    private volatile Tablero tablero;
+
+    public MesaOcupacionService(MesaRepository mesaRepository, TransactionOperations transactionOperations, MeterRegistry meterRegistry) {
+        this.mesaRepository = mesaRepository;
+        this.transactionOperations = transactionOperations;
+        this.appliedCounter = transitionsCounter(meterRegistry, "applied");
+        this.rejectedCounter = transitionsCounter(meterRegistry, "rejected");
+        this.conflictCounter = transitionsCounter(meterRegistry, "conflict");
+    }
+
+    private static Counter transitionsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(TRANSITIONS_METER_NAME)
+            .description("Transitions of the state of the mesas, by outcome")
+            .tag(TRANSITIONS_METER_OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        escribirCambios();
+    }
+
+    /**
+     * Get the state of a mesa.
+     *
+     * @param numero the number of the mesa.
+     * @return the state of the mesa, empty if there is no mesa with this number.
+     */
+    public Optional<EstadoMesa> getEstado(int numero) {
+        boolean recargado = false;
+        while (true) {
+            Tablero t = tablero();
+            int i = t.indexOf(numero);
+            if (i < 0) {
+                if (recargado) {
+                    return Optional.empty();
+                }
+                recargar();
+                recargado = true;
+                continue;
+            }
+            int estado = t.estados.get(i);
+            if (estado != MOVIDA) {
+                return Optional.of(ESTADOS[estado]);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Get the state of every mesa.
+     *
+     * @return the state of the mesas, ordered by number.
+     */
+    public MesaOcupacionDTO getOcupacion() {
+        while (true) {
+            Tablero t = tablero();
+            EstadoMesa[] estados = new EstadoMesa[t.numeros.length];
+            int i = 0;
+            for (; i < estados.length; i++) {
+                int estado = t.estados.get(i);
+                if (estado == MOVIDA) {
+                    break;
+                }
+                estados[i] = ESTADOS[estado];
+            }
+            if (i == estados.length) {
+                // The numbers of a board never change, they can be shared with the clients
+                return new MesaOcupacionDTO(t.numeros, estados);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Change the state of a mesa, if it is in the expected state.
+     *
+     * @param numero the number of the mesa.
+     * @param esperado the state the mesa must be in.
+     * @param estado the new state of the mesa.
+     * @return the state the mesa was in, equal to {@code esperado} if and only if it was changed; empty if there is no mesa with
+     * this number.
+     */
+    public Optional<EstadoMesa> cambiarEstado(int numero, EstadoMesa esperado, EstadoMesa estado) {
+        boolean recargado = false;
+        while (true) {
+            Tablero t = tablero();
+            int i = t.indexOf(numero);
+            if (i < 0) {
+                if (recargado) {
+                    return Optional.empty();
+                }
+                recargar();
+                recargado = true;
+                continue;
+            }
+            int actual = t.estados.get(i);
+            if (actual == MOVIDA) {
+                Thread.onSpinWait();
+            } else if (actual != esperado.ordinal()) {
+                rejectedCounter.increment();
+                return Optional.of(ESTADOS[actual]);
+            } else if (t.estados.compareAndSet(i, actual, estado.ordinal())) {
+                t.marcarPendiente(i);
+                if (tablero != t) {
+                    // The board was replaced meanwhile, and may have moved its pending changes before this one was marked
+                    remarcar(t.ids[i]);
+                }
+                appliedCounter.increment();
+                return Optional.of(esperado);
+            }
+        }
+    }
+
+    /**
+     * Apply to the board a committed change made through the {@code Mesa} REST resource.
+     *
+     * @param change the change.
+     */
+    @TransactionalEventListener
+    public synchronized void onMesaChange(MesaOcupacionEvent change) {
+        Tablero t = tablero;
+        if (t == null) {
+            // Not loaded yet, the change will be read from the database
+            return;
+        }
+        List<Fila> filas = new ArrayList<>(t.ids.length + 1);
+        for (int i = 0; i < t.ids.length; i++) {
+            if (t.ids[i] != change.mesaId()) {
+                filas.add(new Fila(t.ids[i], t.numeros[i], null, 0, false));
+            }
+        }
+        if (!change.isEliminada()) {
+            filas.add(new Fila(change.mesaId(), change.numero(), change.estado(), change.version(), true));
+        }
+        reemplazar(filas);
+    }
+
+    /**
+     * Read the board again from the database, to show the changes of the other instances.
+     */
+    @Scheduled(
+        initialDelayString = "${application.mesa-ocupacion.refresh-delay:PT30S}",
+        fixedDelayString = "${application.mesa-ocupacion.refresh-delay:PT30S}"
+    )
+    public synchronized void sincronizar() {
+        if (tablero != null) {
+            recargar();
+        }
+    }
+
+    /**
+     * Write the changed states to the database, each one under the version of the mesa the board holds.
+     */
+    @Scheduled(fixedDelayString = "${application.mesa-ocupacion.write-behind-delay:PT2S}")
+    public synchronized void escribirCambios() {
+        Tablero t = tablero;
+        if (t == null) {
+            return;
+        }
+        List<Cambio> cambios = new ArrayList<>();
+        for (int palabra = 0; palabra < t.pendientes.length(); palabra++) {
+            long bits = t.pendientes.getAndSet(palabra, 0L);
+            while (bits != 0) {
+                int i = (palabra << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int estado = t.estados.get(i);
+                if (estado == MOVIDA) {
+                    // The board was replaced after this change: write it with the changes of the new board
+                    remarcar(t.ids[i]);
+                } else if (estado != t.persistidos[i]) {
+                    cambios.add(new Cambio(i, t.ids[i], t.versiones[i], estado));
+                }
+            }
+        }
+        if (cambios.isEmpty()) {
+            return;
+        }
+        Map<Long, OcupacionMesa> actuales;
+        try {
+            actuales = transactionOperations.execute(status -> {
+                Set<Long> conflictos = new HashSet<>();
+                for (Cambio cambio : cambios) {
+                    if (mesaRepository.updateEstadoByIdAndVersion(cambio.id(), cambio.version(), ESTADOS[cambio.estado()]) == 0) {
+                        conflictos.add(cambio.id());
+                    }
+                }
+                // The rows changed meanwhile, null for the deleted ones
+                Map<Long, OcupacionMesa> porId = new HashMap<>();
+                conflictos.forEach(id -> porId.put(id, null));
+                if (!conflictos.isEmpty()) {
+                    mesaRepository.findAllOcupacionByIdIn(conflictos).forEach(mesa -> porId.put(mesa.getId(), mesa));
+                }
+                return porId;
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("Could not write the state of {} Mesas, will retry : {}", cambios.size(), e.getMessage());
+            cambios.forEach(cambio -> t.marcarPendiente(cambio.i()));
+            return;
+        }
+        int conflictos = 0;
+        for (Cambio cambio : cambios) {
+            int i = cambio.i();
+            OcupacionMesa actual = actuales.get(cambio.id());
+            if (!actuales.containsKey(cambio.id())) {
+                t.persistidos[i] = cambio.estado();
+                t.versiones[i] = cambio.version() + 1;
+            } else if (actual != null) {
+                // Changed since the board read it, by another instance: the first committed change wins
+                LOG.debug("Mesa {} was changed meanwhile, its state {} is kept", actual.getNumero(), actual.getEstado());
+                t.estados.set(i, actual.getEstado().ordinal());
+                t.persistidos[i] = actual.getEstado().ordinal();
+                t.versiones[i] = actual.getVersion();
+                conflictos++;
+            } else {
+                // Deleted meanwhile, it leaves the board on the next refresh
+                conflictos++;
+            }
+        }
+        conflictCounter.increment(conflictos);
+        LOG.debug("Wrote the state of {} Mesas, {} changed meanwhile", cambios.size() - conflictos, conflictos);
+    }
+
+    private Tablero tablero() {
+        Tablero t = tablero;
+        return t != null ? t : cargar();
+    }
+
+    private synchronized Tablero cargar() {
+        return tablero != null ? tablero : recargar();
+    }
+
+    /**
+     * Read the mesas from the database, keeping the state of the ones already on the board, which may not be written yet.
+     */
+    private synchronized Tablero recargar() {
+        LOG.debug("Loading the occupancy board");
+        List<Fila> filas = mesaRepository
+            .findAllOcupacion()
+            .stream()
+            .map(mesa -> new Fila(mesa.getId(), mesa.getNumero(), mesa.getEstado(), mesa.getVersion(), false))
+            .toList();
+        return reemplazar(filas);
+    }
+
+    private synchronized Tablero reemplazar(List<Fila> filas) {
+        Tablero anterior = tablero;
+        Map<Long, Integer> posiciones = new HashMap<>();
+        int[] estadosAnteriores = new int[0];
+        if (anterior != null) {
+            estadosAnteriores = new int[anterior.ids.length];
+            for (int i = 0; i < estadosAnteriores.length; i++) {
+                posiciones.put(anterior.ids[i], i);
+                estadosAnteriores[i] = anterior.estados.getAndSet(i, MOVIDA);
+            }
+        }
+
+        List<Fila> ordenadas = new ArrayList<>(filas);
+        ordenadas.sort(Comparator.comparingInt(Fila::numero));
+        Tablero nuevo = new Tablero(ordenadas.size());
+        Map<Long, Integer> nuevasPosiciones = new HashMap<>();
+        for (int j = 0; j < ordenadas.size(); j++) {
+            Fila fila = ordenadas.get(j);
+            nuevo.ids[j] = fila.id();
+            nuevo.numeros[j] = fila.numero();
+            Integer i = posiciones.get(fila.id());
+            if (i == null) {
+                nuevo.estados.set(j, fila.estado().ordinal());
+                nuevo.persistidos[j] = fila.estado().ordinal();
+                nuevo.versiones[j] = fila.version();
+            } else if (fila.estado() == null || estadosAnteriores[i] != anterior.persistidos[i]) {
+                // Unchanged mesa, or a state not written yet: it is kept, and written under the version it was read with
+                nuevo.estados.set(j, estadosAnteriores[i]);
+                boolean rebase = fila.estado() != null && fila.rebase();
+                nuevo.persistidos[j] = rebase ? fila.estado().ordinal() : anterior.persistidos[i];
+                nuevo.versiones[j] = rebase ? fila.version() : anterior.versiones[i];
+            } else {
+                nuevo.estados.set(j, fila.estado().ordinal());
+                nuevo.persistidos[j] = fila.estado().ordinal();
+                nuevo.versiones[j] = fila.version();
+            }
+            nuevasPosiciones.put(fila.id(), j);
+        }
+        tablero = nuevo;
+
+        // Moved once the new board is published: a change marked later on the previous board is marked again by its author
+        if (anterior != null) {
+            for (int palabra = 0; palabra < anterior.pendientes.length(); palabra++) {
+                long bits = anterior.pendientes.getAndSet(palabra, 0L);
+                while (bits != 0) {
+                    Integer j = nuevasPosiciones.get(anterior.ids[(palabra << 6) + Long.numberOfTrailingZeros(bits)]);
+                    bits &= bits - 1;
+                    if (j != null) {
+                        nuevo.marcarPendiente(j);
+                    }
+                }
+            }
+        }
+        return nuevo;
+    }
+
+    private void remarcar(long id) {
+        Tablero t = tablero;
+        for (int i = 0; i < t.ids.length; i++) {
+            if (t.ids[i] == id) {
+                t.marcarPendiente(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * A mesa to put on a new board, with its state and version in the database; {@code null} to keep the ones of the current
+     * board. A state of the current board not written yet is kept: it is written under the version of the row if
+     * {@code rebase}, or else under the version it was read with, and then only if no one changed the mesa meanwhile.
+     */
+    private record Fila(long id, int numero, EstadoMesa estado, long version, boolean rebase) {}
+
+    /**
+     * A state to write, at the index {@code i} of the board, for the mesa still in {@code version}.
+     */
+    private record Cambio(int i, long id, long version, int estado) {}
+
+    /**
+     * A board: the ids, numbers and states of the mesas, ordered by number, and a bitmap of the states not written yet. The
+     * states and versions in the database, as last read or written, are only used while holding the lock of the service.
+     */
+    private static final class Tablero {
+
+        private final long[] ids;
+
+        private final int[] numeros;
+
+        private final AtomicIntegerArray estados;
+
+        private final AtomicLongArray pendientes;
+
+        private final int[] persistidos;
+
+        private final long[] versiones;
+
+        private Tablero(int size) {
+            this.ids = new long[size];
+            this.numeros = new int[size];
+            this.estados = new AtomicIntegerArray(size);
+            this.persistidos = new int[size];
+            this.versiones = new long[size];
+            this.pendientes = new AtomicLongArray((size + 63) >>> 6);
+        }
+
+        private int indexOf(int numero) {
+            return Arrays.binarySearch(numeros, numero);
+        }
+
+        private void marcarPendiente(int i) {
+            long bit = 1L << i;
+            pendientes.getAndAccumulate(i >>> 6, bit, (bits, marca) -> bits | marca);
+        }
+    }
+}
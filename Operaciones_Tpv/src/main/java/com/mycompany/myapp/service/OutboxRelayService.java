@@ -0,0 +1,218 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.OutboxCursor;
+import com.mycompany.myapp.domain.OutboxEvento;
+import com.mycompany.myapp.repository.OutboxCursorRepository;
+import com.mycompany.myapp.repository.OutboxEventoRepository;
+import com.mycompany.myapp.service.dto.EventoDominio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Service relaying the domain events written by the {@link OutboxService} to every {@link OutboxSink}.
+ * <p>
+ * Each sink has its own cursor in the outbox, and receives the events in batches, in order. A batch is delivered in a
+ * transaction holding the lock of the cursor, taken with {@code SKIP LOCKED}: while one instance of the service relays a
+ * sink, the others skip it instead of waiting. The cursor only moves once the sink has accepted the batch, so an event is
+ * delivered at least once, possibly more after a failure.
+ * <p>
+ * The events received by every sink are deleted after {@code application.outbox.retention}. The cursor of each sink is created
+ * at startup, at the start of the outbox, so that a sink is never missed by the purge; the cursor of a sink no longer
+ * configured in any instance keeps its events until it is deleted.
+ */
+@Service
+public class OutboxRelayService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxRelayService.class);
+
+    public static final String EVENTS_METER_NAME = "tpv.outbox.events";
+    public static final String LAG_METER_NAME = "tpv.outbox.lag";
+    public static final String SINK_DIMENSION = "sink";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    private final OutboxEventoRepository outboxEventoRepository;
+
+    private final OutboxCursorRepository outboxCursorRepository;
+
+    private final TransactionOperations transactionOperations;
+
+    private final Map<String, Relay> relays = new LinkedHashMap<>();
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final Duration retention;
+
+    public OutboxRelayService(
+        OutboxEventoRepository outboxEventoRepository,
+        OutboxCursorRepository outboxCursorRepository,
+        List<OutboxSink> sinks,
+        TransactionOperations transactionOperations,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = applicationProperties.getOutbox().getBatchSize();
+        this.maxBatchesPerRun = applicationProperties.getOutbox().getMaxBatchesPerRun();
+        this.retention = applicationProperties.getOutbox().getRetention();
+        for (OutboxSink sink : sinks) {
+            if (relays.putIfAbsent(sink.getName(), new Relay(sink, meterRegistry)) != null) {
+                throw new IllegalStateException("Two outbox sinks are named " + sink.getName());
+            }
+        }
+    }
+
+    /**
+     * Create the cursors of the sinks which have none yet, before any purge.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void crearCursores() {
+        try {
+            transactionOperations.executeWithoutResult(status -> relays.keySet().forEach(outboxCursorRepository::createIfAbsent));
+            relays.values().forEach(relay -> relay.cursorCreado = true);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not create the outbox cursors, they are created on the first relay : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Deliver the pending events to every sink, up to {@code application.outbox.max-batches-per-run} batches per sink.
+     *
+     * @return the number of events delivered.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.relay-delay:PT1S}")
+    public int relay() {
+        int entregados = 0;
+        for (Relay relay : relays.values()) {
+            entregados += relay(relay);
+        }
+        return entregados;
+    }
+
+    private int relay(Relay relay) {
+        int entregados = 0;
+        for (int lote = 0; lote < maxBatchesPerRun; lote++) {
+            Integer entregadosLote = transactionOperations.execute(status -> entregarLote(relay));
+            relay.cursorCreado = true;
+            entregados += entregadosLote;
+            if (entregadosLote < batchSize) {
+                break;
+            }
+        }
+        return entregados;
+    }
+
+    private int entregarLote(Relay relay) {
+        String nombre = relay.sink.getName();
+        if (!relay.cursorCreado) {
+            outboxCursorRepository.createIfAbsent(nombre);
+        }
+        Optional<OutboxCursor> bloqueado = outboxCursorRepository.findBySinkSkipLocked(nombre);
+        if (bloqueado.isEmpty()) {
+            // Relayed by another instance: only follow its progress
+            outboxCursorRepository.findById(nombre).map(cursor -> siguientes(cursor, 1)).ifPresent(relay::medirLag);
+            return 0;
+        }
+        OutboxCursor cursor = bloqueado.orElseThrow();
+        List<OutboxEvento> eventos = siguientes(cursor, batchSize);
+        if (eventos.isEmpty()) {
+            relay.medirLag(eventos);
+            return 0;
+        }
+        try {
+            relay.sink.entregar(eventos.stream().map(EventoDominio::of).toList());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not deliver {} outbox events to {}, will retry : {}", eventos.size(), nombre, e.getMessage());
+            relay.fallidos.increment(eventos.size());
+            relay.medirLag(eventos);
+            return 0;
+        }
+        cursor.avanzar(eventos.get(eventos.size() - 1));
+        relay.entregados.increment(eventos.size());
+        // A batch shorter than the limit emptied the outbox, as far as this transaction can see
+        relay.medirLag(eventos.size() < batchSize ? List.of() : siguientes(cursor, 1));
+        LOG.debug("Delivered {} outbox events to {}", eventos.size(), nombre);
+        return eventos.size();
+    }
+
+    private List<OutboxEvento> siguientes(OutboxCursor cursor, int limit) {
+        return outboxEventoRepository.findSiguientes(cursor.getUltimaTransaccion(), cursor.getUltimoEventoId(), limit);
+    }
+
+    /**
+     * Delete the events older than {@code application.outbox.retention} which have been received by every sink.
+     *
+     * @return the number of deleted events.
+     */
+    @Scheduled(cron = "${application.outbox.purge-cron:0 30 4 * * *}")
+    public int purgar() {
+        Integer eliminados = transactionOperations.execute(status -> {
+            // A sink without cursor, such as one whose cursor could not be created yet, has not received any event
+            relays.keySet().forEach(outboxCursorRepository::createIfAbsent);
+            return outboxEventoRepository.deleteRecibidos(Instant.now().minus(retention), relays.keySet(), relays.size());
+        });
+        LOG.info("Deleted {} outbox events received by every sink", eliminados);
+        return eliminados;
+    }
+
+    private static final class Relay {
+
+        private final OutboxSink sink;
+
+        private final Counter entregados;
+
+        private final Counter fallidos;
+
+        private volatile boolean cursorCreado;
+
+        /**
+         * The age of the oldest event not received by the sink yet, in milliseconds.
+         */
+        private volatile long lag;
+
+        private Relay(OutboxSink sink, MeterRegistry meterRegistry) {
+            this.sink = sink;
+            this.entregados = eventsCounter(meterRegistry, sink, "delivered");
+            this.fallidos = eventsCounter(meterRegistry, sink, "failed");
+            TimeGauge.builder(LAG_METER_NAME, this, TimeUnit.MILLISECONDS, relay -> relay.lag)
+                .description("Age of the oldest outbox event not received by the sink yet")
+                .tag(SINK_DIMENSION, sink.getName())
+                .register(meterRegistry);
+        }
+
+        private static Counter eventsCounter(MeterRegistry meterRegistry, OutboxSink sink, String outcome) {
+            return Counter.builder(EVENTS_METER_NAME)
+                .description("Outbox events sent to the sink, by outcome")
+                .tag(SINK_DIMENSION, sink.getName())
+                .tag(OUTCOME_DIMENSION, outcome)
+                .register(meterRegistry);
+        }
+
+        private void medirLag(List<OutboxEvento> pendientes) {
+            if (pendientes.isEmpty()) {
+                lag = 0;
+            } else {
+                lag = Math.max(0, Duration.between(pendientes.get(0).getFechaCreacion(), Instant.now()).toMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.OutboxEvento;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.domain.enumeration.TipoEventoDominio;
+import com.mycompany.myapp.repository.OutboxEventoRepository;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service writing the domain events of the {@link Pedido}s and {@link Factura}s to the outbox.
+ * <p>
+ * Events are inserted in the transaction of the change they describe, so they are committed, or rolled back, with it; the
+ * {@link OutboxRelayService} delivers them to the {@link OutboxSink}s afterwards, outside of the request.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventoRepository outboxEventoRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventoRepository outboxEventoRepository, ObjectMapper objectMapper) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write the {@link TipoEventoDominio#PEDIDO_CREADO} event of a new pedido, with its lines.
+     *
+     * @param pedido the saved pedido.
+     */
+    public void pedidoCreado(Pedido pedido) {
+        Map<String, Object> payload = pedidoPayload(pedido);
+        payload.put("facturaId", pedido.getFactura() == null ? null : pedido.getFactura().getId());
+        payload.put(
+            "itemPedidos",
+            pedido
+                .getItemPedidos()
+                .stream()
+                .map(itemPedido -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("id", itemPedido.getId());
+                    item.put("cantidad", itemPedido.getCantidad());
+                    item.put("precioUnitario", itemPedido.getPrecioUnitario());
+                    return item;
+                })
+                .toList()
+        );
+        registrar(TipoEventoDominio.PEDIDO_CREADO, pedido.getId(), payload);
+    }
+
+    /**
+     * Write the event of a change of the state of a pedido, if there is one: {@link TipoEventoDominio#PEDIDO_SERVIDO} when the
+     * pedido is now {@link EstadoPedido#SERVIDO}.
+     *
+     * @param pedido the saved pedido, whose state changed.
+     */
+    public void pedidoEstadoCambiado(Pedido pedido) {
+        if (pedido.getEstado() == EstadoPedido.SERVIDO) {
+            registrar(TipoEventoDominio.PEDIDO_SERVIDO, pedido.getId(), pedidoPayload(pedido));
+        }
+    }
+
+    /**
+     * Write the {@link TipoEventoDominio#FACTURA_EMITIDA} event of a new factura.
+     *
+     * @param factura the saved factura.
+     */
+    public void facturaEmitida(Factura factura) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facturaId", factura.getId());
+        payload.put("fechaFactura", factura.getFechaFactura());
+        payload.put("montoTotal", factura.getMontoTotal());
+        payload.put("metodoPago", factura.getMetodoPago());
+        registrar(TipoEventoDominio.FACTURA_EMITIDA, factura.getId(), payload);
+    }
+
+    private static Map<String, Object> pedidoPayload(Pedido pedido) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("pedidoId", pedido.getId());
+        payload.put("mesaId", pedido.getMesa() == null ? null : pedido.getMesa().getId());
+        payload.put("estado", pedido.getEstado());
+        payload.put("fechaPedido", pedido.getFechaPedido());
+        return payload;
+    }
+
+    private void registrar(TipoEventoDominio tipo, Long agregadoId, Map<String, Object> payload) {
+        LOG.debug("Request to write {} event of {} to the outbox", tipo, agregadoId);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        outboxEventoRepository.save(new OutboxEvento().tipo(tipo).agregadoId(agregadoId).payload(json).fechaCreacion(Instant.now()));
+    }
+}
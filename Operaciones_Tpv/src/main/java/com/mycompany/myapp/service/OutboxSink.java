@@ -0,0 +1,26 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.EventoDominio;
+import java.util.List;
+
+/**
+ * A destination of the domain events relayed from the outbox by the {@link OutboxRelayService}.
+ * <p>
+ * Every bean implementing this interface receives all the events, in order, each sink at its own pace.
+ */
+public interface OutboxSink {
+    /**
+     * The name of the sink, which identifies its position in the outbox: renaming a sink makes it receive every event
+     * still in the outbox again.
+     *
+     * @return the name, at most 64 characters.
+     */
+    String getName();
+
+    /**
+     * Deliver a batch of events. When this method throws, the whole batch is delivered again later.
+     *
+     * @param eventos the events, in order.
+     */
+    void entregar(List<EventoDominio> eventos);
+}
@@ -0,0 +1,141 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.ParticionRepository;
+import com.mycompany.myapp.repository.ParticionRepository.Particion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Service maintaining the monthly partitions of {@code pedido}, {@code item_pedido} and {@code factura}.
+ * <p>
+ * The partitions of the next {@code application.partitioning.months-ahead} months are created in advance: the rows of a
+ * month without partition end up in the default partition, after which the partition of that month cannot be created until
+ * they are moved. The partitions older than {@code application.partitioning.retention-months} are detached and moved to
+ * the {@value ParticionRepository#ARCHIVE_SCHEMA} schema, where they can still be queried or dumped and dropped.
+ * <p>
+ * Each partition is created or archived in its own transaction; {@code DETACH PARTITION} briefly locks the whole table.
+ */
+@Service
+public class ParticionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParticionService.class);
+
+    public static final String PARTITIONS_METER_NAME = "tpv.partitions";
+    public static final String TABLE_DIMENSION = "table";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    /**
+     * The partitioned tables, in the order they are archived: a pedido cannot be detached while lines reference it.
+     */
+    static final List<String> TABLAS = List.of("item_pedido", "pedido", "factura");
+
+    private final ParticionRepository particionRepository;
+
+    private final TransactionOperations transactionOperations;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int monthsAhead;
+
+    private final int retentionMonths;
+
+    private final String archiveTablespace;
+
+    public ParticionService(
+        ParticionRepository particionRepository,
+        TransactionOperations transactionOperations,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.particionRepository = particionRepository;
+        this.transactionOperations = transactionOperations;
+        this.meterRegistry = meterRegistry;
+        this.monthsAhead = applicationProperties.getPartitioning().getMonthsAhead();
+        this.retentionMonths = applicationProperties.getPartitioning().getRetentionMonths();
+        this.archiveTablespace = applicationProperties.getPartitioning().getArchiveTablespace();
+    }
+
+    /**
+     * Create the partitions of the coming months and archive the expired ones.
+     */
+    @Scheduled(cron = "${application.partitioning.maintenance-cron:0 15 3 * * *}")
+    public void mantener() {
+        crearParticiones();
+        archivar(YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths));
+    }
+
+    /**
+     * Create the missing partitions, from the current month to {@code application.partitioning.months-ahead} months after.
+     *
+     * @return the names of the created partitions.
+     */
+    public List<String> crearParticiones() {
+        YearMonth actual = YearMonth.now(ZoneOffset.UTC);
+        List<String> creadas = new ArrayList<>();
+        for (String tabla : TABLAS) {
+            for (int meses = 0; meses <= monthsAhead; meses++) {
+                YearMonth mes = actual.plusMonths(meses);
+                try {
+                    Boolean creada = transactionOperations.execute(status ->
+                        particionRepository.createParticionMensualIfAbsent(tabla, mes)
+                    );
+                    if (Boolean.TRUE.equals(creada)) {
+                        creadas.add(ParticionRepository.nombreParticionMensual(tabla, mes));
+                        partitionsCounter(tabla, "created").increment();
+                    }
+                } catch (DataAccessException e) {
+                    LOG.error("Could not create the partition of {} for {}, check the default partition : {}", tabla, mes, e.getMessage());
+                    partitionsCounter(tabla, "failed").increment();
+                }
+            }
+        }
+        LOG.info("Created partitions {}", creadas);
+        return creadas;
+    }
+
+    /**
+     * Archive the partitions of which every row is before a month.
+     *
+     * @param hasta the first month which is kept.
+     * @return the names of the archived partitions.
+     */
+    public List<String> archivar(YearMonth hasta) {
+        List<String> archivadas = new ArrayList<>();
+        for (String tabla : TABLAS) {
+            for (Particion particion : particionRepository.findParticiones(tabla)) {
+                if (particion.hasta() == null || particion.hasta().isAfter(hasta)) {
+                    continue;
+                }
+                try {
+                    transactionOperations.executeWithoutResult(status -> particionRepository.archivar(tabla, particion, archiveTablespace));
+                    archivadas.add(particion.nombre());
+                    partitionsCounter(tabla, "archived").increment();
+                } catch (DataAccessException e) {
+                    LOG.error("Could not archive the partition {} : {}", particion.nombre(), e.getMessage());
+                    partitionsCounter(tabla, "failed").increment();
+                }
+            }
+        }
+        LOG.info("Archived partitions {} to the {} schema", archivadas, ParticionRepository.ARCHIVE_SCHEMA);
+        return archivadas;
+    }
+
+    private Counter partitionsCounter(String tabla, String outcome) {
+        return Counter.builder(PARTITIONS_METER_NAME)
+            .description("Partitions created and archived by the maintenance, by outcome")
+            .tag(TABLE_DIMENSION, tabla)
+            .tag(OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+}
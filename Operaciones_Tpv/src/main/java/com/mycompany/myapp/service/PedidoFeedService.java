@@ -0,0 +1,281 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.PedidoFeedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service keeping the live feed of {@link com.mycompany.myapp.domain.Pedido} changes read by the kitchen displays.
+ * <p>
+ * Changes are published as {@link PedidoFeedEvent} application events and only enter the feed once their transaction has
+ * committed. The last events are kept in a bounded in-memory ring buffer, so a client reconnecting with the id of the last
+ * event it received is brought up to date without touching the database.
+ * <p>
+ * The feed is kept per instance and starts again on each start of the instance: an event id is the epoch of the feed, random
+ * on each start, followed by the position of the event in it. A client resuming from an id of another epoch, from another
+ * instance or from before a restart, or from events no longer in the buffer, first receives a {@link PedidoFeedEvent.Tipo#RECARGAR}
+ * event telling it to reload the pedidos from the REST API.
+ * <p>
+ * Events are fanned out to the subscribers on a single dispatcher thread, which keeps them ordered and keeps slow clients
+ * out of the request that committed the change.
+ */
+@Service
+public class PedidoFeedService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PedidoFeedService.class);
+
+    public static final String SUBSCRIBERS_METER_NAME = "tpv.pedido-feed.subscribers";
+    public static final String EVENTS_METER_NAME = "tpv.pedido-feed.events";
+    public static final String EVENTS_METER_OUTCOME_DIMENSION = "outcome";
+
+    private static final char EPOCH_SEPARATOR = '-';
+
+    /**
+     * Receives the events of a subscription.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onEvent(PedidoFeedEvent event) throws IOException;
+    }
+
+    private final PedidoFeedEvent[] buffer;
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private long lastId;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final Executor dispatcher;
+
+    private final Counter publishedCounter;
+
+    private final Counter droppedCounter;
+
+    @Autowired
+    public PedidoFeedService(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(
+            applicationProperties.getPedidoFeed().getBufferSize(),
+            newDispatcher(applicationProperties.getPedidoFeed().getDispatchQueueCapacity()),
+            meterRegistry
+        );
+    }
+
+    PedidoFeedService(int bufferSize, Executor dispatcher, MeterRegistry meterRegistry) {
+        this.buffer = new PedidoFeedEvent[bufferSize];
+        this.dispatcher = dispatcher;
+        Gauge.builder(SUBSCRIBERS_METER_NAME, subscriptions, List::size)
+            .description("Number of clients subscribed to the pedido feed")
+            .register(meterRegistry);
+        this.publishedCounter = eventsCounter(meterRegistry, "published");
+        this.droppedCounter = eventsCounter(meterRegistry, "dropped");
+    }
+
+    private static ExecutorService newDispatcher(int queueCapacity) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "pedido-feed-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Counter eventsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(EVENTS_METER_NAME)
+            .description("Events of the pedido feed, by outcome")
+            .tag(EVENTS_METER_OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        subscriptions.clear();
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Append a committed change to the feed and send it to the subscribers.
+     *
+     * @param change the change, its id is ignored.
+     */
+    @TransactionalEventListener
+    public void onPedidoChange(PedidoFeedEvent change) {
+        PedidoFeedEvent event;
+        synchronized (this) {
+            event = change.appended(++lastId, Instant.now());
+            buffer[(int) (event.id() % buffer.length)] = event;
+        }
+        publishedCounter.increment();
+        dispatch(() -> subscriptions.forEach(subscription -> subscription.deliver(event)), subscriptions.size());
+    }
+
+    /**
+     * Subscribe to the feed.
+     *
+     * @param mesaId only receive the events of this mesa, all events if {@code null}.
+     * @param lastEventId the id of the last event received before reconnecting, {@code null} to only receive new events.
+     * @param listener the listener receiving the events.
+     * @return the subscription, to be cancelled when the client goes away.
+     */
+    public Subscription subscribe(Long mesaId, String lastEventId, Listener listener) {
+        Subscription subscription;
+        boolean recargar;
+        synchronized (this) {
+            Long posicion = lastEventId == null ? Long.valueOf(lastId) : posicion(lastEventId);
+            // An id of another epoch, or ahead of the feed, tells nothing of what the client missed
+            recargar = posicion == null || posicion > lastId;
+            subscription = new Subscription(mesaId, listener, recargar ? lastId : posicion);
+        }
+        dispatch(
+            () -> {
+                if (recargar) {
+                    LOG.debug("Pedido feed subscriber resumed from unknown event {}", lastEventId);
+                    subscription.recargar();
+                }
+                replay(subscription);
+                if (!subscription.cancelled) {
+                    subscriptions.add(subscription);
+                }
+            },
+            1
+        );
+        return subscription;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * The id of an event, as sent to the clients.
+     *
+     * @param id the position of the event in the feed.
+     * @return the id, with the epoch of the feed.
+     */
+    public String eventId(long id) {
+        return epoch + EPOCH_SEPARATOR + id;
+    }
+
+    /**
+     * The position in the feed of an event id.
+     *
+     * @return the position, {@code null} if the id is not one of this epoch of the feed.
+     */
+    private Long posicion(String eventId) {
+        int separator = eventId.lastIndexOf(EPOCH_SEPARATOR);
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return null;
+        }
+        try {
+            long posicion = Long.parseLong(eventId.substring(separator + 1));
+            return posicion < 0 ? null : posicion;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void replay(Subscription subscription) {
+        List<PedidoFeedEvent> missed = new ArrayList<>();
+        long oldestId;
+        synchronized (this) {
+            oldestId = Math.max(1, lastId - buffer.length + 1);
+            for (long id = Math.max(oldestId, subscription.lastDeliveredId + 1); id <= lastId; id++) {
+                missed.add(buffer[(int) (id % buffer.length)]);
+            }
+        }
+        if (subscription.lastDeliveredId + 1 < oldestId) {
+            // The client was away for longer than the buffer covers, it has to reload its state from the REST API
+            LOG.debug("Pedido feed subscriber resumed after evicted events {} to {}", subscription.lastDeliveredId + 1, oldestId - 1);
+            droppedCounter.increment(oldestId - 1 - subscription.lastDeliveredId);
+            subscription.lastDeliveredId = oldestId - 1;
+            subscription.recargar();
+        }
+        missed.forEach(subscription::deliver);
+    }
+
+    private void dispatch(Runnable task, int recipients) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Pedido feed dispatcher is saturated, dropping an event for {} subscribers", recipients);
+            droppedCounter.increment(recipients);
+        }
+    }
+
+    /**
+     * A client subscribed to the feed. Only accessed from the dispatcher thread, except for {@link #cancel()}.
+     */
+    public final class Subscription {
+
+        private final Long mesaId;
+
+        private final Listener listener;
+
+        private long lastDeliveredId;
+
+        private volatile boolean cancelled;
+
+        private Subscription(Long mesaId, Listener listener, long lastDeliveredId) {
+            this.mesaId = mesaId;
+            this.listener = listener;
+            this.lastDeliveredId = lastDeliveredId;
+        }
+
+        private void deliver(PedidoFeedEvent event) {
+            if (cancelled || event.id() <= lastDeliveredId) {
+                return;
+            }
+            lastDeliveredId = event.id();
+            if (mesaId != null && !Objects.equals(mesaId, event.mesaId())) {
+                return;
+            }
+            send(event);
+        }
+
+        /**
+         * Tell the client to reload its state, from the events after the last one delivered.
+         */
+        private void recargar() {
+            if (!cancelled) {
+                send(PedidoFeedEvent.recargar(lastDeliveredId));
+            }
+        }
+
+        private void send(PedidoFeedEvent event) {
+            try {
+                listener.onEvent(event);
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Pedido feed subscriber is gone: {}", e.getMessage());
+                droppedCounter.increment();
+                cancel();
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+    }
+}
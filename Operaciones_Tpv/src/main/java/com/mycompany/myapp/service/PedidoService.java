@@ -0,0 +1,159 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.ItemPedido;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.repository.ItemPedidoRepository;
+import com.mycompany.myapp.repository.PedidoRepository;
+import com.mycompany.myapp.service.dto.PedidoFeedEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation for managing {@link com.mycompany.myapp.domain.Pedido} together with its lines.
+ */
+@Service
+@Transactional
+public class PedidoService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PedidoService.class);
+
+    private final PedidoRepository pedidoRepository;
+
+    private final ItemPedidoRepository itemPedidoRepository;
+
+    private final FacturaRepository facturaRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final OutboxService outboxService;
+
+    private final SesionCajaService sesionCajaService;
+
+    public PedidoService(
+        PedidoRepository pedidoRepository,
+        ItemPedidoRepository itemPedidoRepository,
+        FacturaRepository facturaRepository,
+        ApplicationEventPublisher applicationEventPublisher,
+        OutboxService outboxService,
+        SesionCajaService sesionCajaService
+    ) {
+        this.pedidoRepository = pedidoRepository;
+        this.itemPedidoRepository = itemPedidoRepository;
+        this.facturaRepository = facturaRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.outboxService = outboxService;
+        this.sesionCajaService = sesionCajaService;
+    }
+
+    /**
+     * Save a new pedido with all its lines, and its factura when it is new too, in a single transaction.
+     * <p>
+     * Ids come from the pooled {@code sequence_generator}, so nothing is written before the flush at commit, where Hibernate
+     * sends the lines as JDBC batches ({@code hibernate.jdbc.batch_size}) instead of one insert per round trip.
+     * <p>
+     * A new factura joins the open cash register session. The {@code PEDIDO_CREADO} event, and the {@code FACTURA_EMITIDA}
+     * one of a new factura, are written to the outbox.
+     *
+     * @param pedido the pedido to save, with its {@code itemPedidos}.
+     * @return the persisted pedido.
+     */
+    public Pedido saveCompleto(Pedido pedido) {
+        LOG.debug("Request to save Pedido with {} lines : {}", pedido.getItemPedidos().size(), pedido);
+        Factura factura = pedido.getFactura();
+        if (factura != null && factura.getId() == null) {
+            sesionCajaService.asignarSesion(factura);
+            pedido.setFactura(facturaRepository.save(factura));
+            outboxService.facturaEmitida(pedido.getFactura());
+        }
+        List<ItemPedido> itemPedidos = new ArrayList<>(pedido.getItemPedidos());
+        Pedido result = pedidoRepository.save(pedido);
+        itemPedidos.forEach(itemPedido -> itemPedido.setPedido(result));
+        itemPedidoRepository.saveAll(itemPedidos);
+        outboxService.pedidoCreado(result);
+        return result;
+    }
+
+    /**
+     * Change the state of a pedido, if it is in the expected state.
+     * <p>
+     * The pedido is updated under its {@code @Version}: when another transaction changed it meanwhile, the commit fails and the
+     * whole transaction is retried, with a random exponential backoff, reading the pedido again. The expected state is therefore
+     * checked against the committed state, and two transitions of the same pedido never overwrite each other.
+     *
+     * @param id the id of the pedido.
+     * @param esperado the state the pedido must be in.
+     * @param estado the new state of the pedido.
+     * @return the state the pedido was in, equal to {@code esperado} if and only if it was changed; empty if there is no pedido
+     * with this id.
+     */
+    @Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        label = "pedido.cambiar-estado",
+        listeners = "optimisticLockRetryListener",
+        maxAttemptsExpression = "${application.optimistic-lock.max-attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${application.optimistic-lock.backoff-delay:20}",
+            maxDelayExpression = "${application.optimistic-lock.backoff-max-delay:200}",
+            multiplier = 2,
+            random = true
+        )
+    )
+    public Optional<EstadoPedido> cambiarEstado(Long id, EstadoPedido esperado, EstadoPedido estado) {
+        LOG.debug("Request to change the state of Pedido {} from {} to {}", id, esperado, estado);
+        return pedidoRepository
+            .findById(id)
+            .map(pedido -> {
+                EstadoPedido anterior = pedido.getEstado();
+                if (anterior == esperado && anterior != estado) {
+                    pedido.setEstado(estado);
+                    applicationEventPublisher.publishEvent(PedidoFeedEvent.pedidoEstadoCambiado(pedido));
+                    outboxService.pedidoEstadoCambiado(pedido);
+                }
+                return anterior;
+            });
+    }
+
+    /**
+     * Get a page of the open pedidos of a mesa, newest first, with their lines.
+     * <p>
+     * The page is computed over the ids only, and the pedidos of the page are then fetched with their lines in one query.
+     *
+     * @param mesaId the id of the mesa.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of open pedidos.
+     */
+    @Transactional(readOnly = true)
+    public Page<Pedido> findAbiertosWithItemPedidosByMesa(Long mesaId, Pageable pageable) {
+        LOG.debug("Request to get open Pedidos with their lines of Mesa : {}", mesaId);
+        Page<Long> ids = pedidoRepository.findIdsByMesaIdAndEstadoNot(
+            mesaId,
+            EstadoPedido.PAGADO,
+            PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+        );
+        Map<Long, Pedido> pedidos = ids.isEmpty()
+            ? Map.of()
+            : pedidoRepository
+                .findAllWithItemPedidosByIdIn(ids.getContent())
+                .stream()
+                .collect(Collectors.toMap(Pedido::getId, Function.identity()));
+        return ids.map(pedidos::get);
+    }
+}
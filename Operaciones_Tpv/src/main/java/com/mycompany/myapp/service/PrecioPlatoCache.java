@@ -0,0 +1,321 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.ServiceTokenProvider;
+import com.mycompany.myapp.service.dto.PlatoNoCacheadoEvent;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Local cache of the prices and the states of the platos of Inventario_Menu, which the lines of the pedidos are priced from.
+ * <p>
+ * The cache is kept up to date by the notifications Inventario_Menu sends for each change of a plato, see
+ * {@link #recibir(Collection)}. Every plato is read on the first sync, run at startup; a notification can be lost, so the
+ * platos changed since the previous read are then read every {@code application.precios-plato.sync-delay}, and every plato on
+ * {@code full-sync-cron}. The changes of a plato are ordered by its {@code fechaModificacion}: a change older than the one held
+ * is ignored, whichever way it came.
+ * <p>
+ * Pricing a line never calls Inventario_Menu, which would hold the connection of the transaction of the request meanwhile: a
+ * plato not cached is not found, and read in the background. Every existing plato is held; the deleted and unknown ones are
+ * held too, up to {@code max-size}, the ones received the longest ago being evicted first.
+ */
+@Service
+public class PrecioPlatoCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrecioPlatoCache.class);
+
+    public static final String LOOKUPS_METER_NAME = "tpv.precios-plato.lookups";
+    public static final String NOTIFICATIONS_METER_NAME = "tpv.precios-plato.notifications";
+    public static final String SIZE_METER_NAME = "tpv.precios-plato.size";
+    public static final String STALENESS_METER_NAME = "tpv.precios-plato.staleness";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    private static final ParameterizedTypeReference<List<PrecioPlatoDTO>> PRECIOS_TYPE = new ParameterizedTypeReference<>() {};
+
+    /**
+     * A cached state of a plato, with when it was received. Deleted and unknown platos are kept too, so that an older change
+     * received afterwards does not bring them back.
+     */
+    private record Entrada(PrecioPlatoDTO precio, long recibida) {}
+
+    private final Map<String, Entrada> precios = new ConcurrentHashMap<>();
+
+    /**
+     * The platos not cached being read in the background, so that a plato looked up again meanwhile is not read twice.
+     */
+    private final Set<String> pendientes = ConcurrentHashMap.newKeySet();
+
+    private final RestClient restClient;
+
+    private final ServiceTokenProvider serviceTokenProvider;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxSize;
+
+    private final Duration syncOverlap;
+
+    /**
+     * The latest {@code fechaModificacion} read from Inventario_Menu: the next read starts from there.
+     */
+    private volatile Instant leidoHasta;
+
+    private volatile Instant ultimaSincronizacion;
+
+    public PrecioPlatoCache(
+        RestClient.Builder restClientBuilder,
+        ServiceTokenProvider serviceTokenProvider,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.PreciosPlato preciosPlato = applicationProperties.getPreciosPlato();
+        if (preciosPlato.getMenuUrl() == null) {
+            this.restClient = null;
+        } else {
+            SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+            requestFactory.setConnectTimeout(preciosPlato.getConnectTimeout());
+            requestFactory.setReadTimeout(preciosPlato.getReadTimeout());
+            this.restClient = restClientBuilder.baseUrl(preciosPlato.getMenuUrl()).requestFactory(requestFactory).build();
+        }
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.maxSize = preciosPlato.getMaxSize();
+        this.syncOverlap = preciosPlato.getSyncOverlap();
+        Gauge.builder(SIZE_METER_NAME, precios, Map::size).description("Platos held by the price cache").register(meterRegistry);
+        TimeGauge.builder(STALENESS_METER_NAME, this, TimeUnit.MILLISECONDS, PrecioPlatoCache::getStalenessMillis)
+            .description("Time since the price cache last read the changed platos from the menu service")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the price and the state of a cached plato. A plato not cached is read from Inventario_Menu in the background.
+     *
+     * @param platoId the id of the plato.
+     * @return the price and the state of the plato, empty if the plato does not exist or is not cached.
+     */
+    public Optional<PrecioPlatoDTO> findPrecio(String platoId) {
+        Entrada entrada = precios.get(platoId);
+        if (entrada != null) {
+            lookupsCounter("hit").increment();
+            return disponible(entrada.precio());
+        }
+        lookupsCounter("miss").increment();
+        if (restClient != null && pendientes.add(platoId)) {
+            applicationEventPublisher.publishEvent(new PlatoNoCacheadoEvent(platoId));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Read a plato looked up while not cached, and cache it, or cache that it does not exist.
+     *
+     * @param event the plato not cached.
+     */
+    @Async
+    @EventListener
+    public void onPlatoNoCacheado(PlatoNoCacheadoEvent event) {
+        String platoId = event.platoId();
+        try {
+            PrecioPlatoDTO precio;
+            try {
+                precio = restClient
+                    .get()
+                    .uri("/api/platoes/{id}", platoId)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceTokenProvider.createToken())
+                    .retrieve()
+                    .body(PrecioPlatoDTO.class);
+            } catch (HttpClientErrorException.NotFound e) {
+                precio = new PrecioPlatoDTO(platoId, null, false, Instant.EPOCH, true);
+            }
+            if (precio != null) {
+                aplicar(precio);
+                recortar();
+            }
+        } catch (RestClientException e) {
+            LOG.warn("Could not read the price of Plato {} : {}", platoId, e.getMessage());
+            lookupsCounter("error").increment();
+        } finally {
+            pendientes.remove(platoId);
+        }
+    }
+
+    /**
+     * Apply the changes of platos notified by Inventario_Menu.
+     *
+     * @param cambios the platos after their change.
+     * @return the number of changes applied, the others being older than the cached ones.
+     */
+    public int recibir(Collection<PrecioPlatoDTO> cambios) {
+        int aplicados = 0;
+        for (PrecioPlatoDTO cambio : cambios) {
+            if (aplicar(cambio)) {
+                aplicados++;
+            }
+        }
+        recortar();
+        notificationsCounter("applied").increment(aplicados);
+        notificationsCounter("ignored").increment((double) cambios.size() - aplicados);
+        return aplicados;
+    }
+
+    /**
+     * Read the platos changed since the previous read, or every plato on the first one.
+     *
+     * @return the number of platos read.
+     */
+    @Scheduled(fixedDelayString = "${application.precios-plato.sync-delay:PT1M}")
+    public int sincronizar() {
+        if (restClient == null) {
+            return 0;
+        }
+        Instant desde = leidoHasta == null ? null : leidoHasta.minus(syncOverlap);
+        Optional<List<PrecioPlatoDTO>> cambios = leer(desde);
+        cambios.ifPresent(c -> LOG.debug("Read {} Platos changed since {}", c.size(), desde));
+        return cambios.map(List::size).orElse(0);
+    }
+
+    /**
+     * Read every plato, and drop the cached platos which no longer exist.
+     *
+     * @return the number of platos read.
+     */
+    @Scheduled(cron = "${application.precios-plato.full-sync-cron:0 45 4 * * *}")
+    public int resincronizar() {
+        if (restClient == null) {
+            return 0;
+        }
+        long inicio = System.nanoTime();
+        Optional<List<PrecioPlatoDTO>> todos = leer(null);
+        todos.ifPresent(leidos -> {
+            Set<String> ids = new HashSet<>();
+            leidos.forEach(precio -> ids.add(precio.id()));
+            precios.entrySet().removeIf(e -> !ids.contains(e.getKey()) && e.getValue().recibida() - inicio < 0);
+            LOG.info("Read the {} Platos, {} cached", leidos.size(), precios.size());
+        });
+        return todos.map(List::size).orElse(0);
+    }
+
+    private Optional<List<PrecioPlatoDTO>> leer(Instant desde) {
+        List<PrecioPlatoDTO> leidos;
+        try {
+            leidos = restClient
+                .get()
+                .uri(uri -> uri.path("/api/platoes/precios").queryParamIfPresent("desde", Optional.ofNullable(desde)).build())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceTokenProvider.createToken())
+                .retrieve()
+                .body(PRECIOS_TYPE);
+        } catch (RestClientException e) {
+            LOG.warn("Could not read the changed Platos from the menu service : {}", e.getMessage());
+            return Optional.empty();
+        }
+        if (leidos == null) {
+            leidos = List.of();
+        }
+        for (PrecioPlatoDTO precio : leidos) {
+            aplicar(precio);
+            if (precio.fechaModificacion() != null && (leidoHasta == null || precio.fechaModificacion().isAfter(leidoHasta))) {
+                leidoHasta = precio.fechaModificacion();
+            }
+        }
+        recortar();
+        ultimaSincronizacion = Instant.now();
+        return Optional.of(leidos);
+    }
+
+    /**
+     * Cache a state of a plato, unless an older one than the cached state.
+     *
+     * @return whether the state was cached.
+     */
+    private boolean aplicar(PrecioPlatoDTO precio) {
+        boolean[] aplicado = { false };
+        precios.compute(precio.id(), (id, actual) -> {
+            if (actual != null && precio.isAnteriorA(actual.precio())) {
+                return actual;
+            }
+            aplicado[0] = true;
+            return new Entrada(precio, System.nanoTime());
+        });
+        return aplicado[0];
+    }
+
+    /**
+     * Evict the deleted and unknown platos received the longest ago once more than {@code max-size} are held, down to 90% of
+     * it so that they are not sorted again on the next one. The existing platos are never evicted, a plato evicted would not
+     * be found.
+     */
+    private void recortar() {
+        List<Map.Entry<String, Entrada>> eliminados = precios
+            .entrySet()
+            .stream()
+            .filter(e -> e.getValue().precio().eliminado())
+            .toList();
+        int exceso = eliminados.size() - maxSize;
+        if (exceso <= 0) {
+            return;
+        }
+        int evictados = exceso + maxSize / 10;
+        eliminados
+            .stream()
+            .sorted(Comparator.comparingLong(e -> e.getValue().recibida()))
+            .limit(evictados)
+            .map(Map.Entry::getKey)
+            .toList()
+            .forEach(precios::remove);
+        LOG.debug("Evicted {} deleted Platos from the price cache", evictados);
+    }
+
+    private double getStalenessMillis() {
+        Instant ultima = ultimaSincronizacion;
+        return ultima == null ? Double.NaN : Duration.between(ultima, Instant.now()).toMillis();
+    }
+
+    private static Optional<PrecioPlatoDTO> disponible(PrecioPlatoDTO precio) {
+        return precio.eliminado() ? Optional.empty() : Optional.of(precio);
+    }
+
+    private Counter lookupsCounter(String outcome) {
+        return Counter.builder(LOOKUPS_METER_NAME)
+            .description("Lookups of the prices of the platos, by outcome")
+            .tag(OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+
+    private Counter notificationsCounter(String outcome) {
+        return Counter.builder(NOTIFICATIONS_METER_NAME)
+            .description("Changes of the platos notified by the menu service, by outcome")
+            .tag(OUTCOME_DIMENSION, outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,275 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.SesionCaja;
+import com.mycompany.myapp.domain.SesionCajaTotal;
+import com.mycompany.myapp.domain.SesionCajaTotalId;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.domain.enumeration.EstadoSesionCaja;
+import com.mycompany.myapp.domain.enumeration.ResultadoVerificacion;
+import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.repository.FacturaRepository.TotalFacturas;
+import com.mycompany.myapp.repository.FacturaRepository.VentaFactura;
+import com.mycompany.myapp.repository.PedidoRepository;
+import com.mycompany.myapp.repository.SesionCajaRepository;
+import com.mycompany.myapp.repository.SesionCajaTotalRepository;
+import com.mycompany.myapp.service.dto.SesionCajaCerradaEvent;
+import com.mycompany.myapp.service.dto.SesionCajaDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service managing the sessions of the cash register, see {@link SesionCaja}.
+ * <p>
+ * A new factura joins the open session, if any. The running totals of the session, by {@code MetodoPago}, are updated in
+ * the transaction changing its facturas, from the differences computed by {@link VentaRollupService#actualizar}: closing a
+ * session reads one row per {@code MetodoPago} instead of summing its facturas.
+ * <p>
+ * The verification recomputes the totals from the facturas of the session, in a single snapshot, and counts its pedidos
+ * which are not paid. Closing a session can ask for it, it then runs in the background once the close is committed.
+ */
+@Service
+public class SesionCajaService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SesionCajaService.class);
+
+    public static final String VERIFICATIONS_METER_NAME = "tpv.caja.verifications";
+    public static final String OUTCOME_DIMENSION = "outcome";
+
+    private final SesionCajaRepository sesionCajaRepository;
+
+    private final SesionCajaTotalRepository sesionCajaTotalRepository;
+
+    private final FacturaRepository facturaRepository;
+
+    private final PedidoRepository pedidoRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final TransactionOperations transactionOperations;
+
+    private final TransactionOperations snapshot;
+
+    private final MeterRegistry meterRegistry;
+
+    public SesionCajaService(
+        SesionCajaRepository sesionCajaRepository,
+        SesionCajaTotalRepository sesionCajaTotalRepository,
+        FacturaRepository facturaRepository,
+        PedidoRepository pedidoRepository,
+        ApplicationEventPublisher applicationEventPublisher,
+        TransactionOperations transactionOperations,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.sesionCajaRepository = sesionCajaRepository;
+        this.sesionCajaTotalRepository = sesionCajaTotalRepository;
+        this.facturaRepository = facturaRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionOperations = transactionOperations;
+        TransactionTemplate repeatableRead = new TransactionTemplate(transactionManager);
+        repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshot = repeatableRead;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Open a new session.
+     *
+     * @return the new session, empty if a session is open already.
+     */
+    @Transactional
+    public Optional<SesionCajaDTO> abrir() {
+        if (sesionCajaRepository.findOneByEstado(EstadoSesionCaja.ABIERTA).isPresent()) {
+            return Optional.empty();
+        }
+        SesionCaja sesionCaja = new SesionCaja();
+        sesionCaja.setFechaApertura(ZonedDateTime.now());
+        sesionCaja.setEstado(EstadoSesionCaja.ABIERTA);
+        sesionCaja = sesionCajaRepository.save(sesionCaja);
+        LOG.info("Opened SesionCaja {}", sesionCaja.getId());
+        return Optional.of(SesionCajaDTO.of(sesionCaja, List.of()));
+    }
+
+    /**
+     * Add a new factura to the open session, if any; to be called before the factura is saved.
+     * <p>
+     * The session stays open until the end of the transaction.
+     *
+     * @param factura the new factura.
+     */
+    @Transactional
+    public void asignarSesion(Factura factura) {
+        factura.setSesionCajaId(sesionCajaRepository.findIdAbiertaForShare().orElse(null));
+    }
+
+    /**
+     * Apply to the running totals the changes made to some facturas.
+     *
+     * @param antes the facturas before the change.
+     * @param despues the facturas after the change.
+     */
+    @Transactional
+    public void actualizar(Collection<VentaFactura> antes, Collection<VentaFactura> despues) {
+        SortedMap<SesionCajaTotalId, SesionCajaTotal> deltas = new TreeMap<>();
+        antes.forEach(venta -> acumular(deltas, venta, -1));
+        despues.forEach(venta -> acumular(deltas, venta, 1));
+        List<SesionCajaTotal> cambios = deltas
+            .values()
+            .stream()
+            .filter(delta -> delta.getNumFacturas() != 0 || delta.getMontoTotal().signum() != 0)
+            .toList();
+        sesionCajaTotalRepository.acumular(cambios);
+    }
+
+    private static void acumular(SortedMap<SesionCajaTotalId, SesionCajaTotal> deltas, VentaFactura venta, int signo) {
+        if (venta.getSesionCajaId() == null) {
+            return;
+        }
+        SesionCajaTotal delta = deltas.computeIfAbsent(new SesionCajaTotalId(venta.getSesionCajaId(), venta.getMetodoPago()), id -> {
+            SesionCajaTotal total = new SesionCajaTotal();
+            total.setId(id);
+            total.setNumFacturas(0L);
+            total.setMontoTotal(BigDecimal.ZERO);
+            return total;
+        });
+        delta.setNumFacturas(delta.getNumFacturas() + signo);
+        BigDecimal monto = signo > 0 ? venta.getMontoTotal() : venta.getMontoTotal().negate();
+        delta.setMontoTotal(delta.getMontoTotal().add(monto));
+    }
+
+    /**
+     * Get a session with its running totals.
+     *
+     * @param id the id of the session.
+     * @return the session, empty if there is no session with this id.
+     */
+    @Transactional(readOnly = true)
+    public Optional<SesionCajaDTO> findOne(Long id) {
+        return sesionCajaRepository.findById(id).map(this::toDto);
+    }
+
+    /**
+     * Get the open session with its running totals.
+     *
+     * @return the open session, empty if there is none.
+     */
+    @Transactional(readOnly = true)
+    public Optional<SesionCajaDTO> findAbierta() {
+        return sesionCajaRepository.findOneByEstado(EstadoSesionCaja.ABIERTA).map(this::toDto);
+    }
+
+    /**
+     * Close a session, after the facturas being emitted in it. Closing a closed session just returns it.
+     *
+     * @param id the id of the session.
+     * @param verificar whether to verify the session once the close is committed.
+     * @return the closed session with its totals, empty if there is no session with this id.
+     */
+    @Transactional
+    public Optional<SesionCajaDTO> cerrar(Long id, boolean verificar) {
+        Optional<SesionCaja> sesionCaja = sesionCajaRepository.findByIdForUpdate(id);
+        sesionCaja
+            .filter(sesion -> sesion.getEstado() == EstadoSesionCaja.ABIERTA)
+            .ifPresent(sesion -> {
+                sesion.setEstado(EstadoSesionCaja.CERRADA);
+                sesion.setFechaCierre(ZonedDateTime.now());
+                LOG.info("Closed SesionCaja {}", id);
+            });
+        if (verificar && sesionCaja.isPresent()) {
+            applicationEventPublisher.publishEvent(new SesionCajaCerradaEvent(id));
+        }
+        return sesionCaja.map(this::toDto);
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onSesionCajaCerrada(SesionCajaCerradaEvent event) {
+        verificar(event.sesionCajaId());
+    }
+
+    /**
+     * Recompute the totals of a session from its facturas, and record the outcome.
+     *
+     * @param id the id of the session.
+     * @return the session with the running and the recomputed totals, empty if there is no session with this id.
+     */
+    public Optional<SesionCajaDTO> verificar(Long id) {
+        // Running totals and facturas are read in the same snapshot, so that a factura changed meanwhile is not a drift
+        Verificacion verificacion = snapshot.execute(status -> {
+            if (!sesionCajaRepository.existsById(id)) {
+                return null;
+            }
+            List<SesionCajaTotal> verificados = new ArrayList<>();
+            for (TotalFacturas totalFacturas : facturaRepository.findTotalesBySesionCajaId(id)) {
+                SesionCajaTotal verificado = new SesionCajaTotal();
+                verificado.setId(new SesionCajaTotalId(id, totalFacturas.getMetodoPago()));
+                verificado.setNumFacturasVerificado(totalFacturas.getNumFacturas());
+                verificado.setMontoTotalVerificado(totalFacturas.getMontoTotal());
+                verificados.add(verificado);
+            }
+            Map<SesionCajaTotalId, SesionCajaTotal> totales = new TreeMap<>();
+            sesionCajaTotalRepository.findAllBySesionCajaId(id).forEach(total -> totales.put(total.getId(), total));
+            boolean descuadre = verificados.size() != totales.values().stream().filter(total -> total.getNumFacturas() != 0).count();
+            for (SesionCajaTotal verificado : verificados) {
+                SesionCajaTotal total = totales.get(verificado.getId());
+                descuadre |=
+                    total == null ||
+                    !total.getNumFacturas().equals(verificado.getNumFacturasVerificado()) ||
+                    total.getMontoTotal().compareTo(verificado.getMontoTotalVerificado()) != 0;
+            }
+            long pedidosPendientes = pedidoRepository.countByFacturaSesionCajaIdAndEstadoNot(id, EstadoPedido.PAGADO);
+            ResultadoVerificacion resultado = descuadre ? ResultadoVerificacion.DESCUADRE : ResultadoVerificacion.CONFORME;
+            return new Verificacion(verificados, resultado, pedidosPendientes);
+        });
+        if (verificacion == null) {
+            return Optional.empty();
+        }
+        SesionCajaDTO result = transactionOperations.execute(status -> {
+            sesionCajaTotalRepository.registrarVerificacion(id, verificacion.verificados());
+            SesionCaja sesionCaja = sesionCajaRepository.findById(id).orElseThrow();
+            sesionCaja.setVerificacion(verificacion.resultado());
+            sesionCaja.setFechaVerificacion(ZonedDateTime.now());
+            sesionCaja.setPedidosPendientes(verificacion.pedidosPendientes());
+            return toDto(sesionCaja);
+        });
+        if (verificacion.resultado() == ResultadoVerificacion.DESCUADRE) {
+            LOG.warn("The running totals of SesionCaja {} drifted from its facturas : {}", id, result.totales());
+        } else {
+            LOG.info("Verified SesionCaja {}, {} pedidos not paid", id, verificacion.pedidosPendientes());
+        }
+        Counter.builder(VERIFICATIONS_METER_NAME)
+            .description("Verifications of the running totals of the cash register sessions, by outcome")
+            .tag(OUTCOME_DIMENSION, verificacion.resultado().name().toLowerCase())
+            .register(meterRegistry)
+            .increment();
+        return Optional.of(result);
+    }
+
+    private SesionCajaDTO toDto(SesionCaja sesionCaja) {
+        return SesionCajaDTO.of(sesionCaja, sesionCajaTotalRepository.findAllBySesionCajaId(sesionCaja.getId()));
+    }
+
+    private record Verificacion(List<SesionCajaTotal> verificados, ResultadoVerificacion resultado, long pedidosPendientes) {}
+}
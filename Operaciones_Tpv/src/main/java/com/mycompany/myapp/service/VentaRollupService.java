@@ -0,0 +1,216 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.VentaRollup;
+import com.mycompany.myapp.domain.VentaRollupId;
+import com.mycompany.myapp.domain.enumeration.DimensionVenta;
+import com.mycompany.myapp.domain.enumeration.GranularidadVenta;
+import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.repository.FacturaRepository.VentaFactura;
+import com.mycompany.myapp.repository.VentaRollupRepository;
+import com.mycompany.myapp.service.dto.VentaRollupDTO;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the sales rollups: number of facturas and amount per hour and per day, in total, per
+ * {@link com.mycompany.myapp.domain.enumeration.MetodoPago} and per {@link com.mycompany.myapp.domain.Mesa}.
+ * <p>
+ * Rollups are updated incrementally, in the transaction that changes the facturas: callers read what the facturas they are
+ * about to change contribute with {@link #leerVentas(Collection)}, make their change, then call
+ * {@link #actualizar(Map, Collection)}, which applies the difference. The dashboards then read a few rows per period
+ * instead of summing every factura. The same difference updates the running totals of the cash register sessions, see
+ * {@link SesionCajaService}.
+ * <p>
+ * {@link #reconstruir()} recomputes every rollup from the facturas, to backfill them or to repair them.
+ */
+@Service
+@Transactional
+public class VentaRollupService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaRollupService.class);
+
+    private final VentaRollupRepository ventaRollupRepository;
+
+    private final FacturaRepository facturaRepository;
+
+    private final SesionCajaService sesionCajaService;
+
+    private final ZoneId zoneId;
+
+    private final int rebuildBatchSize;
+
+    public VentaRollupService(
+        VentaRollupRepository ventaRollupRepository,
+        FacturaRepository facturaRepository,
+        SesionCajaService sesionCajaService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ventaRollupRepository = ventaRollupRepository;
+        this.facturaRepository = facturaRepository;
+        this.sesionCajaService = sesionCajaService;
+        this.zoneId = ZoneId.of(applicationProperties.getVentaRollup().getZoneId());
+        this.rebuildBatchSize = applicationProperties.getVentaRollup().getRebuildBatchSize();
+    }
+
+    /**
+     * Read what some facturas currently contribute to the rollups.
+     *
+     * @param facturaIds the ids of the facturas, {@code null} ids are ignored.
+     * @return the contribution of the existing facturas, by id.
+     */
+    public Map<Long, VentaFactura> leerVentas(Collection<Long> facturaIds) {
+        Set<Long> ids = facturaIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return facturaRepository.findVentasByIdIn(ids).stream().collect(Collectors.toMap(VentaFactura::getId, Function.identity()));
+    }
+
+    /**
+     * Apply to the rollups the changes made to some facturas, or to the pedidos linking them to a mesa, since
+     * {@link #leerVentas(Collection)} was called.
+     *
+     * @param antes the contribution of the facturas before the change, as returned by {@link #leerVentas(Collection)}.
+     * @param facturaIds the ids of the facturas created by the change, if any.
+     */
+    public void actualizar(Map<Long, VentaFactura> antes, Collection<Long> facturaIds) {
+        Set<Long> ids = new TreeSet<>(antes.keySet());
+        facturaIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        if (ids.isEmpty()) {
+            return;
+        }
+        facturaRepository.flush();
+        Map<Long, VentaFactura> despues = leerVentas(ids);
+        SortedMap<VentaRollupId, Delta> deltas = new TreeMap<>();
+        for (Long id : ids) {
+            acumular(deltas, antes.get(id), -1);
+            acumular(deltas, despues.get(id), 1);
+        }
+        int escritos = escribir(deltas);
+        sesionCajaService.actualizar(antes.values(), despues.values());
+        LOG.debug("Updated {} sales rollups for Facturas : {}", escritos, ids);
+    }
+
+    /**
+     * Recompute every rollup from the facturas.
+     * <p>
+     * The rollup table stays locked until the rebuild commits: incremental updates made meanwhile wait for it, and are
+     * applied on top of the rebuilt rollups.
+     *
+     * @return the number of facturas read.
+     */
+    @Scheduled(cron = "${application.venta-rollup.rebuild-cron:-}")
+    public long reconstruir() {
+        LOG.info("Rebuilding the sales rollups");
+        ventaRollupRepository.bloquear();
+        ventaRollupRepository.deleteAllInBatch();
+        SortedMap<VentaRollupId, Delta> deltas = new TreeMap<>();
+        long facturas = 0;
+        long afterId = 0;
+        List<VentaFactura> ventas;
+        do {
+            ventas = facturaRepository.findVentasAfterId(afterId, Limit.of(rebuildBatchSize));
+            for (VentaFactura venta : ventas) {
+                acumular(deltas, venta, 1);
+                afterId = venta.getId();
+            }
+            facturas += ventas.size();
+            // Rollups are additive, so they can be written in several steps to bound the memory used
+            if (deltas.size() >= rebuildBatchSize * 10) {
+                escribir(deltas);
+                deltas.clear();
+            }
+        } while (ventas.size() == rebuildBatchSize);
+        escribir(deltas);
+        LOG.info("Rebuilt the sales rollups from {} Facturas", facturas);
+        return facturas;
+    }
+
+    /**
+     * Get the rollups of the periods starting in a range.
+     *
+     * @param granularidad the length of the periods.
+     * @param dimension the dimension the sales are broken down by.
+     * @param desde the start of the range, inclusive.
+     * @param hasta the end of the range, exclusive.
+     * @return the rollups, by period then value of the dimension.
+     */
+    @Transactional(readOnly = true)
+    public List<VentaRollupDTO> findRollups(GranularidadVenta granularidad, DimensionVenta dimension, Instant desde, Instant hasta) {
+        LOG.debug("Request to get the {} sales rollups by {} from {} to {}", granularidad, dimension, desde, hasta);
+        return ventaRollupRepository.findAllByPeriodo(granularidad, dimension, desde, hasta).stream().map(VentaRollupDTO::of).toList();
+    }
+
+    private void acumular(SortedMap<VentaRollupId, Delta> deltas, VentaFactura venta, int signo) {
+        if (venta == null) {
+            return;
+        }
+        BigDecimal monto = signo > 0 ? venta.getMontoTotal() : venta.getMontoTotal().negate();
+        ZonedDateTime fecha = venta.getFechaFactura().withZoneSameInstant(zoneId);
+        for (GranularidadVenta granularidad : GranularidadVenta.values()) {
+            Instant periodo = switch (granularidad) {
+                case HORA -> fecha.truncatedTo(ChronoUnit.HOURS).toInstant();
+                case DIA -> fecha.toLocalDate().atStartOfDay(zoneId).toInstant();
+            };
+            sumar(deltas, new VentaRollupId(granularidad, DimensionVenta.TOTAL, periodo, VentaRollupId.CLAVE_TOTAL), signo, monto);
+            sumar(deltas, new VentaRollupId(granularidad, DimensionVenta.METODO_PAGO, periodo, venta.getMetodoPago().name()), signo, monto);
+            if (venta.getMesaId() != null) {
+                sumar(deltas, new VentaRollupId(granularidad, DimensionVenta.MESA, periodo, venta.getMesaId().toString()), signo, monto);
+            }
+        }
+    }
+
+    private static void sumar(SortedMap<VentaRollupId, Delta> deltas, VentaRollupId id, int signo, BigDecimal monto) {
+        Delta delta = deltas.computeIfAbsent(id, key -> new Delta());
+        delta.numFacturas += signo;
+        delta.montoTotal = delta.montoTotal.add(monto);
+    }
+
+    /**
+     * Write the deltas in key order, so that concurrent transactions lock the rollup rows in the same order.
+     */
+    private int escribir(SortedMap<VentaRollupId, Delta> deltas) {
+        List<VentaRollup> rollups = new ArrayList<>(deltas.size());
+        for (Map.Entry<VentaRollupId, Delta> entry : deltas.entrySet()) {
+            Delta delta = entry.getValue();
+            if (delta.numFacturas == 0 && delta.montoTotal.signum() == 0) {
+                continue;
+            }
+            VentaRollup rollup = new VentaRollup();
+            rollup.setId(entry.getKey());
+            rollup.setNumFacturas(delta.numFacturas);
+            rollup.setMontoTotal(delta.montoTotal);
+            rollups.add(rollup);
+        }
+        ventaRollupRepository.acumular(rollups);
+        return rollups.size();
+    }
+
+    private static final class Delta {
+
+        private long numFacturas;
+
+        private BigDecimal montoTotal = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mycompany.myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.mycompany.myapp.domain.OutboxEvento;
+import com.mycompany.myapp.domain.enumeration.TipoEventoDominio;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A domain event delivered by the outbox relay.
+ * <p>
+ * Delivery is at least once: a sink may receive the same event again after a failure, consumers skip the ids they have
+ * already processed.
+ *
+ * @param id the id of the event, unique.
+ * @param tipo the kind of event.
+ * @param agregadoId the id of the pedido or factura the event is about.
+ * @param payload the JSON state of the pedido or factura when the event happened.
+ * @param fechaCreacion when the event happened.
+ */
+public record EventoDominio(Long id, TipoEventoDominio tipo, Long agregadoId, @JsonRawValue String payload, Instant fechaCreacion)
+    implements Serializable {
+    public static EventoDominio of(OutboxEvento evento) {
+        return new EventoDominio(evento.getId(), evento.getTipo(), evento.getAgregadoId(), evento.getPayload(), evento.getFechaCreacion());
+    }
+}
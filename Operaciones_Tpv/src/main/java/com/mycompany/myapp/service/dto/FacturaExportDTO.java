@@ -0,0 +1,37 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.repository.FacturaRepository.FacturaExportacion;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * A line of the export of the facturas to accounting.
+ *
+ * @param id the id of the factura.
+ * @param fechaFactura the date of the factura.
+ * @param montoTotal the amount of the factura.
+ * @param metodoPago the payment method of the factura.
+ * @param pedidoId the id of the pedido of the factura, if any.
+ * @param mesaId the id of the mesa of the pedido, if any.
+ */
+public record FacturaExportDTO(
+    Long id,
+    ZonedDateTime fechaFactura,
+    BigDecimal montoTotal,
+    MetodoPago metodoPago,
+    Long pedidoId,
+    Long mesaId
+) implements Serializable {
+    public static FacturaExportDTO of(FacturaExportacion factura) {
+        return new FacturaExportDTO(
+            factura.getId(),
+            factura.getFechaFactura(),
+            factura.getMontoTotal(),
+            factura.getMetodoPago(),
+            factura.getPedidoId(),
+            factura.getMesaId()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The response of a request sent with an {@code Idempotency-Key}, replayed when the request is retried with the same key.
+ *
+ * @param huella the SHA-256 of the body of the request, to reject a key reused for another request.
+ * @param status the status of the response.
+ * @param headers the headers of the response.
+ * @param body the body of the response.
+ */
+public record IdempotentResponse(String huella, int status, Map<String, List<String>> headers, byte[] body) implements Serializable {}
@@ -0,0 +1,12 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import java.io.Serializable;
+
+/**
+ * The state of every mesa of the floor, as two parallel arrays ordered by mesa number.
+ *
+ * @param numeros the numbers of the mesas, ascending.
+ * @param estados the state of the mesa with the same index in {@code numeros}.
+ */
+public record MesaOcupacionDTO(int[] numeros, EstadoMesa[] estados) implements Serializable {}
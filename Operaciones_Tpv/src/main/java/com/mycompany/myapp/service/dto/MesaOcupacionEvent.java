@@ -0,0 +1,27 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Mesa;
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import java.io.Serializable;
+
+/**
+ * A change of a {@link Mesa} made through its REST resource, applied to the occupancy board once committed.
+ *
+ * @param mesaId the id of the mesa.
+ * @param numero the number of the mesa, {@code null} if it was deleted.
+ * @param estado the state of the mesa, {@code null} if it was deleted.
+ * @param version the version of the mesa once saved, {@code null} if it was deleted.
+ */
+public record MesaOcupacionEvent(Long mesaId, Integer numero, EstadoMesa estado, Long version) implements Serializable {
+    public static MesaOcupacionEvent guardada(Mesa mesa) {
+        return new MesaOcupacionEvent(mesa.getId(), mesa.getNumero(), mesa.getEstado(), mesa.getVersion());
+    }
+
+    public static MesaOcupacionEvent eliminada(Long mesaId) {
+        return new MesaOcupacionEvent(mesaId, null, null, null);
+    }
+
+    public boolean isEliminada() {
+        return numero == null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.ItemPedido;
+import com.mycompany.myapp.domain.Mesa;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A change of a {@link Pedido} pushed to the kitchen displays.
+ *
+ * @param id the position of the event in the feed, assigned when the event is appended to it.
+ * @param tipo the kind of change.
+ * @param pedidoId the id of the pedido, {@code null} for {@link Tipo#RECARGAR}.
+ * @param mesaId the id of the mesa of the pedido, if any.
+ * @param estado the state of the pedido after the change, {@code null} for item additions.
+ * @param itemPedidoId the id of the added item, only for item additions.
+ * @param timestamp when the event was appended to the feed, once the change was committed.
+ */
+public record PedidoFeedEvent(
+    long id,
+    Tipo tipo,
+    Long pedidoId,
+    Long mesaId,
+    EstadoPedido estado,
+    Long itemPedidoId,
+    Instant timestamp
+) implements Serializable {
+    public enum Tipo {
+        PEDIDO_CREADO,
+        PEDIDO_ESTADO_CAMBIADO,
+        ITEM_PEDIDO_AGREGADO,
+        /**
+         * The client missed events which are no longer in the feed, it has to reload the pedidos from the REST API.
+         */
+        RECARGAR,
+    }
+
+    public static PedidoFeedEvent pedidoCreado(Pedido pedido) {
+        return new PedidoFeedEvent(0, Tipo.PEDIDO_CREADO, pedido.getId(), mesaIdOf(pedido), pedido.getEstado(), null, null);
+    }
+
+    public static PedidoFeedEvent pedidoEstadoCambiado(Pedido pedido) {
+        return new PedidoFeedEvent(
+            0,
+            Tipo.PEDIDO_ESTADO_CAMBIADO,
+            pedido.getId(),
+            mesaIdOf(pedido),
+            pedido.getEstado(),
+            null,
+            null
+        );
+    }
+
+    public static PedidoFeedEvent itemPedidoAgregado(ItemPedido itemPedido, Long mesaId) {
+        return new PedidoFeedEvent(
+            0,
+            Tipo.ITEM_PEDIDO_AGREGADO,
+            itemPedido.getPedido().getId(),
+            mesaId,
+            null,
+            itemPedido.getId(),
+            null
+        );
+    }
+
+    public static PedidoFeedEvent recargar(long id) {
+        return new PedidoFeedEvent(id, Tipo.RECARGAR, null, null, null, null, Instant.now());
+    }
+
+    public PedidoFeedEvent appended(long id, Instant timestamp) {
+        return new PedidoFeedEvent(id, tipo, pedidoId, mesaId, estado, itemPedidoId, timestamp);
+    }
+
+    private static Long mesaIdOf(Pedido pedido) {
+        Mesa mesa = pedido.getMesa();
+        return mesa == null ? null : mesa.getId();
+    }
+}
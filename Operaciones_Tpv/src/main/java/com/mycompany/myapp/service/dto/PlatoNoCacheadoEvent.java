@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A plato looked up in the price cache but not held by it, to be read from Inventario_Menu outside of the request.
+ *
+ * @param platoId the id of the plato.
+ */
+public record PlatoNoCacheadoEvent(String platoId) implements Serializable {}
@@ -0,0 +1,24 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The price and the state of a plato of Inventario_Menu, as cached by {@link com.mycompany.myapp.service.PrecioPlatoCache}.
+ *
+ * @param id the id of the plato.
+ * @param precio the price of the plato.
+ * @param activo whether the plato can be ordered.
+ * @param fechaModificacion when the plato was last changed in Inventario_Menu, which orders the changes of a plato.
+ * @param eliminado whether the plato was deleted.
+ */
+public record PrecioPlatoDTO(String id, BigDecimal precio, boolean activo, Instant fechaModificacion, boolean eliminado)
+    implements Serializable {
+    /**
+     * Whether this state of the plato is older than another one.
+     */
+    public boolean isAnteriorA(PrecioPlatoDTO otro) {
+        return fechaModificacion != null && otro.fechaModificacion != null && fechaModificacion.isBefore(otro.fechaModificacion);
+    }
+}
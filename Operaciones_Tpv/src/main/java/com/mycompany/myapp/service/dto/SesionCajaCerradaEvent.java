@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The close of a {@link com.mycompany.myapp.domain.SesionCaja} asking for its verification, run once the close is committed.
+ *
+ * @param sesionCajaId the id of the session.
+ */
+public record SesionCajaCerradaEvent(Long sesionCajaId) implements Serializable {}
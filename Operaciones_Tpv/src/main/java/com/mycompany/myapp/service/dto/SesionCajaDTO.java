@@ -0,0 +1,92 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.SesionCaja;
+import com.mycompany.myapp.domain.SesionCajaTotal;
+import com.mycompany.myapp.domain.enumeration.EstadoSesionCaja;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.domain.enumeration.ResultadoVerificacion;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A session of the cash register with its running totals, as shown when it is closed.
+ *
+ * @param id the id of the session.
+ * @param estado the state of the session.
+ * @param fechaApertura when the session was opened.
+ * @param fechaCierre when the session was closed, {@code null} while it is open.
+ * @param numFacturas the number of facturas of the session.
+ * @param montoTotal the sum of the {@code montoTotal} of the facturas of the session.
+ * @param totales the totals by {@link MetodoPago}.
+ * @param verificacion the outcome of the last verification, {@code null} if the session was never verified.
+ * @param fechaVerificacion when the session was last verified.
+ * @param pedidosPendientes the pedidos of the session not {@code PAGADO} at the last verification.
+ */
+public record SesionCajaDTO(
+    Long id,
+    EstadoSesionCaja estado,
+    ZonedDateTime fechaApertura,
+    ZonedDateTime fechaCierre,
+    long numFacturas,
+    BigDecimal montoTotal,
+    List<Total> totales,
+    ResultadoVerificacion verificacion,
+    ZonedDateTime fechaVerificacion,
+    Long pedidosPendientes
+) implements Serializable {
+    /**
+     * The totals of one {@link MetodoPago}.
+     *
+     * @param metodoPago the payment method.
+     * @param numFacturas the running number of facturas.
+     * @param montoTotal the running amount.
+     * @param numFacturasVerificado the number of facturas recomputed by the last verification.
+     * @param montoTotalVerificado the amount recomputed by the last verification.
+     */
+    public record Total(
+        MetodoPago metodoPago,
+        long numFacturas,
+        BigDecimal montoTotal,
+        Long numFacturasVerificado,
+        BigDecimal montoTotalVerificado
+    ) implements Serializable {
+        /**
+         * @return whether the last verification found other figures than the running totals.
+         */
+        public boolean isDescuadre() {
+            return (
+                numFacturasVerificado != null &&
+                (numFacturas != numFacturasVerificado || montoTotal.compareTo(montoTotalVerificado) != 0)
+            );
+        }
+    }
+
+    public static SesionCajaDTO of(SesionCaja sesionCaja, List<SesionCajaTotal> totales) {
+        List<Total> porMetodo = totales
+            .stream()
+            .map(total ->
+                new Total(
+                    total.getId().getMetodoPago(),
+                    total.getNumFacturas(),
+                    total.getMontoTotal(),
+                    total.getNumFacturasVerificado(),
+                    total.getMontoTotalVerificado()
+                )
+            )
+            .toList();
+        return new SesionCajaDTO(
+            sesionCaja.getId(),
+            sesionCaja.getEstado(),
+            sesionCaja.getFechaApertura(),
+            sesionCaja.getFechaCierre(),
+            porMetodo.stream().mapToLong(Total::numFacturas).sum(),
+            porMetodo.stream().map(Total::montoTotal).reduce(BigDecimal.ZERO, BigDecimal::add),
+            porMetodo,
+            sesionCaja.getVerificacion(),
+            sesionCaja.getFechaVerificacion(),
+            sesionCaja.getPedidosPendientes()
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.VentaRollup;
+import com.mycompany.myapp.domain.enumeration.DimensionVenta;
+import com.mycompany.myapp.domain.enumeration.GranularidadVenta;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The sales of one period for one value of a dimension, as served to the dashboards.
+ *
+ * @param granularidad the length of the period.
+ * @param dimension the dimension the sales are broken down by.
+ * @param periodo the start of the period.
+ * @param clave the value of the dimension: the {@code MetodoPago}, the id of the mesa, or {@code *} for the total.
+ * @param numFacturas the number of facturas of the period.
+ * @param montoTotal the sum of the {@code montoTotal} of the facturas of the period.
+ */
+public record VentaRollupDTO(
+    GranularidadVenta granularidad,
+    DimensionVenta dimension,
+    Instant periodo,
+    String clave,
+    long numFacturas,
+    BigDecimal montoTotal
+) implements Serializable {
+    public static VentaRollupDTO of(VentaRollup ventaRollup) {
+        return new VentaRollupDTO(
+            ventaRollup.getId().getGranularidad(),
+            ventaRollup.getId().getDimension(),
+            ventaRollup.getId().getPeriodo(),
+            ventaRollup.getId().getClave(),
+            ventaRollup.getNumFacturas(),
+            ventaRollup.getMontoTotal()
+        );
+    }
+}
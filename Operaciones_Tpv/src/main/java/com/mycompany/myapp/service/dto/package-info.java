@@ -0,0 +1,4 @@
+/**
+ * Data transfer objects for rest mapping.
+ */
+package com.mycompany.myapp.service.dto;
@@ -0,0 +1,193 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.IdempotencyService;
+import com.mycompany.myapp.service.dto.IdempotentResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Filter honouring the {@code Idempotency-Key} header on the endpoints creating pedidos and facturas.
+ * <p>
+ * The successful response of the first request with a key is stored by the {@link IdempotencyService}, and returned as is to
+ * the retries with the same key, without running the request again. The filter runs outside of the transaction of the
+ * request, so only committed creations are stored.
+ * <p>
+ * A retry arriving while the first request is running waits for it; if it is still running after the lock timeout, the retry
+ * gets a {@code 409 (Conflict)}. Reusing a key for another body gets a {@code 422 (Unprocessable Entity)}.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Set<String> PATHS = Set.of("/api/pedidos", "/api/pedidos/completo", "/api/facturas");
+
+    private final IdempotencyService idempotencyService;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return (
+            !HttpMethod.POST.matches(request.getMethod()) ||
+            request.getHeader(IDEMPOTENCY_KEY_HEADER) == null ||
+            !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))
+        );
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + IDEMPOTENCY_KEY_HEADER);
+            return;
+        }
+        // Keys are scoped by user and endpoint, so a key cannot replay the response of another client
+        String clave =
+            SecurityUtils.getCurrentUserLogin().orElse("") + " " + request.getMethod() + " " + request.getRequestURI() + " " + key;
+        byte[] body = request.getInputStream().readAllBytes();
+        String huella = sha256(body);
+
+        if (!idempotencyService.lock(clave)) {
+            response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY_HEADER + " is in progress");
+            return;
+        }
+        try {
+            Optional<IdempotentResponse> stored;
+            try {
+                stored = idempotencyService.find(clave, huella);
+            } catch (IllegalStateException e) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), e.getMessage());
+                return;
+            }
+            if (stored.isPresent()) {
+                LOG.debug("Replaying the response of {} {} for Idempotency-Key : {}", request.getMethod(), request.getRequestURI(), key);
+                replay(stored.get(), response);
+                return;
+            }
+
+            ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(new CachedBodyRequest(request, body), responseWrapper);
+            if (HttpStatus.valueOf(responseWrapper.getStatus()).is2xxSuccessful()) {
+                idempotencyService.save(clave, store(huella, responseWrapper));
+            }
+            responseWrapper.copyBodyToResponse();
+        } finally {
+            idempotencyService.unlock(clave);
+        }
+    }
+
+    private static IdempotentResponse store(String huella, ContentCachingResponseWrapper response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            headers.put(name, new ArrayList<>(response.getHeaders(name)));
+        }
+        if (response.getContentType() != null) {
+            headers.put("Content-Type", List.of(response.getContentType()));
+        }
+        return new IdempotentResponse(huella, response.getStatus(), headers, response.getContentAsByteArray());
+    }
+
+    private static void replay(IdempotentResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The request with its body already read, so it can be read again by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
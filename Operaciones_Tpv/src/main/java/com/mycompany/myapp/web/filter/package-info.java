@@ -0,0 +1,4 @@
+/**
+ * Servlet filters.
+ */
+package com.mycompany.myapp.web.filter;
@@ -1,20 +1,32 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
 import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.repository.FacturaRepository.VentaFactura;
+import com.mycompany.myapp.service.FacturaExportService;
+import com.mycompany.myapp.service.OutboxService;
+import com.mycompany.myapp.service.SesionCajaService;
+import com.mycompany.myapp.service.VentaRollupService;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
@@ -22,6 +34,10 @@ import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Factura}.
+ * <p>
+ * Every change is applied to the sales rollups in the same transaction, see {@link VentaRollupService}. New facturas are
+ * written to the outbox as {@code FACTURA_EMITIDA} events, see {@link OutboxService}, and join the open cash register
+ * session, see {@link SesionCajaService}.
  */
 @RestController
 @RequestMapping("/api/facturas")
@@ -37,8 +53,26 @@ public class FacturaResource {
 
     private final FacturaRepository facturaRepository;
 
-    public FacturaResource(FacturaRepository facturaRepository) {
+    private final VentaRollupService ventaRollupService;
+
+    private final FacturaExportService facturaExportService;
+
+    private final OutboxService outboxService;
+
+    private final SesionCajaService sesionCajaService;
+
+    public FacturaResource(
+        FacturaRepository facturaRepository,
+        VentaRollupService ventaRollupService,
+        FacturaExportService facturaExportService,
+        OutboxService outboxService,
+        SesionCajaService sesionCajaService
+    ) {
         this.facturaRepository = facturaRepository;
+        this.ventaRollupService = ventaRollupService;
+        this.facturaExportService = facturaExportService;
+        this.outboxService = outboxService;
+        this.sesionCajaService = sesionCajaService;
     }
 
     /**
@@ -54,7 +88,10 @@ public class FacturaResource {
         if (factura.getId() != null) {
             throw new BadRequestAlertException("A new factura cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        sesionCajaService.asignarSesion(factura);
         factura = facturaRepository.save(factura);
+        ventaRollupService.actualizar(Map.of(), List.of(factura.getId()));
+        outboxService.facturaEmitida(factura);
         return ResponseEntity.created(new URI("/api/facturas/" + factura.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, factura.getId().toString()))
             .body(factura);
@@ -67,6 +104,7 @@ public class FacturaResource {
      * @param factura the factura to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated factura,
      * or with status {@code 400 (Bad Request)} if the factura is not valid,
+     * or with status {@code 409 (Conflict)} if the factura was modified since it was read,
      * or with status {@code 500 (Internal Server Error)} if the factura couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -82,12 +120,17 @@ public class FacturaResource {
         if (!Objects.equals(id, factura.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (factura.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
 
-        if (!facturaRepository.existsById(id)) {
+        Map<Long, VentaFactura> ventasAnteriores = ventaRollupService.leerVentas(List.of(id));
+        if (ventasAnteriores.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
         factura = facturaRepository.save(factura);
+        ventaRollupService.actualizar(ventasAnteriores, List.of());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, factura.getId().toString()))
             .body(factura);
@@ -100,6 +143,7 @@ public class FacturaResource {
      * @param factura the factura to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated factura,
      * or with status {@code 400 (Bad Request)} if the factura is not valid,
+     * or with status {@code 409 (Conflict)} if the factura was modified since it was read,
      * or with status {@code 404 (Not Found)} if the factura is not found,
      * or with status {@code 500 (Internal Server Error)} if the factura couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -117,13 +161,17 @@ public class FacturaResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!facturaRepository.existsById(id)) {
+        Map<Long, VentaFactura> ventasAnteriores = ventaRollupService.leerVentas(List.of(id));
+        if (ventasAnteriores.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
         Optional<Factura> result = facturaRepository
             .findById(factura.getId())
             .map(existingFactura -> {
+                if (factura.getVersion() != null && !factura.getVersion().equals(existingFactura.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Factura.class, id);
+                }
                 if (factura.getFechaFactura() != null) {
                     existingFactura.setFechaFactura(factura.getFechaFactura());
                 }
@@ -137,6 +185,7 @@ public class FacturaResource {
                 return existingFactura;
             })
             .map(facturaRepository::save);
+        ventaRollupService.actualizar(ventasAnteriores, List.of());
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -151,15 +200,45 @@ public class FacturaResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of facturas in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public List<Factura> getAllFacturas(@RequestParam(name = "filter", required = false) String filter) {
         if ("pedido-is-null".equals(filter)) {
             LOG.debug("REST request to get all Facturas where pedido is null");
-            return StreamSupport.stream(facturaRepository.findAll().spliterator(), false)
-                .filter(factura -> factura.getPedido() == null)
-                .toList();
+            return facturaRepository.findAllWherePedidoIsNull();
         }
         LOG.debug("REST request to get all Facturas");
-        return facturaRepository.findAll();
+        return facturaRepository.findAllWithPedido();
+    }
+
+    /**
+     * {@code GET  /facturas/export} : export the facturas of a period, ordered by date, written as they are read.
+     *
+     * @param formato the format of the export, {@code NDJSON} (one JSON object per line) or {@code CSV}.
+     * @param desde the start of the period, inclusive.
+     * @param hasta the end of the period, exclusive.
+     * @param metodoPago only export the facturas paid this way.
+     * @param response the response the export is written to, with status {@code 200 (OK)},
+     * or with status {@code 400 (Bad Request)} if the period is empty.
+     * @throws IOException if the export cannot be written.
+     */
+    @GetMapping("/export")
+    @Transactional(readOnly = true)
+    public void exportFacturas(
+        @RequestParam(name = "formato", defaultValue = "NDJSON") FacturaExportService.Formato formato,
+        @RequestParam(name = "desde") ZonedDateTime desde,
+        @RequestParam(name = "hasta") ZonedDateTime hasta,
+        @RequestParam(name = "metodoPago", required = false) MetodoPago metodoPago,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to export the Facturas from {} to {} as {}", desde, hasta, formato);
+        if (!desde.isBefore(hasta)) {
+            throw new BadRequestAlertException("The period must end after it starts", ENTITY_NAME, "rangeinvalid");
+        }
+        String extension = formato == FacturaExportService.Formato.CSV ? "csv" : "ndjson";
+        response.setContentType(formato == FacturaExportService.Formato.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        ContentDisposition contentDisposition = ContentDisposition.attachment().filename("facturas." + extension).build();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString());
+        facturaExportService.exportar(formato, desde, hasta, metodoPago, response.getOutputStream());
     }
 
     /**
@@ -169,6 +248,7 @@ public class FacturaResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the factura, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Factura> getFactura(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Factura : {}", id);
         Optional<Factura> factura = facturaRepository.findById(id);
@@ -184,7 +264,9 @@ public class FacturaResource {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteFactura(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete Factura : {}", id);
+        Map<Long, VentaFactura> ventasAnteriores = ventaRollupService.leerVentas(List.of(id));
         facturaRepository.deleteById(id);
+        ventaRollupService.actualizar(ventasAnteriores, List.of());
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
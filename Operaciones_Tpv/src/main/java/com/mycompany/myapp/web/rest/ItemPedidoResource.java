@@ -2,9 +2,14 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.ItemPedido;
 import com.mycompany.myapp.repository.ItemPedidoRepository;
+import com.mycompany.myapp.repository.PedidoRepository;
+import com.mycompany.myapp.service.PrecioPlatoCache;
+import com.mycompany.myapp.service.dto.PedidoFeedEvent;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -13,7 +18,9 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
@@ -21,6 +28,9 @@ import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.ItemPedido}.
+ * <p>
+ * A line is priced by the server, with the price of its plato when it was added to the pedido, see {@link PrecioPlatoCache}:
+ * a new line must order a plato, and the price sent by the client is ignored. The lines saved without plato keep their price.
  */
 @RestController
 @RequestMapping("/api/item-pedidos")
@@ -36,15 +46,29 @@ public class ItemPedidoResource {
 
     private final ItemPedidoRepository itemPedidoRepository;
 
-    public ItemPedidoResource(ItemPedidoRepository itemPedidoRepository) {
+    private final PedidoRepository pedidoRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final PrecioPlatoCache precioPlatoCache;
+
+    public ItemPedidoResource(
+        ItemPedidoRepository itemPedidoRepository,
+        PedidoRepository pedidoRepository,
+        ApplicationEventPublisher applicationEventPublisher,
+        PrecioPlatoCache precioPlatoCache
+    ) {
         this.itemPedidoRepository = itemPedidoRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.precioPlatoCache = precioPlatoCache;
     }
 
     /**
      * {@code POST  /item-pedidos} : Create a new itemPedido.
      *
      * @param itemPedido the itemPedido to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new itemPedido, or with status {@code 400 (Bad Request)} if the itemPedido has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new itemPedido, or with status {@code 400 (Bad Request)} if the itemPedido has already an ID, or if its plato is missing, unknown or not available.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
@@ -53,7 +77,13 @@ public class ItemPedidoResource {
         if (itemPedido.getId() != null) {
             throw new BadRequestAlertException("A new itemPedido cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        valorar(itemPedido);
+        copiarFechaPedido(itemPedido);
         itemPedido = itemPedidoRepository.save(itemPedido);
+        if (itemPedido.getPedido() != null) {
+            Long mesaId = pedidoRepository.findMesaIdById(itemPedido.getPedido().getId()).orElse(null);
+            applicationEventPublisher.publishEvent(PedidoFeedEvent.itemPedidoAgregado(itemPedido, mesaId));
+        }
         return ResponseEntity.created(new URI("/api/item-pedidos/" + itemPedido.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, itemPedido.getId().toString()))
             .body(itemPedido);
@@ -66,6 +96,7 @@ public class ItemPedidoResource {
      * @param itemPedido the itemPedido to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated itemPedido,
      * or with status {@code 400 (Bad Request)} if the itemPedido is not valid,
+     * or with status {@code 409 (Conflict)} if the itemPedido was modified since it was read,
      * or with status {@code 500 (Internal Server Error)} if the itemPedido couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -81,11 +112,16 @@ public class ItemPedidoResource {
         if (!Objects.equals(id, itemPedido.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
-
-        if (!itemPedidoRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (itemPedido.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
         }
 
+        ItemPedido anterior = itemPedidoRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+
+        valorar(itemPedido, anterior.getPlatoId(), anterior.getPrecioUnitario());
+        copiarFechaPedido(itemPedido);
         itemPedido = itemPedidoRepository.save(itemPedido);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, itemPedido.getId().toString()))
@@ -99,6 +135,7 @@ public class ItemPedidoResource {
      * @param itemPedido the itemPedido to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated itemPedido,
      * or with status {@code 400 (Bad Request)} if the itemPedido is not valid,
+     * or with status {@code 409 (Conflict)} if the itemPedido was modified since it was read,
      * or with status {@code 404 (Not Found)} if the itemPedido is not found,
      * or with status {@code 500 (Internal Server Error)} if the itemPedido couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -123,12 +160,22 @@ public class ItemPedidoResource {
         Optional<ItemPedido> result = itemPedidoRepository
             .findById(itemPedido.getId())
             .map(existingItemPedido -> {
+                if (itemPedido.getVersion() != null && !itemPedido.getVersion().equals(existingItemPedido.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(ItemPedido.class, id);
+                }
+                String platoIdAnterior = existingItemPedido.getPlatoId();
+                BigDecimal precioAnterior = existingItemPedido.getPrecioUnitario();
                 if (itemPedido.getCantidad() != null) {
                     existingItemPedido.setCantidad(itemPedido.getCantidad());
                 }
                 if (itemPedido.getPrecioUnitario() != null) {
                     existingItemPedido.setPrecioUnitario(itemPedido.getPrecioUnitario());
                 }
+                if (itemPedido.getPlatoId() != null) {
+                    existingItemPedido.setPlatoId(itemPedido.getPlatoId());
+                }
+                valorar(existingItemPedido, platoIdAnterior, precioAnterior);
+                copiarFechaPedido(existingItemPedido);
 
                 return existingItemPedido;
             })
@@ -146,6 +193,7 @@ public class ItemPedidoResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of itemPedidos in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public List<ItemPedido> getAllItemPedidos() {
         LOG.debug("REST request to get all ItemPedidos");
         return itemPedidoRepository.findAll();
@@ -158,6 +206,7 @@ public class ItemPedidoResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the itemPedido, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<ItemPedido> getItemPedido(@PathVariable("id") Long id) {
         LOG.debug("REST request to get ItemPedido : {}", id);
         Optional<ItemPedido> itemPedido = itemPedidoRepository.findById(id);
@@ -178,4 +227,65 @@ public class ItemPedidoResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * Price a new line from its plato, which must be available.
+     *
+     * @param itemPedido the line to price.
+     */
+    private void valorar(ItemPedido itemPedido) {
+        if (itemPedido.getPlatoId() == null) {
+            throw new BadRequestAlertException("A new line must order a plato", ENTITY_NAME, "platorequired");
+        }
+        valorar(itemPedido, null, null);
+    }
+
+    /**
+     * Price a changed line: a new plato must be available, and is priced from the cache, while a line keeps its price as long
+     * as its plato is unchanged. A line ordering a plato cannot drop it, and a line saved without plato cannot change its
+     * price, either of which would let the client set the price.
+     *
+     * @param itemPedido the line to price.
+     * @param platoIdAnterior the plato of the line before the change.
+     * @param precioAnterior the price of the line before the change.
+     */
+    private void valorar(ItemPedido itemPedido, String platoIdAnterior, BigDecimal precioAnterior) {
+        if (itemPedido.getPlatoId() == null) {
+            if (platoIdAnterior != null) {
+                throw new BadRequestAlertException("The plato of a line cannot be removed", ENTITY_NAME, "platorequired");
+            }
+            if (itemPedido.getPrecioUnitario() != null && itemPedido.getPrecioUnitario().compareTo(precioAnterior) != 0) {
+                throw new BadRequestAlertException("The price of a line without plato cannot be changed", ENTITY_NAME, "preciofijo");
+            }
+            itemPedido.setPrecioUnitario(precioAnterior);
+            return;
+        }
+        if (itemPedido.getPlatoId().equals(platoIdAnterior)) {
+            itemPedido.setPrecioUnitario(precioAnterior);
+            return;
+        }
+        PrecioPlatoDTO precio = precioPlatoCache
+            .findPrecio(itemPedido.getPlatoId())
+            .orElseThrow(() -> new BadRequestAlertException("Plato not found", ENTITY_NAME, "platonotfound"));
+        if (!precio.activo()) {
+            throw new BadRequestAlertException("Plato not available", ENTITY_NAME, "platoinactivo");
+        }
+        itemPedido.setPrecioUnitario(precio.precio());
+    }
+
+    /**
+     * Copy the {@code fechaPedido} of the pedido of the line, on which {@code item_pedido} is partitioned: the pedido sent by
+     * the client is just a reference, and the copy cached with the line is stale once the date of its pedido changed.
+     */
+    private void copiarFechaPedido(ItemPedido itemPedido) {
+        if (itemPedido.getPedido() != null) {
+            itemPedido.setFechaPedido(
+                pedidoRepository
+                    .findFechaPedidoById(itemPedido.getPedido().getId())
+                    .orElseThrow(() -> new BadRequestAlertException("Pedido not found", ENTITY_NAME, "pedidonotfound"))
+            );
+        } else if (itemPedido.getId() != null && itemPedido.getFechaPedido() == null) {
+            itemPedidoRepository.findFechaPedidoById(itemPedido.getId()).ifPresent(itemPedido::setFechaPedido);
+        }
+    }
 }
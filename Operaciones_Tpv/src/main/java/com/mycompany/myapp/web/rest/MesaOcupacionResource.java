@@ -0,0 +1,78 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import com.mycompany.myapp.service.MesaOcupacionService;
+import com.mycompany.myapp.service.dto.MesaOcupacionDTO;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.HeaderUtil;
+
+/**
+ * REST controller for the occupancy board of the mesas, see {@link MesaOcupacionService}.
+ */
+@RestController
+@RequestMapping("/api/mesas/ocupacion")
+public class MesaOcupacionResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MesaOcupacionResource.class);
+
+    private static final String ENTITY_NAME = "operacionesTpvMesa";
+
+    @Value("${jhipster.clientApp.name}")
+    private String applicationName;
+
+    private final MesaOcupacionService mesaOcupacionService;
+
+    public MesaOcupacionResource(MesaOcupacionService mesaOcupacionService) {
+        this.mesaOcupacionService = mesaOcupacionService;
+    }
+
+    /**
+     * {@code GET  /mesas/ocupacion} : get the state of every mesa.
+     *
+     * @return the state of the mesas, ordered by number, with status {@code 200 (OK)}.
+     */
+    @GetMapping("")
+    public MesaOcupacionDTO getOcupacion() {
+        LOG.debug("REST request to get the occupancy board");
+        return mesaOcupacionService.getOcupacion();
+    }
+
+    /**
+     * {@code PUT  /mesas/ocupacion/:numero} : change the state of a mesa, if it is in the expected state.
+     *
+     * @param numero the number of the mesa.
+     * @param esperado the state the mesa must be in.
+     * @param estado the new state of the mesa.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the new state,
+     * or with status {@code 409 (Conflict)} and with body the current state if the mesa is not in the expected state,
+     * or with status {@code 404 (Not Found)} if there is no mesa with this number.
+     */
+    @PutMapping("/{numero}")
+    public ResponseEntity<EstadoMesa> cambiarEstado(
+        @PathVariable("numero") int numero,
+        @RequestParam(name = "esperado") EstadoMesa esperado,
+        @RequestParam(name = "estado") EstadoMesa estado
+    ) {
+        LOG.debug("REST request to change the state of Mesa number {} from {} to {}", numero, esperado, estado);
+        Optional<EstadoMesa> anterior = mesaOcupacionService.cambiarEstado(numero, esperado, estado);
+        if (anterior.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (anterior.get() != esperado) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .headers(
+                    HeaderUtil.createFailureAlert(applicationName, true, ENTITY_NAME, "estadoconflict", "Mesa is " + anterior.get())
+                )
+                .body(anterior.get());
+        }
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, String.valueOf(numero)))
+            .body(estado);
+    }
+}
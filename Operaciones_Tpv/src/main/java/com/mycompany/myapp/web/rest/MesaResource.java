@@ -2,6 +2,7 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Mesa;
 import com.mycompany.myapp.repository.MesaRepository;
+import com.mycompany.myapp.service.dto.MesaOcupacionEvent;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -13,7 +14,9 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
@@ -21,6 +24,9 @@ import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Mesa}.
+ * <p>
+ * Changes are applied to the occupancy board once committed, see {@link com.mycompany.myapp.service.MesaOcupacionService};
+ * waiters flip the state of a mesa through {@link MesaOcupacionResource} instead.
  */
 @RestController
 @RequestMapping("/api/mesas")
@@ -36,8 +42,11 @@ public class MesaResource {
 
     private final MesaRepository mesaRepository;
 
-    public MesaResource(MesaRepository mesaRepository) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public MesaResource(MesaRepository mesaRepository, ApplicationEventPublisher applicationEventPublisher) {
         this.mesaRepository = mesaRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -54,6 +63,7 @@ public class MesaResource {
             throw new BadRequestAlertException("A new mesa cannot already have an ID", ENTITY_NAME, "idexists");
         }
         mesa = mesaRepository.save(mesa);
+        applicationEventPublisher.publishEvent(MesaOcupacionEvent.guardada(mesa));
         return ResponseEntity.created(new URI("/api/mesas/" + mesa.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, mesa.getId().toString()))
             .body(mesa);
@@ -66,6 +76,7 @@ public class MesaResource {
      * @param mesa the mesa to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated mesa,
      * or with status {@code 400 (Bad Request)} if the mesa is not valid,
+     * or with status {@code 409 (Conflict)} if the mesa was modified since it was read,
      * or with status {@code 500 (Internal Server Error)} if the mesa couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -79,12 +90,17 @@ public class MesaResource {
         if (!Objects.equals(id, mesa.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (mesa.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
 
         if (!mesaRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        mesa = mesaRepository.save(mesa);
+        // Flushed, so the event carries the version the update gave the mesa
+        mesa = mesaRepository.saveAndFlush(mesa);
+        applicationEventPublisher.publishEvent(MesaOcupacionEvent.guardada(mesa));
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, mesa.getId().toString()))
             .body(mesa);
@@ -97,6 +113,7 @@ public class MesaResource {
      * @param mesa the mesa to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated mesa,
      * or with status {@code 400 (Bad Request)} if the mesa is not valid,
+     * or with status {@code 409 (Conflict)} if the mesa was modified since it was read,
      * or with status {@code 404 (Not Found)} if the mesa is not found,
      * or with status {@code 500 (Internal Server Error)} if the mesa couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -121,6 +138,9 @@ public class MesaResource {
         Optional<Mesa> result = mesaRepository
             .findById(mesa.getId())
             .map(existingMesa -> {
+                if (mesa.getVersion() != null && !mesa.getVersion().equals(existingMesa.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Mesa.class, id);
+                }
                 if (mesa.getNumero() != null) {
                     existingMesa.setNumero(mesa.getNumero());
                 }
@@ -133,7 +153,8 @@ public class MesaResource {
 
                 return existingMesa;
             })
-            .map(mesaRepository::save);
+            .map(mesaRepository::saveAndFlush);
+        result.ifPresent(updatedMesa -> applicationEventPublisher.publishEvent(MesaOcupacionEvent.guardada(updatedMesa)));
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -147,6 +168,7 @@ public class MesaResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of mesas in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public List<Mesa> getAllMesas() {
         LOG.debug("REST request to get all Mesas");
         return mesaRepository.findAll();
@@ -159,6 +181,7 @@ public class MesaResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the mesa, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Mesa> getMesa(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Mesa : {}", id);
         Optional<Mesa> mesa = mesaRepository.findById(id);
@@ -175,6 +198,7 @@ public class MesaResource {
     public ResponseEntity<Void> deleteMesa(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete Mesa : {}", id);
         mesaRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(MesaOcupacionEvent.eliminada(id));
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
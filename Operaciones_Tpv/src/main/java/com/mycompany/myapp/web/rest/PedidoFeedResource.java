@@ -0,0 +1,61 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.PedidoFeedService;
+import com.mycompany.myapp.service.dto.PedidoFeedEvent;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller streaming the live feed of {@link com.mycompany.myapp.domain.Pedido} changes as server-sent events.
+ */
+@RestController
+@RequestMapping("/api/pedidos/feed")
+public class PedidoFeedResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PedidoFeedResource.class);
+
+    private final PedidoFeedService pedidoFeedService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public PedidoFeedResource(PedidoFeedService pedidoFeedService, ApplicationProperties applicationProperties) {
+        this.pedidoFeedService = pedidoFeedService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * {@code GET  /pedidos/feed} : stream the pedido creations, state changes and item additions as they are committed.
+     * <p>
+     * Each event carries its feed id; a client reconnecting with the standard {@code Last-Event-ID} header receives the
+     * events it missed, as long as they are still in the feed buffer of this instance. Otherwise it first receives a
+     * {@code RECARGAR} event, telling it to reload the pedidos.
+     *
+     * @param mesaId only stream the events of this mesa.
+     * @param lastEventId the id of the last event received by the client.
+     * @return the {@link SseEmitter} streaming the events.
+     */
+    @GetMapping(value = "", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPedidoFeed(
+        @RequestParam(name = "mesaId", required = false) Long mesaId,
+        @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        LOG.debug("REST request to stream the Pedido feed for mesa {} after event {}", mesaId, lastEventId);
+        SseEmitter emitter = new SseEmitter(applicationProperties.getPedidoFeed().getEmitterTimeout().toMillis());
+        PedidoFeedService.Subscription subscription = pedidoFeedService.subscribe(mesaId, lastEventId, event ->
+            send(emitter, pedidoFeedService.eventId(event.id()), event)
+        );
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, String id, PedidoFeedEvent event) throws IOException {
+        emitter.send(SseEmitter.event().id(id).name(event.tipo().name()).data(event, MediaType.APPLICATION_JSON));
+    }
+}
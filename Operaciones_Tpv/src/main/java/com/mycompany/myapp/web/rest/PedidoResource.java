@@ -1,26 +1,56 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.domain.ItemPedido;
 import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.repository.FacturaRepository.VentaFactura;
 import com.mycompany.myapp.repository.PedidoRepository;
+import com.mycompany.myapp.service.OutboxService;
+import com.mycompany.myapp.service.PedidoService;
+import com.mycompany.myapp.service.PrecioPlatoCache;
+import com.mycompany.myapp.service.VentaRollupService;
+import com.mycompany.myapp.service.dto.PedidoFeedEvent;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Pedido}.
+ * <p>
+ * A pedido attributes its factura to its mesa, so the sales rollups are updated whenever the factura or the mesa of a pedido
+ * changes, see {@link VentaRollupService}.
  */
 @RestController
 @RequestMapping("/api/pedidos")
@@ -31,13 +61,47 @@ public class PedidoResource {
 
     private static final String ENTITY_NAME = "operacionesTpvPedido";
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String CURSOR_SEPARATOR = "_";
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final PedidoRepository pedidoRepository;
 
-    public PedidoResource(PedidoRepository pedidoRepository) {
+    private final PedidoService pedidoService;
+
+    private final VentaRollupService ventaRollupService;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final OutboxService outboxService;
+
+    private final PrecioPlatoCache precioPlatoCache;
+
+    public PedidoResource(
+        PedidoRepository pedidoRepository,
+        PedidoService pedidoService,
+        VentaRollupService ventaRollupService,
+        Validator validator,
+        ApplicationEventPublisher applicationEventPublisher,
+        OutboxService outboxService,
+        PrecioPlatoCache precioPlatoCache
+    ) {
         this.pedidoRepository = pedidoRepository;
+        this.pedidoService = pedidoService;
+        this.ventaRollupService = ventaRollupService;
+        this.validator = validator;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.outboxService = outboxService;
+        this.precioPlatoCache = precioPlatoCache;
     }
 
     /**
@@ -53,7 +117,64 @@ public class PedidoResource {
         if (pedido.getId() != null) {
             throw new BadRequestAlertException("A new pedido cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        Map<Long, VentaFactura> ventasAnteriores = ventaRollupService.leerVentas(Arrays.asList(facturaIdOf(pedido)));
         pedido = pedidoRepository.save(pedido);
+        ventaRollupService.actualizar(ventasAnteriores, List.of());
+        applicationEventPublisher.publishEvent(PedidoFeedEvent.pedidoCreado(pedido));
+        outboxService.pedidoCreado(pedido);
+        return ResponseEntity.created(new URI("/api/pedidos/" + pedido.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, pedido.getId().toString()))
+            .body(pedido);
+    }
+
+    /**
+     * {@code POST  /pedidos/completo} : Create a new pedido together with all its lines, in a single transaction.
+     * <p>
+     * The factura of the pedido is created too when it has no ID. Each line must order a plato, and is priced with the cached
+     * price of the plato, see {@link PrecioPlatoCache}.
+     *
+     * @param pedido the pedido to create, with its {@code itemPedidos}.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new pedido and its lines,
+     * or with status {@code 400 (Bad Request)} if the pedido or one of its lines has already an ID, if a line is not valid, or if
+     * the plato of a line is missing, unknown or not available.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/completo")
+    public ResponseEntity<Pedido> createPedidoCompleto(@Valid @RequestBody Pedido pedido) throws URISyntaxException {
+        LOG.debug("REST request to save Pedido with its lines : {}", pedido);
+        if (pedido.getId() != null) {
+            throw new BadRequestAlertException("A new pedido cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        if (pedido.getItemPedidos() == null || pedido.getItemPedidos().isEmpty()) {
+            throw new BadRequestAlertException("A new pedido must have at least one itemPedido", ENTITY_NAME, "itempedidosempty");
+        }
+        for (ItemPedido itemPedido : pedido.getItemPedidos()) {
+            if (itemPedido.getId() != null) {
+                throw new BadRequestAlertException("A new itemPedido cannot already have an ID", ENTITY_NAME, "idexists");
+            }
+            if (itemPedido.getPlatoId() == null) {
+                throw new BadRequestAlertException("A new line must order a plato", ENTITY_NAME, "platorequired");
+            }
+            PrecioPlatoDTO precio = precioPlatoCache
+                .findPrecio(itemPedido.getPlatoId())
+                .orElseThrow(() -> new BadRequestAlertException("Plato not found", ENTITY_NAME, "platonotfound"));
+            if (!precio.activo()) {
+                throw new BadRequestAlertException("Plato not available", ENTITY_NAME, "platoinactivo");
+            }
+            itemPedido.setPrecioUnitario(precio.precio());
+            if (!validator.validate(itemPedido).isEmpty()) {
+                throw new BadRequestAlertException("Invalid itemPedido", ENTITY_NAME, "itempedidoinvalid");
+            }
+        }
+
+        Map<Long, VentaFactura> ventasAnteriores = ventaRollupService.leerVentas(Arrays.asList(facturaIdOf(pedido)));
+        pedido = pedidoService.saveCompleto(pedido);
+        ventaRollupService.actualizar(ventasAnteriores, Arrays.asList(facturaIdOf(pedido)));
+        applicationEventPublisher.publishEvent(PedidoFeedEvent.pedidoCreado(pedido));
+        Long mesaId = pedido.getMesa() == null ? null : pedido.getMesa().getId();
+        for (ItemPedido itemPedido : pedido.getItemPedidos()) {
+            applicationEventPublisher.publishEvent(PedidoFeedEvent.itemPedidoAgregado(itemPedido, mesaId));
+        }
         return ResponseEntity.created(new URI("/api/pedidos/" + pedido.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, pedido.getId().toString()))
             .body(pedido);
@@ -66,6 +187,7 @@ public class PedidoResource {
      * @param pedido the pedido to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated pedido,
      * or with status {@code 400 (Bad Request)} if the pedido is not valid,
+     * or with status {@code 409 (Conflict)} if the pedido was modified since it was read,
      * or with status {@code 500 (Internal Server Error)} if the pedido couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -81,12 +203,23 @@ public class PedidoResource {
         if (!Objects.equals(id, pedido.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
-
-        if (!pedidoRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (pedido.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
         }
 
+        EstadoPedido estadoAnterior = pedidoRepository
+            .findEstadoById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        Map<Long, VentaFactura> ventasAnteriores = ventaRollupService.leerVentas(
+            Arrays.asList(pedidoRepository.findFacturaIdById(id).orElse(null), facturaIdOf(pedido))
+        );
+
         pedido = pedidoRepository.save(pedido);
+        ventaRollupService.actualizar(ventasAnteriores, List.of());
+        if (pedido.getEstado() != estadoAnterior) {
+            applicationEventPublisher.publishEvent(PedidoFeedEvent.pedidoEstadoCambiado(pedido));
+            outboxService.pedidoEstadoCambiado(pedido);
+        }
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, pedido.getId().toString()))
             .body(pedido);
@@ -99,6 +232,7 @@ public class PedidoResource {
      * @param pedido the pedido to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated pedido,
      * or with status {@code 400 (Bad Request)} if the pedido is not valid,
+     * or with status {@code 409 (Conflict)} if the pedido was modified since it was read,
      * or with status {@code 404 (Not Found)} if the pedido is not found,
      * or with status {@code 500 (Internal Server Error)} if the pedido couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -116,13 +250,16 @@ public class PedidoResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!pedidoRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        EstadoPedido estadoAnterior = pedidoRepository
+            .findEstadoById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
 
         Optional<Pedido> result = pedidoRepository
             .findById(pedido.getId())
             .map(existingPedido -> {
+                if (pedido.getVersion() != null && !pedido.getVersion().equals(existingPedido.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Pedido.class, id);
+                }
                 if (pedido.getFechaPedido() != null) {
                     existingPedido.setFechaPedido(pedido.getFechaPedido());
                 }
@@ -133,6 +270,12 @@ public class PedidoResource {
                 return existingPedido;
             })
             .map(pedidoRepository::save);
+        result
+            .filter(updatedPedido -> updatedPedido.getEstado() != estadoAnterior)
+            .ifPresent(updatedPedido -> {
+                applicationEventPublisher.publishEvent(PedidoFeedEvent.pedidoEstadoCambiado(updatedPedido));
+                outboxService.pedidoEstadoCambiado(updatedPedido);
+            });
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -141,26 +284,127 @@ public class PedidoResource {
     }
 
     /**
-     * {@code GET  /pedidos} : get all the pedidos.
+     * {@code PUT  /pedidos/:id/estado} : change the state of a pedido, if it is in the expected state.
+     * <p>
+     * Conflicting changes of the pedido are retried with its current version, see {@link PedidoService#cambiarEstado}; a
+     * {@code 409 (Conflict)} is only returned when the pedido is not in the expected state anymore.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pedidos in body.
+     * @param id the id of the pedido.
+     * @param esperado the state the pedido must be in.
+     * @param estado the new state of the pedido.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the new state,
+     * or with status {@code 409 (Conflict)} and with body the current state if the pedido is not in the expected state,
+     * or with status {@code 404 (Not Found)} if the pedido is not found.
+     */
+    @PutMapping("/{id}/estado")
+    // Not transactional itself, so that each attempt of the transition runs in its own transaction
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ResponseEntity<EstadoPedido> cambiarEstadoPedido(
+        @PathVariable("id") Long id,
+        @RequestParam(name = "esperado") EstadoPedido esperado,
+        @RequestParam(name = "estado") EstadoPedido estado
+    ) {
+        LOG.debug("REST request to change the state of Pedido {} from {} to {}", id, esperado, estado);
+        Optional<EstadoPedido> anterior = pedidoService.cambiarEstado(id, esperado, estado);
+        if (anterior.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (anterior.get() != esperado) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .headers(
+                    HeaderUtil.createFailureAlert(applicationName, true, ENTITY_NAME, "estadoconflict", "Pedido is " + anterior.get())
+                )
+                .body(anterior.get());
+        }
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+            .body(estado);
+    }
+
+    /**
+     * {@code GET  /pedidos} : get a page of the pedidos, newest first.
+     * <p>
+     * Pages are located with a keyset cursor over {@code (fechaPedido, id)} instead of an offset, so every page costs the
+     * same whatever the size of the table. The cursor of the next page is returned in the {@code X-Next-Cursor} header and as a
+     * {@code next} link in the {@code Link} header; both are absent on the last page.
+     *
+     * @param estado only return the pedidos in this state.
+     * @param mesaId only return the pedidos of this mesa.
+     * @param desde only return the pedidos taken at or after this date.
+     * @param hasta only return the pedidos taken before this date.
+     * @param cursor the cursor returned with the previous page, absent for the first page.
+     * @param size the maximum number of pedidos in the page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pedidos in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the size is not valid.
      */
     @GetMapping("")
-    public List<Pedido> getAllPedidos() {
-        LOG.debug("REST request to get all Pedidos");
-        return pedidoRepository.findAll();
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Pedido>> getAllPedidos(
+        @RequestParam(name = "estado", required = false) EstadoPedido estado,
+        @RequestParam(name = "mesaId", required = false) Long mesaId,
+        @RequestParam(name = "desde", required = false) ZonedDateTime desde,
+        @RequestParam(name = "hasta", required = false) ZonedDateTime hasta,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size
+    ) {
+        LOG.debug("REST request to get a page of Pedidos after cursor {}", cursor);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Page size must be between 1 and " + MAX_PAGE_SIZE, ENTITY_NAME, "sizeinvalid");
+        }
+        ZonedDateTime afterFechaPedido = null;
+        Long afterId = null;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            afterFechaPedido = ZonedDateTime.ofInstant(Instant.parse(position[0]), ZoneOffset.UTC);
+            afterId = Long.valueOf(position[1]);
+        }
+
+        // Fetch one extra row to know whether there is a next page without counting
+        List<Pedido> pedidos = pedidoRepository.findKeysetPage(estado, mesaId, desde, hasta, afterFechaPedido, afterId, size + 1);
+        HttpHeaders headers = new HttpHeaders();
+        if (pedidos.size() > size) {
+            pedidos = pedidos.subList(0, size);
+            String nextCursor = encodeCursor(pedidos.get(size - 1));
+            String nextPage = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("size", size)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"");
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return ResponseEntity.ok().headers(headers).body(pedidos);
+    }
+
+    /**
+     * {@code GET  /pedidos/abiertos} : get a page of the open pedidos of a mesa, with their lines.
+     *
+     * @param mesaId the id of the mesa.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pedidos in body.
+     */
+    @GetMapping("/abiertos")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Pedido>> getPedidosAbiertos(
+        @RequestParam(name = "mesaId") Long mesaId,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of open Pedidos of Mesa : {}", mesaId);
+        Page<Pedido> page = pedidoService.findAbiertosWithItemPedidosByMesa(mesaId, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
     /**
      * {@code GET  /pedidos/:id} : get the "id" pedido.
      *
      * @param id the id of the pedido to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the pedido, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the pedido with its factura and mesa, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Pedido> getPedido(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Pedido : {}", id);
-        Optional<Pedido> pedido = pedidoRepository.findById(id);
+        Optional<Pedido> pedido = pedidoRepository.findOneWithFacturaAndMesaById(id);
         return ResponseUtil.wrapOrNotFound(pedido);
     }
 
@@ -173,9 +417,36 @@ public class PedidoResource {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePedido(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete Pedido : {}", id);
+        Map<Long, VentaFactura> ventasAnteriores = ventaRollupService.leerVentas(
+            Arrays.asList(pedidoRepository.findFacturaIdById(id).orElse(null))
+        );
         pedidoRepository.deleteById(id);
+        ventaRollupService.actualizar(ventasAnteriores, List.of());
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private static Long facturaIdOf(Pedido pedido) {
+        return pedido.getFactura() == null ? null : pedido.getFactura().getId();
+    }
+
+    private static String encodeCursor(Pedido pedido) {
+        String position = pedido.getFechaPedido().toInstant() + CURSOR_SEPARATOR + pedido.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(CURSOR_SEPARATOR);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            Instant.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.PrecioPlatoCache;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller receiving the changes of the platos of Inventario_Menu, see {@link PrecioPlatoCache}.
+ */
+@RestController
+@RequestMapping("/api/admin/precios-plato")
+public class PrecioPlatoResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrecioPlatoResource.class);
+
+    private final PrecioPlatoCache precioPlatoCache;
+
+    public PrecioPlatoResource(PrecioPlatoCache precioPlatoCache) {
+        this.precioPlatoCache = precioPlatoCache;
+    }
+
+    /**
+     * {@code POST  /admin/precios-plato} : apply the changes of platos notified by Inventario_Menu.
+     *
+     * @param cambios the platos after their change.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("")
+    public ResponseEntity<Void> recibirPreciosPlato(@RequestBody List<PrecioPlatoDTO> cambios) {
+        LOG.debug("REST request to apply the changes of {} Platos", cambios.size());
+        precioPlatoCache.recibir(cambios);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * {@code POST  /admin/precios-plato/resincronizacion} : read every plato from Inventario_Menu again.
+     *
+     * @return the number of platos read, with status {@code 200 (OK)}.
+     */
+    @PostMapping("/resincronizacion")
+    public int resincronizarPreciosPlato() {
+        LOG.debug("REST request to read every Plato again");
+        return precioPlatoCache.resincronizar();
+    }
+}
@@ -0,0 +1,108 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.SesionCajaService;
+import com.mycompany.myapp.service.dto.SesionCajaDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller opening, closing and verifying the cash register sessions, see {@link SesionCajaService}.
+ */
+@RestController
+@RequestMapping("/api/sesiones-caja")
+public class SesionCajaResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SesionCajaResource.class);
+
+    private static final String ENTITY_NAME = "operacionesTpvSesionCaja";
+
+    @Value("${jhipster.clientApp.name}")
+    private String applicationName;
+
+    private final SesionCajaService sesionCajaService;
+
+    public SesionCajaResource(SesionCajaService sesionCajaService) {
+        this.sesionCajaService = sesionCajaService;
+    }
+
+    /**
+     * {@code POST  /sesiones-caja} : Open a new session.
+     *
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new session, or with status
+     * {@code 400 (Bad Request)} if a session is open already.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("")
+    public ResponseEntity<SesionCajaDTO> abrirSesionCaja() throws URISyntaxException {
+        LOG.debug("REST request to open a SesionCaja");
+        SesionCajaDTO result = sesionCajaService
+            .abrir()
+            .orElseThrow(() -> new BadRequestAlertException("A session is open already", ENTITY_NAME, "sesionabierta"));
+        return ResponseEntity.created(new URI("/api/sesiones-caja/" + result.id()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.id().toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code GET  /sesiones-caja/abierta} : get the open session.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the open session and its running totals,
+     * or with status {@code 404 (Not Found)} if no session is open.
+     */
+    @GetMapping("/abierta")
+    public ResponseEntity<SesionCajaDTO> getSesionCajaAbierta() {
+        LOG.debug("REST request to get the open SesionCaja");
+        return ResponseUtil.wrapOrNotFound(sesionCajaService.findAbierta());
+    }
+
+    /**
+     * {@code GET  /sesiones-caja/:id} : get the "id" session.
+     *
+     * @param id the id of the session to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the session and its totals, or with status
+     * {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<SesionCajaDTO> getSesionCaja(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get SesionCaja : {}", id);
+        return ResponseUtil.wrapOrNotFound(sesionCajaService.findOne(id));
+    }
+
+    /**
+     * {@code POST  /sesiones-caja/:id/cierre} : close the "id" session.
+     *
+     * @param id the id of the session to close.
+     * @param verificar whether to verify the totals of the session in the background once it is closed.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the closed session and its totals, or with
+     * status {@code 404 (Not Found)}.
+     */
+    @PostMapping("/{id}/cierre")
+    public ResponseEntity<SesionCajaDTO> cerrarSesionCaja(
+        @PathVariable("id") Long id,
+        @RequestParam(name = "verificar", defaultValue = "false") boolean verificar
+    ) {
+        LOG.debug("REST request to close SesionCaja : {}", id);
+        return ResponseUtil.wrapOrNotFound(sesionCajaService.cerrar(id, verificar));
+    }
+
+    /**
+     * {@code POST  /sesiones-caja/:id/verificacion} : recompute the totals of the "id" session from its facturas.
+     *
+     * @param id the id of the session to verify.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the session with its running and
+     * recomputed totals, or with status {@code 404 (Not Found)}.
+     */
+    @PostMapping("/{id}/verificacion")
+    public ResponseEntity<SesionCajaDTO> verificarSesionCaja(@PathVariable("id") Long id) {
+        LOG.debug("REST request to verify SesionCaja : {}", id);
+        return ResponseUtil.wrapOrNotFound(sesionCajaService.verificar(id));
+    }
+}
@@ -0,0 +1,72 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.domain.enumeration.DimensionVenta;
+import com.mycompany.myapp.domain.enumeration.GranularidadVenta;
+import com.mycompany.myapp.service.VentaRollupService;
+import com.mycompany.myapp.service.dto.VentaRollupDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller serving the sales dashboards from the pre-aggregated {@link com.mycompany.myapp.domain.VentaRollup}s.
+ */
+@RestController
+@RequestMapping("/api")
+public class VentaRollupResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaRollupResource.class);
+
+    private static final String ENTITY_NAME = "operacionesTpvVentaRollup";
+
+    private static final long MAX_PERIODOS = 1000;
+
+    private final VentaRollupService ventaRollupService;
+
+    public VentaRollupResource(VentaRollupService ventaRollupService) {
+        this.ventaRollupService = ventaRollupService;
+    }
+
+    /**
+     * {@code GET  /ventas/rollups} : get the sales of the periods starting in a range.
+     *
+     * @param granularidad the length of the periods.
+     * @param dimension the dimension the sales are broken down by.
+     * @param desde the start of the range, inclusive.
+     * @param hasta the end of the range, exclusive.
+     * @return the list of sales per period, with status {@code 200 (OK)},
+     * or with status {@code 400 (Bad Request)} if the range is empty or covers more than {@value #MAX_PERIODOS} periods.
+     */
+    @GetMapping("/ventas/rollups")
+    public List<VentaRollupDTO> getVentaRollups(
+        @RequestParam(name = "granularidad", defaultValue = "DIA") GranularidadVenta granularidad,
+        @RequestParam(name = "dimension", defaultValue = "TOTAL") DimensionVenta dimension,
+        @RequestParam(name = "desde") ZonedDateTime desde,
+        @RequestParam(name = "hasta") ZonedDateTime hasta
+    ) {
+        LOG.debug("REST request to get the {} sales rollups by {} from {} to {}", granularidad, dimension, desde, hasta);
+        if (!desde.isBefore(hasta)) {
+            throw new BadRequestAlertException("The range must end after it starts", ENTITY_NAME, "rangeinvalid");
+        }
+        Duration periodo = granularidad == GranularidadVenta.HORA ? Duration.ofHours(1) : Duration.ofDays(1);
+        if (Duration.between(desde, hasta).dividedBy(periodo) > MAX_PERIODOS) {
+            throw new BadRequestAlertException("The range covers more than " + MAX_PERIODOS + " periods", ENTITY_NAME, "rangetoolarge");
+        }
+        return ventaRollupService.findRollups(granularidad, dimension, desde.toInstant(), hasta.toInstant());
+    }
+
+    /**
+     * {@code POST  /admin/ventas/rollups/reconstruir} : recompute the sales rollups from the facturas.
+     *
+     * @return the number of facturas read, with status {@code 200 (OK)}.
+     */
+    @PostMapping("/admin/ventas/rollups/reconstruir")
+    public long reconstruirVentaRollups() {
+        LOG.debug("REST request to rebuild the sales rollups");
+        return ventaRollupService.reconstruir();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.HazelcastInstance;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.ItemPedido;
+import com.mycompany.myapp.domain.Mesa;
+import com.mycompany.myapp.domain.Pedido;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the Hibernate second level cache regions of the {@link CacheConfiguration}.
+ */
+@IntegrationTest
+class CacheConfigurationIT {
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void eachRegionHasItsOwnMapConfig() {
+        regiones().forEach((name, region) -> {
+            MapConfig mapConfig = hazelcastInstance.getConfig().getMapConfig(name);
+            assertThat(mapConfig.getName()).isEqualTo(name);
+            assertThat(mapConfig.getBackupCount()).isEqualTo(region.getBackupCount());
+            assertThat(mapConfig.getTimeToLiveSeconds()).isEqualTo(region.getTimeToLive().toSeconds());
+            EvictionConfig evictionConfig = mapConfig.getEvictionConfig();
+            assertThat(evictionConfig.getEvictionPolicy()).isEqualTo(region.getEvictionPolicy());
+            assertThat(evictionConfig.getMaxSizePolicy()).isEqualTo(MaxSizePolicy.PER_NODE);
+            assertThat(evictionConfig.getSize()).isEqualTo(region.getMaxSize());
+            if (region.isNearCache()) {
+                assertThat(mapConfig.getNearCacheConfig()).isNotNull();
+                assertThat(mapConfig.getNearCacheConfig().isInvalidateOnChange()).isTrue();
+                assertThat(mapConfig.getNearCacheConfig().getTimeToLiveSeconds()).isEqualTo(mapConfig.getTimeToLiveSeconds());
+            } else {
+                assertThat(mapConfig.getNearCacheConfig()).isNull();
+            }
+        });
+    }
+
+    @Test
+    void otherRegionsKeepTheDomainConfig() {
+        String name = "com.mycompany.myapp.domain.Otra";
+        MapConfig domainConfig = hazelcastInstance.getConfig().getMapConfig("com.mycompany.myapp.domain.*");
+
+        assertThat(hazelcastInstance.getConfig().getMapConfig(name).getTimeToLiveSeconds()).isEqualTo(domainConfig.getTimeToLiveSeconds());
+    }
+
+    @Test
+    void eachRegionPublishesItsCacheMeters() {
+        regiones()
+            .keySet()
+            .forEach(name -> {
+                String[] tags = { "cache", name, "cache.manager", CacheConfiguration.HIBERNATE_CACHE_MANAGER };
+                assertThat(meterRegistry.find("cache.gets").tags(tags).tag("result", "hit").meter()).isNotNull();
+                assertThat(meterRegistry.find("cache.gets").tags(tags).tag("result", "miss").meter()).isNotNull();
+                assertThat(meterRegistry.find("cache.puts").tags(tags).meter()).isNotNull();
+                assertThat(meterRegistry.find("cache.size").tags(tags).meter()).isNotNull();
+                assertThat(meterRegistry.find("cache.evictions").tags(tags).functionCounter()).isNotNull();
+            });
+    }
+
+    private Map<String, ApplicationProperties.HibernateCache.Region> regiones() {
+        ApplicationProperties.HibernateCache hibernateCache = applicationProperties.getHibernateCache();
+        return Map.of(
+            Mesa.class.getName(),
+            hibernateCache.getMesa(),
+            Pedido.class.getName(),
+            hibernateCache.getPedido(),
+            Pedido.class.getName() + ".itemPedidos",
+            hibernateCache.getPedidoItemPedidos(),
+            ItemPedido.class.getName(),
+            hibernateCache.getItemPedido(),
+            Factura.class.getName(),
+            hibernateCache.getFactura()
+        );
+    }
+}
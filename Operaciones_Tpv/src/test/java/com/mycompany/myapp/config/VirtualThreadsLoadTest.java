@@ -0,0 +1,176 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load test comparing the request handling on the worker thread pool and on virtual threads, see
+ * {@link VirtualThreadsConfiguration}.
+ * <p>
+ * It only runs against two running instances of a service, started without and with the {@code virtual-threads} profile,
+ * for instance:
+ * <pre>
+ * ./mvnw test -Dtest=VirtualThreadsLoadTest -Dloadtest.token=... \
+ *     -Dloadtest.pools-url=http://localhost:8081/api/pedidos -Dloadtest.virtual-url=http://localhost:8091/api/pedidos
+ * </pre>
+ * Each instance is sent the same closed workload: {@code loadtest.concurrency} clients send their next request as soon as
+ * the previous one completed, for {@code loadtest.duration} after a {@code loadtest.warmup}. A client whose request was
+ * rejected with a {@code 503} by the request limit waits {@code loadtest.backoff} before its next one. The throughput and the
+ * 50th and 99th percentiles of the latency of the requests served are logged for both, and the rejected requests with their
+ * own percentiles, so that the fast rejections do not flatter the latency of the others.
+ */
+@EnabledIfSystemProperty(named = "loadtest.pools-url", matches = ".+")
+@EnabledIfSystemProperty(named = "loadtest.virtual-url", matches = ".+")
+class VirtualThreadsLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsLoadTest.class);
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+
+    private final Duration backoff = Duration.parse(System.getProperty("loadtest.backoff", "PT0.1S"));
+
+    private final String token = System.getProperty("loadtest.token");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void compareThroughputAndLatency() throws Exception {
+        Resultado pools = cargar(URI.create(System.getProperty("loadtest.pools-url")));
+        Resultado virtual = cargar(URI.create(System.getProperty("loadtest.virtual-url")));
+
+        LOG.info("{} clients for {}", concurrency, duration);
+        LOG.info("worker pool     : {}", pools);
+        LOG.info("virtual threads : {}", virtual);
+        assertThat(pools.errores()).as("failed requests on the worker pool").isZero();
+        assertThat(virtual.errores()).as("failed requests on virtual threads").isZero();
+    }
+
+    private Resultado cargar(URI uri) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = builder.build();
+        ejecutar(request, warmup);
+        return ejecutar(request, duration);
+    }
+
+    private Resultado ejecutar(HttpRequest request, Duration duracion) throws Exception {
+        ExecutorService clientes = Executors.newFixedThreadPool(concurrency);
+        try {
+            long fin = System.nanoTime() + duracion.toNanos();
+            List<Future<Resultado>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clientes.submit(() -> cliente(request, fin)));
+            }
+            Resultado total = new Resultado(new long[0], new long[0], 0, duracion);
+            for (Future<Resultado> future : futures) {
+                total = total.sumar(future.get());
+            }
+            return total;
+        } finally {
+            clientes.shutdownNow();
+        }
+    }
+
+    private Resultado cliente(HttpRequest request, long fin) throws InterruptedException {
+        Latencias latencias = new Latencias();
+        Latencias rechazadas = new Latencias();
+        long errores = 0;
+        while (System.nanoTime() < fin) {
+            long inicio = System.nanoTime();
+            int status;
+            try {
+                status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                errores++;
+                continue;
+            }
+            if (status == 503) {
+                rechazadas.add(System.nanoTime() - inicio);
+                // Retrying at once would only be rejected again, and flood the instance with rejections
+                Thread.sleep(backoff.toMillis());
+            } else if (status >= 400) {
+                errores++;
+            } else {
+                latencias.add(System.nanoTime() - inicio);
+            }
+        }
+        return new Resultado(latencias.toArray(), rechazadas.toArray(), errores, null);
+    }
+
+    private static final class Latencias {
+
+        private long[] valores = new long[1024];
+
+        private int size;
+
+        void add(long latencia) {
+            if (size == valores.length) {
+                valores = Arrays.copyOf(valores, size * 2);
+            }
+            valores[size++] = latencia;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(valores, size);
+        }
+    }
+
+    private record Resultado(long[] latencias, long[] rechazadas, long errores, Duration duracion) {
+        Resultado sumar(Resultado otro) {
+            return new Resultado(concat(latencias, otro.latencias), concat(rechazadas, otro.rechazadas), errores + otro.errores, duracion);
+        }
+
+        private static long[] concat(long[] unas, long[] otras) {
+            long[] todas = Arrays.copyOf(unas, unas.length + otras.length);
+            System.arraycopy(otras, 0, todas, unas.length, otras.length);
+            return todas;
+        }
+
+        private static double percentilMillis(long[] latencias, double percentil) {
+            if (latencias.length == 0) {
+                return Double.NaN;
+            }
+            long[] ordenadas = latencias.clone();
+            Arrays.sort(ordenadas);
+            int index = (int) Math.ceil(percentil / 100 * ordenadas.length) - 1;
+            return ordenadas[Math.max(index, 0)] / 1_000_000d;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%.1f req/s, p50 %.1f ms, p99 %.1f ms, %d rejected (p50 %.1f ms, p99 %.1f ms), %d failed",
+                latencias.length / (duracion.toMillis() / 1000d),
+                percentilMillis(latencias, 50),
+                percentilMillis(latencias, 99),
+                rechazadas.length,
+                percentilMillis(rechazadas, 50),
+                percentilMillis(rechazadas, 99),
+                errores
+            );
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import com.mycompany.myapp.repository.MesaRepository;
+import com.mycompany.myapp.repository.MesaRepository.OcupacionMesa;
+import com.mycompany.myapp.service.dto.MesaOcupacionDTO;
+import com.mycompany.myapp.service.dto.MesaOcupacionEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionOperations;
+
+class MesaOcupacionServiceTest {
+
+    private static final int WAITERS = 8;
+
+    private MeterRegistry meterRegistry;
+
+    private MesaRepository mesaRepository;
+
+    private MesaOcupacionService mesaOcupacionService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        mesaRepository = mock(MesaRepository.class);
+        when(mesaRepository.findAllOcupacion()).thenReturn(
+            List.of(mesa(10L, 1, EstadoMesa.LIBRE), mesa(20L, 2, EstadoMesa.LIBRE), mesa(30L, 3, EstadoMesa.RESERVADA))
+        );
+        when(mesaRepository.updateEstadoByIdAndVersion(anyLong(), anyLong(), any())).thenReturn(1);
+        mesaOcupacionService = new MesaOcupacionService(mesaRepository, TransactionOperations.withoutTransaction(), meterRegistry);
+        executor = Executors.newFixedThreadPool(WAITERS);
+    }
+
+    @AfterEach
+    void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testOnlyOneWaiterSeatsAFreeMesa() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<EstadoMesa>>> results = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(
+                executor.submit(() -> {
+                    start.await();
+                    return mesaOcupacionService.cambiarEstado(1, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+                })
+            );
+        }
+        start.countDown();
+
+        int seated = 0;
+        for (Future<Optional<EstadoMesa>> result : results) {
+            if (result.get().orElseThrow() == EstadoMesa.LIBRE) {
+                seated++;
+            }
+        }
+        assertThat(seated).isEqualTo(1);
+        assertThat(mesaOcupacionService.getEstado(1)).contains(EstadoMesa.OCUPADA);
+        assertThat(transitionsCount("applied")).isEqualTo(1);
+        assertThat(transitionsCount("rejected")).isEqualTo(WAITERS - 1);
+    }
+
+    @Test
+    void testSnapshotListsEveryMesaByNumber() {
+        mesaOcupacionService.cambiarEstado(2, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+
+        MesaOcupacionDTO ocupacion = mesaOcupacionService.getOcupacion();
+
+        assertThat(ocupacion.numeros()).containsExactly(1, 2, 3);
+        assertThat(ocupacion.estados()).containsExactly(EstadoMesa.LIBRE, EstadoMesa.OCUPADA, EstadoMesa.RESERVADA);
+    }
+
+    @Test
+    void testChangesAreWrittenBehindUnderTheirVersion() {
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+        mesaOcupacionService.cambiarEstado(2, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+        mesaOcupacionService.cambiarEstado(3, EstadoMesa.RESERVADA, EstadoMesa.LIBRE);
+
+        mesaOcupacionService.escribirCambios();
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.OCUPADA, EstadoMesa.LIBRE);
+        mesaOcupacionService.escribirCambios();
+
+        verify(mesaRepository).updateEstadoByIdAndVersion(10L, 0L, EstadoMesa.OCUPADA);
+        verify(mesaRepository).updateEstadoByIdAndVersion(20L, 0L, EstadoMesa.OCUPADA);
+        verify(mesaRepository).updateEstadoByIdAndVersion(30L, 0L, EstadoMesa.LIBRE);
+        verify(mesaRepository).updateEstadoByIdAndVersion(10L, 1L, EstadoMesa.LIBRE);
+        verify(mesaRepository, times(4)).updateEstadoByIdAndVersion(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testFailedWriteIsRetried() {
+        when(mesaRepository.updateEstadoByIdAndVersion(anyLong(), anyLong(), any()))
+            .thenThrow(new QueryTimeoutException("timeout"))
+            .thenReturn(1);
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+
+        mesaOcupacionService.escribirCambios();
+        mesaOcupacionService.escribirCambios();
+
+        verify(mesaRepository, times(2)).updateEstadoByIdAndVersion(10L, 0L, EstadoMesa.OCUPADA);
+    }
+
+    @Test
+    void testMesaChangedMeanwhileKeepsTheFirstCommittedState() {
+        when(mesaRepository.updateEstadoByIdAndVersion(10L, 0L, EstadoMesa.OCUPADA)).thenReturn(0);
+        when(mesaRepository.findAllOcupacionByIdIn(Set.of(10L))).thenReturn(List.of(mesa(10L, 1, EstadoMesa.RESERVADA, 1L)));
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+
+        mesaOcupacionService.escribirCambios();
+
+        assertThat(mesaOcupacionService.getEstado(1)).contains(EstadoMesa.RESERVADA);
+        assertThat(transitionsCount("conflict")).isEqualTo(1);
+
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.RESERVADA, EstadoMesa.OCUPADA);
+        mesaOcupacionService.escribirCambios();
+
+        verify(mesaRepository).updateEstadoByIdAndVersion(10L, 1L, EstadoMesa.OCUPADA);
+    }
+
+    @Test
+    void testMesaChangesKeepPendingTransitions() {
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+
+        mesaOcupacionService.onMesaChange(new MesaOcupacionEvent(40L, 4, EstadoMesa.LIBRE, 0L));
+        mesaOcupacionService.onMesaChange(MesaOcupacionEvent.eliminada(20L));
+        mesaOcupacionService.escribirCambios();
+
+        assertThat(mesaOcupacionService.getOcupacion().numeros()).containsExactly(1, 3, 4);
+        assertThat(mesaOcupacionService.getEstado(1)).contains(EstadoMesa.OCUPADA);
+        verify(mesaRepository).updateEstadoByIdAndVersion(10L, 0L, EstadoMesa.OCUPADA);
+    }
+
+    @Test
+    void testMesaChangeOfAPendingTransitionKeepsItUnderTheNewVersion() {
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+
+        // A stale PUT of the mesa, committed before the transition was written
+        mesaOcupacionService.onMesaChange(new MesaOcupacionEvent(10L, 1, EstadoMesa.LIBRE, 1L));
+        mesaOcupacionService.escribirCambios();
+
+        assertThat(mesaOcupacionService.getEstado(1)).contains(EstadoMesa.OCUPADA);
+        verify(mesaRepository).updateEstadoByIdAndVersion(10L, 1L, EstadoMesa.OCUPADA);
+    }
+
+    @Test
+    void testMesaChangeWithoutPendingTransitionIsApplied() {
+        mesaOcupacionService.getOcupacion();
+
+        mesaOcupacionService.onMesaChange(new MesaOcupacionEvent(30L, 3, EstadoMesa.OCUPADA, 1L));
+        mesaOcupacionService.escribirCambios();
+        mesaOcupacionService.cambiarEstado(3, EstadoMesa.OCUPADA, EstadoMesa.LIBRE);
+        mesaOcupacionService.escribirCambios();
+
+        verify(mesaRepository).updateEstadoByIdAndVersion(30L, 1L, EstadoMesa.LIBRE);
+        verify(mesaRepository, times(1)).updateEstadoByIdAndVersion(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testRefreshShowsTheChangesOfTheOtherInstances() {
+        mesaOcupacionService.cambiarEstado(1, EstadoMesa.LIBRE, EstadoMesa.OCUPADA);
+        when(mesaRepository.findAllOcupacion()).thenReturn(
+            List.of(
+                mesa(10L, 1, EstadoMesa.LIBRE, 0L),
+                mesa(20L, 2, EstadoMesa.OCUPADA, 1L),
+                mesa(30L, 3, EstadoMesa.RESERVADA, 0L),
+                mesa(40L, 4, EstadoMesa.LIBRE, 0L)
+            )
+        );
+
+        mesaOcupacionService.sincronizar();
+        mesaOcupacionService.escribirCambios();
+
+        assertThat(mesaOcupacionService.getOcupacion().numeros()).containsExactly(1, 2, 3, 4);
+        assertThat(mesaOcupacionService.getOcupacion().estados()).containsExactly(
+            EstadoMesa.OCUPADA,
+            EstadoMesa.OCUPADA,
+            EstadoMesa.RESERVADA,
+            EstadoMesa.LIBRE
+        );
+        verify(mesaRepository).updateEstadoByIdAndVersion(10L, 0L, EstadoMesa.OCUPADA);
+        verify(mesaRepository, times(1)).updateEstadoByIdAndVersion(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testUnknownMesaReloadsTheBoardOnce() {
+        assertThat(mesaOcupacionService.cambiarEstado(99, EstadoMesa.LIBRE, EstadoMesa.OCUPADA)).isEmpty();
+
+        // Once to load the board, once more looking for the unknown mesa
+        verify(mesaRepository, times(2)).findAllOcupacion();
+        verify(mesaRepository, never()).updateEstadoByIdAndVersion(anyLong(), anyLong(), eq(EstadoMesa.OCUPADA));
+    }
+
+    private double transitionsCount(String outcome) {
+        return meterRegistry
+            .get(MesaOcupacionService.TRANSITIONS_METER_NAME)
+            .tag(MesaOcupacionService.TRANSITIONS_METER_OUTCOME_DIMENSION, outcome)
+            .counter()
+            .count();
+    }
+
+    private static OcupacionMesa mesa(Long id, Integer numero, EstadoMesa estado) {
+        return mesa(id, numero, estado, 0L);
+    }
+
+    private static OcupacionMesa mesa(Long id, Integer numero, EstadoMesa estado, Long version) {
+        return new OcupacionMesa() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getNumero() {
+                return numero;
+            }
+
+            @Override
+            public EstadoMesa getEstado() {
+                return estado;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
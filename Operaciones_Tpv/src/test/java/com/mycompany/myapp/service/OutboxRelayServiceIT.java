@@ -0,0 +1,154 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.domain.enumeration.TipoEventoDominio;
+import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.repository.OutboxCursorRepository;
+import com.mycompany.myapp.repository.OutboxEventoRepository;
+import com.mycompany.myapp.service.dto.EventoDominio;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Integration tests for the {@link OutboxService} and the {@link OutboxRelayService}.
+ * <p>
+ * Events are only relayed once their transaction has committed, so the tests are not run in a test transaction.
+ */
+@IntegrationTest
+@RecordApplicationEvents
+class OutboxRelayServiceIT {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRelayService outboxRelayService;
+
+    @Autowired
+    private OutboxEventoRepository outboxEventoRepository;
+
+    @Autowired
+    private OutboxCursorRepository outboxCursorRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private EntityManager em;
+
+    private final List<Long> facturaIds = new ArrayList<>();
+
+    @BeforeEach
+    void initTest() {
+        // Move the cursors past the events committed by the other tests
+        outboxRelayService.relay();
+        applicationEvents.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        facturaRepository.deleteAllById(facturaIds);
+    }
+
+    @Test
+    void committedEventsAreRelayedOnceInOrder() {
+        Factura primera = emitirFactura();
+        Factura segunda = emitirFactura();
+
+        assertThat(outboxRelayService.relay()).isEqualTo(2);
+
+        assertThat(applicationEvents.stream(EventoDominio.class))
+            .extracting(EventoDominio::tipo, EventoDominio::agregadoId)
+            .containsExactly(
+                tuple(TipoEventoDominio.FACTURA_EMITIDA, primera.getId()),
+                tuple(TipoEventoDominio.FACTURA_EMITIDA, segunda.getId())
+            );
+        assertThat(applicationEvents.stream(EventoDominio.class).findFirst().orElseThrow().payload())
+            .contains("\"facturaId\":" + primera.getId())
+            .contains("\"metodoPago\":\"EFECTIVO\"");
+
+        applicationEvents.clear();
+        assertThat(outboxRelayService.relay()).isZero();
+        assertThat(applicationEvents.stream(EventoDominio.class)).isEmpty();
+    }
+
+    @Test
+    void rolledBackEventsAreNotRelayed() {
+        transactionOperations.executeWithoutResult(status -> {
+            Factura factura = facturaRepository.save(newFactura());
+            outboxService.facturaEmitida(factura);
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxRelayService.relay()).isZero();
+        assertThat(applicationEvents.stream(EventoDominio.class)).isEmpty();
+    }
+
+    @Test
+    void purgeKeepsTheEventsWithinTheRetention() {
+        emitirFactura();
+        outboxRelayService.relay();
+        long eventos = outboxEventoRepository.count();
+
+        // Retention is 7 days by default: nothing is old enough yet
+        assertThat(outboxRelayService.purgar()).isZero();
+        assertThat(outboxEventoRepository.count()).isEqualTo(eventos);
+        assertThat(outboxCursorRepository.findById(ApplicationEventOutboxSink.NAME)).isPresent();
+    }
+
+    @Test
+    void purgeKeepsTheEventsNotReceivedByEveryCursor() {
+        emitirFactura();
+        outboxRelayService.relay();
+        transactionOperations.executeWithoutResult(status -> {
+            em.createNativeQuery("update outbox_evento set fecha_creacion = fecha_creacion - interval '30 days'").executeUpdate();
+            // The cursor of a sink only configured in another version of the service, which received no event yet
+            outboxCursorRepository.createIfAbsent("otra-version");
+        });
+        long eventos = outboxEventoRepository.count();
+
+        try {
+            assertThat(outboxRelayService.purgar()).isZero();
+            assertThat(outboxEventoRepository.count()).isEqualTo(eventos);
+        } finally {
+            outboxCursorRepository.deleteById("otra-version");
+        }
+        assertThat(outboxRelayService.purgar()).isPositive();
+        assertThat(outboxEventoRepository.count()).isLessThan(eventos);
+    }
+
+    private Factura emitirFactura() {
+        Factura factura = transactionOperations.execute(status -> {
+            Factura saved = facturaRepository.save(newFactura());
+            outboxService.facturaEmitida(saved);
+            return saved;
+        });
+        facturaIds.add(factura.getId());
+        return factura;
+    }
+
+    private static Factura newFactura() {
+        return new Factura().fechaFactura(ZonedDateTime.now()).montoTotal(BigDecimal.TEN).metodoPago(MetodoPago.EFECTIVO);
+    }
+}
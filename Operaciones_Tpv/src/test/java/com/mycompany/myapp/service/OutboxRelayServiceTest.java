@@ -0,0 +1,180 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.OutboxCursor;
+import com.mycompany.myapp.domain.OutboxEvento;
+import com.mycompany.myapp.domain.enumeration.TipoEventoDominio;
+import com.mycompany.myapp.repository.OutboxCursorRepository;
+import com.mycompany.myapp.repository.OutboxEventoRepository;
+import com.mycompany.myapp.service.dto.EventoDominio;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionOperations;
+
+class OutboxRelayServiceTest {
+
+    private static final String SINK = "test";
+
+    private MeterRegistry meterRegistry;
+
+    private OutboxEventoRepository outboxEventoRepository;
+
+    private OutboxCursorRepository outboxCursorRepository;
+
+    private OutboxCursor cursor;
+
+    private final List<List<Long>> lotes = new ArrayList<>();
+
+    private int fallos;
+
+    private OutboxRelayService outboxRelayService;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxEventoRepository = mock(OutboxEventoRepository.class);
+        outboxCursorRepository = mock(OutboxCursorRepository.class);
+        cursor = new OutboxCursor();
+        cursor.setSink(SINK);
+        cursor.setUltimaTransaccion(0L);
+        cursor.setUltimoEventoId(0L);
+        when(outboxCursorRepository.findBySinkSkipLocked(SINK)).thenReturn(Optional.of(cursor));
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getOutbox().setBatchSize(2);
+        outboxRelayService = new OutboxRelayService(
+            outboxEventoRepository,
+            outboxCursorRepository,
+            List.of(new TestSink()),
+            TransactionOperations.withoutTransaction(),
+            applicationProperties,
+            meterRegistry
+        );
+    }
+
+    @Test
+    void testEventsAreDeliveredInBatchesAndTheCursorMoves() {
+        OutboxEvento uno = evento(100L, 1L, Instant.now());
+        OutboxEvento dos = evento(100L, 2L, Instant.now());
+        OutboxEvento tres = evento(101L, 3L, Instant.now());
+        when(outboxEventoRepository.findSiguientes(0L, 0L, 2)).thenReturn(List.of(uno, dos));
+        when(outboxEventoRepository.findSiguientes(100L, 2L, 1)).thenReturn(List.of(tres));
+        when(outboxEventoRepository.findSiguientes(100L, 2L, 2)).thenReturn(List.of(tres));
+
+        assertThat(outboxRelayService.relay()).isEqualTo(3);
+
+        assertThat(lotes).containsExactly(List.of(1L, 2L), List.of(3L));
+        assertThat(cursor.getUltimaTransaccion()).isEqualTo(101L);
+        assertThat(cursor.getUltimoEventoId()).isEqualTo(3L);
+        assertThat(eventsCount("delivered")).isEqualTo(3);
+        assertThat(lag()).isZero();
+        verify(outboxCursorRepository).createIfAbsent(SINK);
+    }
+
+    @Test
+    void testAFailedBatchIsDeliveredAgain() {
+        OutboxEvento uno = evento(100L, 1L, Instant.now().minus(1, ChronoUnit.MINUTES));
+        when(outboxEventoRepository.findSiguientes(0L, 0L, 2)).thenReturn(List.of(uno));
+        fallos = 1;
+
+        assertThat(outboxRelayService.relay()).isZero();
+        assertThat(cursor.getUltimoEventoId()).isZero();
+        assertThat(eventsCount("failed")).isEqualTo(1);
+        assertThat(lag()).isGreaterThanOrEqualTo(60);
+
+        assertThat(outboxRelayService.relay()).isEqualTo(1);
+        assertThat(lotes).containsExactly(List.of(1L), List.of(1L));
+        assertThat(cursor.getUltimoEventoId()).isEqualTo(1L);
+        assertThat(eventsCount("delivered")).isEqualTo(1);
+    }
+
+    @Test
+    void testASinkRelayedByAnotherInstanceIsSkipped() {
+        when(outboxCursorRepository.findBySinkSkipLocked(SINK)).thenReturn(Optional.empty());
+        when(outboxCursorRepository.findById(SINK)).thenReturn(Optional.of(cursor));
+        when(outboxEventoRepository.findSiguientes(0L, 0L, 1)).thenReturn(
+            List.of(evento(100L, 1L, Instant.now().minus(1, ChronoUnit.MINUTES)))
+        );
+
+        assertThat(outboxRelayService.relay()).isZero();
+
+        assertThat(lotes).isEmpty();
+        verify(outboxEventoRepository, never()).findSiguientes(anyLong(), anyLong(), eq(2));
+        assertThat(lag()).isGreaterThanOrEqualTo(60);
+    }
+
+    @Test
+    void testPurgeCreatesTheMissingCursorsFirst() {
+        when(outboxEventoRepository.deleteRecibidos(any(), eq(Set.of(SINK)), eq(1L))).thenReturn(3);
+
+        assertThat(outboxRelayService.purgar()).isEqualTo(3);
+
+        InOrder inOrder = inOrder(outboxCursorRepository, outboxEventoRepository);
+        inOrder.verify(outboxCursorRepository).createIfAbsent(SINK);
+        inOrder.verify(outboxEventoRepository).deleteRecibidos(any(), eq(Set.of(SINK)), eq(1L));
+    }
+
+    private static OutboxEvento evento(Long transaccion, Long id, Instant fechaCreacion) {
+        OutboxEvento evento = new OutboxEvento()
+            .tipo(TipoEventoDominio.PEDIDO_CREADO)
+            .agregadoId(id)
+            .payload("{}")
+            .fechaCreacion(fechaCreacion);
+        evento.setId(id);
+        evento.setTransaccion(transaccion);
+        return evento;
+    }
+
+    private double eventsCount(String outcome) {
+        return meterRegistry
+            .get(OutboxRelayService.EVENTS_METER_NAME)
+            .tag(OutboxRelayService.SINK_DIMENSION, SINK)
+            .tag(OutboxRelayService.OUTCOME_DIMENSION, outcome)
+            .counter()
+            .count();
+    }
+
+    private double lag() {
+        return meterRegistry
+            .get(OutboxRelayService.LAG_METER_NAME)
+            .tag(OutboxRelayService.SINK_DIMENSION, SINK)
+            .timeGauge()
+            .value(TimeUnit.SECONDS);
+    }
+
+    private class TestSink implements OutboxSink {
+
+        @Override
+        public String getName() {
+            return SINK;
+        }
+
+        @Override
+        public void entregar(List<EventoDominio> eventos) {
+            lotes.add(eventos.stream().map(EventoDominio::id).toList());
+            if (fallos > 0) {
+                fallos--;
+                throw new IllegalStateException("Sink unavailable");
+            }
+        }
+    }
+}
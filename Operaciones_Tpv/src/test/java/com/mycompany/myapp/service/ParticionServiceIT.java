@@ -0,0 +1,91 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.repository.ParticionRepository;
+import com.mycompany.myapp.repository.ParticionRepository.Particion;
+import jakarta.persistence.EntityManager;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link ParticionService}.
+ * <p>
+ * Partition DDL is transactional in PostgreSQL: the test transaction rolls the archival back.
+ */
+@IntegrationTest
+@Transactional
+class ParticionServiceIT {
+
+    @Autowired
+    private ParticionService particionService;
+
+    @Autowired
+    private ParticionRepository particionRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void partitionsOfTheComingMonthsExist() {
+        particionService.crearParticiones();
+
+        YearMonth ultimo = YearMonth.now(ZoneOffset.UTC).plusMonths(3);
+        for (String tabla : ParticionService.TABLAS) {
+            assertThat(particionRepository.findParticiones(tabla))
+                .extracting(Particion::nombre)
+                .contains(ParticionRepository.nombreParticionMensual(tabla, ultimo), tabla + "_default");
+        }
+        // Nothing left to create
+        assertThat(particionService.crearParticiones()).isEmpty();
+    }
+
+    @Test
+    void queriesOfAMonthOnlyReadItsPartition() {
+        YearMonth mes = YearMonth.now(ZoneOffset.UTC);
+
+        String plan = explain(
+            "select id from factura where fecha_factura >= '" + mes.atDay(1) + "' and fecha_factura < '" + mes.plusMonths(1).atDay(1) + "'"
+        );
+
+        assertThat(plan).contains(ParticionRepository.nombreParticionMensual("factura", mes)).doesNotContain("factura_default");
+        assertThat(plan).doesNotContain(ParticionRepository.nombreParticionMensual("factura", mes.plusMonths(1)));
+    }
+
+    @Test
+    void expiredPartitionsAreMovedToTheArchiveSchema() {
+        Particion anteriores = particionRepository
+            .findParticiones("pedido")
+            .stream()
+            .filter(particion -> particion.nombre().startsWith("pedido_hasta_"))
+            .findFirst()
+            .orElseThrow();
+
+        List<String> archivadas = particionService.archivar(anteriores.hasta());
+
+        assertThat(archivadas).containsExactly(
+            "item_pedido" + anteriores.nombre().substring("pedido".length()),
+            anteriores.nombre(),
+            "factura" + anteriores.nombre().substring("pedido".length())
+        );
+        assertThat(particionRepository.findParticiones("pedido")).extracting(Particion::nombre).doesNotContain(anteriores.nombre());
+        assertThat(
+            em
+                .createNativeQuery("select count(*) from pg_tables where schemaname = ?1 and tablename = ?2")
+                .setParameter(1, ParticionRepository.ARCHIVE_SCHEMA)
+                .setParameter(2, anteriores.nombre())
+                .getSingleResult()
+        ).isEqualTo(1L);
+    }
+
+    private String explain(String query) {
+        @SuppressWarnings("unchecked")
+        List<String> plan = em.createNativeQuery("explain " + query).getResultList();
+        return String.join("\n", plan);
+    }
+}
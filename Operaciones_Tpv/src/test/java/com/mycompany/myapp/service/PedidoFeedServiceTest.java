@@ -0,0 +1,150 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.service.dto.PedidoFeedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PedidoFeedServiceTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private MeterRegistry meterRegistry;
+
+    private PedidoFeedService pedidoFeedService;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        pedidoFeedService = new PedidoFeedService(BUFFER_SIZE, Runnable::run, meterRegistry);
+    }
+
+    @Test
+    void testSubscribersReceiveNewEventsOfTheirMesa() {
+        List<PedidoFeedEvent> all = new ArrayList<>();
+        List<PedidoFeedEvent> mesa1 = new ArrayList<>();
+        pedidoFeedService.subscribe(null, null, all::add);
+        pedidoFeedService.subscribe(1L, null, mesa1::add);
+
+        pedidoFeedService.onPedidoChange(change(10L, 1L));
+        pedidoFeedService.onPedidoChange(change(11L, 2L));
+
+        assertThat(all).extracting(PedidoFeedEvent::id).containsExactly(1L, 2L);
+        assertThat(mesa1).extracting(PedidoFeedEvent::pedidoId).containsExactly(10L);
+        assertThat(pedidoFeedService.getSubscriberCount()).isEqualTo(2);
+        assertThat(meterRegistry.get(PedidoFeedService.SUBSCRIBERS_METER_NAME).gauge().value()).isEqualTo(2);
+        assertThat(eventsCount("published")).isEqualTo(2);
+    }
+
+    @Test
+    void testResumingSubscriberReceivesMissedEvents() {
+        for (long i = 0; i < 3; i++) {
+            pedidoFeedService.onPedidoChange(change(i, 1L));
+        }
+
+        List<PedidoFeedEvent> received = new ArrayList<>();
+        pedidoFeedService.subscribe(null, pedidoFeedService.eventId(1L), received::add);
+        pedidoFeedService.onPedidoChange(change(3L, 1L));
+
+        assertThat(received).extracting(PedidoFeedEvent::id).containsExactly(2L, 3L, 4L);
+        assertThat(received).extracting(PedidoFeedEvent::timestamp).doesNotContainNull();
+        assertThat(eventsCount("dropped")).isZero();
+    }
+
+    @Test
+    void testResumingAfterEvictedEventsCountsThemAsDropped() {
+        for (long i = 0; i < BUFFER_SIZE + 2; i++) {
+            pedidoFeedService.onPedidoChange(change(i, 1L));
+        }
+
+        List<PedidoFeedEvent> received = new ArrayList<>();
+        pedidoFeedService.subscribe(1L, pedidoFeedService.eventId(0L), received::add);
+
+        assertThat(received).extracting(PedidoFeedEvent::id).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(received.get(0).tipo()).isEqualTo(PedidoFeedEvent.Tipo.RECARGAR);
+        assertThat(eventsCount("dropped")).isEqualTo(2);
+    }
+
+    @Test
+    void testResumingFromAnotherEpochReloads() {
+        for (long i = 0; i < 3; i++) {
+            pedidoFeedService.onPedidoChange(change(i, 1L));
+        }
+        PedidoFeedService restarted = new PedidoFeedService(BUFFER_SIZE, Runnable::run, meterRegistry);
+        restarted.onPedidoChange(change(3L, 1L));
+
+        List<PedidoFeedEvent> received = new ArrayList<>();
+        restarted.subscribe(null, pedidoFeedService.eventId(3L), received::add);
+        restarted.onPedidoChange(change(4L, 1L));
+
+        assertThat(received)
+            .extracting(PedidoFeedEvent::tipo)
+            .containsExactly(PedidoFeedEvent.Tipo.RECARGAR, PedidoFeedEvent.Tipo.PEDIDO_CREADO);
+        assertThat(received).extracting(PedidoFeedEvent::id).containsExactly(1L, 2L);
+        assertThat(received.get(1).pedidoId()).isEqualTo(4L);
+    }
+
+    @Test
+    void testResumingFromAnUnknownEventReloads() {
+        pedidoFeedService.onPedidoChange(change(1L, 1L));
+
+        for (String lastEventId : List.of(pedidoFeedService.eventId(2L), "2", "")) {
+            List<PedidoFeedEvent> received = new ArrayList<>();
+            pedidoFeedService.subscribe(null, lastEventId, received::add).cancel();
+
+            assertThat(received).extracting(PedidoFeedEvent::tipo).containsExactly(PedidoFeedEvent.Tipo.RECARGAR);
+            assertThat(received).extracting(PedidoFeedEvent::id).containsExactly(1L);
+        }
+    }
+
+    @Test
+    void testFailingSubscriberIsRemoved() {
+        pedidoFeedService.subscribe(null, null, event -> {
+            throw new IOException("Broken pipe");
+        });
+
+        pedidoFeedService.onPedidoChange(change(1L, 1L));
+
+        assertThat(pedidoFeedService.getSubscriberCount()).isZero();
+        assertThat(eventsCount("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void testCancelledSubscriberReceivesNothing() {
+        List<PedidoFeedEvent> received = new ArrayList<>();
+        pedidoFeedService.subscribe(null, null, received::add).cancel();
+
+        pedidoFeedService.onPedidoChange(change(1L, 1L));
+
+        assertThat(received).isEmpty();
+        assertThat(pedidoFeedService.getSubscriberCount()).isZero();
+    }
+
+    private double eventsCount(String outcome) {
+        return meterRegistry
+            .get(PedidoFeedService.EVENTS_METER_NAME)
+            .tag(PedidoFeedService.EVENTS_METER_OUTCOME_DIMENSION, outcome)
+            .counter()
+            .count();
+    }
+
+    private static PedidoFeedEvent change(Long pedidoId, Long mesaId) {
+        return new PedidoFeedEvent(
+            0,
+            PedidoFeedEvent.Tipo.PEDIDO_CREADO,
+            pedidoId,
+            mesaId,
+            EstadoPedido.EN_PREPARACION,
+            null,
+            Instant.now()
+        );
+    }
+}
@@ -0,0 +1,127 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.ItemPedido;
+import com.mycompany.myapp.domain.Mesa;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.repository.PedidoRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the fetch plans of {@link PedidoService} and {@link PedidoRepository}, asserting the number of SQL
+ * statements through the Hibernate statistics.
+ */
+@IntegrationTest
+@Transactional
+class PedidoServiceIT {
+
+    private static final int PEDIDOS = 5;
+
+    private static final int LINES = 3;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ObjectMapper om;
+
+    private Statistics statistics;
+
+    private Mesa mesa;
+
+    private Pedido pedido;
+
+    @BeforeEach
+    void setup() {
+        mesa = new Mesa().numero(Integer.MAX_VALUE).capacidad(4).estado(EstadoMesa.OCUPADA);
+        em.persist(mesa);
+        for (int i = 0; i < PEDIDOS; i++) {
+            Factura factura = new Factura().fechaFactura(ZonedDateTime.now()).montoTotal(BigDecimal.TEN).metodoPago(MetodoPago.EFECTIVO);
+            em.persist(factura);
+            pedido = new Pedido().fechaPedido(ZonedDateTime.now().plusMinutes(i)).estado(EstadoPedido.EN_PREPARACION);
+            pedido.factura(factura).mesa(mesa);
+            em.persist(pedido);
+            for (int j = 0; j < LINES; j++) {
+                em.persist(new ItemPedido().cantidad(1).precioUnitario(BigDecimal.ONE).pedido(pedido));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void findAbiertosWithItemPedidosByMesaIsPagedInTheDatabase() throws Exception {
+        Page<Pedido> page = pedidoService.findAbiertosWithItemPedidosByMesa(mesa.getId(), PageRequest.of(0, 2));
+        // Serializing walks every association a client gets, so any lazy load would show up below
+        String json = om.writeValueAsString(page.getContent());
+
+        assertThat(page.getTotalElements()).isEqualTo(PEDIDOS);
+        assertThat(page.getContent()).hasSize(2).allSatisfy(p -> assertThat(p.getItemPedidos()).hasSize(LINES));
+        assertThat(page.getContent().get(0).getFechaPedido()).isAfter(page.getContent().get(1).getFechaPedido());
+        assertThat(json).contains("\"numero\":" + Integer.MAX_VALUE);
+        // The page of ids, its count, and the pedidos of the page with their lines and mesa
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findAbiertosWithItemPedidosByMesaSkipsClosedPedidos() {
+        pedidoRepository.findAll().forEach(p -> p.setEstado(EstadoPedido.PAGADO));
+        em.flush();
+
+        Page<Pedido> page = pedidoService.findAbiertosWithItemPedidosByMesa(mesa.getId(), PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).isEmpty();
+    }
+
+    @Test
+    void findOneWithFacturaAndMesaByIdUsesOneStatement() throws Exception {
+        Pedido result = pedidoRepository.findOneWithFacturaAndMesaById(pedido.getId()).orElseThrow();
+        String json = om.writeValueAsString(result);
+
+        assertThat(json).contains("\"montoTotal\"").contains("\"numero\":" + Integer.MAX_VALUE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keysetPageFetchesMesaAndFacturaWithoutExtraStatements() throws Exception {
+        List<Pedido> pedidos = pedidoRepository.findKeysetPage(null, mesa.getId(), null, null, null, null, PEDIDOS);
+        om.writeValueAsString(pedidos);
+
+        assertThat(pedidos).hasSize(PEDIDOS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.ServiceTokenProvider;
+import com.mycompany.myapp.service.dto.PlatoNoCacheadoEvent;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.client.RestClient;
+
+class PrecioPlatoCacheTest {
+
+    private static final Instant T0 = Instant.parse("2001-02-03T10:15:00Z");
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private PrecioPlatoCache precioPlatoCache;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getPreciosPlato().setMaxSize(10);
+        // Nothing listens there: every read of the menu service fails
+        applicationProperties.getPreciosPlato().setMenuUrl("http://localhost:1");
+        precioPlatoCache = new PrecioPlatoCache(
+            RestClient.builder(),
+            mock(ServiceTokenProvider.class),
+            applicationEventPublisher,
+            applicationProperties,
+            meterRegistry
+        );
+    }
+
+    @Test
+    void olderChangesAreIgnored() {
+        assertThat(precioPlatoCache.recibir(List.of(precio("a", 2, T0.plusSeconds(1)), precio("a", 1, T0)))).isEqualTo(1);
+
+        assertThat(precioPlatoCache.findPrecio("a")).map(PrecioPlatoDTO::precio).contains(new BigDecimal(2));
+        assertThat(meterRegistry.get(PrecioPlatoCache.NOTIFICATIONS_METER_NAME).tag("outcome", "ignored").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void deletedPlatoIsNotBroughtBackByAnOlderChange() {
+        precioPlatoCache.recibir(List.of(precio("a", 1, T0)));
+        precioPlatoCache.recibir(List.of(new PrecioPlatoDTO("a", null, false, T0.plusSeconds(2), true)));
+        precioPlatoCache.recibir(List.of(precio("a", 1, T0.plusSeconds(1))));
+
+        assertThat(precioPlatoCache.findPrecio("a")).isEmpty();
+        assertThat(meterRegistry.get(PrecioPlatoCache.LOOKUPS_METER_NAME).tag("outcome", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void deletedPlatosReceivedTheLongestAgoAreEvicted() {
+        for (int i = 0; i < 11; i++) {
+            precioPlatoCache.recibir(List.of(new PrecioPlatoDTO("e" + i, null, false, T0, true), precio("p" + i, i, T0)));
+        }
+
+        // The existing platos are all held, and the 9 deleted ones received last
+        assertThat(meterRegistry.get(PrecioPlatoCache.SIZE_METER_NAME).gauge().value()).isEqualTo(20);
+        assertThat(precioPlatoCache.findPrecio("p0")).isPresent();
+        precioPlatoCache.findPrecio("e0");
+        precioPlatoCache.findPrecio("e10");
+        assertThat(meterRegistry.get(PrecioPlatoCache.LOOKUPS_METER_NAME).tag("outcome", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void platoNotCachedIsReadInTheBackground() {
+        assertThat(precioPlatoCache.findPrecio("a")).isEmpty();
+        assertThat(precioPlatoCache.findPrecio("a")).isEmpty();
+
+        // Looked up again while being read, it is read once
+        verify(applicationEventPublisher, times(1)).publishEvent(new PlatoNoCacheadoEvent("a"));
+
+        // The read failed, the next lookup reads it again
+        precioPlatoCache.onPlatoNoCacheado(new PlatoNoCacheadoEvent("a"));
+        assertThat(meterRegistry.get(PrecioPlatoCache.LOOKUPS_METER_NAME).tag("outcome", "error").counter().count()).isEqualTo(1);
+        assertThat(precioPlatoCache.findPrecio("a")).isEmpty();
+        verify(applicationEventPublisher, times(2)).publishEvent(new PlatoNoCacheadoEvent("a"));
+    }
+
+    private static PrecioPlatoDTO precio(String id, int precio, Instant fechaModificacion) {
+        return new PrecioPlatoDTO(id, new BigDecimal(precio), true, fechaModificacion, false);
+    }
+}
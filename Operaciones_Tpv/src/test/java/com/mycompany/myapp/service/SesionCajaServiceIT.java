@@ -0,0 +1,165 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.domain.enumeration.EstadoSesionCaja;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.domain.enumeration.ResultadoVerificacion;
+import com.mycompany.myapp.repository.FacturaRepository.VentaFactura;
+import com.mycompany.myapp.service.dto.SesionCajaDTO;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link SesionCajaService}.
+ * <p>
+ * Totals are written with native statements: they are read again from the database with {@link #recargar()}.
+ */
+@IntegrationTest
+@Transactional
+class SesionCajaServiceIT {
+
+    private static final ZonedDateTime FECHA = ZonedDateTime.of(2001, 2, 3, 10, 15, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private SesionCajaService sesionCajaService;
+
+    @Autowired
+    private VentaRollupService ventaRollupService;
+
+    @Autowired
+    private EntityManager em;
+
+    private SesionCajaDTO sesionCaja;
+
+    @BeforeEach
+    void initTest() {
+        sesionCaja = sesionCajaService.abrir().orElseThrow();
+        emitir(BigDecimal.TEN, MetodoPago.EFECTIVO);
+        emitir(new BigDecimal(5), MetodoPago.EFECTIVO);
+        emitir(new BigDecimal(7), MetodoPago.TARJETA);
+    }
+
+    @Test
+    void onlyOneSessionIsOpen() {
+        assertThat(sesionCajaService.abrir()).isEmpty();
+        assertThat(sesionCajaService.findAbierta()).map(SesionCajaDTO::id).contains(sesionCaja.id());
+    }
+
+    @Test
+    void emittedFacturasAreAddedToTheRunningTotals() {
+        SesionCajaDTO result = recargar();
+
+        assertThat(result.numFacturas()).isEqualTo(3);
+        assertThat(result.montoTotal()).isEqualByComparingTo(new BigDecimal(22));
+        assertTotal(result, MetodoPago.EFECTIVO, 2, new BigDecimal(15));
+        assertTotal(result, MetodoPago.TARJETA, 1, new BigDecimal(7));
+    }
+
+    @Test
+    void updatedFacturaMovesBetweenTotals() {
+        Factura factura = em
+            .createQuery("select f from Factura f where f.sesionCajaId = :id and f.metodoPago = :metodoPago", Factura.class)
+            .setParameter("id", sesionCaja.id())
+            .setParameter("metodoPago", MetodoPago.TARJETA)
+            .getSingleResult();
+        Map<Long, VentaFactura> antes = ventaRollupService.leerVentas(List.of(factura.getId()));
+        factura.setMetodoPago(MetodoPago.QR);
+        ventaRollupService.actualizar(antes, List.of());
+
+        SesionCajaDTO result = recargar();
+
+        assertTotal(result, MetodoPago.TARJETA, 0, BigDecimal.ZERO);
+        assertTotal(result, MetodoPago.QR, 1, new BigDecimal(7));
+        assertThat(result.numFacturas()).isEqualTo(3);
+    }
+
+    @Test
+    void closedSessionKeepsItsTotals() {
+        SesionCajaDTO cerrada = sesionCajaService.cerrar(sesionCaja.id(), false).orElseThrow();
+
+        assertThat(cerrada.estado()).isEqualTo(EstadoSesionCaja.CERRADA);
+        assertThat(cerrada.fechaCierre()).isNotNull();
+        assertThat(cerrada.montoTotal()).isEqualByComparingTo(new BigDecimal(22));
+        assertThat(sesionCajaService.findAbierta()).isEmpty();
+
+        // New facturas belong to no session until the next one is opened
+        Factura factura = emitir(BigDecimal.ONE, MetodoPago.EFECTIVO);
+        assertThat(factura.getSesionCajaId()).isNull();
+        assertThat(recargar().montoTotal()).isEqualByComparingTo(new BigDecimal(22));
+        // Closing again returns the same report
+        assertThat(sesionCajaService.cerrar(sesionCaja.id(), false)).map(SesionCajaDTO::fechaCierre).contains(cerrada.fechaCierre());
+    }
+
+    @Test
+    void verificationMatchesTheRunningTotals() {
+        em.persist(new Pedido().fechaPedido(FECHA).estado(EstadoPedido.SERVIDO).factura(emitir(BigDecimal.ONE, MetodoPago.QR)));
+        em.flush();
+
+        assertThat(sesionCajaService.verificar(sesionCaja.id())).map(SesionCajaDTO::verificacion).contains(ResultadoVerificacion.CONFORME);
+
+        SesionCajaDTO result = recargar();
+        assertThat(result.pedidosPendientes()).isEqualTo(1L);
+        assertThat(result.fechaVerificacion()).isNotNull();
+        assertThat(result.totales()).allSatisfy(total -> assertThat(total.isDescuadre()).isFalse());
+    }
+
+    @Test
+    void verificationReportsTheDrift() {
+        em.flush();
+        em
+            .createNativeQuery("update sesion_caja_total set monto_total = monto_total + 1 where sesion_caja_id = ?1 and metodo_pago = ?2")
+            .setParameter(1, sesionCaja.id())
+            .setParameter(2, MetodoPago.TARJETA.name())
+            .executeUpdate();
+        em.clear();
+
+        assertThat(sesionCajaService.verificar(sesionCaja.id())).map(SesionCajaDTO::verificacion).contains(ResultadoVerificacion.DESCUADRE);
+
+        SesionCajaDTO result = recargar();
+        assertThat(result.totales())
+            .filteredOn(SesionCajaDTO.Total::isDescuadre)
+            .singleElement()
+            .satisfies(total -> {
+                assertThat(total.metodoPago()).isEqualTo(MetodoPago.TARJETA);
+                assertThat(total.montoTotal()).isEqualByComparingTo(new BigDecimal(8));
+                assertThat(total.montoTotalVerificado()).isEqualByComparingTo(new BigDecimal(7));
+            });
+    }
+
+    private Factura emitir(BigDecimal montoTotal, MetodoPago metodoPago) {
+        Factura factura = new Factura().fechaFactura(FECHA).montoTotal(montoTotal).metodoPago(metodoPago);
+        sesionCajaService.asignarSesion(factura);
+        em.persist(factura);
+        ventaRollupService.actualizar(Map.of(), List.of(factura.getId()));
+        return factura;
+    }
+
+    private SesionCajaDTO recargar() {
+        em.flush();
+        em.clear();
+        return sesionCajaService.findOne(sesionCaja.id()).orElseThrow();
+    }
+
+    private static void assertTotal(SesionCajaDTO sesionCaja, MetodoPago metodoPago, long numFacturas, BigDecimal montoTotal) {
+        assertThat(sesionCaja.totales())
+            .filteredOn(total -> total.metodoPago() == metodoPago)
+            .singleElement()
+            .satisfies(total -> {
+                assertThat(total.numFacturas()).isEqualTo(numFacturas);
+                assertThat(total.montoTotal()).isEqualByComparingTo(montoTotal);
+            });
+    }
+}
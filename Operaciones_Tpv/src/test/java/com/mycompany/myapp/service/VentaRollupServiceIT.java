@@ -0,0 +1,136 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.Mesa;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.VentaRollupId;
+import com.mycompany.myapp.domain.enumeration.DimensionVenta;
+import com.mycompany.myapp.domain.enumeration.EstadoMesa;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.domain.enumeration.GranularidadVenta;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.repository.FacturaRepository.VentaFactura;
+import com.mycompany.myapp.service.dto.VentaRollupDTO;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link VentaRollupService}.
+ * <p>
+ * Facturas are dated in 2001, away from the dates used by the other tests, so the rollups read here only count them.
+ */
+@IntegrationTest
+@Transactional
+class VentaRollupServiceIT {
+
+    private static final ZonedDateTime FECHA = ZonedDateTime.of(2001, 2, 3, 10, 15, 0, 0, ZoneOffset.UTC);
+    private static final Instant HORA = FECHA.withMinute(0).toInstant();
+    private static final Instant DIA = FECHA.toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
+
+    @Autowired
+    private VentaRollupService ventaRollupService;
+
+    @Autowired
+    private EntityManager em;
+
+    private Mesa mesa;
+
+    private Factura factura;
+
+    @BeforeEach
+    void initTest() {
+        mesa = new Mesa().numero(Integer.MAX_VALUE - 1).capacidad(4).estado(EstadoMesa.OCUPADA);
+        em.persist(mesa);
+        factura = new Factura().fechaFactura(FECHA).montoTotal(BigDecimal.TEN).metodoPago(MetodoPago.EFECTIVO);
+        em.persist(factura);
+        ventaRollupService.actualizar(Map.of(), List.of(factura.getId()));
+    }
+
+    @Test
+    void newFacturaIsAddedToEveryRollupOfItsPeriods() {
+        assertRollup(GranularidadVenta.HORA, DimensionVenta.TOTAL, VentaRollupId.CLAVE_TOTAL, HORA, 1, BigDecimal.TEN);
+        assertRollup(GranularidadVenta.DIA, DimensionVenta.TOTAL, VentaRollupId.CLAVE_TOTAL, DIA, 1, BigDecimal.TEN);
+        assertRollup(GranularidadVenta.HORA, DimensionVenta.METODO_PAGO, MetodoPago.EFECTIVO.name(), HORA, 1, BigDecimal.TEN);
+        assertThat(rollups(GranularidadVenta.DIA, DimensionVenta.MESA, DIA)).isEmpty();
+    }
+
+    @Test
+    void pedidoAttributesItsFacturaToItsMesa() {
+        Map<Long, VentaFactura> antes = ventaRollupService.leerVentas(List.of(factura.getId()));
+        em.persist(new Pedido().fechaPedido(FECHA).estado(EstadoPedido.PAGADO).factura(factura).mesa(mesa));
+        ventaRollupService.actualizar(antes, List.of());
+
+        assertRollup(GranularidadVenta.DIA, DimensionVenta.MESA, mesa.getId().toString(), DIA, 1, BigDecimal.TEN);
+        assertRollup(GranularidadVenta.DIA, DimensionVenta.TOTAL, VentaRollupId.CLAVE_TOTAL, DIA, 1, BigDecimal.TEN);
+    }
+
+    @Test
+    void updatedFacturaMovesBetweenRollups() {
+        Map<Long, VentaFactura> antes = ventaRollupService.leerVentas(List.of(factura.getId()));
+        factura.setMetodoPago(MetodoPago.QR);
+        factura.setMontoTotal(new BigDecimal(25));
+        ventaRollupService.actualizar(antes, List.of());
+
+        assertRollup(GranularidadVenta.HORA, DimensionVenta.METODO_PAGO, MetodoPago.EFECTIVO.name(), HORA, 0, BigDecimal.ZERO);
+        assertRollup(GranularidadVenta.HORA, DimensionVenta.METODO_PAGO, MetodoPago.QR.name(), HORA, 1, new BigDecimal(25));
+        assertRollup(GranularidadVenta.HORA, DimensionVenta.TOTAL, VentaRollupId.CLAVE_TOTAL, HORA, 1, new BigDecimal(25));
+    }
+
+    @Test
+    void deletedFacturaIsRemovedFromItsRollups() {
+        Map<Long, VentaFactura> antes = ventaRollupService.leerVentas(List.of(factura.getId()));
+        em.remove(factura);
+        ventaRollupService.actualizar(antes, List.of());
+
+        assertRollup(GranularidadVenta.DIA, DimensionVenta.TOTAL, VentaRollupId.CLAVE_TOTAL, DIA, 0, BigDecimal.ZERO);
+    }
+
+    @Test
+    void reconstruirMatchesTheIncrementalRollups() {
+        Map<Long, VentaFactura> antes = ventaRollupService.leerVentas(List.of(factura.getId()));
+        em.persist(new Pedido().fechaPedido(FECHA).estado(EstadoPedido.PAGADO).factura(factura).mesa(mesa));
+        ventaRollupService.actualizar(antes, List.of());
+        List<VentaRollupDTO> incrementales = rollups(GranularidadVenta.HORA, DimensionVenta.MESA, HORA);
+
+        assertThat(ventaRollupService.reconstruir()).isPositive();
+
+        assertThat(rollups(GranularidadVenta.HORA, DimensionVenta.MESA, HORA)).isEqualTo(incrementales);
+        assertRollup(GranularidadVenta.DIA, DimensionVenta.METODO_PAGO, MetodoPago.EFECTIVO.name(), DIA, 1, BigDecimal.TEN);
+    }
+
+    private void assertRollup(
+        GranularidadVenta granularidad,
+        DimensionVenta dimension,
+        String clave,
+        Instant periodo,
+        long numFacturas,
+        BigDecimal montoTotal
+    ) {
+        assertThat(rollups(granularidad, dimension, periodo))
+            .filteredOn(rollup -> rollup.clave().equals(clave))
+            .singleElement()
+            .satisfies(rollup -> {
+                assertThat(rollup.numFacturas()).isEqualTo(numFacturas);
+                assertThat(rollup.montoTotal()).isEqualByComparingTo(montoTotal);
+            });
+    }
+
+    private List<VentaRollupDTO> rollups(GranularidadVenta granularidad, DimensionVenta dimension, Instant periodo) {
+        // Rollups are written with native statements: read them again from the database
+        em.flush();
+        em.clear();
+        return ventaRollupService.findRollups(granularidad, dimension, periodo, periodo.plusSeconds(1));
+    }
+}
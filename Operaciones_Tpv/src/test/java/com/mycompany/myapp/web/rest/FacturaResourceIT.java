@@ -5,7 +5,10 @@ import static com.mycompany.myapp.web.rest.TestUtil.createUpdateProxyForBean;
 import static com.mycompany.myapp.web.rest.TestUtil.sameInstant;
 import static com.mycompany.myapp.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -14,6 +17,7 @@ import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Factura;
 import com.mycompany.myapp.domain.enumeration.MetodoPago;
 import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.web.filter.IdempotencyFilter;
 import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -21,12 +25,14 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -126,6 +132,67 @@ class FacturaResourceIT {
         insertedFactura = returnedFactura;
     }
 
+    @Test
+    @Transactional
+    void createFacturaWithIdempotencyKeyReplaysTheResponse() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        String key = UUID.randomUUID().toString();
+        byte[] body = om.writeValueAsBytes(factura);
+
+        String created = restFacturaMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body)
+            )
+            .andExpect(status().isCreated())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        // The retry gets the same factura, and does not create another one
+        restFacturaMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body)
+            )
+            .andExpect(status().isCreated())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+            .andExpect(content().json(created, true));
+
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        insertedFactura = om.readValue(created, Factura.class);
+    }
+
+    @Test
+    @Transactional
+    void createFacturaReusingIdempotencyKeyForAnotherFactura() throws Exception {
+        String key = UUID.randomUUID().toString();
+        restFacturaMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(factura))
+            )
+            .andExpect(status().isCreated());
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        restFacturaMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(createUpdatedEntity()))
+            )
+            .andExpect(status().isUnprocessableEntity());
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void createFacturaWithExistingId() throws Exception {
@@ -225,6 +292,70 @@ class FacturaResourceIT {
             .andExpect(jsonPath("$.metodoPago").value(DEFAULT_METODO_PAGO.toString()));
     }
 
+    @Test
+    @Transactional
+    void exportFacturasAsNdjson() throws Exception {
+        // Initialize the database
+        insertedFactura = facturaRepository.saveAndFlush(factura);
+
+        // Export the facturas of the period
+        restFacturaMockMvc
+            .perform(
+                get(ENTITY_API_URL + "/export")
+                    .param("desde", DEFAULT_FECHA_FACTURA.minusSeconds(1).toString())
+                    .param("hasta", DEFAULT_FECHA_FACTURA.plusSeconds(1).toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("facturas.ndjson")))
+            .andExpect(content().string(containsString("\"id\":" + factura.getId() + ",")));
+    }
+
+    @Test
+    @Transactional
+    void exportFacturasAsCsv() throws Exception {
+        // Initialize the database
+        insertedFactura = facturaRepository.saveAndFlush(factura);
+
+        // Export the facturas of the period paid with the default metodo de pago
+        restFacturaMockMvc
+            .perform(
+                get(ENTITY_API_URL + "/export")
+                    .param("formato", "CSV")
+                    .param("desde", DEFAULT_FECHA_FACTURA.minusSeconds(1).toString())
+                    .param("hasta", DEFAULT_FECHA_FACTURA.plusSeconds(1).toString())
+                    .param("metodoPago", DEFAULT_METODO_PAGO.toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv;charset=UTF-8"))
+            .andExpect(content().string(startsWith("id,fechaFactura,montoTotal,metodoPago,pedidoId,mesaId\n")))
+            .andExpect(content().string(containsString("\n" + factura.getId() + ",1970-01-01T00:00:00Z,")));
+
+        // Paid another way, it is not exported
+        restFacturaMockMvc
+            .perform(
+                get(ENTITY_API_URL + "/export")
+                    .param("formato", "CSV")
+                    .param("desde", DEFAULT_FECHA_FACTURA.minusSeconds(1).toString())
+                    .param("hasta", DEFAULT_FECHA_FACTURA.plusSeconds(1).toString())
+                    .param("metodoPago", UPDATED_METODO_PAGO.toString())
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().string(not(containsString("\n" + factura.getId() + ","))));
+    }
+
+    @Test
+    @Transactional
+    void exportFacturasOfAnEmptyPeriod() throws Exception {
+        restFacturaMockMvc
+            .perform(
+                get(ENTITY_API_URL + "/export")
+                    .param("desde", DEFAULT_FECHA_FACTURA.toString())
+                    .param("hasta", DEFAULT_FECHA_FACTURA.toString())
+            )
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingFactura() throws Exception {
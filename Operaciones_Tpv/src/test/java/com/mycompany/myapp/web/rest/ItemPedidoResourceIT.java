@@ -11,10 +11,16 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.ItemPedido;
+import com.mycompany.myapp.domain.Pedido;
 import com.mycompany.myapp.repository.ItemPedidoRepository;
+import com.mycompany.myapp.service.PrecioPlatoCache;
+import com.mycompany.myapp.service.dto.PrecioPlatoDTO;
 import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,6 +46,9 @@ class ItemPedidoResourceIT {
     private static final BigDecimal DEFAULT_PRECIO_UNITARIO = new BigDecimal(1);
     private static final BigDecimal UPDATED_PRECIO_UNITARIO = new BigDecimal(2);
 
+    private static final String DEFAULT_PLATO_ID = "AAAAAAAAAA";
+    private static final String UPDATED_PLATO_ID = "BBBBBBBBBB";
+
     private static final String ENTITY_API_URL = "/api/item-pedidos";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -58,6 +67,9 @@ class ItemPedidoResourceIT {
     @Autowired
     private MockMvc restItemPedidoMockMvc;
 
+    @Autowired
+    private PrecioPlatoCache precioPlatoCache;
+
     private ItemPedido itemPedido;
 
     private ItemPedido insertedItemPedido;
@@ -69,7 +81,7 @@ class ItemPedidoResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static ItemPedido createEntity() {
-        return new ItemPedido().cantidad(DEFAULT_CANTIDAD).precioUnitario(DEFAULT_PRECIO_UNITARIO);
+        return new ItemPedido().cantidad(DEFAULT_CANTIDAD).precioUnitario(DEFAULT_PRECIO_UNITARIO).platoId(DEFAULT_PLATO_ID);
     }
 
     /**
@@ -79,11 +91,27 @@ class ItemPedidoResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static ItemPedido createUpdatedEntity() {
-        return new ItemPedido().cantidad(UPDATED_CANTIDAD).precioUnitario(UPDATED_PRECIO_UNITARIO);
+        return new ItemPedido().cantidad(UPDATED_CANTIDAD).precioUnitario(UPDATED_PRECIO_UNITARIO).platoId(UPDATED_PLATO_ID);
+    }
+
+    /**
+     * Cache the platos of the entities of this test, at their prices.
+     *
+     * This is a static method, as tests for other entities might also need it,
+     * if they create an entity with lines through the REST API.
+     */
+    public static void cachePlatos(PrecioPlatoCache precioPlatoCache) {
+        precioPlatoCache.recibir(
+            List.of(
+                new PrecioPlatoDTO(DEFAULT_PLATO_ID, DEFAULT_PRECIO_UNITARIO, true, Instant.now(), false),
+                new PrecioPlatoDTO(UPDATED_PLATO_ID, UPDATED_PRECIO_UNITARIO, true, Instant.now(), false)
+            )
+        );
     }
 
     @BeforeEach
     void initTest() {
+        cachePlatos(precioPlatoCache);
         itemPedido = createEntity();
     }
 
@@ -134,6 +162,178 @@ class ItemPedidoResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createItemPedidoCopiesTheDateOfItsPedido() throws Exception {
+        Pedido pedido = PedidoResourceIT.createEntity(em);
+        em.persist(pedido);
+        em.flush();
+        itemPedido.setPedido(new Pedido().id(pedido.getId()));
+
+        var returnedItemPedido = om.readValue(
+            restItemPedidoMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(itemPedido)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            ItemPedido.class
+        );
+
+        // item_pedido is partitioned on the date of the pedido
+        assertThat(itemPedidoRepository.findFechaPedidoById(returnedItemPedido.getId()))
+            .hasValueSatisfying(fechaPedido -> assertThat(fechaPedido.toInstant()).isEqualTo(pedido.getFechaPedido().toInstant()));
+    }
+
+    @Test
+    @Transactional
+    void createItemPedidoOfAnUnknownPedido() throws Exception {
+        itemPedido.setPedido(new Pedido().id(longCount.incrementAndGet()));
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        restItemPedidoMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(itemPedido)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.pedidonotfound"));
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createItemPedidoPricedFromItsPlato() throws Exception {
+        String platoId = UUID.randomUUID().toString();
+        precioPlatoCache.recibir(List.of(new PrecioPlatoDTO(platoId, new BigDecimal("12.50"), true, Instant.now(), false)));
+        itemPedido.setPlatoId(platoId);
+
+        var returnedItemPedido = om.readValue(
+            restItemPedidoMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(itemPedido)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.precioUnitario").value(sameNumber(new BigDecimal("12.50"))))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            ItemPedido.class
+        );
+        assertThat(getPersistedItemPedido(returnedItemPedido).getPrecioUnitario()).isEqualByComparingTo(new BigDecimal("12.50"));
+
+        // The line keeps the price of its plato when it was added
+        precioPlatoCache.recibir(List.of(new PrecioPlatoDTO(platoId, new BigDecimal("14.00"), true, Instant.now(), false)));
+        returnedItemPedido.cantidad(UPDATED_CANTIDAD).precioUnitario(UPDATED_PRECIO_UNITARIO);
+        restItemPedidoMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, returnedItemPedido.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(returnedItemPedido))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cantidad").value(UPDATED_CANTIDAD))
+            .andExpect(jsonPath("$.precioUnitario").value(sameNumber(new BigDecimal("12.50"))));
+    }
+
+    @Test
+    @Transactional
+    void putItemPedidoWithoutItsPlato() throws Exception {
+        String platoId = UUID.randomUUID().toString();
+        precioPlatoCache.recibir(List.of(new PrecioPlatoDTO(platoId, new BigDecimal("12.50"), true, Instant.now(), false)));
+        insertedItemPedido = itemPedidoRepository.saveAndFlush(itemPedido.platoId(platoId).precioUnitario(new BigDecimal("12.50")));
+
+        ItemPedido updatedItemPedido = itemPedidoRepository.findById(itemPedido.getId()).orElseThrow();
+        em.detach(updatedItemPedido);
+        updatedItemPedido.platoId(null).precioUnitario(BigDecimal.ONE);
+
+        restItemPedidoMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedItemPedido.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedItemPedido))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.platorequired"));
+
+        assertThat(getPersistedItemPedido(insertedItemPedido).getPrecioUnitario()).isEqualByComparingTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    @Transactional
+    void createItemPedidoWithoutPlato() throws Exception {
+        itemPedido.setPlatoId(null);
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        // The price of a line without plato would be the one sent by the client, so this API call must fail
+        restItemPedidoMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(itemPedido)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.platorequired"));
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void putItemPedidoWithoutPlatoKeepsItsPrice() throws Exception {
+        // A line saved before the lines were priced from their plato
+        insertedItemPedido = itemPedidoRepository.saveAndFlush(itemPedido.platoId(null));
+
+        ItemPedido updatedItemPedido = itemPedidoRepository.findById(itemPedido.getId()).orElseThrow();
+        em.detach(updatedItemPedido);
+        updatedItemPedido.precioUnitario(UPDATED_PRECIO_UNITARIO);
+
+        restItemPedidoMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedItemPedido.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedItemPedido))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.preciofijo"));
+
+        // Its other fields can still be changed
+        ItemPedido partialUpdatedItemPedido = new ItemPedido();
+        partialUpdatedItemPedido.setId(itemPedido.getId());
+        partialUpdatedItemPedido.cantidad(UPDATED_CANTIDAD);
+        restItemPedidoMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedItemPedido.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedItemPedido))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cantidad").value(UPDATED_CANTIDAD))
+            .andExpect(jsonPath("$.precioUnitario").value(sameNumber(DEFAULT_PRECIO_UNITARIO)));
+    }
+
+    @Test
+    @Transactional
+    void createItemPedidoOfAnInactivePlato() throws Exception {
+        String platoId = UUID.randomUUID().toString();
+        precioPlatoCache.recibir(List.of(new PrecioPlatoDTO(platoId, BigDecimal.TEN, false, Instant.now(), false)));
+        itemPedido.setPlatoId(platoId);
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        restItemPedidoMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(itemPedido)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.platoinactivo"));
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createItemPedidoOfAnUnknownPlato() throws Exception {
+        itemPedido.setPlatoId(UUID.randomUUID().toString());
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        restItemPedidoMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(itemPedido)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.platonotfound"));
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void checkCantidadIsRequired() throws Exception {
@@ -217,7 +417,7 @@ class ItemPedidoResourceIT {
         ItemPedido updatedItemPedido = itemPedidoRepository.findById(itemPedido.getId()).orElseThrow();
         // Disconnect from session so that the updates on updatedItemPedido are not directly saved in db
         em.detach(updatedItemPedido);
-        updatedItemPedido.cantidad(UPDATED_CANTIDAD).precioUnitario(UPDATED_PRECIO_UNITARIO);
+        updatedItemPedido.cantidad(UPDATED_CANTIDAD).precioUnitario(UPDATED_PRECIO_UNITARIO).platoId(UPDATED_PLATO_ID);
 
         restItemPedidoMockMvc
             .perform(
@@ -326,7 +526,7 @@ class ItemPedidoResourceIT {
         ItemPedido partialUpdatedItemPedido = new ItemPedido();
         partialUpdatedItemPedido.setId(itemPedido.getId());
 
-        partialUpdatedItemPedido.cantidad(UPDATED_CANTIDAD).precioUnitario(UPDATED_PRECIO_UNITARIO);
+        partialUpdatedItemPedido.cantidad(UPDATED_CANTIDAD).precioUnitario(UPDATED_PRECIO_UNITARIO).platoId(UPDATED_PLATO_ID);
 
         restItemPedidoMockMvc
             .perform(
@@ -0,0 +1,172 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.ItemPedido;
+import com.mycompany.myapp.domain.Pedido;
+import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.repository.FacturaRepository;
+import com.mycompany.myapp.repository.ItemPedidoRepository;
+import com.mycompany.myapp.repository.PedidoRepository;
+import com.mycompany.myapp.service.PrecioPlatoCache;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Compares the database round trips and the latency of submitting a 15-line order through {@code POST /api/pedidos/completo}
+ * with the per-line flow of one {@code POST /api/item-pedidos} per line.
+ * <p>
+ * The requests are not run in a test transaction, so that every flow commits and flushes like in production.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class PedidoCompletoRoundTripsIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PedidoCompletoRoundTripsIT.class);
+
+    private static final int LINES = 15;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private MockMvc restMockMvc;
+
+    @Autowired
+    private PrecioPlatoCache precioPlatoCache;
+
+    private Statistics statistics;
+
+    private final List<Long> pedidoIds = new ArrayList<>();
+
+    private final List<Long> facturaIds = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        ItemPedidoResourceIT.cachePlatos(precioPlatoCache);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        itemPedidoRepository.deleteAll(
+            itemPedidoRepository
+                .findAll()
+                .stream()
+                .filter(itemPedido -> itemPedido.getPedido() != null && pedidoIds.contains(itemPedido.getPedido().getId()))
+                .toList()
+        );
+        pedidoRepository.deleteAllById(pedidoIds);
+        facturaRepository.deleteAllById(facturaIds);
+    }
+
+    @Test
+    void compositeOrderNeedsFewerRoundTripsThanPerLineFlow() throws Exception {
+        // Composite flow: one request and one transaction for the factura, the pedido and all its lines. The statements every
+        // pedido costs, whatever its lines, are those of a one-line order
+        long oneLineStatements = submitPedidoCompleto(1);
+        long start = System.nanoTime();
+        long compositeStatements = submitPedidoCompleto(LINES);
+        long compositeNanos = System.nanoTime() - start;
+
+        // Per-line flow: the pedido first, then one request and one transaction per line
+        Factura factura = facturaRepository.saveAndFlush(FacturaResourceIT.createEntity());
+        facturaIds.add(factura.getId());
+        statistics.clear();
+        start = System.nanoTime();
+        Pedido pedido = om.readValue(
+            restMockMvc
+                .perform(
+                    post("/api/pedidos").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(newPedido().factura(factura)))
+                )
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            Pedido.class
+        );
+        pedidoIds.add(pedido.getId());
+        for (int i = 0; i < LINES; i++) {
+            ItemPedido itemPedido = ItemPedidoResourceIT.createEntity().pedido(pedido);
+            restMockMvc
+                .perform(post("/api/item-pedidos").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(itemPedido)))
+                .andExpect(status().isCreated());
+        }
+        long perLineNanos = System.nanoTime() - start;
+        long perLineStatements = statistics.getPrepareStatementCount();
+
+        LOG.info(
+            "{}-line order: composite flow {} statements ({} for one line) in {} ms, per-line flow {} statements in {} ms",
+            LINES,
+            compositeStatements,
+            oneLineStatements,
+            compositeNanos / 1_000_000,
+            perLineStatements,
+            perLineNanos / 1_000_000
+        );
+        // Lines are inserted as JDBC batches: the lines of the composite flow must not cost a round trip each
+        assertThat(compositeStatements - oneLineStatements).isLessThan(LINES / 2);
+        assertThat(perLineStatements).isGreaterThanOrEqualTo(LINES);
+    }
+
+    private long submitPedidoCompleto(int lines) throws Exception {
+        Pedido pedidoCompleto = newPedido().factura(FacturaResourceIT.createEntity());
+        for (int i = 0; i < lines; i++) {
+            pedidoCompleto.addItemPedido(ItemPedidoResourceIT.createEntity());
+        }
+        statistics.clear();
+        Pedido created = om.readValue(
+            restMockMvc
+                .perform(
+                    post("/api/pedidos/completo").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(pedidoCompleto))
+                )
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            Pedido.class
+        );
+        long statements = statistics.getPrepareStatementCount();
+        pedidoIds.add(created.getId());
+        facturaIds.add(created.getFactura().getId());
+        return statements;
+    }
+
+    private static Pedido newPedido() {
+        return new Pedido().fechaPedido(ZonedDateTime.now()).estado(EstadoPedido.EN_PREPARACION);
+    }
+}
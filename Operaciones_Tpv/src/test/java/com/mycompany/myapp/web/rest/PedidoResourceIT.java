@@ -4,6 +4,7 @@ import static com.mycompany.myapp.domain.PedidoAsserts.*;
 import static com.mycompany.myapp.web.rest.TestUtil.createUpdateProxyForBean;
 import static com.mycompany.myapp.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -13,7 +14,9 @@ import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Factura;
 import com.mycompany.myapp.domain.Pedido;
 import com.mycompany.myapp.domain.enumeration.EstadoPedido;
+import com.mycompany.myapp.repository.ItemPedidoRepository;
 import com.mycompany.myapp.repository.PedidoRepository;
+import com.mycompany.myapp.service.PrecioPlatoCache;
 import jakarta.persistence.EntityManager;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -26,6 +29,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -57,12 +61,18 @@ class PedidoResourceIT {
     @Autowired
     private PedidoRepository pedidoRepository;
 
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
     @Autowired
     private EntityManager em;
 
     @Autowired
     private MockMvc restPedidoMockMvc;
 
+    @Autowired
+    private PrecioPlatoCache precioPlatoCache;
+
     private Pedido pedido;
 
     private Pedido insertedPedido;
@@ -111,6 +121,7 @@ class PedidoResourceIT {
 
     @BeforeEach
     void initTest() {
+        ItemPedidoResourceIT.cachePlatos(precioPlatoCache);
         pedido = createEntity(em);
     }
 
@@ -144,6 +155,60 @@ class PedidoResourceIT {
         insertedPedido = returnedPedido;
     }
 
+    @Test
+    @Transactional
+    void createPedidoCompleto() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        long itemPedidoCountBeforeCreate = itemPedidoRepository.count();
+        // Create the Pedido with a new Factura and its lines
+        pedido.setFactura(FacturaResourceIT.createEntity());
+        pedido.addItemPedido(ItemPedidoResourceIT.createEntity());
+        pedido.addItemPedido(ItemPedidoResourceIT.createUpdatedEntity());
+
+        restPedidoMockMvc
+            .perform(post(ENTITY_API_URL + "/completo").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(pedido)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").isNumber())
+            .andExpect(jsonPath("$.factura.id").isNumber())
+            .andExpect(jsonPath("$.itemPedidos.length()").value(2))
+            .andExpect(jsonPath("$.itemPedidos.[*].id").isNotEmpty());
+
+        // Validate the Pedido and its lines in the database
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        assertThat(itemPedidoRepository.count()).isEqualTo(itemPedidoCountBeforeCreate + 2);
+    }
+
+    @Test
+    @Transactional
+    void createPedidoCompletoWithInvalidItemPedido() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        // A line without cantidad cannot be saved, so the whole pedido must be rejected
+        pedido.addItemPedido(ItemPedidoResourceIT.createEntity());
+        pedido.addItemPedido(ItemPedidoResourceIT.createEntity().cantidad(null));
+
+        restPedidoMockMvc
+            .perform(post(ENTITY_API_URL + "/completo").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(pedido)))
+            .andExpect(status().isBadRequest());
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createPedidoCompletoWithoutPlato() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        // A line without plato would keep the price sent by the client, so the whole pedido must be rejected
+        pedido.addItemPedido(ItemPedidoResourceIT.createEntity());
+        pedido.addItemPedido(ItemPedidoResourceIT.createEntity().platoId(null));
+
+        restPedidoMockMvc
+            .perform(post(ENTITY_API_URL + "/completo").contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(pedido)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.platorequired"));
+
+        assertSameRepositoryCount(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void createPedidoWithExistingId() throws Exception {
@@ -209,6 +274,56 @@ class PedidoResourceIT {
             .andExpect(jsonPath("$.[*].estado").value(hasItem(DEFAULT_ESTADO.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllPedidosByKeysetPages() throws Exception {
+        // Initialize the database with three pedidos, each with its own factura, in a range no other test uses
+        ZonedDateTime desde = ZonedDateTime.of(2100, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        Pedido[] pedidos = new Pedido[3];
+        for (int i = 0; i < pedidos.length; i++) {
+            Factura factura = FacturaResourceIT.createEntity();
+            em.persist(factura);
+            pedidos[i] = pedidoRepository.saveAndFlush(
+                new Pedido().fechaPedido(desde.plusMinutes(i)).estado(DEFAULT_ESTADO).factura(factura)
+            );
+        }
+
+        // The first page holds the two newest pedidos and points to the next one
+        String nextCursor = restPedidoMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&desde={desde}", desde.toString()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(pedidos[2].getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(pedidos[1].getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // The last page holds the oldest pedido and has no next page
+        restPedidoMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&desde={desde}&cursor={cursor}", desde.toString(), nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(pedidos[0].getId().intValue()))
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+
+        // Filters are applied together with the cursor
+        restPedidoMockMvc
+            .perform(get(ENTITY_API_URL + "?desde={desde}&estado={estado}", desde.toString(), UPDATED_ESTADO.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getAllPedidosWithInvalidCursor() throws Exception {
+        restPedidoMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+        restPedidoMockMvc.perform(get(ENTITY_API_URL + "?size=0")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getPedido() throws Exception {
@@ -413,6 +528,77 @@ class PedidoResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void cambiarEstadoPedido() throws Exception {
+        // Initialize the database
+        insertedPedido = pedidoRepository.saveAndFlush(pedido);
+
+        restPedidoMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/estado", pedido.getId()).param("esperado", "EN_PREPARACION").param("estado", "SERVIDO"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(EstadoPedido.SERVIDO.toString()));
+
+        // The pedido is not in the expected state anymore
+        restPedidoMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/estado", pedido.getId()).param("esperado", "EN_PREPARACION").param("estado", "PAGADO"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$").value(EstadoPedido.SERVIDO.toString()));
+
+        restPedidoMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/estado", Long.MAX_VALUE).param("esperado", "EN_PREPARACION").param("estado", "SERVIDO"))
+            .andExpect(status().isNotFound());
+
+        assertThat(pedidoRepository.findById(pedido.getId()).orElseThrow().getEstado()).isEqualTo(EstadoPedido.SERVIDO);
+    }
+
+    @Test
+    @Transactional
+    void putPedidoModifiedSinceRead() throws Exception {
+        // Initialize the database
+        insertedPedido = pedidoRepository.saveAndFlush(pedido);
+        Pedido stalePedido = new Pedido()
+            .id(pedido.getId())
+            .fechaPedido(pedido.getFechaPedido())
+            .estado(EstadoPedido.PAGADO)
+            .version(pedido.getVersion());
+        stalePedido.setFactura(pedido.getFactura());
+
+        // Another client changes the pedido first
+        restPedidoMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/estado", pedido.getId()).param("esperado", "EN_PREPARACION").param("estado", "SERVIDO"))
+            .andExpect(status().isOk());
+        em.flush();
+
+        restPedidoMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, pedido.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(stalePedido))
+            )
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void patchPedidoModifiedSinceRead() throws Exception {
+        // Initialize the database
+        insertedPedido = pedidoRepository.saveAndFlush(pedido);
+        Pedido stalePedido = new Pedido().id(pedido.getId()).estado(EstadoPedido.PAGADO).version(pedido.getVersion());
+
+        // Another client changes the pedido first
+        restPedidoMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/estado", pedido.getId()).param("esperado", "EN_PREPARACION").param("estado", "SERVIDO"))
+            .andExpect(status().isOk());
+        em.flush();
+
+        restPedidoMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, pedido.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(stalePedido))
+            )
+            .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void deletePedido() throws Exception {
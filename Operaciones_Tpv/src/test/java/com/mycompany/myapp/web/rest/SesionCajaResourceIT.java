@@ -0,0 +1,184 @@
+package com.mycompany.myapp.web.rest;
+
+import static com.mycompany.myapp.web.rest.TestUtil.sameNumber;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Factura;
+import com.mycompany.myapp.domain.enumeration.EstadoSesionCaja;
+import com.mycompany.myapp.domain.enumeration.MetodoPago;
+import com.mycompany.myapp.repository.SesionCajaRepository;
+import com.mycompany.myapp.service.SesionCajaService;
+import com.mycompany.myapp.service.VentaRollupService;
+import com.mycompany.myapp.service.dto.SesionCajaDTO;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link SesionCajaResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@Transactional
+class SesionCajaResourceIT {
+
+    private static final ZonedDateTime FECHA = ZonedDateTime.of(2001, 2, 3, 10, 15, 0, 0, ZoneOffset.UTC);
+
+    private static final String ENTITY_API_URL = "/api/sesiones-caja";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private SesionCajaRepository sesionCajaRepository;
+
+    @Autowired
+    private SesionCajaService sesionCajaService;
+
+    @Autowired
+    private VentaRollupService ventaRollupService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restSesionCajaMockMvc;
+
+    @Test
+    void openSesionCaja() throws Exception {
+        long databaseSizeBeforeCreate = sesionCajaRepository.count();
+
+        SesionCajaDTO returnedSesionCaja = abrir();
+
+        assertThat(sesionCajaRepository.count()).isEqualTo(databaseSizeBeforeCreate + 1);
+        assertThat(returnedSesionCaja.estado()).isEqualTo(EstadoSesionCaja.ABIERTA);
+        assertThat(returnedSesionCaja.fechaApertura()).isNotNull();
+        assertThat(returnedSesionCaja.fechaCierre()).isNull();
+        assertThat(returnedSesionCaja.numFacturas()).isZero();
+
+        restSesionCajaMockMvc
+            .perform(get(ENTITY_API_URL + "/abierta"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(returnedSesionCaja.id().intValue()))
+            .andExpect(jsonPath("$.estado").value(EstadoSesionCaja.ABIERTA.toString()));
+    }
+
+    @Test
+    void openSesionCajaWhileOneIsOpen() throws Exception {
+        SesionCajaDTO abierta = abrir();
+        long databaseSizeBeforeCreate = sesionCajaRepository.count();
+
+        // Only one session can be open at a time, so this API call must fail
+        restSesionCajaMockMvc
+            .perform(post(ENTITY_API_URL))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.sesionabierta"));
+
+        assertThat(sesionCajaRepository.count()).isEqualTo(databaseSizeBeforeCreate);
+        restSesionCajaMockMvc
+            .perform(get(ENTITY_API_URL + "/abierta"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(abierta.id().intValue()));
+    }
+
+    @Test
+    void closeSesionCaja() throws Exception {
+        SesionCajaDTO abierta = abrir();
+        emitir(BigDecimal.TEN, MetodoPago.EFECTIVO);
+        emitir(new BigDecimal(7), MetodoPago.TARJETA);
+        em.flush();
+        em.clear();
+
+        SesionCajaDTO cerrada = om.readValue(
+            restSesionCajaMockMvc
+                .perform(post(ENTITY_API_URL_ID + "/cierre", abierta.id()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.id").value(abierta.id().intValue()))
+                .andExpect(jsonPath("$.estado").value(EstadoSesionCaja.CERRADA.toString()))
+                .andExpect(jsonPath("$.numFacturas").value(2))
+                .andExpect(jsonPath("$.montoTotal").value(sameNumber(new BigDecimal(17))))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            SesionCajaDTO.class
+        );
+        assertThat(cerrada.fechaCierre()).isNotNull();
+
+        // No session is open any more, and a new one can be opened
+        restSesionCajaMockMvc.perform(get(ENTITY_API_URL + "/abierta")).andExpect(status().isNotFound());
+        restSesionCajaMockMvc
+            .perform(get(ENTITY_API_URL_ID, abierta.id()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.estado").value(EstadoSesionCaja.CERRADA.toString()))
+            .andExpect(jsonPath("$.montoTotal").value(sameNumber(new BigDecimal(17))));
+        assertThat(abrir().id()).isNotEqualTo(abierta.id());
+    }
+
+    @Test
+    void closeSesionCajaTwice() throws Exception {
+        SesionCajaDTO abierta = abrir();
+        SesionCajaDTO cerrada = cerrar(abierta.id());
+
+        // Closing again returns the same report
+        assertThat(cerrar(abierta.id()).fechaCierre()).isEqualTo(cerrada.fechaCierre());
+    }
+
+    @Test
+    void closeNonExistingSesionCaja() throws Exception {
+        restSesionCajaMockMvc.perform(post(ENTITY_API_URL_ID + "/cierre", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getNonExistingSesionCaja() throws Exception {
+        restSesionCajaMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    private SesionCajaDTO abrir() throws Exception {
+        return om.readValue(
+            restSesionCajaMockMvc
+                .perform(post(ENTITY_API_URL))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            SesionCajaDTO.class
+        );
+    }
+
+    private SesionCajaDTO cerrar(Long id) throws Exception {
+        return om.readValue(
+            restSesionCajaMockMvc
+                .perform(post(ENTITY_API_URL_ID + "/cierre", id))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            SesionCajaDTO.class
+        );
+    }
+
+    private void emitir(BigDecimal montoTotal, MetodoPago metodoPago) {
+        Factura factura = new Factura().fechaFactura(FECHA).montoTotal(montoTotal).metodoPago(metodoPago);
+        sesionCajaService.asignarSesion(factura);
+        em.persist(factura);
+        ventaRollupService.actualizar(Map.of(), List.of(factura.getId()));
+    }
+}